@@ -29,7 +29,7 @@ public static void run(final int warmUpRounds, final int benchmarkRounds, final
       System.out.println(SEPARATOR);
 
       System.out.println("Warmup Rounds: " + warmUpRounds);
-      System.out.println("Benchmark Rounds: " + warmUpRounds);
+      System.out.println("Benchmark Rounds: " + benchmarkRounds);
       System.out.println("Operations per Benchmark Round: " + opsPerBenchmarkRound);
       System.out.println(SEPARATOR);
 
@@ -80,10 +80,10 @@ private static void runRound(final String label, final int round, final int tota
 
          if (measureHeapUsage) {
             final var heapBytesPerIteration = (startFreeMem - RUNTIME.freeMemory()) / (float) iterations;
-            System.out.println(String.format(" -> result: %,5d ms/round | %,7.2f ops/s | %,5.2f ms/op | %,6.3f MB/op", durationMS,
+            System.out.println(String.format(" -> result: %,5.0f ms/round | %,7.2f ops/s | %,5.2f ms/op | %,6.3f MB/op", durationMS,
                iterationsPerSecond, durationMSPerIteration, heapBytesPerIteration / 1024 / 1024));
          } else {
-            System.out.println(String.format(" -> result: %,5d ms/round | %,7.2f ops/s | %,5.2f ms/op", durationMS, iterationsPerSecond,
+            System.out.println(String.format(" -> result: %,5.0f ms/round | %,7.2f ops/s | %,5.2f ms/op", durationMS, iterationsPerSecond,
                durationMSPerIteration));
          }
       });
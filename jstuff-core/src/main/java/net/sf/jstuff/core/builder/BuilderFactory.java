@@ -4,23 +4,33 @@
  */
 package net.sf.jstuff.core.builder;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.jdt.annotation.Nullable;
 
 import net.sf.jstuff.core.Strings;
-import net.sf.jstuff.core.collection.tuple.Tuple2;
 import net.sf.jstuff.core.ref.MutableRef;
 import net.sf.jstuff.core.reflection.Annotations;
+import net.sf.jstuff.core.reflection.Constructors;
+import net.sf.jstuff.core.reflection.Fields;
 import net.sf.jstuff.core.reflection.Methods;
 import net.sf.jstuff.core.reflection.Proxies;
 import net.sf.jstuff.core.reflection.Types;
@@ -33,27 +43,62 @@
  */
 public class BuilderFactory<TARGET_CLASS, BLDR_IFACE extends Builder<? extends TARGET_CLASS>> {
 
-   private static final class BuilderImpl implements InvocationHandler {
+   /**
+    * Immutable information about how to build instances of a target class via a builder interface. Computed once per builder
+    * interface/target class combination and shared by all builder instances.
+    */
+   private static final class BuildPlan {
 
-      private final Class<?> builderInterface;
-      private final Class<?> targetClass;
-      private final Object[] constructorArgs;
+      private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-      private Builder.Property propertyDefaults;
-      private final Map<String, Builder.@Nullable Property> propertyConfig = new HashMap<>(2);
-      private final List<Method> onPostBuilds = new ArrayList<>(2);
+      /**
+       * @return a method handle of type <code>(Object)void</code> or <code>null</code> if the method is not accessible
+       */
+      private static @Nullable MethodHandle toPostBuildHandle(final Method method) {
+         if (!method.trySetAccessible())
+            return null;
+         try {
+            return LOOKUP.unreflect(method).asType(MethodType.methodType(void.class, Object.class));
+         } catch (final IllegalAccessException ex) {
+            return null;
+         }
+      }
+
+      final Class<?> builderInterface;
+      final Class<?> targetClass;
+
+      /**
+       * wither/setter methods of the builder interface
+       */
+      final Map<Method, PropertyPlan> properties = new HashMap<>();
+
+      /**
+       * names of the builder methods whose invocation is validated according to their {@link Builder.Property} configuration
+       */
+      final String[] validatedProperties;
 
       /**
-       * ordered list of the values of all wither/setter invocations on the builder instance
+       * bit mask of {@link #validatedProperties} that must be set
        */
-      private final List<Tuple2<String, @Nullable Object[]>> properties = new ArrayList<>();
+      final long[] requiredMask;
 
-      BuilderImpl(final Class<?> builderInterface, final Class<?> targetClass, final Object... constructorArgs) {
+      /**
+       * bit mask of {@link #validatedProperties} that must not be set to <code>null</code>
+       */
+      final long[] nonNullableMask;
+
+      /**
+       * the {@link OnPostBuild} methods in invocation order
+       */
+      final Method[] onPostBuilds;
+      final @Nullable MethodHandle[] onPostBuildHandles;
+
+      BuildPlan(final Class<?> builderInterface, final Class<?> targetClass) {
          this.builderInterface = builderInterface;
          this.targetClass = targetClass;
-         this.constructorArgs = constructorArgs;
 
          // collecting annotation information on builder interface
+         final Map<String, Builder.@Nullable Property> propertyConfig = new TreeMap<>();
          final MutableRef<Builder.@Nullable Property> propertyDefaultsRef = MutableRef.create();
          Types.visit(builderInterface, new DefaultClassVisitor() {
             @Override
@@ -83,9 +128,30 @@ public boolean visit(final Class<?> clazz) {
          });
 
          final var pd = propertyDefaultsRef.get();
-         propertyDefaults = pd == null ? Annotations.getDefaults(Builder.Property.class) : pd;
+         final Builder.Property propertyDefaults = pd == null ? Annotations.getDefaults(Builder.Property.class) : pd;
+
+         validatedProperties = propertyConfig.keySet().toArray(String[]::new);
+         requiredMask = new long[validatedProperties.length + 63 >>> 6];
+         nonNullableMask = new long[requiredMask.length];
+         for (int i = 0; i < validatedProperties.length; i++) {
+            final Builder.Property propConfig = propertyConfig.get(validatedProperties[i]);
+            if (propConfig == null ? propertyDefaults.required() : propConfig.required()) {
+               requiredMask[i >>> 6] |= 1L << i;
+            }
+            if (!(propConfig == null ? propertyDefaults.nullable() : propConfig.nullable())) {
+               nonNullableMask[i >>> 6] |= 1L << i;
+            }
+         }
+
+         // resolving the setters/fields for the wither/setter methods of the builder interface
+         for (final Method method : builderInterface.getMethods()) {
+            if (!Methods.isStatic(method) && !isBuildMethod(method) && method.getReturnType().isAssignableFrom(builderInterface)) {
+               properties.put(method, new PropertyPlan(this, method));
+            }
+         }
 
          // collecting @OnPostBuild methods on target class
+         final List<Method> onPostBuilds = new ArrayList<>(2);
          final Set<String> overridablePostBuildMethodNames = new HashSet<>(2);
          Types.visit(targetClass, new DefaultClassVisitor() {
             @Override
@@ -116,67 +182,85 @@ public boolean isVisitingMethod(final Method method) {
                return false;
             }
          });
+
+         // methods of super classes are invoked first
+         this.onPostBuilds = new Method[onPostBuilds.size()];
+         onPostBuildHandles = new @Nullable MethodHandle[onPostBuilds.size()];
+         for (int i = 0; i < this.onPostBuilds.length; i++) {
+            final Method method = onPostBuilds.get(onPostBuilds.size() - 1 - i);
+            this.onPostBuilds[i] = method;
+            onPostBuildHandles[i] = toPostBuildHandle(method);
+         }
+      }
+
+      boolean isBuildMethod(final Method method) {
+         return "build".equals(method.getName()) //
+               && method.getParameterTypes().length == 0 //
+               && method.getReturnType().isAssignableFrom(targetClass);
+      }
+
+      int indexOfValidatedProperty(final String methodName) {
+         return Arrays.binarySearch(validatedProperties, methodName);
+      }
+   }
+
+   private static final class BuilderImpl implements InvocationHandler {
+
+      private final BuildPlan plan;
+      private final @Nullable Constructor<?> constructor;
+      private final Object[] constructorArgs;
+
+      /**
+       * ordered list of all wither/setter invocations on the builder instance
+       */
+      private PropertyPlan[] invokedProperties = EMPTY_PROPERTY_PLANS;
+      private @Nullable Object[][] invokedPropertyArgs = EMPTY_ARGS;
+      private int invokedPropertiesCount;
+
+      /**
+       * bit masks of the {@link BuildPlan#validatedProperties} that were set / set to <code>null</code>
+       */
+      private long @Nullable [] setMask;
+      private long @Nullable [] nullMask;
+
+      BuilderImpl(final BuildPlan plan, final @Nullable Constructor<?> constructor, final Object[] constructorArgs) {
+         this.plan = plan;
+         this.constructor = constructor;
+         this.constructorArgs = constructorArgs;
       }
 
       protected Object buildTarget() throws Throwable { // CHECKSTYLE:IGNORE .*
+         final var plan = this.plan;
+
+         validate();
+
          // creating target instance
-         final Object target = Types.newInstance(targetClass, constructorArgs);
+         final var constructor = this.constructor;
+         if (constructor == null)
+            throw new IllegalArgumentException("No constructor found in class [" + plan.targetClass.getName()
+                  + "] compatible with give arguments!");
+         final Object target = Constructors.invoke(constructor, constructorArgs);
 
          // setting properties
-         for (final Tuple2<String, @Nullable Object[]> property : properties) {
-            String propName = property.get1();
-            // remove "with" prefix from withSomeProperty(...) named properties
-            if (propName.length() > 4 && propName.startsWith("with")) {
-               propName = Strings.lowerCaseFirstChar(propName.substring(4));
-            }
-            final @Nullable Object[] propArgs = property.get2();
-            final String setterName = "set" + Strings.upperCaseFirstChar(propName);
-            final Method setterMethod = Methods.findAnyCompatible(targetClass, setterName, propArgs);
-            // if no setter found then directly try to set the field
-            if (setterMethod == null) {
-               if (propArgs.length != 1)
-                  throw new IllegalStateException("Method [" + targetClass.getName() + "#" + setterName + "()] not found.");
-               Types.writePropertyIgnoringFinal(target, propName, propArgs[0]);
-            } else {
-               Methods.invoke(target, setterMethod, propArgs);
-            }
-         }
-
-         // validate @Property constraints
-         if (propertyConfig.size() > 0) {
-            for (final var prop : propertyConfig.entrySet()) {
-               final String propName = prop.getKey();
-               final Builder.Property propConfig = prop.getValue();
-
-               boolean wasPropertySet = false;
-               for (final Tuple2<String, @Nullable Object[]> property : properties) {
-                  if (propName.equals(property.get1())) {
-                     final boolean isNullable = propConfig == null ? propertyDefaults.nullable() : propConfig.nullable();
-                     if (!isNullable && property.get2()[0] == null)
-                        throw new IllegalArgumentException(builderInterface.getSimpleName() + "." + propName
-                              + "(...) must not be set to null.");
-                     wasPropertySet = true;
-                  }
-               }
-               if (!wasPropertySet) {
-                  final boolean isRequired = propConfig == null ? propertyDefaults.required() : propConfig.required();
-                  if (isRequired)
-                     throw new IllegalStateException("Setting " + builderInterface.getSimpleName() + "." + propName + "(...) is required.");
-               }
-            }
+         final var invokedProperties = this.invokedProperties;
+         final var invokedPropertyArgs = this.invokedPropertyArgs;
+         for (int i = 0; i < invokedPropertiesCount; i++) {
+            invokedProperties[i].apply(target, invokedPropertyArgs[i]);
          }
 
          // invoke @OnPostBuild methods of the newly instantiated object
-         for (int i = onPostBuilds.size() - 1; i >= 0; i--) {
+         final var onPostBuildHandles = plan.onPostBuildHandles;
+         for (int i = 0; i < onPostBuildHandles.length; i++) {
+            final var handle = onPostBuildHandles[i];
+            if (handle != null) {
+               handle.invokeExact(target);
+               continue;
+            }
             try {
-               Methods.invoke(target, onPostBuilds.get(i), ArrayUtils.EMPTY_OBJECT_ARRAY);
+               Methods.invoke(target, plan.onPostBuilds[i], ArrayUtils.EMPTY_OBJECT_ARRAY);
             } catch (final InvokingMethodFailedException ex) {
-               var cause = ex.getCause();
-               if (cause instanceof InvocationTargetException) {
-                  cause = ex.getCause();
-                  if (cause != null)
-                     throw cause;
-               }
+               if (ex.getCause() instanceof final InvocationTargetException ex2 && ex2.getCause() != null)
+                  throw ex2.getCause();
                throw ex;
             }
          }
@@ -188,26 +272,196 @@ protected Object buildTarget() throws Throwable { // CHECKSTYLE:IGNORE .*
        */
       @Override
       public @Nullable Object invoke(final Object proxy, final Method method, final @Nullable Object @Nullable [] args) throws Throwable {
-         final boolean isBuildMethod = "build".equals(method.getName()) //
-               && method.getParameterTypes().length == 0 //
-               && method.getReturnType().isAssignableFrom(targetClass);
+         final var plan = this.plan;
+         PropertyPlan property = plan.properties.get(method);
+         if (property == null) {
+            if (plan.isBuildMethod(method))
+               return buildTarget();
 
-         if (isBuildMethod)
-            return buildTarget();
+            if ("toString".equals(method.getName()) && method.getParameterTypes().length == 0)
+               return plan.builderInterface.getName() + "@" + hashCode();
 
-         if ("toString".equals(method.getName()) && method.getParameterTypes().length == 0)
-            return builderInterface.getName() + "@" + hashCode();
+            if (!method.getReturnType().isAssignableFrom(plan.builderInterface))
+               throw new UnsupportedOperationException(method.toString());
+
+            property = new PropertyPlan(plan, method);
+         }
 
          // collect values from setter invocations
-         if (method.getReturnType().isAssignableFrom(builderInterface)) {
-            properties.add(new Tuple2<>(method.getName(), args == null ? new @Nullable Object[0] : args));
-            return proxy;
+         final @Nullable Object[] propertyArgs = args == null ? ArrayUtils.EMPTY_OBJECT_ARRAY : args;
+         if (invokedPropertiesCount == invokedProperties.length) {
+            final int newCapacity = Math.max(8, invokedPropertiesCount * 2);
+            invokedProperties = Arrays.copyOf(invokedProperties, newCapacity);
+            invokedPropertyArgs = Arrays.copyOf(invokedPropertyArgs, newCapacity);
          }
-         throw new UnsupportedOperationException(method.toString());
+         invokedProperties[invokedPropertiesCount] = property;
+         invokedPropertyArgs[invokedPropertiesCount] = propertyArgs;
+         invokedPropertiesCount++;
+
+         final int validationIndex = property.validationIndex;
+         if (validationIndex > -1) {
+            var setMask = this.setMask;
+            var nullMask = this.nullMask;
+            if (setMask == null || nullMask == null) {
+               setMask = this.setMask = new long[plan.requiredMask.length];
+               nullMask = this.nullMask = new long[plan.requiredMask.length];
+            }
+            setMask[validationIndex >>> 6] |= 1L << validationIndex;
+            if (propertyArgs.length > 0 && propertyArgs[0] == null) {
+               nullMask[validationIndex >>> 6] |= 1L << validationIndex;
+            }
+         }
+         return proxy;
       }
 
+      /**
+       * validate @Property constraints
+       */
+      private void validate() {
+         final var plan = this.plan;
+         final long[] requiredMask = plan.requiredMask;
+         final long[] nonNullableMask = plan.nonNullableMask;
+         final long[] setMask = this.setMask;
+         final long[] nullMask = this.nullMask;
+         for (int w = 0; w < requiredMask.length; w++) {
+            final long set = setMask == null ? 0 : setMask[w];
+            final long nulls = nullMask == null ? 0 : nullMask[w];
+            final long nullViolations = nonNullableMask[w] & nulls;
+            final long violations = nullViolations | requiredMask[w] & ~set;
+            if (violations != 0) {
+               final int bit = Long.numberOfTrailingZeros(violations);
+               final String propName = plan.validatedProperties[(w << 6) + bit];
+               if ((nullViolations & 1L << bit) != 0)
+                  throw new IllegalArgumentException(plan.builderInterface.getSimpleName() + "." + propName
+                        + "(...) must not be set to null.");
+               throw new IllegalStateException("Setting " + plan.builderInterface.getSimpleName() + "." + propName + "(...) is required.");
+            }
+         }
+      }
    }
 
+   /**
+    * Describes how the arguments of a wither/setter method of the builder interface are applied to the target instance.
+    */
+   private static final class PropertyPlan {
+
+      private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+      /**
+       * @return a method handle of type <code>(Object, Object[])void</code> or <code>null</code> if the property cannot be resolved
+       *         unambiguously based on the declared parameter types of the builder method
+       */
+      private static @Nullable MethodHandle resolveWriter(final Class<?> targetClass, final String propName, final String setterName,
+            final Class<?>[] paramTypes) {
+         try {
+            final Method setter = Methods.findAnyCompatible(targetClass, setterName, paramTypes);
+            if (setter != null) {
+               if (isOverloaded(targetClass, setterName, paramTypes.length) || !setter.trySetAccessible())
+                  return null;
+
+               MethodHandle handle = BuildPlan.LOOKUP.unreflect(setter).asFixedArity();
+               if (Methods.isStatic(setter)) {
+                  handle = MethodHandles.dropArguments(handle, 0, Object.class);
+               }
+               final var genericType = MethodType.genericMethodType(paramTypes.length + 1).changeReturnType(void.class);
+               return handle.asType(genericType).asSpreader(Object[].class, paramTypes.length);
+            }
+
+            // if no setter found then directly set the field
+            if (paramTypes.length != 1 || Methods.findAnySetter(targetClass, propName) != null //
+                  || (paramTypes[0] == Boolean.class || paramTypes[0] == boolean.class) && (propName.startsWith("is") || propName
+                        .startsWith("has")))
+               return null;
+
+            final Field field = Fields.findRecursive(targetClass, propName);
+            if (field == null || Fields.isFinal(field) || Fields.isStatic(field) || !field.trySetAccessible())
+               return null;
+
+            return BuildPlan.LOOKUP.unreflectSetter(field) //
+               .asType(MethodType.methodType(void.class, Object.class, Object.class)) //
+               .asSpreader(Object[].class, 1);
+         } catch (final IllegalAccessException ex) {
+            return null;
+         }
+      }
+
+      private static boolean isOverloaded(final Class<?> clazz, final String methodName, final int paramCount) {
+         final Set<List<Class<?>>> signatures = new HashSet<>(2);
+         Class<?> currentClass = clazz;
+         while (currentClass != null) {
+            for (final Method method : currentClass.getDeclaredMethods()) {
+               if (!Methods.isStatic(method) && method.getParameterCount() == paramCount && methodName.equals(method.getName())) {
+                  signatures.add(Arrays.asList(method.getParameterTypes()));
+               }
+            }
+            currentClass = currentClass.getSuperclass();
+         }
+         return signatures.size() > 1;
+      }
+
+      final Class<?> targetClass;
+      final String propName;
+      final String setterName;
+
+      /**
+       * index in {@link BuildPlan#validatedProperties} or <code>-1</code>
+       */
+      final int validationIndex;
+
+      /**
+       * handle of type <code>(Object, Object[])void</code>, if <code>null</code> the setter/field is resolved based on the runtime
+       * argument types
+       */
+      final @Nullable MethodHandle writer;
+
+      PropertyPlan(final BuildPlan plan, final Method method) {
+         targetClass = plan.targetClass;
+
+         String propName = method.getName();
+         // remove "with" prefix from withSomeProperty(...) named properties
+         if (propName.length() > 4 && propName.startsWith("with")) {
+            propName = Strings.lowerCaseFirstChar(propName.substring(4));
+         }
+         this.propName = propName;
+         setterName = "set" + Strings.upperCaseFirstChar(propName);
+
+         final int idx = plan.indexOfValidatedProperty(method.getName());
+         validationIndex = idx < 0 ? -1 : idx;
+         writer = resolveWriter(targetClass, propName, setterName, method.getParameterTypes());
+      }
+
+      void apply(final Object target, final @Nullable Object[] args) throws Throwable { // CHECKSTYLE:IGNORE .*
+         final var writer = this.writer;
+         if (writer != null) {
+            writer.invokeExact(target, args);
+            return;
+         }
+
+         final Method setterMethod = Methods.findAnyCompatible(targetClass, setterName, args);
+         // if no setter found then directly try to set the field
+         if (setterMethod == null) {
+            if (args.length != 1)
+               throw new IllegalStateException("Method [" + targetClass.getName() + "#" + setterName + "()] not found.");
+            Types.writePropertyIgnoringFinal(target, propName, args[0]);
+         } else {
+            Methods.invoke(target, setterMethod, args);
+         }
+      }
+   }
+
+   private static final PropertyPlan[] EMPTY_PROPERTY_PLANS = {};
+   private static final @Nullable Object[][] EMPTY_ARGS = {};
+
+   /**
+    * build plans by target class by builder interface
+    */
+   private static final ClassValue<ConcurrentMap<Class<?>, BuildPlan>> BUILD_PLANS = new ClassValue<>() {
+      @Override
+      protected ConcurrentMap<Class<?>, BuildPlan> computeValue(final Class<?> builderInterface) {
+         return new ConcurrentHashMap<>(2);
+      }
+   };
+
    /**
     * @param targetClass if <code>null</code> the builder factory tries to extract the generic argument type information from the
     *           builderInterface class
@@ -226,6 +480,7 @@ protected Object buildTarget() throws Throwable { // CHECKSTYLE:IGNORE .*
    private final Class<TARGET_CLASS> targetClass;
 
    private final Object[] constructorArgs;
+   private final @Nullable Constructor<TARGET_CLASS> constructor;
 
    @SuppressWarnings("unchecked")
    protected BuilderFactory(final Class<BLDR_IFACE> builderInterface, @Nullable Class<TARGET_CLASS> targetClass,
@@ -248,9 +503,12 @@ protected BuilderFactory(final Class<BLDR_IFACE> builderInterface, @Nullable Cla
          throw new IllegalArgumentException("[targetClass] '" + this.targetClass.getName() + "' is abstract.");
 
       this.constructorArgs = constructorArgs;
+      constructor = Constructors.findCompatible(this.targetClass, constructorArgs);
    }
 
    public BLDR_IFACE create() {
-      return Proxies.create(new BuilderImpl(builderInterface, targetClass, constructorArgs), builderInterface);
+      final BuildPlan plan = BUILD_PLANS.get(builderInterface) //
+         .computeIfAbsent(targetClass, clazz -> new BuildPlan(builderInterface, clazz));
+      return Proxies.create(new BuilderImpl(plan, constructor, constructorArgs), builderInterface);
    }
 }
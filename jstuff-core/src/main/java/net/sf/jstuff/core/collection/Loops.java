@@ -10,8 +10,10 @@
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.IntConsumer;
@@ -24,14 +26,121 @@
 import net.sf.jstuff.core.functional.ByteConsumer;
 import net.sf.jstuff.core.functional.CharConsumer;
 import net.sf.jstuff.core.functional.ThrowingConsumer;
+import net.sf.jstuff.core.validation.Args;
 
 /**
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public abstract class Loops {
 
+   /**
+    * Processes the elements of an iterator with a fixed number of worker tasks that lazily pull batches of elements from the iterator.
+    */
+   private static final class BoundedConcurrentLoop<T> {
+      private final Iterator<T> it;
+      private final ObjIntConsumer<T> consumer;
+      private final int batchSize;
+      private final CompletableFuture<@Nullable Void> result = new CompletableFuture<>();
+      private final AtomicInteger activeWorkers = new AtomicInteger();
+      private int nextIndex;
+
+      BoundedConcurrentLoop(final Iterator<T> it, final ObjIntConsumer<T> consumer, final int batchSize) {
+         this.it = it;
+         this.consumer = consumer;
+         this.batchSize = batchSize;
+      }
+
+      /**
+       * @return the index of the first element of the batch or -1 if no more elements are available
+       */
+      private int nextBatch(final Object[] batch) {
+         synchronized (it) {
+            if (result.isDone() || !it.hasNext())
+               return -1;
+            final int firstIndex = nextIndex;
+            int count = 0;
+            while (count < batchSize && it.hasNext()) {
+               batch[count++] = it.next();
+            }
+            if (count < batchSize) {
+               batch[count] = batch; // end marker
+            }
+            nextIndex += count;
+            return firstIndex;
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private void runWorker() {
+         final var batch = new Object[batchSize];
+         try {
+            int firstIndex;
+            while ((firstIndex = nextBatch(batch)) > -1) {
+               for (int i = 0; i < batchSize; i++) {
+                  final Object elem = batch[i];
+                  if (elem == batch || result.isDone()) {
+                     break;
+                  }
+                  batch[i] = null;
+                  consumer.accept((T) elem, firstIndex + i);
+               }
+            }
+         } catch (final Throwable ex) { // CHECKSTYLE:IGNORE IllegalCatch
+            result.completeExceptionally(ex);
+         } finally {
+            if (activeWorkers.decrementAndGet() == 0) {
+               result.complete(null);
+            }
+         }
+      }
+
+      CompletableFuture<@Nullable Void> start(final Executor workers, final int parallelism) {
+         activeWorkers.set(parallelism);
+         for (int i = 0; i < parallelism; i++) {
+            try {
+               workers.execute(this::runWorker);
+            } catch (final RuntimeException ex) {
+               result.completeExceptionally(ex);
+               activeWorkers.addAndGet(i - parallelism);
+               if (activeWorkers.get() == 0) {
+                  result.complete(null);
+               }
+               break;
+            }
+         }
+         return result;
+      }
+   }
+
    private static final CompletableFuture<?> DONE = CompletableFuture.completedFuture(null);
 
+   /**
+    * Processes the elements of the given iterator concurrently using a fixed number of worker tasks.
+    * <p>
+    * In contrast to {@link #forEachWithIndexConcurrent(Iterator, ExecutorService, ObjIntConsumer)} no task and future is created per
+    * element and the iterator is not consumed upfront. Instead <code>parallelism</code> worker tasks lazily pull batches of up to
+    * <code>batchSize</code> elements from the iterator, i.e. at most <code>parallelism * batchSize</code> elements are in flight at any
+    * time and idle workers automatically pick up the remaining work.
+    * <p>
+    * The first exception thrown by the consumer completes the returned future exceptionally and stops all workers from processing further
+    * elements. Cancelling the returned future stops the iteration as well.
+    *
+    * @param workers the executor to run the worker tasks, by default {@link ForkJoinPool#commonPool()}. On Java 21+ an executor
+    *           creating virtual threads can be used.
+    * @param parallelism the maximum number of elements processed concurrently
+    * @param batchSize the number of elements a worker pulls from the iterator at once
+    */
+   public static <T> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullable Iterator<T> it, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable ObjIntConsumer<T> consumer) {
+      Args.greaterThan("parallelism", parallelism, 0);
+      Args.greaterThan("batchSize", batchSize, 0);
+      if (it == null || consumer == null || !it.hasNext())
+         return DONE;
+
+      return new BoundedConcurrentLoop<>(it, consumer, batchSize) //
+         .start(workers == null ? ForkJoinPool.commonPool() : workers, parallelism);
+   }
+
    /* ********************
     * Enumerations
     * ********************/
@@ -94,6 +203,28 @@ public static <T> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullabl
       return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
    }
 
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <T> CompletableFuture<?> forEachConcurrent(final @Nullable Enumeration<T> en, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable Consumer<T> consumer) {
+      if (en == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(en.asIterator(), workers, parallelism, batchSize, (elem, idx) -> consumer.accept(elem));
+   }
+
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <T> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullable Enumeration<T> en, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable ObjIntConsumer<T> consumer) {
+      if (en == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(en.asIterator(), workers, parallelism, batchSize, consumer);
+   }
+
    /* ********************
     * Iterables
     * ********************/
@@ -141,6 +272,28 @@ public static <T> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullabl
       return forEachWithIndexConcurrent(it.iterator(), workers, consumer);
    }
 
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <T> CompletableFuture<?> forEachConcurrent(final @Nullable Iterable<T> it, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable Consumer<T> consumer) {
+      if (it == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(it.iterator(), workers, parallelism, batchSize, (elem, idx) -> consumer.accept(elem));
+   }
+
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <T> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullable Iterable<T> it, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable ObjIntConsumer<T> consumer) {
+      if (it == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(it.iterator(), workers, parallelism, batchSize, consumer);
+   }
+
    /* ********************
     * Iterators
     * ********************/
@@ -203,6 +356,17 @@ public static <T> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullabl
       return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
    }
 
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <T> CompletableFuture<?> forEachConcurrent(final @Nullable Iterator<T> it, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable Consumer<T> consumer) {
+      if (it == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(it, workers, parallelism, batchSize, (elem, idx) -> consumer.accept(elem));
+   }
+
    /* ********************
     * Maps
     * ********************/
@@ -280,6 +444,30 @@ public static <K, V> CompletableFuture<?> forEachWithIndexConcurrent(final @Null
       return forEachWithIndexConcurrent(map.entrySet(), workers, consumer);
    }
 
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <K, V> CompletableFuture<?> forEachConcurrent(final @Nullable Map<K, V> map, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable BiConsumer<K, V> consumer) {
+      if (map == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(map.entrySet().iterator(), workers, parallelism, batchSize, (e, idx) -> consumer.accept(e.getKey(),
+         e.getValue()));
+   }
+
+   /**
+    * @see #forEachWithIndexConcurrent(Iterator, Executor, int, int, ObjIntConsumer)
+    */
+   public static <K, V> CompletableFuture<?> forEachWithIndexConcurrent(final @Nullable Map<K, V> map, final @Nullable Executor workers,
+         final int parallelism, final int batchSize, final @Nullable BiObjIntConsumer<K, V> consumer) {
+      if (map == null || consumer == null)
+         return DONE;
+
+      return forEachWithIndexConcurrent(map.entrySet().iterator(), workers, parallelism, batchSize, (e, idx) -> consumer.accept(e
+         .getKey(), e.getValue(), idx));
+   }
+
    /* ********************
     * Object arrays
     * ********************/
@@ -31,7 +31,7 @@ public class IntArrayList extends AbstractList<Integer> implements IntList, Clon
    private final boolean mutable;
 
    public IntArrayList() {
-      this(new int[10], false, true);
+      this(new int[10], 0, true);
    }
 
    public IntArrayList(final int[] initialValues, final boolean copyArray) {
@@ -39,12 +39,12 @@ public IntArrayList(final int[] initialValues, final boolean copyArray) {
    }
 
    public IntArrayList(final int[] initialValues, final boolean copyArray, final boolean mutable) {
-      size = initialValues.length;
-      if (copyArray) {
-         values = Arrays.copyOf(initialValues, size);
-      } else {
-         values = initialValues;
-      }
+      this(copyArray ? Arrays.copyOf(initialValues, initialValues.length) : initialValues, initialValues.length, mutable);
+   }
+
+   private IntArrayList(final int[] values, final int size, final boolean mutable) {
+      this.values = values;
+      this.size = size;
       this.mutable = mutable;
    }
 
@@ -207,7 +207,7 @@ public boolean removeIf(final IntPredicate filter) {
 
       final var temp = new IntArrayList();
       for (int i = 0; i < size; i++) {
-         if (filter.test(values[i])) {
+         if (!filter.test(values[i])) {
             temp.add(values[i]);
          }
       }
@@ -249,7 +249,7 @@ public boolean removeValue(final int value) {
    }
 
    private void resize() {
-      values = Arrays.copyOf(values, (int) (size * 1.6F));
+      values = Arrays.copyOf(values, Math.max(size + 1, (int) (size * 1.6F)));
    }
 
    @Override
@@ -0,0 +1,410 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.concurrent;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.logging.Logger;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * A timer based on a hashed timing wheel as described by George Varghese and Tony Lauck in
+ * <a href="http://www.cs.columbia.edu/~nahum/w6998/papers/sosp87-timing-wheels.pdf">Hashed and Hierarchical Timing Wheels</a>.
+ * <p>
+ * Compared to a {@link java.util.concurrent.ScheduledExecutorService}, whose delay queue is a binary heap, scheduling and cancelling a
+ * task is O(1) and no per-task {@link java.util.concurrent.ScheduledFuture} is created. This makes the timer well suited for very large
+ * numbers of short-lived timeouts that are frequently rescheduled or cancelled, e.g. debouncing per entity.
+ * <p>
+ * All timeouts are managed by a single worker thread that is started lazily. Expired tasks are executed on the worker thread unless a
+ * separate task executor is configured. Timeouts are approximate: a task is run within one tick after its delay elapsed.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@ThreadSafe
+public class HashedWheelTimer implements AutoCloseable {
+
+   /**
+    * Handle of a task scheduled with a {@link HashedWheelTimer}.
+    */
+   public interface Timeout {
+
+      /**
+       * Cancels the scheduled task if it was not yet executed.
+       *
+       * @return true if the task was cancelled, false if it was already cancelled or executed
+       */
+      boolean cancel();
+
+      boolean isCancelled();
+
+      boolean isExpired();
+   }
+
+   private static final class Bucket {
+      @Nullable
+      TimeoutEntry head;
+      @Nullable
+      TimeoutEntry tail;
+
+      void add(final TimeoutEntry entry) {
+         entry.bucket = this;
+         final var tail = this.tail;
+         if (tail == null) {
+            head = entry;
+         } else {
+            tail.next = entry;
+            entry.prev = tail;
+         }
+         this.tail = entry;
+      }
+
+      void expireTimeouts(final long deadline) {
+         var entry = head;
+         while (entry != null) {
+            final var next = entry.next;
+            if (entry.remainingRounds <= 0) {
+               remove(entry);
+               if (entry.deadline <= deadline) {
+                  entry.expire();
+               } else {
+                  // should not happen, entry was placed into the wrong bucket
+                  entry.timer.scheduledTimeouts.incrementAndGet();
+                  entry.timer.pendingTimeouts.add(entry);
+               }
+            } else if (entry.isCancelled()) {
+               remove(entry);
+            } else {
+               entry.remainingRounds--;
+            }
+            entry = next;
+         }
+      }
+
+      void remove(final TimeoutEntry entry) {
+         final var prev = entry.prev;
+         final var next = entry.next;
+         if (prev != null) {
+            prev.next = next;
+         }
+         if (next != null) {
+            next.prev = prev;
+         }
+         if (entry == head) {
+            head = next;
+         }
+         if (entry == tail) {
+            tail = prev;
+         }
+         entry.prev = null;
+         entry.next = null;
+         entry.bucket = null;
+         entry.timer.scheduledTimeouts.decrementAndGet();
+      }
+   }
+
+   private static final class TimeoutEntry implements Timeout {
+      private static final int STATE_PENDING = 0;
+      private static final int STATE_CANCELLED = 1;
+      private static final int STATE_EXPIRED = 2;
+
+      private static final AtomicIntegerFieldUpdater<TimeoutEntry> STATE = AtomicIntegerFieldUpdater.newUpdater(TimeoutEntry.class,
+         "state");
+
+      final HashedWheelTimer timer;
+      final Runnable task;
+
+      /**
+       * nano time relative to {@link HashedWheelTimer#startTime}
+       */
+      final long deadline;
+
+      private volatile int state = STATE_PENDING;
+
+      // the following fields are only accessed by the worker thread
+      long remainingRounds;
+      @Nullable
+      TimeoutEntry prev;
+      @Nullable
+      TimeoutEntry next;
+      @Nullable
+      Bucket bucket;
+
+      TimeoutEntry(final HashedWheelTimer timer, final Runnable task, final long deadline) {
+         this.timer = timer;
+         this.task = task;
+         this.deadline = deadline;
+      }
+
+      @Override
+      public boolean cancel() {
+         if (!STATE.compareAndSet(this, STATE_PENDING, STATE_CANCELLED))
+            return false;
+         timer.cancelledTimeouts.add(this);
+         return true;
+      }
+
+      void expire() {
+         if (!STATE.compareAndSet(this, STATE_PENDING, STATE_EXPIRED))
+            return;
+         try {
+            timer.taskExecutor.execute(this::runTask);
+         } catch (final RuntimeException ex) {
+            LOG.error(ex, "Failed to execute task %s", task);
+         }
+      }
+
+      @Override
+      public boolean isCancelled() {
+         return state == STATE_CANCELLED;
+      }
+
+      @Override
+      public boolean isExpired() {
+         return state == STATE_EXPIRED;
+      }
+
+      private void runTask() {
+         try {
+            task.run();
+         } catch (final RuntimeException ex) {
+            LOG.error(ex, "Task %s failed", task);
+         }
+      }
+   }
+
+   private static final Logger LOG = Logger.create();
+
+   private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+   private static final int WORKER_STATE_INIT = 0;
+   private static final int WORKER_STATE_STARTED = 1;
+   private static final int WORKER_STATE_CLOSED = 2;
+
+   /**
+    * max number of newly scheduled timeouts transferred to the wheel per tick, to avoid starving the wheel
+    */
+   private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+   private final Bucket[] wheel;
+   private final int mask;
+   private final long tickDurationNS;
+   private final Executor taskExecutor;
+   private final Thread workerThread;
+   private final AtomicInteger workerState = new AtomicInteger(WORKER_STATE_INIT);
+   private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+   private volatile long startTime;
+
+   private final Queue<TimeoutEntry> pendingTimeouts = new ConcurrentLinkedQueue<>();
+   private final Queue<TimeoutEntry> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+   private final AtomicLong scheduledTimeouts = new AtomicLong();
+
+   /**
+    * Creates a timer with a tick duration of 10ms and 512 ticks per wheel that executes tasks on its worker thread.
+    */
+   public HashedWheelTimer() {
+      this(Duration.ofMillis(10));
+   }
+
+   /**
+    * Creates a timer with the given tick duration and 512 ticks per wheel that executes tasks on its worker thread.
+    */
+   public HashedWheelTimer(final Duration tickDuration) {
+      this(tickDuration, 512, null, null);
+   }
+
+   /**
+    * @param tickDuration the timer's resolution, i.e. the duration between two ticks
+    * @param ticksPerWheel the number of buckets of the wheel, will be rounded up to the next power of two
+    * @param threadFactory used to create the worker thread, by default a daemon thread is created
+    * @param taskExecutor used to execute expired tasks, by default the tasks are executed on the worker thread
+    */
+   public HashedWheelTimer(final Duration tickDuration, final int ticksPerWheel, final @Nullable ThreadFactory threadFactory,
+         final @Nullable Executor taskExecutor) {
+      Args.notNull("tickDuration", tickDuration);
+      Args.inRange("ticksPerWheel", ticksPerWheel, 1, 1 << 30);
+
+      tickDurationNS = Math.max(TimeUnit.MILLISECONDS.toNanos(1), tickDuration.toNanos());
+
+      int wheelSize = 1;
+      while (wheelSize < ticksPerWheel) {
+         wheelSize <<= 1;
+      }
+      wheel = new Bucket[wheelSize];
+      for (int i = 0; i < wheel.length; i++) {
+         wheel[i] = new Bucket();
+      }
+      mask = wheel.length - 1;
+
+      this.taskExecutor = taskExecutor == null ? Runnable::run : taskExecutor;
+      workerThread = (threadFactory == null //
+            ? BasicThreadFactory.builder().daemon(true).priority(Thread.NORM_PRIORITY).namingPattern("HashedWheelTimer-" + THREAD_COUNTER
+               .incrementAndGet()).build()
+            : threadFactory).newThread(this::runWorker);
+   }
+
+   /**
+    * Stops the worker thread. Pending timeouts are discarded.
+    */
+   @Override
+   public void close() {
+      if (workerState.getAndSet(WORKER_STATE_CLOSED) == WORKER_STATE_STARTED) {
+         workerThread.interrupt();
+      }
+   }
+
+   /**
+    * @return the number of scheduled timeouts that are neither expired nor cancelled yet
+    */
+   public long getPendingTimeouts() {
+      return scheduledTimeouts.get();
+   }
+
+   public Duration getTickDuration() {
+      return Duration.ofNanos(tickDurationNS);
+   }
+
+   public int getTicksPerWheel() {
+      return wheel.length;
+   }
+
+   private void processCancelledTimeouts() {
+      TimeoutEntry entry;
+      while ((entry = cancelledTimeouts.poll()) != null) {
+         final var bucket = entry.bucket;
+         if (bucket != null) {
+            bucket.remove(entry);
+         }
+      }
+   }
+
+   private void runWorker() {
+      startTime = System.nanoTime();
+      if (startTime == 0) {
+         // 0 is used as "not initialized" marker
+         startTime = 1;
+      }
+      startTimeInitialized.countDown();
+
+      long tick = 0;
+      while (workerState.get() == WORKER_STATE_STARTED) {
+         final long deadline = waitForNextTick(tick);
+         if (deadline < 0) {
+            break;
+         }
+         processCancelledTimeouts();
+         transferPendingTimeouts(tick);
+         wheel[(int) (tick & mask)].expireTimeouts(deadline);
+         tick++;
+      }
+
+      pendingTimeouts.clear();
+      cancelledTimeouts.clear();
+   }
+
+   /**
+    * Schedules the given task for execution after the given delay.
+    *
+    * @throws IllegalStateException if the timer was closed
+    */
+   public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+      Args.notNull("task", task);
+      Args.notNull("unit", unit);
+
+      start();
+
+      long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+      if (delay > 0 && deadline < 0) {
+         // guard against overflow
+         deadline = Long.MAX_VALUE;
+      }
+      final var entry = new TimeoutEntry(this, task, deadline);
+      scheduledTimeouts.incrementAndGet();
+      pendingTimeouts.add(entry);
+      return entry;
+   }
+
+   /**
+    * Schedules the given task for execution after the given delay.
+    *
+    * @throws IllegalStateException if the timer was closed
+    */
+   public Timeout schedule(final Runnable task, final Duration delay) {
+      return schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+   }
+
+   private void start() {
+      switch (workerState.get()) {
+         case WORKER_STATE_INIT:
+            if (workerState.compareAndSet(WORKER_STATE_INIT, WORKER_STATE_STARTED)) {
+               workerThread.start();
+            }
+            break;
+         case WORKER_STATE_STARTED:
+            break;
+         default:
+            throw new IllegalStateException("Timer is closed.");
+      }
+
+      while (startTime == 0) {
+         try {
+            startTimeInitialized.await();
+         } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeInterruptedException(ex);
+         }
+      }
+   }
+
+   private void transferPendingTimeouts(final long tick) {
+      for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+         final var entry = pendingTimeouts.poll();
+         if (entry == null) {
+            break;
+         }
+         if (entry.isCancelled()) {
+            scheduledTimeouts.decrementAndGet();
+            continue;
+         }
+
+         final long expirationTick = entry.deadline / tickDurationNS;
+         entry.remainingRounds = (expirationTick - tick) / wheel.length;
+         // if the deadline already passed, place the entry into the current bucket
+         final long targetTick = Math.max(expirationTick, tick);
+         wheel[(int) (targetTick & mask)].add(entry);
+      }
+   }
+
+   /**
+    * @return the current time relative to {@link #startTime} or -1 if the timer was closed
+    */
+   private long waitForNextTick(final long tick) {
+      final long deadline = tickDurationNS * (tick + 1);
+      while (true) {
+         final long currentTime = System.nanoTime() - startTime;
+         final long sleepMS = (deadline - currentTime + 999_999) / 1_000_000;
+         if (sleepMS <= 0)
+            return currentTime;
+
+         try {
+            Thread.sleep(sleepMS);
+         } catch (final InterruptedException ex) {
+            if (workerState.get() == WORKER_STATE_CLOSED)
+               return -1;
+         }
+      }
+   }
+}
@@ -0,0 +1,334 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.concurrent.queue;
+
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.collection.ArrayUtils;
+import net.sf.jstuff.core.collection.primitive.IntArrayList;
+import net.sf.jstuff.core.collection.primitive.IntList;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * A lock-free unbounded queue of sorted unique primitive int values.
+ * <p>
+ * Values are stored as bits in fixed size bitmap pages of {@value #PAGE_SIZE} values each. Pages are kept in a
+ * {@link ConcurrentSkipListMap} ordered by value range, so densely populated ranges share a single page while sparse values only
+ * allocate the pages actually used. Pages are released again as soon as they become empty.
+ * <p>
+ * In contrast to {@link SortedUniqueIntQueue} no global lock is used: {@link #offer(int)}, {@link #poll()}, {@link #peek()} and
+ * {@link #contains(int)} operate on the bitmap words via CAS. A lock is only acquired by threads that need to block in
+ * {@link #take()}/{@link #poll(long, TimeUnit)} on an empty queue and by offering threads if such waiters exist.
+ * <p>
+ * {@link #size()}, {@link #isEmpty()}, {@link #toArray()} and {@link #toString()} are weakly consistent while the queue is
+ * concurrently modified.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public class ConcurrentSortedUniqueIntQueue {
+
+   private static final class Page {
+      /**
+       * number of values set or currently being set in this page, {@link #RETIRED} if the page was removed from the page map
+       */
+      final AtomicInteger population = new AtomicInteger();
+      final AtomicLongArray words = new AtomicLongArray(WORDS_PER_PAGE);
+   }
+
+   private static final int PAGE_SHIFT = 10;
+   private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+   private static final int PAGE_MASK = PAGE_SIZE - 1;
+   private static final int WORDS_PER_PAGE = PAGE_SIZE >> 6;
+
+   private static final int RETIRED = Integer.MIN_VALUE;
+
+   private static int toValue(final int pageKey, final int wordIndex, final int bitIndex) {
+      return pageKey << PAGE_SHIFT | wordIndex << 6 | bitIndex;
+   }
+
+   private final ConcurrentSkipListMap<Integer, Page> pages = new ConcurrentSkipListMap<>();
+   private final AtomicInteger count = new AtomicInteger();
+
+   private final AtomicInteger waiters = new AtomicInteger();
+   private final ReentrantLock waitLock = new ReentrantLock();
+   private final Condition notEmpty = waitLock.newCondition();
+
+   /**
+    * Blocks until a value is offered or the given time elapsed. If {@link #count} is not zero, a concurrent offer or poll has already
+    * updated the page bits but not yet the count, so the thread only yields instead of busy-spinning on {@link #poll()}.
+    */
+   private void awaitNotEmpty(final long waitForNS) throws InterruptedException {
+      waitLock.lockInterruptibly();
+      try {
+         waiters.incrementAndGet();
+         try {
+            if (count.get() == 0) {
+               notEmpty.awaitNanos(waitForNS);
+               return;
+            }
+         } finally {
+            waiters.decrementAndGet();
+         }
+      } finally {
+         waitLock.unlock();
+      }
+      Thread.yield();
+   }
+
+   public void clear() {
+      for (final Entry<Integer, Page> entry : pages.entrySet()) {
+         final Page page = entry.getValue();
+         for (int i = 0; i < WORDS_PER_PAGE; i++) {
+            final int cleared = Long.bitCount(page.words.getAndSet(i, 0));
+            if (cleared > 0) {
+               count.addAndGet(-cleared);
+               release(entry.getKey(), page, cleared);
+            }
+         }
+      }
+   }
+
+   public boolean contains(final int searchFor) {
+      final Page page = pages.get(searchFor >> PAGE_SHIFT);
+      if (page == null)
+         return false;
+      final int bit = searchFor & PAGE_MASK;
+      return (page.words.get(bit >>> 6) & 1L << bit) != 0;
+   }
+
+   /**
+    * Removes up to <code>maxElements</code> values from the head of the queue and adds them in ascending order to the given list.
+    * <p>
+    * Values are claimed a bitmap word (up to 64 values) at a time.
+    *
+    * @return the number of values transferred
+    */
+   public int drainTo(final IntList target, final int maxElements) {
+      Args.notNull("target", target);
+      if (maxElements <= 0)
+         return 0;
+
+      int drained = 0;
+      for (final Entry<Integer, Page> entry : pages.entrySet()) {
+         final int pageKey = entry.getKey();
+         final Page page = entry.getValue();
+         for (int i = 0; i < WORDS_PER_PAGE && drained < maxElements; i++) {
+            long word;
+            long claimed;
+            do {
+               word = page.words.get(i);
+               if (word == 0) {
+                  claimed = 0;
+                  break;
+               }
+               claimed = word;
+               // only claim the lowest bits if the word holds more values than requested
+               for (int excess = Long.bitCount(word) - (maxElements - drained); excess > 0; excess--) {
+                  claimed &= ~Long.highestOneBit(claimed);
+               }
+            }
+            while (!page.words.compareAndSet(i, word, word & ~claimed));
+
+            if (claimed != 0) {
+               final int claimedCount = Long.bitCount(claimed);
+               count.addAndGet(-claimedCount);
+               while (claimed != 0) {
+                  target.add(toValue(pageKey, i, Long.numberOfTrailingZeros(claimed)));
+                  claimed &= claimed - 1;
+               }
+               drained += claimedCount;
+               release(pageKey, page, claimedCount);
+            }
+         }
+         if (drained >= maxElements) {
+            break;
+         }
+      }
+      return drained;
+   }
+
+   public boolean isEmpty() {
+      return count.get() == 0;
+   }
+
+   public boolean isFirstElement(final int value) {
+      final Integer first = peek();
+      return first != null && first == value;
+   }
+
+   public boolean isNotEmpty() {
+      return count.get() != 0;
+   }
+
+   /**
+    * Inserts the given value into the queue in sorted order.
+    *
+    * @return true if the value was inserted, false if it was already present.
+    */
+   public boolean offer(final int valueToAdd) {
+      final Integer pageKey = valueToAdd >> PAGE_SHIFT;
+      final int bit = valueToAdd & PAGE_MASK;
+      final int wordIndex = bit >>> 6;
+      final long mask = 1L << bit;
+
+      while (true) {
+         final Page page = pages.computeIfAbsent(pageKey, k -> new Page());
+
+         // reserve a slot in the page so it cannot be retired while we set the bit
+         final int population = page.population.get();
+         if (population == RETIRED) {
+            pages.remove(pageKey, page);
+            continue;
+         }
+         if (!page.population.compareAndSet(population, population + 1)) {
+            continue;
+         }
+
+         final long word = page.words.getAndAccumulate(wordIndex, mask, (w, m) -> w | m);
+         if ((word & mask) != 0) {
+            release(pageKey, page, 1);
+            return false;
+         }
+
+         count.incrementAndGet();
+         if (waiters.get() > 0) {
+            waitLock.lock();
+            try {
+               notEmpty.signal();
+            } finally {
+               waitLock.unlock();
+            }
+         }
+         return true;
+      }
+   }
+
+   public @Nullable Integer peek() {
+      for (final Entry<Integer, Page> entry : pages.entrySet()) {
+         final Page page = entry.getValue();
+         for (int i = 0; i < WORDS_PER_PAGE; i++) {
+            final long word = page.words.get(i);
+            if (word != 0)
+               return toValue(entry.getKey(), i, Long.numberOfTrailingZeros(word));
+         }
+      }
+      return null;
+   }
+
+   public int peek(final int valueIfEmpty) {
+      final Integer value = peek();
+      return value == null ? valueIfEmpty : value;
+   }
+
+   public @Nullable Integer poll() {
+      for (final Entry<Integer, Page> entry : pages.entrySet()) {
+         final int pageKey = entry.getKey();
+         final Page page = entry.getValue();
+         for (int i = 0; i < WORDS_PER_PAGE; i++) {
+            long word;
+            while ((word = page.words.get(i)) != 0) {
+               final long lowestBit = word & -word;
+               if (page.words.compareAndSet(i, word, word & ~lowestBit)) {
+                  count.decrementAndGet();
+                  release(pageKey, page, 1);
+                  return toValue(pageKey, i, Long.numberOfTrailingZeros(lowestBit));
+               }
+            }
+         }
+      }
+      return null;
+   }
+
+   public int poll(final int valueIfEmpty) {
+      final Integer value = poll();
+      return value == null ? valueIfEmpty : value;
+   }
+
+   /**
+    * Retrieves and removes the head of the queue, waiting up to the specified timeout if necessary.
+    */
+   public @Nullable Integer poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+      Integer value = poll();
+      if (value != null)
+         return value;
+
+      final long deadline = System.nanoTime() + unit.toNanos(timeout);
+      long waitForNS;
+      while ((waitForNS = deadline - System.nanoTime()) > 0) {
+         awaitNotEmpty(waitForNS);
+         value = poll();
+         if (value != null)
+            return value;
+      }
+      return null;
+   }
+
+   /**
+    * Decrements the population of the given page by the given number of values and removes the page from the page map once it
+    * became empty.
+    */
+   private void release(final Integer pageKey, final Page page, final int values) {
+      if (page.population.addAndGet(-values) == 0 && page.population.compareAndSet(0, RETIRED)) {
+         pages.remove(pageKey, page);
+      }
+   }
+
+   public int size() {
+      return Math.max(0, count.get());
+   }
+
+   /**
+    * Retrieves and removes the head of the queue, waiting if necessary until a value becomes available.
+    * <p>
+    * No global lock is held while the queue is non-empty.
+    */
+   public int take() throws InterruptedException {
+      while (true) {
+         final Integer value = poll();
+         if (value != null)
+            return value;
+
+         awaitNotEmpty(Long.MAX_VALUE);
+      }
+   }
+
+   public int[] toArray() {
+      final var values = new IntArrayList();
+      for (final Entry<Integer, Page> entry : pages.entrySet()) {
+         final Page page = entry.getValue();
+         for (int i = 0; i < WORDS_PER_PAGE; i++) {
+            long word = page.words.get(i);
+            while (word != 0) {
+               values.add(toValue(entry.getKey(), i, Long.numberOfTrailingZeros(word)));
+               word &= word - 1;
+            }
+         }
+      }
+      return values.isEmpty() ? ArrayUtils.EMPTY_INT_ARRAY : values.toValueArray();
+   }
+
+   @Override
+   public String toString() {
+      final int[] values = toArray();
+      if (values.length == 0)
+         return "[]";
+      final var sb = new StringBuilder("[");
+      for (int i = 0; i < values.length; i++) {
+         if (i > 0) {
+            sb.append(',');
+         }
+         sb.append(values[i]);
+      }
+      return sb.append(']').toString();
+   }
+}
@@ -0,0 +1,465 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.concurrent.queue;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * An unbounded blocking priority queue that does not accept duplicate elements.
+ * <p>
+ * In contrast to {@link UniquePriorityBlockingQueue}, which performs a linear {@link #contains(Object)} scan on every offer, this
+ * queue maintains a hash index of all queued elements next to its binary heap. This results in:
+ * <ul>
+ * <li>O(1) {@link #contains(Object)}
+ * <li>O(log n) {@link #offer(Object)}, {@link #poll()} and {@link #remove(Object)}
+ * <li>O(log n) priority updates of already queued elements via {@link #offerOrUpdate(Object)} and {@link #updatePriority(Object)}
+ * </ul>
+ * {@link #drainTo(Collection, int)} transfers multiple elements with a single lock acquisition.
+ * <p>
+ * Elements must implement {@link Object#hashCode()} and {@link Object#equals(Object)} consistently and their hash code must not
+ * change while they are queued.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public class IndexedUniquePriorityBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+   private static final class Node<E> {
+      E element;
+      int heapIndex;
+
+      Node(final E element, final int heapIndex) {
+         this.element = element;
+         this.heapIndex = heapIndex;
+      }
+   }
+
+   private final class Itr implements Iterator<E> {
+      private final Object[] snapshot;
+      private int cursor;
+      private @Nullable E lastReturned;
+
+      Itr(final Object[] snapshot) {
+         this.snapshot = snapshot;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return cursor < snapshot.length;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E next() {
+         if (cursor >= snapshot.length)
+            throw new NoSuchElementException();
+         final var next = (E) snapshot[cursor++];
+         lastReturned = next;
+         return next;
+      }
+
+      @Override
+      public void remove() {
+         final var lastReturned = this.lastReturned;
+         if (lastReturned == null)
+            throw new IllegalStateException();
+         IndexedUniquePriorityBlockingQueue.this.remove(lastReturned);
+         this.lastReturned = null;
+      }
+   }
+
+   private final @Nullable Comparator<? super E> comparator;
+
+   private Node<E>[] heap;
+   private final HashMap<E, Node<E>> index;
+   private int size;
+
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Condition notEmpty = lock.newCondition();
+
+   /**
+    * Creates a queue that orders its elements according to their natural ordering.
+    */
+   public IndexedUniquePriorityBlockingQueue() {
+      this(11, null);
+   }
+
+   /**
+    * @param comparator the comparator used to order the elements, if <code>null</code> the natural ordering is used
+    */
+   public IndexedUniquePriorityBlockingQueue(final @Nullable Comparator<? super E> comparator) {
+      this(11, comparator);
+   }
+
+   /**
+    * @param comparator the comparator used to order the elements, if <code>null</code> the natural ordering is used
+    */
+   @SuppressWarnings({"rawtypes", "unchecked"})
+   public IndexedUniquePriorityBlockingQueue(final int initialCapacity, final @Nullable Comparator<? super E> comparator) {
+      Args.notNegative("initialCapacity", initialCapacity);
+      this.comparator = comparator;
+      heap = new Node[Math.max(1, initialCapacity)];
+      index = new HashMap<>(Math.max(16, (int) (initialCapacity / 0.75F) + 1));
+   }
+
+   /**
+    * Inserts the specified element into this queue if no equal element is queued yet.
+    *
+    * @return true if the element was added, false if an equal element is already queued
+    */
+   @Override
+   public boolean add(final E e) {
+      return offer(e);
+   }
+
+   @Override
+   public void clear() {
+      lock.lock();
+      try {
+         Arrays.fill(heap, 0, size, null);
+         index.clear();
+         size = 0;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   public @Nullable Comparator<? super E> comparator() {
+      return comparator;
+   }
+
+   @SuppressWarnings("unchecked")
+   private int compare(final E a, final E b) {
+      final var comparator = this.comparator;
+      if (comparator == null)
+         return ((Comparable<? super E>) a).compareTo(b);
+      return comparator.compare(a, b);
+   }
+
+   /**
+    * O(1) lookup in the hash index.
+    */
+   @Override
+   public boolean contains(final @Nullable Object o) {
+      if (o == null)
+         return false;
+      lock.lock();
+      try {
+         return index.containsKey(o);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private E dequeue() {
+      final Node<E> head = heap[0];
+      index.remove(head.element);
+      final int last = --size;
+      final Node<E> lastNode = heap[last];
+      heap[last] = null;
+      if (last > 0) {
+         heap[0] = lastNode;
+         lastNode.heapIndex = 0;
+         siftDown(lastNode);
+      }
+      return head.element;
+   }
+
+   @Override
+   public int drainTo(final Collection<? super E> c) {
+      return drainTo(c, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Removes up to <code>maxElements</code> elements in priority order with a single lock acquisition.
+    */
+   @Override
+   public int drainTo(final Collection<? super E> c, final int maxElements) {
+      Args.notNull("c", c);
+      if (c == this)
+         throw new IllegalArgumentException("Cannot drain queue to itself");
+      if (maxElements <= 0)
+         return 0;
+
+      lock.lock();
+      try {
+         final int n = Math.min(size, maxElements);
+         for (int i = 0; i < n; i++) {
+            c.add(dequeue());
+         }
+         return n;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private void grow() {
+      final int oldCapacity = heap.length;
+      heap = Arrays.copyOf(heap, oldCapacity + (oldCapacity < 64 ? oldCapacity + 2 : oldCapacity >> 1));
+   }
+
+   @Override
+   public Iterator<E> iterator() {
+      return new Itr(toArray());
+   }
+
+   /**
+    * Inserts the specified element into this queue if no equal element is queued yet.
+    *
+    * @return true if the element was added, false if an equal element is already queued
+    */
+   @Override
+   public boolean offer(final E e) {
+      Args.notNull("e", e);
+      lock.lock();
+      try {
+         if (index.containsKey(e))
+            return false;
+         if (size >= heap.length) {
+            grow();
+         }
+         final var node = new Node<>(e, size);
+         heap[size++] = node;
+         index.put(e, node);
+         siftUp(node);
+         notEmpty.signal();
+         return true;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Inserts the specified element into this queue. The queue is unbounded, thus this method never blocks.
+    */
+   @Override
+   public boolean offer(final E e, final long timeout, final TimeUnit unit) {
+      return offer(e);
+   }
+
+   /**
+    * Inserts the specified element into this queue, or, if an equal element is already queued, replaces the queued element with the
+    * given one and moves it to the position matching its (potentially changed) priority.
+    *
+    * @return true if the element was added, false if an already queued element was updated
+    */
+   public boolean offerOrUpdate(final E e) {
+      Args.notNull("e", e);
+      lock.lock();
+      try {
+         final Node<E> node = index.get(e);
+         if (node == null)
+            return offer(e);
+         index.remove(node.element);
+         node.element = e;
+         index.put(e, node);
+         resift(node);
+         return false;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public @Nullable E peek() {
+      lock.lock();
+      try {
+         return size == 0 ? null : heap[0].element;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public @Nullable E poll() {
+      lock.lock();
+      try {
+         return size == 0 ? null : dequeue();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public @Nullable E poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+      long nanos = unit.toNanos(timeout);
+      lock.lockInterruptibly();
+      try {
+         while (size == 0) {
+            if (nanos <= 0)
+               return null;
+            nanos = notEmpty.awaitNanos(nanos);
+         }
+         return dequeue();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Inserts the specified element into this queue if no equal element is queued yet. The queue is unbounded, thus this method never
+    * blocks.
+    */
+   @Override
+   public void put(final E e) {
+      offer(e);
+   }
+
+   @Override
+   public int remainingCapacity() {
+      return Integer.MAX_VALUE;
+   }
+
+   /**
+    * Removes the given element in O(log n).
+    */
+   @Override
+   public boolean remove(final @Nullable Object o) {
+      if (o == null)
+         return false;
+      lock.lock();
+      try {
+         final Node<E> node = index.remove(o);
+         if (node == null)
+            return false;
+         final int i = node.heapIndex;
+         final int last = --size;
+         final Node<E> lastNode = heap[last];
+         heap[last] = null;
+         if (i != last) {
+            heap[i] = lastNode;
+            lastNode.heapIndex = i;
+            resift(lastNode);
+         }
+         return true;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private void resift(final Node<E> node) {
+      final int i = node.heapIndex;
+      siftUp(node);
+      if (node.heapIndex == i) {
+         siftDown(node);
+      }
+   }
+
+   private void siftDown(final Node<E> node) {
+      int i = node.heapIndex;
+      final int half = size >>> 1;
+      while (i < half) {
+         int child = (i << 1) + 1;
+         Node<E> childNode = heap[child];
+         final int right = child + 1;
+         if (right < size && compare(childNode.element, heap[right].element) > 0) {
+            child = right;
+            childNode = heap[right];
+         }
+         if (compare(node.element, childNode.element) <= 0) {
+            break;
+         }
+         heap[i] = childNode;
+         childNode.heapIndex = i;
+         i = child;
+      }
+      heap[i] = node;
+      node.heapIndex = i;
+   }
+
+   private void siftUp(final Node<E> node) {
+      int i = node.heapIndex;
+      while (i > 0) {
+         final int parent = i - 1 >>> 1;
+         final Node<E> parentNode = heap[parent];
+         if (compare(node.element, parentNode.element) >= 0) {
+            break;
+         }
+         heap[i] = parentNode;
+         parentNode.heapIndex = i;
+         i = parent;
+      }
+      heap[i] = node;
+      node.heapIndex = i;
+   }
+
+   @Override
+   public int size() {
+      lock.lock();
+      try {
+         return size;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public E take() throws InterruptedException {
+      lock.lockInterruptibly();
+      try {
+         while (size == 0) {
+            notEmpty.await();
+         }
+         return dequeue();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return the queued elements in no particular order
+    */
+   @Override
+   public Object[] toArray() {
+      lock.lock();
+      try {
+         final var result = new Object[size];
+         for (int i = 0; i < size; i++) {
+            result[i] = heap[i].element;
+         }
+         return result;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public String toString() {
+      return Arrays.toString(toArray());
+   }
+
+   /**
+    * Restores the heap order for the given queued element after its priority changed, e.g. after mutating a field that is used by
+    * the comparator (decrease-key/increase-key).
+    *
+    * @return false if the element is not queued
+    */
+   public boolean updatePriority(final E e) {
+      Args.notNull("e", e);
+      lock.lock();
+      try {
+         final Node<E> node = index.get(e);
+         if (node == null)
+            return false;
+         resift(node);
+         return true;
+      } finally {
+         lock.unlock();
+      }
+   }
+}
@@ -14,6 +14,8 @@
 
 /**
  * A thread-safe unbounded queue of sorted unique primitive int values.
+ * <p>
+ * All operations are guarded by a single monitor. For highly contended use cases see {@link ConcurrentSortedUniqueIntQueue}.
  *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
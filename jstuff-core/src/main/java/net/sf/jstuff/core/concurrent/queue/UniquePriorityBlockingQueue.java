@@ -7,6 +7,11 @@
 import java.util.concurrent.PriorityBlockingQueue;
 
 /**
+ * A {@link PriorityBlockingQueue} that does not accept duplicate elements.
+ * <p>
+ * Uniqueness is checked via a linear {@link #contains(Object)} scan on every offer. For large queues see
+ * {@link IndexedUniquePriorityBlockingQueue}.
+ *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public class UniquePriorityBlockingQueue<E> extends PriorityBlockingQueue<E> {
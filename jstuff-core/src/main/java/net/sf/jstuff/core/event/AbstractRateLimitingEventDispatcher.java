@@ -5,16 +5,25 @@
 package net.sf.jstuff.core.event;
 
 import java.time.Duration;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.eclipse.jdt.annotation.Nullable;
 
+import net.sf.jstuff.core.concurrent.HashedWheelTimer;
 import net.sf.jstuff.core.concurrent.ScalingScheduledExecutorService;
 import net.sf.jstuff.core.concurrent.ThreadSafe;
 
 /**
+ * Base class for event dispatchers that delay and/or coalesce events per event key.
+ * <p>
+ * By default all delayed work is scheduled on a shared {@link HashedWheelTimer} with a resolution of 10ms, which allows O(1) scheduling
+ * and cancellation for very large numbers of event keys. Expired work is executed on a shared thread pool. If a
+ * {@link ScheduledExecutorService} is configured but no timer, the scheduler is used instead.
+ *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 @ThreadSafe
@@ -24,20 +33,62 @@ protected static final class LazyInitialized {
          1, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), //
          Duration.ofSeconds(5), //
          BasicThreadFactory.builder().daemon(true).priority(Thread.NORM_PRIORITY).namingPattern("EventManager-thread").build());
+
+      protected static final HashedWheelTimer DEFAULT_TIMER = new HashedWheelTimer(Duration.ofMillis(10), 512, //
+         BasicThreadFactory.builder().daemon(true).priority(Thread.NORM_PRIORITY).namingPattern("EventManager-timer").build(), //
+         DEFAULT_NOTIFICATION_THREAD);
+   }
+
+   private static final class ScheduledFutureTimeout implements HashedWheelTimer.Timeout {
+      private final Future<?> future;
+
+      ScheduledFutureTimeout(final Future<?> future) {
+         this.future = future;
+      }
+
+      @Override
+      public boolean cancel() {
+         return future.cancel(false);
+      }
+
+      @Override
+      public boolean isCancelled() {
+         return future.isCancelled();
+      }
+
+      @Override
+      public boolean isExpired() {
+         return future.isDone() && !future.isCancelled();
+      }
    }
 
    private static final Object NULL_EVENT_KEY = new Object();
 
    protected final EventDispatcher<EVENT> delegate;
    protected final ScheduledExecutorService scheduler;
+   protected final @Nullable HashedWheelTimer timer;
    protected final Function<EVENT, Object> eventKeyProvider;
 
    protected AbstractRateLimitingEventDispatcher( //
          final @Nullable EventDispatcher<EVENT> delegate, //
          final @Nullable Function<EVENT, Object> eventKeyProvider, //
          final @Nullable ScheduledExecutorService scheduler //
+   ) {
+      this(delegate, eventKeyProvider, scheduler, null);
+   }
+
+   /**
+    * @param scheduler only used if no timer is specified
+    * @param timer if <code>null</code> and no scheduler is specified the shared default timer is used
+    */
+   protected AbstractRateLimitingEventDispatcher( //
+         final @Nullable EventDispatcher<EVENT> delegate, //
+         final @Nullable Function<EVENT, Object> eventKeyProvider, //
+         final @Nullable ScheduledExecutorService scheduler, //
+         final @Nullable HashedWheelTimer timer //
    ) {
       this.scheduler = scheduler == null ? LazyInitialized.DEFAULT_NOTIFICATION_THREAD : scheduler;
+      this.timer = timer == null && scheduler == null ? LazyInitialized.DEFAULT_TIMER : timer;
       this.delegate = delegate == null ? new SyncEventDispatcher<>() : delegate;
       this.eventKeyProvider = eventKeyProvider == null ? e -> e == null ? NULL_EVENT_KEY : e : eventKeyProvider;
    }
@@ -50,10 +101,29 @@ public Function<EVENT, Object> getEventKeyProvider() {
       return eventKeyProvider;
    }
 
+   /**
+    * @return the scheduler used if no {@link #getTimer() timer} is configured
+    */
    public ScheduledExecutorService getScheduler() {
       return scheduler;
    }
 
+   public @Nullable HashedWheelTimer getTimer() {
+      return timer;
+   }
+
+   /**
+    * Schedules the given task on the configured timer or, if no timer is configured, on the configured scheduler.
+    */
+   protected HashedWheelTimer.Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+      final var timer = this.timer;
+      if (timer != null)
+         return timer.schedule(task, delay, unit);
+      return new ScheduledFutureTimeout(delay < 1 //
+            ? scheduler.submit(task)
+            : scheduler.schedule(task, delay, unit));
+   }
+
    @Override
    public boolean subscribe(final EventListener<EVENT> listener) {
       return delegate.subscribe(listener);
@@ -0,0 +1,30 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An event listener that can process multiple events at once.
+ * <p>
+ * When subscribed to a {@link BatchingEventDispatcher} all events that accumulated since the last delivery are passed to
+ * {@link #onEvents(List)} in a single call. Other dispatchers deliver events individually via {@link #onEvent(Object)}.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@FunctionalInterface
+public interface BatchEventListener<Event> extends EventListener<Event> {
+
+   @Override
+   default void onEvent(final Event event) {
+      onEvents(Collections.singletonList(event));
+   }
+
+   /**
+    * @param events the events in the order they were fired, the list must not be modified or accessed after this method returned
+    */
+   void onEvents(List<Event> events);
+}
@@ -0,0 +1,306 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.concurrent.ThreadSafe;
+import net.sf.jstuff.core.logging.Logger;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * An asynchronous event dispatcher that isolates listeners from each other and delivers events in batches.
+ * <p>
+ * Every subscribed listener gets its own bounded event queue. Fired events are appended to the queue of each (accepting) listener and
+ * the queue is drained by at most one task at a time on the configured executor. All events that accumulated while the listener was
+ * busy are delivered with the next task, i.e. {@link BatchEventListener}s receive them with a single
+ * {@link BatchEventListener#onEvents(List)} call, other listeners receive them one by one via {@link EventListener#onEvent(Object)}.
+ * <p>
+ * A slow listener therefore only backs up its own queue. When a listener's queue is full, further events for this listener are dropped
+ * and counted, see {@link #getListenerStats(EventListener)}.
+ * <p>
+ * {@link FilteringEventListener#accept(Object)} is evaluated on the thread calling {@link #fire(Object)}.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@ThreadSafe
+public class BatchingEventDispatcher<EVENT> implements EventDispatcher<EVENT>, AutoCloseable {
+
+   private static final Logger LOG = Logger.create();
+
+   /**
+    * placeholder for <code>null</code> events which are not supported by {@link BlockingQueue}s
+    */
+   private static final Object NULL_EVENT = new Object();
+
+   /**
+    * @param queuedEvents number of events fired but not yet delivered to the listener, i.e. the listener's lag
+    * @param queueCapacity maximum number of events that can be queued for the listener
+    * @param deliveredEvents number of events delivered to the listener
+    * @param droppedEvents number of events dropped because the listener's queue was full
+    * @param failedEvents number of events whose delivery resulted in an exception thrown by the listener
+    */
+   public record ListenerStats(int queuedEvents, int queueCapacity, long deliveredEvents, long droppedEvents, long failedEvents) {
+   }
+
+   private final class ListenerQueue {
+      final EventListener<EVENT> listener;
+      final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+      final AtomicBoolean isDrainScheduled = new AtomicBoolean();
+      final LongAdder deliveredEvents = new LongAdder();
+      final LongAdder droppedEvents = new LongAdder();
+      final LongAdder failedEvents = new LongAdder();
+      volatile boolean isActive = true;
+
+      ListenerQueue(final EventListener<EVENT> listener) {
+         this.listener = listener;
+      }
+
+      @SuppressWarnings("unchecked")
+      void deliverNextBatch() {
+         try {
+            if (!isActive)
+               return;
+
+            final var batch = new ArrayList<>(Math.min(maxBatchSize, queue.size()));
+            queue.drainTo(batch, maxBatchSize);
+            if (batch.isEmpty())
+               return;
+            for (int i = 0, l = batch.size(); i < l; i++) {
+               if (batch.get(i) == NULL_EVENT) {
+                  batch.set(i, null);
+               }
+            }
+            final var events = (List<EVENT>) batch;
+
+            if (listener instanceof final BatchEventListener<EVENT> batchListener) {
+               try {
+                  batchListener.onEvents(Collections.unmodifiableList(events));
+                  deliveredEvents.add(events.size());
+               } catch (final RuntimeException ex) {
+                  failedEvents.add(events.size());
+                  LOG.error(ex, "Failed to notify event listener %s", listener);
+               }
+            } else {
+               for (final EVENT event : events) {
+                  try {
+                     listener.onEvent(event);
+                     deliveredEvents.increment();
+                  } catch (final RuntimeException ex) {
+                     failedEvents.increment();
+                     LOG.error(ex, "Failed to notify event listener %s", listener);
+                  }
+               }
+            }
+         } finally {
+            isDrainScheduled.set(false);
+         }
+
+         // yield the executor thread to other listeners and reschedule if more events are pending
+         if (isActive && !queue.isEmpty()) {
+            scheduleDelivery();
+         }
+      }
+
+      boolean enqueue(final EVENT event) {
+         if (listener instanceof final FilteringEventListener<EVENT> filteringListener) {
+            try {
+               if (!filteringListener.accept(event))
+                  return false;
+            } catch (final RuntimeException ex) {
+               failedEvents.increment();
+               LOG.error(ex, "Failed to notify event listener %s", listener);
+               return false;
+            }
+         }
+
+         if (!queue.offer(event == null ? NULL_EVENT : event)) {
+            droppedEvents.increment();
+            return false;
+         }
+         scheduleDelivery();
+         return true;
+      }
+
+      void scheduleDelivery() {
+         if (isDrainScheduled.compareAndSet(false, true)) {
+            try {
+               executor.execute(this::deliverNextBatch);
+            } catch (final RejectedExecutionException ex) {
+               isDrainScheduled.set(false);
+               throw ex;
+            }
+         }
+      }
+
+      ListenerStats toStats() {
+         return new ListenerStats(queue.size(), queueCapacity, deliveredEvents.sum(), droppedEvents.sum(), failedEvents.sum());
+      }
+   }
+
+   public abstract static class Builder<EVENT> {
+      protected @Nullable Executor executor;
+      protected int maxBatchSize = 256;
+      protected int queueCapacity = 10_000;
+
+      public abstract BatchingEventDispatcher<EVENT> build();
+
+      /**
+       * The executor used to deliver events to the listeners. By default a shared daemon thread pool is used.
+       */
+      public Builder<EVENT> executor(final Executor value) {
+         executor = value;
+         return this;
+      }
+
+      /**
+       * Maximum number of events delivered to a listener per task. Default is 256.
+       */
+      public Builder<EVENT> maxBatchSize(final int value) {
+         maxBatchSize = value;
+         return this;
+      }
+
+      /**
+       * Maximum number of undelivered events per listener. Default is 10,000.
+       */
+      public Builder<EVENT> queueCapacity(final int value) {
+         queueCapacity = value;
+         return this;
+      }
+   }
+
+   /**
+    * @param eventType the type of events accepted by this dispatcher. This parameter is only used as a workaround for Java's generic type
+    *           interference limitations.
+    */
+   public static <EVENT> Builder<EVENT> builder(@SuppressWarnings("unused") final Class<EVENT> eventType) {
+      return new Builder<>() {
+         @Override
+         public BatchingEventDispatcher<EVENT> build() {
+            return new BatchingEventDispatcher<>(executor, queueCapacity, maxBatchSize);
+         }
+      };
+   }
+
+   private final ConcurrentMap<EventListener<EVENT>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>();
+   private final Executor executor;
+   private final int queueCapacity;
+   private final int maxBatchSize;
+   private volatile boolean isClosed;
+
+   /**
+    * Use {@link #builder(Class)} to create configurable instances.
+    */
+   public BatchingEventDispatcher() {
+      this(null, 10_000, 256);
+   }
+
+   protected BatchingEventDispatcher(final @Nullable Executor executor, final int queueCapacity, final int maxBatchSize) {
+      Args.greaterThan("queueCapacity", queueCapacity, 0);
+      Args.greaterThan("maxBatchSize", maxBatchSize, 0);
+
+      this.executor = executor == null ? AbstractRateLimitingEventDispatcher.LazyInitialized.DEFAULT_NOTIFICATION_THREAD : executor;
+      this.queueCapacity = queueCapacity;
+      this.maxBatchSize = maxBatchSize;
+   }
+
+   /**
+    * Unsubscribes all listeners and discards all undelivered events.
+    */
+   @Override
+   public void close() {
+      isClosed = true;
+      unsubscribeAll();
+   }
+
+   /**
+    * Enqueues the event for all subscribed listeners.
+    *
+    * @return a completed future holding the number of listeners the event was enqueued for
+    */
+   @Override
+   public CompletableFuture<Integer> fire(final EVENT event) {
+      if (isClosed)
+         throw new IllegalStateException("This event dispatcher is closed.");
+
+      int count = 0;
+      for (final ListenerQueue listenerQueue : listenerQueues.values()) {
+         if (listenerQueue.enqueue(event)) {
+            count++;
+         }
+      }
+      return CompletableFuture.completedFuture(count);
+   }
+
+   /**
+    * @return the delivery statistics of the given listener or <code>null</code> if the listener is not subscribed
+    */
+   public @Nullable ListenerStats getListenerStats(final EventListener<EVENT> listener) {
+      final var listenerQueue = listenerQueues.get(listener);
+      return listenerQueue == null ? null : listenerQueue.toStats();
+   }
+
+   /**
+    * @return the delivery statistics of all subscribed listeners
+    */
+   public Map<EventListener<EVENT>, ListenerStats> getListenerStats() {
+      final var stats = new LinkedHashMap<EventListener<EVENT>, ListenerStats>();
+      listenerQueues.forEach((listener, listenerQueue) -> stats.put(listener, listenerQueue.toStats()));
+      return stats;
+   }
+
+   public int getMaxBatchSize() {
+      return maxBatchSize;
+   }
+
+   public int getQueueCapacity() {
+      return queueCapacity;
+   }
+
+   @Override
+   public boolean subscribe(final EventListener<EVENT> listener) {
+      Args.notNull("listener", listener);
+      if (isClosed)
+         throw new IllegalStateException("This event dispatcher is closed.");
+      return listenerQueues.putIfAbsent(listener, new ListenerQueue(listener)) == null;
+   }
+
+   /**
+    * Unsubscribes the given listener. Undelivered events of the listener are discarded.
+    */
+   @Override
+   public boolean unsubscribe(final EventListener<EVENT> listener) {
+      Args.notNull("listener", listener);
+      final var listenerQueue = listenerQueues.remove(listener);
+      if (listenerQueue == null)
+         return false;
+      listenerQueue.isActive = false;
+      listenerQueue.queue.clear();
+      return true;
+   }
+
+   @Override
+   public void unsubscribeAll() {
+      for (final var listener : listenerQueues.keySet()) {
+         unsubscribe(listener);
+      }
+   }
+}
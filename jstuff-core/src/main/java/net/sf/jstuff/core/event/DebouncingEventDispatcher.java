@@ -10,13 +10,13 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
 
+import net.sf.jstuff.core.concurrent.HashedWheelTimer;
 import net.sf.jstuff.core.concurrent.ThreadSafe;
 import net.sf.jstuff.core.validation.Args;
 
@@ -29,7 +29,7 @@
    private final class DebouncedEvent {
       private final EVENT event;
       private volatile long deadline;
-      private volatile Future<?> scheduledFuture = lateNonNull();
+      private volatile HashedWheelTimer.Timeout scheduledTimeout = lateNonNull();
       private final CompletableFuture<Integer> resultFuture = new CompletableFuture<>();
 
       DebouncedEvent(final EVENT event, final long deadline) {
@@ -51,6 +51,7 @@ void fireEvent() {
    public abstract static class Builder<EVENT> {
       protected @Nullable EventDispatcher<EVENT> delegate;
       protected @Nullable ScheduledExecutorService scheduler;
+      protected @Nullable HashedWheelTimer timer;
       protected @Nullable Function<EVENT, Object> eventKeyProvider;
 
       public Builder<EVENT> delegate(final EventDispatcher<EVENT> value) {
@@ -66,11 +67,22 @@ public Builder<EVENT> eventKeyProvider(final Function<EVENT, Object> value) {
          return this;
       }
 
+      /**
+       * Scheduler used if no {@link #timer(HashedWheelTimer) timer} is configured.
+       */
       public Builder<EVENT> scheduler(final ScheduledExecutorService value) {
          scheduler = value;
          return this;
       }
 
+      /**
+       * Timer used to schedule the delayed events. By default a shared timer with 10ms resolution is used.
+       */
+      public Builder<EVENT> timer(final HashedWheelTimer value) {
+         timer = value;
+         return this;
+      }
+
       public abstract DebouncingEventDispatcher<EVENT> build();
    }
 
@@ -82,7 +94,7 @@ public static <EVENT> Builder<EVENT> builder(@SuppressWarnings("unused") final C
       return new Builder<>() {
          @Override
          public DebouncingEventDispatcher<EVENT> build() {
-            return new DebouncingEventDispatcher<>(delay, delegate, eventKeyProvider, scheduler);
+            return new DebouncingEventDispatcher<>(delay, delegate, eventKeyProvider, scheduler, timer);
          }
       };
    }
@@ -94,16 +106,17 @@ public DebouncingEventDispatcher<EVENT> build() {
     * Use {@link #builder(Class, Duration)} to create configurable instances.
     */
    public DebouncingEventDispatcher(final Duration delay) {
-      this(delay, null, null, null);
+      this(delay, null, null, null, null);
    }
 
    private DebouncingEventDispatcher( //
          final Duration delay, //
          final @Nullable EventDispatcher<EVENT> delegate, //
          final @Nullable Function<EVENT, Object> eventKeyProvider, //
-         final @Nullable ScheduledExecutorService scheduler //
+         final @Nullable ScheduledExecutorService scheduler, //
+         final @Nullable HashedWheelTimer timer //
    ) {
-      super(delegate, eventKeyProvider, scheduler);
+      super(delegate, eventKeyProvider, scheduler, timer);
 
       delayNS = delay.toNanos();
       Args.greaterThan("delay", delayNS, 0);
@@ -119,16 +132,13 @@ public CompletableFuture<Integer> fire(final EVENT event) {
          if (debouncedEvent == null) {
             debouncedEvent = new DebouncedEvent(event, deadline);
             final var remainingNS = Math.max(0, debouncedEvent.deadline - System.nanoTime());
-            debouncedEvent.scheduledFuture = scheduler.schedule(debouncedEvent::fireEvent, remainingNS, TimeUnit.NANOSECONDS);
+            debouncedEvent.scheduledTimeout = schedule(debouncedEvent::fireEvent, remainingNS, TimeUnit.NANOSECONDS);
          } else {
-            debouncedEvent.scheduledFuture.cancel(false);
+            debouncedEvent.scheduledTimeout.cancel();
             debouncedEvent.deadline = deadline;
 
             final var remainingNS = debouncedEvent.deadline - System.nanoTime();
-            debouncedEvent.scheduledFuture = remainingNS < 1 //
-                  ? scheduler.submit(debouncedEvent::fireEvent) //
-                  : scheduler.schedule(debouncedEvent::fireEvent, //
-                     remainingNS, TimeUnit.NANOSECONDS);
+            debouncedEvent.scheduledTimeout = schedule(debouncedEvent::fireEvent, remainingNS, TimeUnit.NANOSECONDS);
          }
          return debouncedEvent;
       })).resultFuture;
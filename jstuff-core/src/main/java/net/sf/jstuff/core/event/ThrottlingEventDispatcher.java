@@ -9,12 +9,12 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
 
+import net.sf.jstuff.core.concurrent.HashedWheelTimer;
 import net.sf.jstuff.core.concurrent.ThreadSafe;
 import net.sf.jstuff.core.validation.Args;
 
@@ -46,6 +46,7 @@ void fireEvent() {
    public abstract static class Builder<EVENT> {
       protected @Nullable EventDispatcher<EVENT> delegate;
       protected @Nullable ScheduledExecutorService scheduler;
+      protected @Nullable HashedWheelTimer timer;
       protected @Nullable Function<EVENT, Object> eventKeyProvider;
 
       public Builder<EVENT> delegate(final EventDispatcher<EVENT> value) {
@@ -61,11 +62,22 @@ public Builder<EVENT> eventKeyProvider(final Function<EVENT, Object> value) {
          return this;
       }
 
+      /**
+       * Scheduler used if no {@link #timer(HashedWheelTimer) timer} is configured.
+       */
       public Builder<EVENT> scheduler(final ScheduledExecutorService value) {
          scheduler = value;
          return this;
       }
 
+      /**
+       * Timer used to schedule the throttled events. By default a shared timer with 10ms resolution is used.
+       */
+      public Builder<EVENT> timer(final HashedWheelTimer value) {
+         timer = value;
+         return this;
+      }
+
       public abstract ThrottlingEventDispatcher<EVENT> build();
    }
 
@@ -77,47 +89,67 @@ public static <EVENT> Builder<EVENT> builder(@SuppressWarnings("unused") final C
       return new Builder<>() {
          @Override
          public ThrottlingEventDispatcher<EVENT> build() {
-            return new ThrottlingEventDispatcher<>(interval, delegate, eventKeyProvider, scheduler);
+            return new ThrottlingEventDispatcher<>(interval, delegate, eventKeyProvider, scheduler, timer);
          }
       };
    }
 
    private volatile ConcurrentMap<Object /* EventKey */, ThrottledEvent> rateLimitedEvents = new ConcurrentHashMap<>();
    private ConcurrentMap<Object /* EventKey */, ThrottledEvent> rateLimitedEvents_ = rateLimitedEvents;
-   private final ScheduledFuture<?> scheduled;
-   private final long intervalMS;
+   private volatile HashedWheelTimer.Timeout scheduled;
+   private volatile boolean isClosed;
+   private final long intervalNS;
+   private long nextFlushAt;
 
    /**
     * Use {@link #builder(Class, Duration)} to create configurable instances.
     */
    public ThrottlingEventDispatcher(final Duration interval) {
-      this(interval, null, null, null);
+      this(interval, null, null, null, null);
    }
 
    private ThrottlingEventDispatcher(//
          final Duration interval, //
          final @Nullable EventDispatcher<EVENT> delegate, //
          final @Nullable Function<EVENT, Object> eventKeyProvider, //
-         final @Nullable ScheduledExecutorService scheduler //
+         final @Nullable ScheduledExecutorService scheduler, //
+         final @Nullable HashedWheelTimer timer //
    ) {
-      super(delegate, eventKeyProvider, scheduler);
-
-      intervalMS = interval.toMillis();
-      Args.greaterThan("interval", intervalMS, 0);
-
-      scheduled = this.scheduler.scheduleAtFixedRate(() -> {
-         if (rateLimitedEvents.isEmpty())
-            return;
-         rateLimitedEvents_ = rateLimitedEvents;
-         rateLimitedEvents = new ConcurrentHashMap<>();
-         rateLimitedEvents_.values().forEach(ThrottledEvent::fireEvent);
-         rateLimitedEvents_ = rateLimitedEvents;
-      }, 0, intervalMS, TimeUnit.MILLISECONDS);
+      super(delegate, eventKeyProvider, scheduler, timer);
+
+      intervalNS = interval.toNanos();
+      Args.greaterThan("interval", intervalNS, 0);
+
+      nextFlushAt = System.nanoTime();
+      scheduled = schedule(this::flush, 0, TimeUnit.NANOSECONDS);
    }
 
    @Override
    public void close() {
-      scheduled.cancel(true);
+      isClosed = true;
+      scheduled.cancel();
+   }
+
+   /**
+    * Fires all throttled events and schedules the next flush at a fixed rate.
+    */
+   private void flush() {
+      if (isClosed)
+         return;
+
+      try {
+         if (!rateLimitedEvents.isEmpty()) {
+            rateLimitedEvents_ = rateLimitedEvents;
+            rateLimitedEvents = new ConcurrentHashMap<>();
+            rateLimitedEvents_.values().forEach(ThrottledEvent::fireEvent);
+            rateLimitedEvents_ = rateLimitedEvents;
+         }
+      } finally {
+         nextFlushAt += intervalNS;
+         if (!isClosed) {
+            scheduled = schedule(this::flush, nextFlushAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+         }
+      }
    }
 
    /**
@@ -125,7 +157,7 @@ public void close() {
     */
    @Override
    public CompletableFuture<Integer> fire(final EVENT event) {
-      if (scheduled.isCancelled())
+      if (isClosed)
          throw new IllegalStateException("This event dispatcher is closed.");
       return rateLimitedEvents.computeIfAbsent(eventKeyProvider.apply(event), throttledEvent -> new ThrottledEvent(event)).resultFuture;
    }
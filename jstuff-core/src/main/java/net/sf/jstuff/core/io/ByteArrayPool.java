@@ -0,0 +1,185 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sf.jstuff.core.concurrent.ThreadSafe;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * A pool of byte arrays organized in size classes of powers of two.
+ * <p>
+ * {@link #borrow(int)} returns an array of the smallest size class that can hold the requested number of bytes. Arrays returned via
+ * {@link #release(byte[])} are retained for reuse until the pool holds <code>maxRetainedBytesPerSizeClass</code> bytes of the array's
+ * size class, further arrays are left to the garbage collector. Requests larger than the largest size class are served with unpooled
+ * arrays of the exact size.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@ThreadSafe
+public class ByteArrayPool {
+
+   /**
+    * @param borrowed number of arrays borrowed from the pool
+    * @param reused number of borrowed arrays that were served from the pool
+    * @param released number of arrays returned to the pool
+    * @param discarded number of returned arrays not retained because the pool was full or the array was not pooled
+    * @param outstandingBytes bytes currently borrowed and not yet returned
+    * @param retainedBytes bytes currently held by the pool for reuse
+    */
+   public record Stats(long borrowed, long reused, long released, long discarded, long outstandingBytes, long retainedBytes) {
+
+      /**
+       * @return the ratio of borrowed arrays that were served from the pool in the range of <code>0.0</code> to <code>1.0</code>
+       */
+      public double reuseRate() {
+         return borrowed == 0 ? 0.0 : (double) reused / borrowed;
+      }
+   }
+
+   private static final class SizeClass {
+      final int arraySize;
+      final int maxRetained;
+      final ConcurrentLinkedQueue<byte[]> arrays = new ConcurrentLinkedQueue<>();
+      final AtomicInteger retained = new AtomicInteger();
+
+      SizeClass(final int arraySize, final int maxRetained) {
+         this.arraySize = arraySize;
+         this.maxRetained = maxRetained;
+      }
+   }
+
+   /**
+    * Pool with size classes from 256 bytes to 1 MB retaining up to 4 MB per size class.
+    */
+   public static final ByteArrayPool SHARED = new ByteArrayPool(256, 1024 * 1024, 4 * 1024 * 1024);
+
+   private final int minArraySize;
+   private final int maxArraySize;
+   private final SizeClass[] sizeClasses;
+
+   private final LongAdder borrowed = new LongAdder();
+   private final LongAdder reused = new LongAdder();
+   private final LongAdder released = new LongAdder();
+   private final LongAdder discarded = new LongAdder();
+   private final AtomicLong outstandingBytes = new AtomicLong();
+
+   /**
+    * @param minArraySize size of the smallest size class, rounded up to a power of two
+    * @param maxArraySize size of the largest size class, rounded up to a power of two
+    * @param maxRetainedBytesPerSizeClass the maximum number of bytes retained per size class, at least one array is retained per class
+    */
+   public ByteArrayPool(final int minArraySize, final int maxArraySize, final long maxRetainedBytesPerSizeClass) {
+      Args.inRange("minArraySize", minArraySize, 1, 1 << 30);
+      Args.inRange("maxArraySize", maxArraySize, minArraySize, 1 << 30);
+      Args.notNegative("maxRetainedBytesPerSizeClass", maxRetainedBytesPerSizeClass);
+
+      this.minArraySize = roundUpToPowerOfTwo(minArraySize);
+      this.maxArraySize = roundUpToPowerOfTwo(maxArraySize);
+      sizeClasses = new SizeClass[sizeClassIndex(this.maxArraySize) + 1];
+      for (int i = 0; i < sizeClasses.length; i++) {
+         final int arraySize = this.minArraySize << i;
+         sizeClasses[i] = new SizeClass(arraySize, (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxRetainedBytesPerSizeClass
+               / arraySize)));
+      }
+   }
+
+   private static int roundUpToPowerOfTwo(final int value) {
+      final int highestOneBit = Integer.highestOneBit(value);
+      return highestOneBit == value ? value : highestOneBit << 1;
+   }
+
+   /**
+    * @return an array with a length of at least <code>minSize</code> bytes. The content of the array is undefined.
+    */
+   public byte[] borrow(final int minSize) {
+      Args.notNegative("minSize", minSize);
+
+      borrowed.increment();
+      if (minSize > maxArraySize) {
+         outstandingBytes.addAndGet(minSize);
+         return new byte[minSize];
+      }
+
+      final SizeClass sizeClass = sizeClasses[sizeClassIndex(Math.max(minSize, minArraySize))];
+      outstandingBytes.addAndGet(sizeClass.arraySize);
+      final byte[] array = sizeClass.arrays.poll();
+      if (array == null)
+         return new byte[sizeClass.arraySize];
+
+      sizeClass.retained.decrementAndGet();
+      reused.increment();
+      return array;
+   }
+
+   /**
+    * Removes all retained arrays. The statistics are not reset.
+    */
+   public void clear() {
+      for (final SizeClass sizeClass : sizeClasses) {
+         while (sizeClass.arrays.poll() != null) {
+            sizeClass.retained.decrementAndGet();
+         }
+      }
+   }
+
+   public int getMaxArraySize() {
+      return maxArraySize;
+   }
+
+   public int getMinArraySize() {
+      return minArraySize;
+   }
+
+   public Stats getStats() {
+      long retainedBytes = 0;
+      for (final SizeClass sizeClass : sizeClasses) {
+         retainedBytes += (long) sizeClass.retained.get() * sizeClass.arraySize;
+      }
+      return new Stats(borrowed.sum(), reused.sum(), released.sum(), discarded.sum(), outstandingBytes.get(), retainedBytes);
+   }
+
+   /**
+    * Returns an array previously obtained via {@link #borrow(int)} to the pool. The array must not be used by the caller afterwards.
+    */
+   public void release(final byte[] array) {
+      Args.notNull("array", array);
+
+      released.increment();
+      outstandingBytes.addAndGet(-array.length);
+
+      final int len = array.length;
+      if (len < minArraySize || len > maxArraySize || Integer.bitCount(len) != 1) {
+         discarded.increment();
+         return;
+      }
+
+      final SizeClass sizeClass = sizeClasses[sizeClassIndex(len)];
+      if (sizeClass.retained.incrementAndGet() > sizeClass.maxRetained) {
+         sizeClass.retained.decrementAndGet();
+         discarded.increment();
+         return;
+      }
+      sizeClass.arrays.offer(array);
+   }
+
+   public void resetStats() {
+      borrowed.reset();
+      reused.reset();
+      released.reset();
+      discarded.reset();
+   }
+
+   /**
+    * @param size a value between minArraySize and maxArraySize
+    */
+   private int sizeClassIndex(final int size) {
+      return 32 - Integer.numberOfLeadingZeros(size - 1) - Integer.numberOfTrailingZeros(minArraySize);
+   }
+}
@@ -8,11 +8,9 @@
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -122,19 +120,28 @@ protected DirectoryCleaner() {
 
    /**
     * Cleans the directory specified via the builder.
+    *
+    * @return the statistics of the cleanup, e.g. number of deleted files and freed bytes
     */
-   public void cleanDirectory() throws IOException {
-      cleanDirectory(directory, onFileDeleted);
+   public ParallelFileWalker.Progress cleanDirectory() throws IOException {
+      return cleanDirectory(directory, onFileDeleted);
    }
 
    /**
     * Cleans the given directory, ignoring the directory specified via the builder.
+    * <p>
+    * The directory tree is walked in parallel and files are deleted in batches, thus the file filter and the
+    * <code>onFileDeleted</code> callback may be invoked concurrently.
+    *
+    * @return the statistics of the cleanup, e.g. number of deleted files and freed bytes
     */
-   public void cleanDirectory(final Path directory, final @Nullable BiConsumer<Path, BasicFileAttributes> onFileDeleted)
-         throws IOException {
+   public ParallelFileWalker.Progress cleanDirectory(final Path directory,
+         final @Nullable BiConsumer<Path, BasicFileAttributes> onFileDeleted) throws IOException {
       if (!Files.isDirectory(directory)) {
          LOG.warn("Cannot clean [%s] which is a file and not a directory...", directory);
-         return;
+         final var progress = new ParallelFileWalker.Progress();
+         progress.done();
+         return progress;
       }
 
       LOG.debug("Cleaning [%s]...", directory);
@@ -148,30 +155,14 @@ public void cleanDirectory(final Path directory, final @Nullable BiConsumer<Path
       }
 
       final long minimumFileSize = this.minimumFileSize.getBytes().longValue();
-      Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-
-         @Override
-         public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
-            if (directory.equals(dir))
-               return FileVisitResult.CONTINUE;
-
-            return recursive ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
-         }
-
-         @Override
-         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-            if (!fileFilter.test(file, attrs) //
-                  || minimumFileSize > 0 && attrs.size() < minimumFileSize //
-                  || minimumFileAge != null && attrs.lastModifiedTime().toMillis() > deleteBefore)
-               return FileVisitResult.CONTINUE;
-
-            Files.delete(file);
-            if (onFileDeleted != null) {
-               onFileDeleted.accept(file, attrs);
-            }
-            return FileVisitResult.CONTINUE;
-         }
-      });
+      final var progress = new ParallelFileWalker() //
+         .withMaxDepth(recursive ? Integer.MAX_VALUE : 1) //
+         .deleteFiles(directory, (file, attrs) -> fileFilter.test(file, attrs) //
+               && (minimumFileSize <= 0 || attrs.size() >= minimumFileSize) //
+               && (minimumFileAge == null || attrs.lastModifiedTime().toMillis() <= deleteBefore), //
+            onFileDeleted);
+      LOG.debug("Cleaned [%s]: %s", directory, progress);
+      return progress;
    }
 
    public Path getDirectory() {
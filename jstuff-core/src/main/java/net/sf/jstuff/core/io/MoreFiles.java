@@ -9,9 +9,9 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.net.URLConnection;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
@@ -38,13 +38,22 @@
 import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.time.DateFormatUtils;
@@ -63,11 +72,24 @@
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public abstract class MoreFiles {
+
+   /**
+    * An entry of a directory tree as compared by {@link MoreFiles#directoryContentEquals(Path, Path, Executor)}.
+    *
+    * @param linkTarget the target of a symbolic link, <code>null</code> for regular files and directories
+    */
+   private record TreeEntry(boolean isDirectory, @Nullable String linkTarget) {
+      static final TreeEntry DIRECTORY = new TreeEntry(true, null);
+      static final TreeEntry FILE = new TreeEntry(false, null);
+   }
+
    private static final Logger LOG = Logger.create();
 
    private static final AtomicLong _FILE_UNIQUE_ID = new AtomicLong();
    private static final Queue<Path> _FILES_TO_DELETE_ON_SHUTDOWN = new ConcurrentLinkedQueue<>();
 
+   private static final int DEFAULT_CONTENT_COMPARE_BUFFER_SIZE = 1024 * 1024;
+
    private static final @NonNull LinkOption[] NOFOLLOW_LINKS = {LinkOption.NOFOLLOW_LINKS};
    private static final @NonNull OpenOption[] DEFAULT_FILE_READ_OPTIONS = {StandardOpenOption.READ};
    private static final @NonNull OpenOption[] DEFAULT_FILE_WRITE_OPTIONS = { //
@@ -131,7 +153,23 @@ public void run() {
       return null;
    }
 
+   /**
+    * Compares the content of the given files, see {@link #contentEquals(Path, Path, int)}.
+    */
    public static boolean contentEquals(final @Nullable Path file1, final @Nullable Path file2) throws IOException {
+      return contentEquals(file1, file2, DEFAULT_CONTENT_COMPARE_BUFFER_SIZE);
+   }
+
+   /**
+    * Compares the content of the given files using positional reads into pooled buffers, i.e. files larger than 2GB are supported and
+    * at most <code>bufferSize</code> bytes per file are held in memory. Files larger than the buffer are compared at their end first to
+    * fail fast on files that only differ by appended data.
+    *
+    * @param bufferSize the maximum number of bytes per file to read at once
+    */
+   public static boolean contentEquals(final @Nullable Path file1, final @Nullable Path file2, final int bufferSize) throws IOException {
+      Args.greaterThan("bufferSize", bufferSize, 0);
+
       if (file1 == null && file2 == null)
          return true;
       if (file1 == null || file2 == null)
@@ -150,20 +188,48 @@ public static boolean contentEquals(final @Nullable Path file1, final @Nullable
       if (Files.isDirectory(file2))
          throw new IOException("[" + file2 + "] is a directory and not a file.");
 
-      if (Files.size(file1) != Files.size(file2))
+      final long size = Files.size(file1);
+      if (size != Files.size(file2))
          return false;
 
-      if (Files.isSameFile(file1, file2))
+      if (size == 0 || Files.isSameFile(file1, file2))
          return true;
 
+      final int blockSize = (int) Math.min(bufferSize, size);
+      final byte[] array1 = ByteArrayPool.SHARED.borrow(blockSize);
+      final byte[] array2 = ByteArrayPool.SHARED.borrow(blockSize);
       try (FileChannel file1Ch = FileChannel.open(file1, DEFAULT_FILE_READ_OPTIONS);
            FileChannel file2Ch = FileChannel.open(file2, DEFAULT_FILE_READ_OPTIONS)) {
-         final MappedByteBuffer buff1 = file1Ch.map(FileChannel.MapMode.READ_ONLY, 0, file1Ch.size());
-         final MappedByteBuffer buff2 = file2Ch.map(FileChannel.MapMode.READ_ONLY, 0, file2Ch.size());
-         return buff1.equals(buff2);
+         final var buff1 = ByteBuffer.wrap(array1);
+         final var buff2 = ByteBuffer.wrap(array2);
+         final long tailStart = size - blockSize;
+         return contentEquals(file1Ch, file2Ch, tailStart, size, buff1, buff2, blockSize) //
+               && contentEquals(file1Ch, file2Ch, 0, tailStart, buff1, buff2, blockSize);
+      } finally {
+         ByteArrayPool.SHARED.release(array1);
+         ByteArrayPool.SHARED.release(array2);
       }
    }
 
+   /**
+    * Compares the given byte range of both channels block by block.
+    */
+   private static boolean contentEquals(final FileChannel ch1, final FileChannel ch2, final long start, final long end,
+         final ByteBuffer buff1, final ByteBuffer buff2, final int blockSize) throws IOException {
+      for (long position = start; position < end; position += blockSize) {
+         final int blockLength = (int) Math.min(blockSize, end - position);
+         buff1.clear().limit(blockLength);
+         buff2.clear().limit(blockLength);
+         if (!readFully(ch1, buff1, position) || !readFully(ch2, buff2, position))
+            return false; // file was truncated concurrently
+         buff1.flip();
+         buff2.flip();
+         if (buff1.mismatch(buff2) > -1)
+            return false;
+      }
+      return true;
+   }
+
    /**
     * <b>experimental</b>
     *
@@ -317,6 +383,13 @@ public static void copyContent(final Path source, final Path target, final BiLon
       }
    }
 
+   /**
+    * Copies the file content by concurrently copying chunks of the file, see {@link ParallelFileCopier}.
+    */
+   public static void copyContentParallel(final Path source, final Path target) throws IOException {
+      new ParallelFileCopier().copy(source, target);
+   }
+
    private static void copyTimeAttrs(final BasicFileAttributes sourceAttrs, final BasicFileAttributeView targetAttrs) throws IOException {
       targetAttrs.setTimes(sourceAttrs.lastModifiedTime(), sourceAttrs.lastAccessTime(), sourceAttrs.creationTime());
    }
@@ -403,58 +476,132 @@ public static Path createUniqueDirectory(@Nullable Path parentDirectory, final @
    }
 
    /**
+    * Compares two directory trees, see {@link #directoryContentEquals(Path, Path, Executor)}.
+    */
+   public static boolean directoryContentEquals(final Path dir1, final Path dir2) throws IOException {
+      return directoryContentEquals(dir1, dir2, null);
+   }
+
+   /**
+    * Compares two directory trees. The trees are considered equal if they contain the same relative paths of files, sub-directories and
+    * symbolic links, the corresponding files have the same content and the corresponding symbolic links have the same target. Symbolic
+    * links are not followed.
+    *
+    * @param executor optional executor to compare the files concurrently on. Once a difference is detected, pending comparisons are
+    *           skipped.
+    */
+   public static boolean directoryContentEquals(final Path dir1, final Path dir2, final @Nullable Executor executor) throws IOException {
+      Args.isDirectoryReadable("dir1", dir1);
+      Args.isDirectoryReadable("dir2", dir2);
+
+      final Map<String, TreeEntry> entries1 = listRelativePaths(dir1);
+      final Map<String, TreeEntry> entries2 = listRelativePaths(dir2);
+      if (!entries1.equals(entries2))
+         return false;
+
+      final var files = new ArrayList<String>();
+      entries1.forEach((relativePath, entry) -> {
+         if (entry == TreeEntry.FILE) {
+            files.add(relativePath);
+         }
+      });
+
+      if (executor == null) {
+         for (final String file : files) {
+            if (!contentEquals(dir1.resolve(file), dir2.resolve(file)))
+               return false;
+         }
+         return true;
+      }
+
+      final var differenceFound = new AtomicBoolean();
+      final var comparisons = new CompletableFuture<?>[files.size()];
+      for (int i = 0; i < comparisons.length; i++) {
+         final String file = files.get(i);
+         comparisons[i] = CompletableFuture.runAsync(() -> {
+            if (differenceFound.get())
+               return;
+            try {
+               if (!contentEquals(dir1.resolve(file), dir2.resolve(file))) {
+                  differenceFound.set(true);
+               }
+            } catch (final IOException ex) {
+               throw new UncheckedIOException(ex);
+            }
+         }, executor);
+      }
+
+      try {
+         CompletableFuture.allOf(comparisons).join();
+      } catch (final CompletionException ex) {
+         if (ex.getCause() instanceof final UncheckedIOException ioEx)
+            throw ioEx.getCause();
+         throw ex;
+      }
+      return !differenceFound.get();
+   }
+
+   /**
+    * The directory tree is walked in parallel.
+    *
     * @param globPattern Pattern in the Glob syntax style, see https://docs.oracle.com/javase/tutorial/essential/io/fileOps.html#glob
+    * @return the matching paths sorted by their natural order
     */
    public static Collection<Path> find(final Path searchRoot, final String globPattern, final boolean includeFiles,
          final boolean includeDirectories) throws IOException {
-      final var result = new ArrayList<Path>();
-      if (includeFiles && includeDirectories) {
-         find(searchRoot, globPattern, result::add, result::add);
-      } else if (includeDirectories) {
-         find(searchRoot, globPattern, result::add, null);
-      } else {
-         find(searchRoot, globPattern, null, result::add);
-      }
-      return result;
+      final var result = new ConcurrentLinkedQueue<Path>();
+      new ParallelFileWalker().walk(searchRoot.toAbsolutePath().normalize(), new ParallelFileWalker.Visitor() {
+         final BiPredicate<Path, BasicFileAttributes> matcher = globMatcher(searchRoot, globPattern, includeFiles, includeDirectories);
+
+         @Override
+         public boolean preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+            if (matcher.test(dir, attrs)) {
+               result.add(dir);
+            }
+            return true;
+         }
+
+         @Override
+         public void visitFile(final Path file, final BasicFileAttributes attrs) {
+            if (matcher.test(file, attrs)) {
+               result.add(file);
+            }
+         }
+      });
+      final var sorted = new ArrayList<>(result);
+      Collections.sort(sorted);
+      return sorted;
    }
 
    /**
+    * The directory tree is walked in parallel, the callbacks however are never invoked concurrently. The matches are reported in no
+    * particular order.
+    *
     * @param globPattern Pattern in the Glob syntax style, see https://docs.oracle.com/javase/tutorial/essential/io/fileOps.html#glob
     */
-   public static void find(Path searchRoot, final String globPattern, final @Nullable Consumer<Path> onDirMatch,
+   public static void find(final Path searchRoot, final String globPattern, final @Nullable Consumer<Path> onDirMatch,
          final @Nullable Consumer<Path> onFileMatch) throws IOException {
-      searchRoot = searchRoot.toAbsolutePath().normalize();
-      final String searchRootPath = searchRoot.toString();
-      final int searchRootLen = searchRootPath.length();
-      final String searchRegEx = Strings.globToRegex(globPattern).toString();
-      LOG.debug("\n  glob:  %s\n  regex: %s\n  searchRoot: %s", globPattern, searchRegEx, searchRootPath);
-      final Pattern filePattern = Pattern.compile("^" + searchRegEx);
-
-      Files.walkFileTree(searchRoot, new SimpleFileVisitor<Path>() {
+      new ParallelFileWalker().walk(searchRoot.toAbsolutePath().normalize(), new ParallelFileWalker.Visitor() {
+         final BiPredicate<Path, BasicFileAttributes> matcher = globMatcher(searchRoot, globPattern, onFileMatch != null,
+            onDirMatch != null);
 
          @Override
-         public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
-            String folderPath = dir.toString().replace('\\', '/');
-            if (folderPath.length() == searchRootLen)
-               return FileVisitResult.CONTINUE;
-
-            folderPath = folderPath.substring(searchRootLen + 1);
-            final boolean isMatch = filePattern.matcher(folderPath).find();
-            if (isMatch && onDirMatch != null) {
-               onDirMatch.accept(dir);
+         public boolean preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+            if (onDirMatch != null && matcher.test(dir, attrs)) {
+               synchronized (this) {
+                  onDirMatch.accept(dir);
+               }
             }
-            return FileVisitResult.CONTINUE;
+            return true;
          }
 
          @Override
-         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-            String filePath = file.toString().replace('\\', '/');
-            filePath = filePath.substring(searchRootLen + 1);
-            final boolean isMatch = filePattern.matcher(filePath).find();
-            if (isMatch && onFileMatch != null) {
-               onFileMatch.accept(file);
+         public void visitFile(final Path file, final BasicFileAttributes attrs) {
+            if (onFileMatch != null && matcher.test(file, attrs)) {
+               synchronized (this) {
+                  onFileMatch.accept(file);
+               }
             }
-            return FileVisitResult.CONTINUE;
          }
       });
    }
@@ -473,6 +620,18 @@ public static Collection<Path> findFiles(final Path searchRootPath, final String
       return find(searchRootPath, globPattern, true, false);
    }
 
+   /**
+    * Lazily streams the matching files and/or directories while the directory tree is walked in parallel. The returned stream should be
+    * closed if it is not fully consumed.
+    *
+    * @param globPattern Pattern in the Glob syntax style, see https://docs.oracle.com/javase/tutorial/essential/io/fileOps.html#glob
+    */
+   public static Stream<Path> findStream(final Path searchRoot, final String globPattern, final boolean includeFiles,
+         final boolean includeDirectories) {
+      return new ParallelFileWalker().stream(searchRoot.toAbsolutePath().normalize(), globMatcher(searchRoot, globPattern, includeFiles,
+         includeDirectories));
+   }
+
    /**
     * Deletes the given file or directory. Directories are deleted recursively.
     *
@@ -480,21 +639,7 @@ public static Collection<Path> findFiles(final Path searchRootPath, final String
     */
    public static boolean forceDelete(final Path fileOrDirectory) throws IOException {
       if (Files.isDirectory(fileOrDirectory, NOFOLLOW_LINKS)) {
-         Files.walkFileTree(fileOrDirectory, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult postVisitDirectory(final Path dir, final @Nullable IOException exc) throws IOException {
-               if (exc != null && !(exc instanceof NoSuchFileException) && !(exc instanceof FileNotFoundException))
-                  throw exc;
-               Files.delete(dir);
-               return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-               Files.delete(file);
-               return FileVisitResult.CONTINUE;
-            }
-         });
+         new ParallelFileWalker().deleteTree(fileOrDirectory);
          return true;
       }
       return Files.deleteIfExists(fileOrDirectory);
@@ -554,6 +699,27 @@ public static Path getWorkingDirectory() {
       return Paths.get("").toAbsolutePath().normalize();
    }
 
+   /**
+    * @return a thread-safe predicate matching paths relative to the given search root against the given glob pattern
+    */
+   private static BiPredicate<Path, BasicFileAttributes> globMatcher(final Path searchRoot, final String globPattern,
+         final boolean includeFiles, final boolean includeDirectories) {
+      final String searchRootPath = searchRoot.toAbsolutePath().normalize().toString();
+      final int searchRootLen = searchRootPath.length();
+      final String searchRegEx = Strings.globToRegex(globPattern).toString();
+      LOG.debug("\n  glob:  %s\n  regex: %s\n  searchRoot: %s", globPattern, searchRegEx, searchRootPath);
+      final Pattern filePattern = Pattern.compile("^" + searchRegEx);
+
+      return (path, attrs) -> {
+         if (!(attrs.isDirectory() ? includeDirectories : includeFiles))
+            return false;
+         final String pathStr = path.toString().replace('\\', '/');
+         if (pathStr.length() == searchRootLen)
+            return false;
+         return filePattern.matcher(pathStr.substring(searchRootLen + 1)).find();
+      };
+   }
+
    /**
     * @return true if the given path points to a regular file that is executable by this JVM process.
     */
@@ -564,6 +730,32 @@ public static boolean isExecutableFile(final @Nullable Path path) {
       return Files.isRegularFile(path) && Files.isExecutable(path);
    }
 
+   /**
+    * @return relative paths of all files, sub-directories and symbolic links of the given directory. Symbolic links are not followed. The
+    *         paths use <code>/</code> as separator independent of the file system.
+    */
+   private static Map<String, TreeEntry> listRelativePaths(final Path dir) throws IOException {
+      final var result = new HashMap<String, TreeEntry>();
+      Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+         @Override
+         public FileVisitResult preVisitDirectory(final Path subDir, final BasicFileAttributes attrs) throws IOException {
+            if (!subDir.equals(dir)) {
+               result.put(dir.relativize(subDir).toString().replace('\\', '/'), TreeEntry.DIRECTORY);
+            }
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+            result.put(dir.relativize(file).toString().replace('\\', '/'), attrs.isSymbolicLink() //
+                  ? new TreeEntry(false, Files.readSymbolicLink(file).toString())
+                  : TreeEntry.FILE);
+            return FileVisitResult.CONTINUE;
+         }
+      });
+      return result;
+   }
+
    public static String readAsString(final Path file) throws IOException {
       return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
    }
@@ -594,6 +786,20 @@ public static BasicFileAttributes readAttributes(final Path path) throws IOExcep
       return Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
    }
 
+   /**
+    * Reads bytes starting at the given file position until the buffer is full.
+    *
+    * @return false if the end of the file was reached before
+    */
+   private static boolean readFully(final FileChannel ch, final ByteBuffer buff, final long position) throws IOException {
+      final int start = buff.position();
+      while (buff.hasRemaining()) {
+         if (ch.read(buff, position + buff.position() - start) < 0)
+            return false;
+      }
+      return true;
+   }
+
    public static void write(final Path file, final @Nullable CharSequence text, final Charset charset, final OpenOption... options)
          throws IOException {
       Args.notNull("file", file);
@@ -0,0 +1,433 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.functional.BiLongConsumer;
+import net.sf.jstuff.core.logging.Logger;
+import net.sf.jstuff.core.security.Hash;
+import net.sf.jstuff.core.security.Hash.Hasher;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Copies the content of a file by splitting it into chunks that are copied concurrently using positional reads and writes. This
+ * increases the throughput when copying large files between different devices or network file systems.
+ * <p>
+ * The target file is extended to the size of the source file before the copy starts. Optionally:
+ * <ul>
+ * <li>a checkpoint file can be specified that records the copied range of the file, allowing to resume an interrupted copy
+ * <li>a hash of the copied content can be computed during the copy, e.g. to verify it against a known hash of the source file
+ * </ul>
+ *
+ * <pre>
+ * ParallelFileCopier.Result&lt;String&gt; result = new ParallelFileCopier() //
+ *    .withParallelism(8) //
+ *    .withCheckpoint(Path.of("large.iso.checkpoint")) //
+ *    .copy(Path.of("/mnt/nfs/large.iso"), Path.of("large.iso"), Hash.SHA256);
+ * </pre>
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public class ParallelFileCopier {
+
+   /**
+    * @param size the size of the copied file
+    * @param bytesCopied the number of bytes copied by this run, less than <code>size</code> if the copy was resumed
+    * @param resumedAt the position the copy was resumed at, 0 if the copy was not resumed
+    * @param elapsed the duration of the copy
+    * @param hash the hash of the file content if requested
+    */
+   public record Result<T>(long size, long bytesCopied, long resumedAt, Duration elapsed, @Nullable T hash) {
+
+      /**
+       * @return the number of copied bytes per second
+       */
+      public double bytesPerSecond() {
+         final long elapsedNanos = elapsed.toNanos();
+         return elapsedNanos == 0 ? 0 : bytesCopied * 1_000_000_000D / elapsedNanos;
+      }
+   }
+
+   private static final Logger LOG = Logger.create();
+
+   private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+   private static final long DEFAULT_CHECKPOINT_INTERVAL = 64L * 1024 * 1024;
+   private static final int MAX_POOLED_BUFFERS_PER_SIZE = 16;
+
+   private static final ConcurrentMap<Integer, Queue<ByteBuffer>> BUFFER_POOL = new ConcurrentHashMap<>();
+
+   /**
+    * Holds the state of a single copy operation.
+    */
+   private final class Copy<T> {
+      final FileChannel source;
+      final FileChannel target;
+      final long size;
+      final long startPosition;
+      final @Nullable Hasher<T> hasher;
+      final @Nullable Path checkpoint;
+      final String checkpointPrefix;
+      final int chunkSize = ParallelFileCopier.this.chunkSize;
+      final @Nullable BiLongConsumer onBytesWritten = ParallelFileCopier.this.onBytesWritten;
+
+      final AtomicLong nextChunk = new AtomicLong();
+      final LongAdder bytesCopied = new LongAdder();
+      final AtomicReference<@Nullable Throwable> failure = new AtomicReference<>();
+
+      /* guarded by this, the bits of completed chunks relative to completedChunkCount */
+      BitSet completedChunks = new BitSet();
+      long completedPosition;
+      long completedChunkCount;
+      long checkpointPosition;
+
+      Copy(final FileChannel source, final FileChannel target, final long size, final long startPosition, final @Nullable Hasher<T> hasher,
+            final @Nullable Path checkpoint, final String checkpointPrefix) {
+         this.source = source;
+         this.target = target;
+         this.size = size;
+         this.startPosition = startPosition;
+         this.hasher = hasher;
+         this.checkpoint = checkpoint;
+         this.checkpointPrefix = checkpointPrefix;
+         completedPosition = startPosition;
+         checkpointPosition = startPosition;
+      }
+
+      /**
+       * Waits until all chunks before the given chunk have been hashed.
+       */
+      void awaitTurn(final long chunk) throws InterruptedIOException {
+         try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+               @Override
+               public boolean block() throws InterruptedException {
+                  synchronized (Copy.this) {
+                     while (!isReleasable()) {
+                        Copy.this.wait();
+                     }
+                  }
+                  return true;
+               }
+
+               @Override
+               public boolean isReleasable() {
+                  synchronized (Copy.this) {
+                     return completedChunkCount == chunk || failure.get() != null;
+                  }
+               }
+            });
+         } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException().initCause(ex);
+         }
+      }
+
+      void copyChunks() {
+         final ByteBuffer buffer = borrowBuffer(chunkSize);
+         try {
+            while (failure.get() == null) {
+               final long chunk = nextChunk.getAndIncrement();
+               final long position = startPosition + chunk * chunkSize;
+               if (position >= size)
+                  return;
+
+               final int len = (int) Math.min(chunkSize, size - position);
+               buffer.clear().limit(len);
+               if (!readFully(source, buffer, position))
+                  throw new IOException("Source file was truncated during copy.");
+               buffer.flip();
+               while (buffer.hasRemaining()) {
+                  target.write(buffer, position + buffer.position());
+               }
+               bytesCopied.add(len);
+               final var onBytesWritten = this.onBytesWritten;
+               if (onBytesWritten != null) {
+                  onBytesWritten.accept(len, bytesCopied.sum());
+               }
+
+               if (hasher != null) {
+                  awaitTurn(chunk);
+               }
+               onChunkCompleted(chunk, len, buffer.rewind());
+            }
+         } catch (final IOException | RuntimeException ex) {
+            fail(ex);
+         } finally {
+            releaseBuffer(buffer);
+         }
+      }
+
+      void fail(final Throwable ex) {
+         if (!failure.compareAndSet(null, ex)) {
+            final var firstFailure = failure.get();
+            if (firstFailure != null && firstFailure != ex) {
+               firstFailure.addSuppressed(ex);
+            }
+         }
+         synchronized (this) {
+            notifyAll();
+         }
+      }
+
+      synchronized void onChunkCompleted(final long chunk, final int len, final ByteBuffer buffer) throws IOException {
+         if (failure.get() != null)
+            return;
+
+         final var hasher = this.hasher;
+         if (hasher == null) {
+            completedChunks.set(Math.toIntExact(chunk - completedChunkCount));
+            final int contiguousChunks = completedChunks.nextClearBit(0);
+            if (contiguousChunks == 0)
+               return;
+            completedChunks = completedChunks.get(contiguousChunks, Math.max(contiguousChunks, completedChunks.length()));
+            completedChunkCount += contiguousChunks;
+            completedPosition = Math.min(size, startPosition + completedChunkCount * chunkSize);
+         } else {
+            hasher.update(buffer);
+            completedChunkCount++;
+            completedPosition += len;
+            notifyAll();
+         }
+
+         final var checkpoint = this.checkpoint;
+         if (checkpoint != null && completedPosition < size && completedPosition - checkpointPosition >= checkpointInterval) {
+            target.force(false);
+            Files.writeString(checkpoint, checkpointPrefix + completedPosition, StandardCharsets.UTF_8);
+            checkpointPosition = completedPosition;
+         }
+      }
+
+      Result<T> run() throws IOException {
+         final long startNanos = System.nanoTime();
+         final long chunkCount = (size - startPosition + chunkSize - 1) / chunkSize;
+         final int asyncWorkers = (int) Math.min(parallelism, chunkCount) - 1;
+         final var workers = new CompletableFuture<?>[Math.max(0, asyncWorkers)];
+         for (int i = 0; i < workers.length; i++) {
+            workers[i] = CompletableFuture.runAsync(this::copyChunks, executor);
+         }
+         copyChunks();
+         try {
+            CompletableFuture.allOf(workers).join();
+         } catch (final CompletionException ex) {
+            fail(ex.getCause() == null ? ex : ex.getCause());
+         }
+
+         final var ex = failure.get();
+         if (ex != null) {
+            if (ex instanceof final IOException ioEx)
+               throw ioEx;
+            if (ex instanceof final UncheckedIOException ioEx)
+               throw ioEx.getCause();
+            if (ex instanceof final RuntimeException rtEx)
+               throw rtEx;
+            if (ex instanceof final Error error)
+               throw error;
+            throw new IOException(ex);
+         }
+
+         final var hasher = this.hasher;
+         return new Result<>(size, bytesCopied.sum(), startPosition, Duration.ofNanos(System.nanoTime() - startNanos), hasher == null
+               ? null
+               : hasher.hash());
+      }
+   }
+
+   private static ByteBuffer borrowBuffer(final int size) {
+      final ByteBuffer buffer = BUFFER_POOL.computeIfAbsent(size, k -> new ConcurrentLinkedQueue<>()).poll();
+      return buffer == null ? ByteBuffer.allocateDirect(size) : buffer;
+   }
+
+   private static boolean readFully(final FileChannel ch, final ByteBuffer buffer, final long position) throws IOException {
+      while (buffer.hasRemaining()) {
+         if (ch.read(buffer, position + buffer.position()) < 0)
+            return false;
+      }
+      return true;
+   }
+
+   private static void releaseBuffer(final ByteBuffer buffer) {
+      final Queue<ByteBuffer> buffers = BUFFER_POOL.get(buffer.capacity());
+      if (buffers != null && buffers.size() < MAX_POOLED_BUFFERS_PER_SIZE) {
+         buffers.offer(buffer.clear());
+      }
+   }
+
+   private int chunkSize = DEFAULT_CHUNK_SIZE;
+   private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+   private int parallelism = 4;
+   private Executor executor = ForkJoinPool.commonPool();
+   private @Nullable Path checkpoint;
+   private @Nullable BiLongConsumer onBytesWritten;
+
+   /**
+    * Copies the content of the source file to the target file.
+    */
+   public Result<?> copy(final Path source, final Path target) throws IOException {
+      return copy(source, target, null);
+   }
+
+   /**
+    * Copies the content of the source file to the target file.
+    *
+    * @param hash if specified the hash of the file content is computed during the copy and returned via {@link Result#hash()}
+    */
+   @SuppressWarnings("resource")
+   public <T> Result<T> copy(final Path source, final Path target, final @Nullable Hash<T> hash) throws IOException {
+      Args.isFileReadable("source", source);
+      Args.notNull("target", target);
+
+      if (Files.exists(target) && Files.isSameFile(source, target))
+         throw new IOException("Source [" + source + "] and target [" + target + "] are the same file.");
+
+      try (var sourceCh = FileChannel.open(source, StandardOpenOption.READ);
+           var targetCh = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+         final long size = sourceCh.size();
+         final String checkpointPrefix = size + " " + Files.getLastModifiedTime(source).toMillis() + " ";
+         final var checkpoint = this.checkpoint;
+
+         long startPosition = 0;
+         if (checkpoint != null) {
+            startPosition = readCheckpoint(checkpoint, checkpointPrefix);
+            if (startPosition > targetCh.size()) {
+               startPosition = 0;
+            }
+            if (startPosition > 0) {
+               LOG.debug("Resuming copy of [%s] at position %s...", source, startPosition);
+            }
+         }
+
+         if (targetCh.size() > size) {
+            targetCh.truncate(size);
+         } else if (targetCh.size() < size) {
+            targetCh.write(ByteBuffer.allocate(1), size - 1); // extend the target file upfront
+         }
+
+         final Hasher<T> hasher = hash == null ? null : hash.newHasher();
+         if (hasher != null && startPosition > 0) {
+            hashRange(targetCh, startPosition, hasher);
+         }
+
+         final var result = new Copy<>(sourceCh, targetCh, size, startPosition, hasher, checkpoint, checkpointPrefix).run();
+         if (checkpoint != null) {
+            Files.deleteIfExists(checkpoint);
+         }
+         return result;
+      }
+   }
+
+   private void hashRange(final FileChannel ch, final long end, final Hasher<?> hasher) throws IOException {
+      final ByteBuffer buffer = borrowBuffer(chunkSize);
+      try {
+         for (long position = 0; position < end; position += chunkSize) {
+            buffer.clear().limit((int) Math.min(chunkSize, end - position));
+            if (!readFully(ch, buffer, position))
+               throw new IOException("Target file was truncated during copy.");
+            hasher.update(buffer.flip());
+         }
+      } finally {
+         releaseBuffer(buffer);
+      }
+   }
+
+   /**
+    * @return the position to resume the copy at or 0 if the checkpoint does not exist or does not match the source file
+    */
+   private long readCheckpoint(final Path checkpoint, final String checkpointPrefix) throws IOException {
+      final String content;
+      try {
+         content = Files.readString(checkpoint, StandardCharsets.UTF_8);
+      } catch (final NoSuchFileException ex) {
+         return 0;
+      }
+      if (!content.startsWith(checkpointPrefix)) {
+         LOG.debug("Ignoring outdated checkpoint [%s]...", checkpoint);
+         return 0;
+      }
+      try {
+         return Long.parseLong(content.substring(checkpointPrefix.length()).trim());
+      } catch (final NumberFormatException ex) {
+         LOG.debug("Ignoring corrupt checkpoint [%s]...", checkpoint);
+         return 0;
+      }
+   }
+
+   /**
+    * @param checkpoint file that records the copied range of the file. If it exists and matches the size and last modification time
+    *           of the source file, the copy is resumed at the recorded position. The file is deleted once the copy completed.
+    */
+   public ParallelFileCopier withCheckpoint(final @Nullable Path checkpoint) {
+      this.checkpoint = checkpoint;
+      return this;
+   }
+
+   /**
+    * @param checkpointInterval minimum number of bytes to copy before the checkpoint is updated, default is 64 MB
+    */
+   public ParallelFileCopier withCheckpointInterval(final long checkpointInterval) {
+      Args.greaterThan("checkpointInterval", checkpointInterval, 0L);
+      this.checkpointInterval = checkpointInterval;
+      return this;
+   }
+
+   /**
+    * @param chunkSize the size of the chunks copied concurrently, default is 1 MB
+    */
+   public ParallelFileCopier withChunkSize(final int chunkSize) {
+      Args.greaterThan("chunkSize", chunkSize, 0);
+      this.chunkSize = chunkSize;
+      return this;
+   }
+
+   /**
+    * @param executor the executor to run the copy workers on, default is {@link ForkJoinPool#commonPool()}
+    */
+   public ParallelFileCopier withExecutor(final Executor executor) {
+      Args.notNull("executor", executor);
+      this.executor = executor;
+      return this;
+   }
+
+   /**
+    * @param onBytesWritten LongBiConsumer#accept(long bytesWritten, long totalBytesWritten), invoked concurrently
+    */
+   public ParallelFileCopier withOnBytesWritten(final @Nullable BiLongConsumer onBytesWritten) {
+      this.onBytesWritten = onBytesWritten;
+      return this;
+   }
+
+   /**
+    * @param parallelism the maximum number of chunks copied concurrently, default is 4
+    */
+   public ParallelFileCopier withParallelism(final int parallelism) {
+      Args.greaterThan("parallelism", parallelism, 0);
+      this.parallelism = parallelism;
+      return this;
+   }
+}
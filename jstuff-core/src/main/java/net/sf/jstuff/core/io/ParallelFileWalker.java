@@ -0,0 +1,601 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.concurrent.RuntimeInterruptedException;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Walks a file tree in parallel by fanning out the directory listings over a {@link ForkJoinPool}.
+ * <p>
+ * In contrast to {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)} the visitor is invoked concurrently from multiple threads
+ * and in no particular order, except that {@link Visitor#postVisitDirectory(Path)} of a directory is invoked after all of its entries
+ * have been visited. Symbolic links are not followed.
+ *
+ * <pre>
+ * ParallelFileWalker.Progress progress = new ParallelFileWalker().deleteFiles(cacheDir, (file, attrs) -> file.toString().endsWith(".tmp"),
+ *    null);
+ * System.out.println(progress.getFilesDeleted() + " files deleted, " + progress.getBytesFreed() + " bytes freed");
+ * </pre>
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public class ParallelFileWalker {
+
+   /**
+    * Live statistics of a walk. All counters can be read from any thread while the walk is still running.
+    */
+   public static final class Progress {
+      private final long startNanos = System.nanoTime();
+      private volatile long endNanos = -1;
+      private final LongAdder directories = new LongAdder();
+      private final LongAdder files = new LongAdder();
+      private final LongAdder bytes = new LongAdder();
+      private final LongAdder filesDeleted = new LongAdder();
+      private final LongAdder directoriesDeleted = new LongAdder();
+      private final LongAdder bytesFreed = new LongAdder();
+
+      void done() {
+         endNanos = System.nanoTime();
+      }
+
+      /**
+       * @return total size of all visited files
+       */
+      public long getBytes() {
+         return bytes.sum();
+      }
+
+      public long getBytesFreed() {
+         return bytesFreed.sum();
+      }
+
+      public long getDirectories() {
+         return directories.sum();
+      }
+
+      public long getDirectoriesDeleted() {
+         return directoriesDeleted.sum();
+      }
+
+      public Duration getElapsed() {
+         final long end = endNanos;
+         return Duration.ofNanos((end == -1 ? System.nanoTime() : end) - startNanos);
+      }
+
+      public long getFiles() {
+         return files.sum();
+      }
+
+      public long getFilesDeleted() {
+         return filesDeleted.sum();
+      }
+
+      /**
+       * @return number of visited files per second
+       */
+      public double getFilesPerSecond() {
+         final long elapsedNanos = getElapsed().toNanos();
+         return elapsedNanos == 0 ? 0 : files.sum() * 1_000_000_000D / elapsedNanos;
+      }
+
+      public boolean isDone() {
+         return endNanos != -1;
+      }
+
+      @Override
+      public String toString() {
+         return Progress.class.getSimpleName() + "[directories=" + getDirectories() + ", files=" + getFiles() + ", bytes=" + getBytes()
+               + ", filesDeleted=" + getFilesDeleted() + ", directoriesDeleted=" + getDirectoriesDeleted() + ", bytesFreed="
+               + getBytesFreed() + ", elapsed=" + getElapsed() + ", filesPerSecond=" + Math.round(getFilesPerSecond()) + "]";
+      }
+   }
+
+   /**
+    * Callback interface of {@link ParallelFileWalker#walk(Path, Visitor)}. Implementations must be thread-safe.
+    */
+   public interface Visitor {
+
+      /**
+       * Invoked after all entries of the given directory have been visited.
+       */
+      default void postVisitDirectory(final Path dir) throws IOException {
+      }
+
+      /**
+       * @return <code>true</code> if the entries of the given directory shall be visited
+       */
+      default boolean preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+         return true;
+      }
+
+      /**
+       * Invoked for all entries that are not directories, i.e. regular files, symbolic links and other files.
+       */
+      void visitFile(Path file, BasicFileAttributes attrs) throws IOException;
+   }
+
+   /**
+    * Lazily created default pool shared by all walkers. The walk tasks block in file system calls, thus they do not run on
+    * {@link ForkJoinPool#commonPool()} where they would stall parallel streams and asynchronous tasks of unrelated code.
+    */
+   private static final class DefaultPool {
+      static final ForkJoinPool INSTANCE = new ForkJoinPool(Math.max(4, Math.min(16, Runtime.getRuntime().availableProcessors())),
+         pool -> {
+            final var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(ParallelFileWalker.class.getSimpleName() + "-" + thread.getPoolIndex());
+            return thread;
+         }, null, false);
+   }
+
+   private static final Visitor NOOP_VISITOR = (file, attrs) -> { /* ignore */ };
+
+   private static final @NonNull LinkOption[] NOFOLLOW_LINKS = {LinkOption.NOFOLLOW_LINKS};
+
+   private static final int DEFAULT_DELETE_BATCH_SIZE = 256;
+   private static final int DEFAULT_STREAM_BUFFER_SIZE = 4096;
+   private static final Object END_OF_STREAM = new Object();
+
+   /**
+    * Holds the state of a single walk.
+    */
+   private final class Walk {
+
+      /**
+       * A batch of files to be deleted asynchronously while the directory listing continues.
+       */
+      final class DeleteBatch extends RecursiveAction {
+         private static final long serialVersionUID = 1L;
+
+         final List<Path> files = new ArrayList<>(deleteBatchSize);
+         final List<BasicFileAttributes> attrs = new ArrayList<>(deleteBatchSize);
+
+         @Override
+         protected void compute() {
+            final var onFileDeleted = Walk.this.onFileDeleted;
+            for (int i = 0, l = files.size(); i < l && !isAborted(); i++) {
+               final Path file = files.get(i);
+               final BasicFileAttributes fileAttrs = attrs.get(i);
+               try {
+                  Files.delete(file);
+               } catch (final NoSuchFileException ex) {
+                  continue; // deleted concurrently
+               } catch (final IOException ex) {
+                  fail(ex);
+                  return;
+               }
+               progress.filesDeleted.increment();
+               progress.bytesFreed.add(fileAttrs.size());
+               if (onFileDeleted != null) {
+                  onFileDeleted.accept(file, fileAttrs);
+               }
+            }
+         }
+      }
+
+      final class DirectoryTask extends RecursiveAction {
+         private static final long serialVersionUID = 1L;
+
+         final Path dir;
+         final int depth;
+
+         DirectoryTask(final Path dir, final int depth) {
+            this.dir = dir;
+            this.depth = depth;
+         }
+
+         @Override
+         protected void compute() {
+            if (isAborted())
+               return;
+
+            final var subTasks = new ArrayList<ForkJoinTask<?>>();
+            DeleteBatch batch = null;
+            try {
+               try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                  for (final Path entry : entries) {
+                     if (isAborted()) {
+                        break;
+                     }
+
+                     final BasicFileAttributes attrs;
+                     try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, NOFOLLOW_LINKS);
+                     } catch (final NoSuchFileException ex) {
+                        continue; // deleted concurrently
+                     }
+
+                     if (attrs.isDirectory()) {
+                        progress.directories.increment();
+                        if (visitor.preVisitDirectory(entry, attrs) && depth + 1 < maxDepth) {
+                           final var task = new DirectoryTask(entry, depth + 1);
+                           task.fork();
+                           subTasks.add(task);
+                        }
+                     } else if (visitFile(entry, attrs)) {
+                        if (batch == null) {
+                           batch = new DeleteBatch();
+                        }
+                        batch.files.add(entry);
+                        batch.attrs.add(attrs);
+                        if (batch.files.size() == deleteBatchSize) {
+                           batch.fork();
+                           subTasks.add(batch);
+                           batch = null;
+                        }
+                     }
+                  }
+               }
+            } catch (final NoSuchFileException ex) {
+               if (!isDeleting()) {
+                  fail(ex);
+               }
+               return;
+            } catch (final IOException ex) {
+               fail(ex);
+            }
+
+            if (batch != null) {
+               batch.invoke();
+            }
+            for (final ForkJoinTask<?> task : subTasks) {
+               task.join();
+            }
+
+            if (isAborted())
+               return;
+
+            try {
+               visitor.postVisitDirectory(dir);
+               if (deleteDirectories) {
+                  deleteDirectory(dir);
+               }
+            } catch (final IOException ex) {
+               fail(ex);
+            }
+         }
+      }
+
+      final Visitor visitor;
+      final @Nullable BiPredicate<Path, BasicFileAttributes> deleteFilter;
+      final @Nullable BiConsumer<Path, BasicFileAttributes> onFileDeleted;
+      final boolean deleteDirectories;
+      final int maxDepth = ParallelFileWalker.this.maxDepth;
+      final int deleteBatchSize = ParallelFileWalker.this.deleteBatchSize;
+      final Progress progress = ParallelFileWalker.this.progress == null ? new Progress() : ParallelFileWalker.this.progress;
+      final AtomicReference<@Nullable Exception> failure = new AtomicReference<>();
+      final AtomicBoolean aborted = new AtomicBoolean();
+
+      Walk(final Visitor visitor, final @Nullable BiPredicate<Path, BasicFileAttributes> deleteFilter,
+            final @Nullable BiConsumer<Path, BasicFileAttributes> onFileDeleted, final boolean deleteDirectories) {
+         this.visitor = visitor;
+         this.deleteFilter = deleteFilter;
+         this.onFileDeleted = onFileDeleted;
+         this.deleteDirectories = deleteDirectories;
+      }
+
+      void abort() {
+         aborted.set(true);
+      }
+
+      void deleteDirectory(final Path dir) throws IOException {
+         try {
+            Files.delete(dir);
+            progress.directoriesDeleted.increment();
+         } catch (final NoSuchFileException ex) {
+            // deleted concurrently
+         }
+      }
+
+      void fail(final Exception ex) {
+         if (!failure.compareAndSet(null, ex)) {
+            final var firstFailure = failure.get();
+            if (firstFailure != null && firstFailure != ex) {
+               firstFailure.addSuppressed(ex);
+            }
+         }
+         abort();
+      }
+
+      boolean isAborted() {
+         return aborted.get();
+      }
+
+      boolean isDeleting() {
+         return deleteFilter != null || deleteDirectories;
+      }
+
+      Progress run(final Path root) throws IOException {
+         try {
+            final BasicFileAttributes attrs;
+            try {
+               attrs = Files.readAttributes(root, BasicFileAttributes.class, NOFOLLOW_LINKS);
+            } catch (final NoSuchFileException ex) {
+               if (isDeleting())
+                  return progress;
+               throw ex;
+            }
+
+            if (attrs.isDirectory()) {
+               progress.directories.increment();
+               if (visitor.preVisitDirectory(root, attrs)) {
+                  final var task = new DirectoryTask(root, 0);
+                  if (maxDepth > 0) {
+                     getPool().invoke(task);
+                  } else {
+                     visitor.postVisitDirectory(root);
+                  }
+               }
+            } else if (visitFile(root, attrs)) {
+               final var batch = new DeleteBatch();
+               batch.files.add(root);
+               batch.attrs.add(attrs);
+               getPool().invoke(batch);
+            }
+         } finally {
+            progress.done();
+         }
+
+         final var ex = failure.get();
+         if (ex instanceof final IOException ioEx)
+            throw ioEx;
+         if (ex instanceof final RuntimeException rtEx)
+            throw rtEx;
+         return progress;
+      }
+
+      /**
+       * @return true if the file shall be deleted
+       */
+      boolean visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+         progress.files.increment();
+         progress.bytes.add(attrs.size());
+         visitor.visitFile(file, attrs);
+         final var deleteFilter = this.deleteFilter;
+         return deleteFilter != null && deleteFilter.test(file, attrs);
+      }
+   }
+
+   /**
+    * Puts the item into the queue, compensating the blocked {@link ForkJoinPool} worker. Gives up once the stream is closed.
+    */
+   private static void put(final BlockingQueue<Object> queue, final Object item, final AtomicBoolean isClosed) throws IOException {
+      if (queue.offer(item))
+         return;
+      try {
+         ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            boolean isDone;
+
+            @Override
+            public boolean block() throws InterruptedException {
+               while (!isDone && !isClosed.get()) {
+                  isDone = queue.offer(item, 100, TimeUnit.MILLISECONDS);
+               }
+               return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+               return isDone || isClosed.get() || (isDone = queue.offer(item));
+            }
+         });
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw (IOException) new InterruptedIOException().initCause(ex);
+      }
+   }
+
+   private @Nullable ForkJoinPool pool;
+   private int maxDepth = Integer.MAX_VALUE;
+   private int deleteBatchSize = DEFAULT_DELETE_BATCH_SIZE;
+   private int streamBufferSize = DEFAULT_STREAM_BUFFER_SIZE;
+   private @Nullable Progress progress;
+
+   /**
+    * Deletes all files of the given directory tree that match the given filter. Directories are not deleted.
+    * <p>
+    * Matching files are deleted in batches asynchronously while the directory listing continues.
+    *
+    * @param onFileDeleted optional callback that is invoked concurrently for each deleted file
+    */
+   public Progress deleteFiles(final Path root, final BiPredicate<Path, BasicFileAttributes> fileFilter,
+         final @Nullable BiConsumer<Path, BasicFileAttributes> onFileDeleted) throws IOException {
+      Args.notNull("root", root);
+      Args.notNull("fileFilter", fileFilter);
+
+      return new Walk(NOOP_VISITOR, fileFilter, onFileDeleted, false).run(root);
+   }
+
+   /**
+    * Deletes the given file or directory tree.
+    */
+   public Progress deleteTree(final Path root) throws IOException {
+      Args.notNull("root", root);
+
+      return new Walk(NOOP_VISITOR, (file, attrs) -> true, null, true).run(root);
+   }
+
+   private ForkJoinPool getPool() {
+      final var pool = this.pool;
+      return pool == null ? DefaultPool.INSTANCE : pool;
+   }
+
+   /**
+    * Lazily streams all entries of the given directory tree, including the root, that match the given filter.
+    * <p>
+    * The tree is walked in the background once the first element is requested. Matches are handed over via a bounded buffer, thus a
+    * slow consumer throttles the walk. The stream should be closed if it is not fully consumed.
+    *
+    * @param filter evaluated concurrently for each visited entry
+    */
+   public Stream<Path> stream(final Path root, final BiPredicate<Path, BasicFileAttributes> filter) {
+      Args.notNull("root", root);
+      Args.notNull("filter", filter);
+
+      final var queue = new ArrayBlockingQueue<Object>(streamBufferSize);
+      final var isClosed = new AtomicBoolean();
+      final var walk = new Walk(new Visitor() {
+         @Override
+         public boolean preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+            if (filter.test(dir, attrs)) {
+               put(queue, dir, isClosed);
+            }
+            return true;
+         }
+
+         @Override
+         public void visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+            if (filter.test(file, attrs)) {
+               put(queue, file, isClosed);
+            }
+         }
+      }, null, null, false);
+
+      final var spliterator = new Spliterators.AbstractSpliterator<Path>(Long.MAX_VALUE, Spliterator.DISTINCT | Spliterator.NONNULL) {
+         boolean isStarted;
+         boolean isEnded;
+
+         @Override
+         public boolean tryAdvance(final Consumer<? super Path> action) {
+            if (isEnded)
+               return false;
+
+            if (!isStarted) {
+               isStarted = true;
+               getPool().execute(() -> {
+                  try {
+                     walk.run(root);
+                  } catch (final IOException | RuntimeException ex) {
+                     walk.fail(ex);
+                  } finally {
+                     try {
+                        put(queue, END_OF_STREAM, isClosed);
+                     } catch (final IOException ex) {
+                        walk.fail(ex);
+                     }
+                  }
+               });
+            }
+
+            final Object item;
+            try {
+               item = queue.take();
+            } catch (final InterruptedException ex) {
+               Thread.currentThread().interrupt();
+               throw new RuntimeInterruptedException(ex);
+            }
+
+            if (item == END_OF_STREAM) {
+               isEnded = true;
+               final var ex = walk.failure.get();
+               if (ex instanceof final IOException ioEx)
+                  throw new UncheckedIOException(ioEx);
+               if (ex instanceof final RuntimeException rtEx)
+                  throw rtEx;
+               return false;
+            }
+            action.accept((Path) item);
+            return true;
+         }
+      };
+
+      return StreamSupport.stream(spliterator, false).onClose(() -> {
+         isClosed.set(true);
+         walk.abort();
+         queue.clear();
+      });
+   }
+
+   /**
+    * Visits all entries of the given directory tree.
+    *
+    * @param visitor thread-safe visitor that is invoked concurrently
+    */
+   public Progress walk(final Path root, final Visitor visitor) throws IOException {
+      Args.notNull("root", root);
+      Args.notNull("visitor", visitor);
+
+      return new Walk(visitor, null, null, false).run(root);
+   }
+
+   /**
+    * @param deleteBatchSize the maximum number of files deleted by a single task, default is 256
+    */
+   public ParallelFileWalker withDeleteBatchSize(final int deleteBatchSize) {
+      Args.greaterThan("deleteBatchSize", deleteBatchSize, 0);
+      this.deleteBatchSize = deleteBatchSize;
+      return this;
+   }
+
+   /**
+    * @param maxDepth the maximum number of directory levels to visit, 0 means only the root, 1 the root and its direct entries.
+    *           Default is {@link Integer#MAX_VALUE}.
+    */
+   public ParallelFileWalker withMaxDepth(final int maxDepth) {
+      Args.notNegative("maxDepth", maxDepth);
+      this.maxDepth = maxDepth;
+      return this;
+   }
+
+   /**
+    * @param pool the pool to fan out the directory listings, default is a dedicated pool shared by all walkers with a parallelism of
+    *           the number of available processors, but at least 4 and at most 16
+    */
+   public ParallelFileWalker withPool(final ForkJoinPool pool) {
+      Args.notNull("pool", pool);
+      this.pool = pool;
+      return this;
+   }
+
+   /**
+    * @param progress progress instance to update during the following walks, e.g. to monitor it from another thread. If null, a new
+    *           instance is created for each walk.
+    */
+   public ParallelFileWalker withProgress(final @Nullable Progress progress) {
+      this.progress = progress;
+      return this;
+   }
+
+   /**
+    * @param streamBufferSize the maximum number of matches buffered by {@link #stream(Path, BiPredicate)}, default is 4096
+    */
+   public ParallelFileWalker withStreamBufferSize(final int streamBufferSize) {
+      Args.greaterThan("streamBufferSize", streamBufferSize, 0);
+      this.streamBufferSize = streamBufferSize;
+      return this;
+   }
+}
@@ -4,6 +4,7 @@
  */
 package net.sf.jstuff.core.io;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,14 +15,21 @@
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Scanner;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -32,6 +40,7 @@
 
 import net.sf.jstuff.core.Strings;
 import net.sf.jstuff.core.collection.CollectionUtils;
+import net.sf.jstuff.core.concurrent.RuntimeInterruptedException;
 import net.sf.jstuff.core.concurrent.ScalingScheduledExecutorService;
 import net.sf.jstuff.core.concurrent.Threads;
 import net.sf.jstuff.core.functional.ThrowingConsumer;
@@ -44,6 +53,23 @@
  */
 public abstract class Processes {
 
+   /**
+    * Result of {@link Processes#runAll(Collection, int, Duration)}.
+    *
+    * @param processes the processes in the order of the given builders, <code>null</code> for processes that could not be started
+    * @param killed number of processes that were killed or terminated, e.g. because the timeout was reached
+    * @param elapsed wall-clock time of the whole batch
+    * @param totalDuration sum of the run times of all started processes
+    */
+   public record BatchResult(List<@Nullable ProcessWrapper> processes, int succeeded, int failed, int killed, int notStarted,
+         Duration elapsed, Duration minDuration, Duration maxDuration, Duration totalDuration) {
+
+      public Duration averageDuration() {
+         final int started = succeeded + failed + killed;
+         return started == 0 ? Duration.ZERO : totalDuration.dividedBy(started);
+      }
+   }
+
    public static class Builder {
 
       private Function<Object, String> stringifier = Objects::toString;
@@ -52,6 +78,7 @@ public static class Builder {
       private final List<Object> args = new ArrayList<>(2);
       private @Nullable Map<String, Object> env;
       private @Nullable Object /*CharSequence|File|InputStream*/ input;
+      private @Nullable Executor executor;
       private @Nullable Consumer<ProcessWrapper> onExit;
       private @Nullable File workDir;
 
@@ -62,6 +89,8 @@ public static class Builder {
       private boolean redirectErrorToOutput;
       private @Nullable Object /*Appendable|File|OutputStream|Consumer<String>*/ redirectError;
       private @Nullable Object /*Appendable|File|OutputStream|Consumer<String>*/ redirectOutput;
+      private int redirectErrorBufferSize;
+      private int redirectOutputBufferSize;
 
       protected Builder(final String exe) {
          executable = exe;
@@ -88,6 +117,11 @@ private void assertStdOutNotInherited() {
             throw new IllegalStateException("withRedirectOutput() cannot be combined with withInheritStdOut().");
       }
 
+      private Executor getExecutor() {
+         final var executor = this.executor;
+         return executor == null ? STREAM_PUMPS : executor;
+      }
+
       public Builder onExit(final @Nullable Consumer<ProcessWrapper> action) {
          onExit = action;
          return this;
@@ -105,18 +139,67 @@ public Builder onExit(final @Nullable ThrowingConsumer<ProcessWrapper, Throwable
             } catch (final IOException ex) {
                throw new RuntimeIOException(ex);
             }
-         }, BACKGROUND_THREADS);
+         }, getExecutor());
       }
 
-      @SuppressWarnings("null")
-      private CompletableFuture<@Nullable Void> redirect(final InputStream in, final Consumer<String> lineConsumer) {
-         return CompletableFuture.runAsync(() -> {
-            try (var sc = new Scanner(in)) {
-               while (sc.hasNextLine()) {
-                  lineConsumer.accept(sc.nextLine());
+      /**
+       * @param maxBufferedLines if greater than 0 lines are read ahead into a bounded buffer and passed to the consumer by a separate task.
+       *           If the buffer is full, reading pauses until the consumer catches up, which eventually blocks the process when it writes
+       *           to the pipe. The consumer task always runs on {@link Processes#STREAM_PUMPS} and not on the configured executor,
+       *           otherwise all threads of a bounded executor could block in reading tasks waiting for consumer tasks queued behind them.
+       */
+      private CompletableFuture<@Nullable Void> redirect(final InputStream in, final Consumer<String> lineConsumer,
+            final int maxBufferedLines) {
+         final Executor executor = getExecutor();
+         if (maxBufferedLines < 1)
+            return CompletableFuture.runAsync(() -> readLines(in, lineConsumer), executor);
+
+         final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(maxBufferedLines);
+         final var reading = CompletableFuture.runAsync(() -> {
+            try {
+               readLines(in, line -> {
+                  try {
+                     buffer.put(line);
+                  } catch (final InterruptedException ex) {
+                     Thread.currentThread().interrupt();
+                     throw new RuntimeInterruptedException(ex);
+                  }
+               });
+            } finally {
+               // always deliver the end marker, even if interrupted, otherwise the consumer task blocks forever in buffer.take()
+               boolean isInterrupted = Thread.interrupted();
+               while (true) {
+                  try {
+                     buffer.put(END_OF_STREAM);
+                     break;
+                  } catch (final InterruptedException ex) {
+                     isInterrupted = true;
+                  }
+               }
+               if (isInterrupted) {
+                  Thread.currentThread().interrupt();
                }
             }
-         }, BACKGROUND_THREADS);
+         }, executor);
+         final var consuming = CompletableFuture.runAsync(() -> {
+            try {
+               for (Object line = buffer.take(); line != END_OF_STREAM; line = buffer.take()) {
+                  try {
+                     lineConsumer.accept((String) line);
+                  } catch (final RuntimeException ex) {
+                     // stop reading and discard any remaining lines so the reading task does not block forever
+                     IOUtils.closeQuietly(in);
+                     while (buffer.take() != END_OF_STREAM) {
+                        // discard
+                     }
+                     throw ex;
+                  }
+               }
+            } catch (final InterruptedException ex) {
+               Threads.handleInterruptedException(ex);
+            }
+         }, STREAM_PUMPS);
+         return CompletableFuture.allOf(reading, consuming);
       }
 
       private CompletableFuture<@Nullable Void> redirect(final InputStream in, final OutputStream out) {
@@ -126,7 +209,7 @@ public Builder onExit(final @Nullable ThrowingConsumer<ProcessWrapper, Throwable
             } catch (final IOException ex) {
                throw new RuntimeIOException(ex);
             }
-         }, BACKGROUND_THREADS);
+         }, getExecutor());
       }
 
       /**
@@ -200,7 +283,8 @@ public ProcessWrapper start() throws IOException {
             } else if (redirectError instanceof final Appendable appendable) {
                stdErrDone = redirect(proc.getErrorStream(), appendable).exceptionally(ex -> null);
             } else {
-               stdErrDone = redirect(proc.getErrorStream(), (Consumer<String>) redirectError).exceptionally(ex -> null);
+               stdErrDone = redirect(proc.getErrorStream(), (Consumer<String>) redirectError, redirectErrorBufferSize) //
+                  .exceptionally(ex -> null);
             }
          }
 
@@ -211,7 +295,8 @@ public ProcessWrapper start() throws IOException {
             } else if (redirectOutput instanceof final Appendable appendable) {
                stdOutDone = redirect(proc.getInputStream(), appendable).exceptionally(ex -> null);
             } else {
-               stdOutDone = redirect(proc.getInputStream(), (Consumer<String>) redirectOutput).exceptionally(ex -> null);
+               stdOutDone = redirect(proc.getInputStream(), (Consumer<String>) redirectOutput, redirectOutputBufferSize) //
+                  .exceptionally(ex -> null);
             }
          }
 
@@ -262,6 +347,21 @@ public Builder withEnvironment(final Consumer<Map<String, Object>> envConfigurer
          return this;
       }
 
+      /**
+       * Executor used to pump the redirected stdin/stdout/stderr streams, e.g. a bounded thread pool or
+       * <code>Executors.newVirtualThreadPerTaskExecutor()</code>. A bounded executor needs one free thread per redirected stream.
+       * <p>
+       * By default virtual threads are used if supported by the JVM (Java 21+), otherwise a shared thread pool. The line consumers of
+       * buffered redirects, see {@link #withRedirectOutput(Consumer, int)} and {@link #withRedirectError(Consumer, int)}, always run on
+       * the default executor.
+       *
+       * @param executor if <code>null</code> the default executor is used
+       */
+      public Builder withExecutor(final @Nullable Executor executor) {
+         this.executor = executor;
+         return this;
+      }
+
       /**
        * Inherit stderr of the current process.
        *
@@ -427,10 +527,27 @@ public Builder withRedirectError(final @Nullable Appendable target) {
        * </p>
        */
       public Builder withRedirectError(final @Nullable Consumer<String> lineConsumer) {
+         return withRedirectError(lineConsumer, 0);
+      }
+
+      /**
+       * Redirects stderr line by line to the given consumer.
+       *
+       * <p>
+       * Cannot be combined with {@link #withInheritError()} or {@link #withRedirectErrorToOutput()}.
+       * </p>
+       *
+       * @param maxBufferedLines number of lines that are read ahead while the consumer is busy. If the buffer is full, reading
+       *           stderr pauses which eventually blocks the process. If <code>0</code> lines are passed to the consumer directly by the
+       *           reading thread.
+       */
+      public Builder withRedirectError(final @Nullable Consumer<String> lineConsumer, final int maxBufferedLines) {
+         Args.notNegative("maxBufferedLines", maxBufferedLines);
          if (lineConsumer != null) {
             assertRedirectErrorToOuputNotConfigured();
          }
          redirectError = lineConsumer;
+         redirectErrorBufferSize = maxBufferedLines;
          return this;
       }
 
@@ -524,10 +641,27 @@ public Builder withRedirectOutput(final @Nullable Appendable target) {
        * </p>
        */
       public Builder withRedirectOutput(final @Nullable Consumer<String> lineConsumer) {
+         return withRedirectOutput(lineConsumer, 0);
+      }
+
+      /**
+       * Redirects stdout line by line to the given consumer.
+       *
+       * <p>
+       * Cannot be combined with {@link #withInheritOutput()}.
+       * </p>
+       *
+       * @param maxBufferedLines number of lines that are read ahead while the consumer is busy. If the buffer is full, reading
+       *           stdout pauses which eventually blocks the process. If <code>0</code> lines are passed to the consumer directly by the
+       *           reading thread.
+       */
+      public Builder withRedirectOutput(final @Nullable Consumer<String> lineConsumer, final int maxBufferedLines) {
+         Args.notNegative("maxBufferedLines", maxBufferedLines);
          if (lineConsumer != null) {
             assertStdOutNotInherited();
          }
          redirectOutput = lineConsumer;
+         redirectOutputBufferSize = maxBufferedLines;
          return this;
       }
 
@@ -622,7 +756,7 @@ public Builder withWorkingDirectory(final @Nullable Path path) {
             } catch (final IOException ex) {
                throw new RuntimeIOException(ex);
             }
-         }, BACKGROUND_THREADS);
+         }, getExecutor());
       }
 
       private CompletableFuture<@Nullable Void> writeToStdIn(final InputStream in, final Process proc) {
@@ -634,7 +768,7 @@ public Builder withWorkingDirectory(final @Nullable Path path) {
             } finally {
                IOUtils.closeQuietly(in);
             }
-         }, BACKGROUND_THREADS);
+         }, getExecutor());
       }
    }
 
@@ -749,47 +883,20 @@ public ProcessWrapper kill() {
        * redirection tasks (started by {@link Builder#start()}) have finished.
        */
       public CompletableFuture<ProcessWrapper> onExit() {
-         return CompletableFuture.supplyAsync(() -> {
-            try {
-               process.waitFor();
-            } catch (final InterruptedException ex) {
-               Threads.handleInterruptedException(ex);
-            }
-            awaitRedirects();
-            return this;
-         }, BACKGROUND_THREADS);
+         // Process#onExit() is completed by the JDK's process reaper, so no thread is blocked while waiting
+         return CompletableFuture.allOf(process.onExit(), stdInDone, stdOutDone, stdErrDone).thenApply(unused -> this);
       }
 
       public ProcessWrapper onExit(final @Nullable Consumer<ProcessWrapper> action) {
          if (action == null)
             return this;
 
-         BACKGROUND_THREADS.submit(() -> {
-            try {
-               process.waitFor();
-               awaitRedirects();
-               action.accept(this);
-            } catch (final InterruptedException ex) {
-               Threads.handleInterruptedException(ex);
-            }
-         });
+         onExit().thenAcceptAsync(action, BACKGROUND_THREADS);
          return this;
       }
 
       public ProcessWrapper onExit(final @Nullable ThrowingConsumer<ProcessWrapper, Throwable> action) {
-         if (action == null)
-            return this;
-
-         BACKGROUND_THREADS.submit(() -> {
-            try {
-               process.waitFor();
-               awaitRedirects();
-               action.accept(this);
-            } catch (final InterruptedException ex) {
-               Threads.handleInterruptedException(ex);
-            }
-         });
-         return this;
+         return onExit((Consumer<ProcessWrapper>) action);
       }
 
       /**
@@ -849,6 +956,13 @@ public ProcessWrapper waitForExit(final int timeout, final TimeUnit timeUnit) th
    private static final ScheduledExecutorService BACKGROUND_THREADS = new ScalingScheduledExecutorService(0, Integer.MAX_VALUE, Duration
       .ofSeconds(30));
 
+   /**
+    * default executor for pumping process streams
+    */
+   private static final Executor STREAM_PUMPS = createStreamPumpsExecutor();
+
+   private static final Object END_OF_STREAM = new Object();
+
    public static Builder builder(final File executable) {
       return builder(executable.getPath());
    }
@@ -862,6 +976,18 @@ public static Builder builder(final String executable) {
       return new Builder(executable);
    }
 
+   /**
+    * @return an executor running each task in a new virtual thread if supported by the JVM (Java 21+), otherwise
+    *         {@link #BACKGROUND_THREADS}
+    */
+   private static Executor createStreamPumpsExecutor() {
+      try {
+         return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (final ReflectiveOperationException | RuntimeException ex) {
+         return BACKGROUND_THREADS;
+      }
+   }
+
    /**
     * First requests graceful termination/shutdown of the process.
     * If grace period is over and the process is still running, requests forceful termination.
@@ -913,4 +1039,104 @@ public static boolean destroy(final Process process, final long gracePeriod, fin
       LOG.debug("Process %s terminated (%s)", process.pid(), forcibly ? "forcefully" : "gracefully");
       return true;
    }
+
+   private static void readLines(final InputStream in, final Consumer<String> lineConsumer) {
+      try (var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            lineConsumer.accept(line);
+         }
+      } catch (final IOException ex) {
+         throw new RuntimeIOException(ex);
+      }
+   }
+
+   /**
+    * Starts the processes configured by the given builders, running at most <code>maxConcurrency</code> processes at the same time, and
+    * blocks until all processes have terminated.
+    *
+    * @param timeout max run time per process after which it is killed, <code>null</code> for no limit
+    */
+   @SuppressWarnings("null")
+   public static BatchResult runAll(final Collection<Builder> builders, final int maxConcurrency, final @Nullable Duration timeout)
+         throws InterruptedException {
+      Args.notNull("builders", builders);
+      Args.greaterThan("maxConcurrency", maxConcurrency, 0);
+
+      final int count = builders.size();
+      final var permits = new Semaphore(maxConcurrency);
+      final var processes = new ArrayList<@Nullable ProcessWrapper>(count);
+      final var durations = new long[count];
+      final var onExits = new ArrayList<CompletableFuture<?>>(count);
+
+      final long startedAt = System.nanoTime();
+      try {
+         for (final Builder builder : builders) {
+            final int index = processes.size();
+            permits.acquire();
+            final long processStartedAt = System.nanoTime();
+            final ProcessWrapper process;
+            try {
+               process = builder.start();
+            } catch (final IOException ex) {
+               LOG.debug(ex, "Failed to start process %s", builder);
+               permits.release();
+               processes.add(null);
+               continue;
+            }
+            processes.add(process);
+
+            final ScheduledFuture<?> timeoutTask = timeout == null //
+                  ? null
+                  : BACKGROUND_THREADS.schedule(process::kill, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            onExits.add(process.onExit().whenComplete((p, ex) -> {
+               durations[index] = System.nanoTime() - processStartedAt;
+               if (timeoutTask != null) {
+                  timeoutTask.cancel(false);
+               }
+               permits.release();
+            }));
+         }
+         CompletableFuture.allOf(onExits.toArray(CompletableFuture[]::new)).get();
+      } catch (final InterruptedException ex) {
+         for (final var process : processes) {
+            if (process != null) {
+               process.kill();
+            }
+         }
+         throw ex;
+      } catch (final ExecutionException ex) {
+         throw new IllegalStateException(ex.getCause());
+      }
+      final long elapsed = System.nanoTime() - startedAt;
+
+      int succeeded = 0;
+      int failed = 0;
+      int killed = 0;
+      long minDuration = Long.MAX_VALUE;
+      long maxDuration = 0;
+      long totalDuration = 0;
+      for (int i = 0; i < count; i++) {
+         final var process = processes.get(i);
+         if (process == null) {
+            continue;
+         }
+         switch (process.getState()) {
+            case SUCCEEDED:
+               succeeded++;
+               break;
+            case FAILED:
+               failed++;
+               break;
+            default:
+               killed++;
+         }
+         minDuration = Math.min(minDuration, durations[i]);
+         maxDuration = Math.max(maxDuration, durations[i]);
+         totalDuration += durations[i];
+      }
+      return new BatchResult(Collections.unmodifiableList(processes), succeeded, failed, killed, count - succeeded - failed - killed, //
+         Duration.ofNanos(elapsed), Duration.ofNanos(minDuration == Long.MAX_VALUE ? 0 : minDuration), Duration.ofNanos(maxDuration),
+         Duration.ofNanos(totalDuration));
+   }
 }
@@ -8,13 +8,18 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 import net.sf.jstuff.core.collection.ArrayUtils;
 import net.sf.jstuff.core.validation.Args;
 
 /**
  * An unsynchronized implementation of {@link java.io.ByteArrayOutputStream}.
+ * <p>
+ * See {@link PooledByteArrayOutputStream} for a variant that recycles its buffers and never copies on growth.
  *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
@@ -52,13 +57,14 @@ private void ensureCapacity(final int minCapacity) {
       if (minCapacity < 0)
          throw new OutOfMemoryError("Cannot allocate array larger than " + Integer.MAX_VALUE);
 
-      final int newCapacity = Math.max( //
-         dataSize + (dataSize >> 2) /* == dataSize x 1.5 */, //
+      int newCapacity = Math.max( //
+         dataSize + (dataSize >> 1) /* == dataSize x 1.5 */, //
          minCapacity < initialSize ? initialSize : minCapacity //
       );
-      final var copy = new byte[newCapacity];
-      System.arraycopy(data, 0, copy, 0, count);
-      data = copy;
+      if (newCapacity < 0) {
+         newCapacity = Integer.MAX_VALUE;
+      }
+      data = Arrays.copyOf(data, newCapacity);
    }
 
    /**
@@ -88,6 +94,13 @@ public byte[] toByteArray() {
       return copy;
    }
 
+   /**
+    * @return a read-only view of the written bytes without copying them. The view is only valid until the stream is written to or reset.
+    */
+   public ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(data, 0, count).asReadOnlyBuffer();
+   }
+
    /**
     * This will reset the internal buffer.
     *
@@ -164,4 +177,14 @@ public void writeTo(final OutputStream out) throws IOException {
 
       out.write(data, 0, count);
    }
+
+   @SuppressWarnings("resource")
+   public void writeTo(final WritableByteChannel channel) throws IOException {
+      Args.notNull("channel", channel);
+
+      final var buffer = ByteBuffer.wrap(data, 0, count);
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
 }
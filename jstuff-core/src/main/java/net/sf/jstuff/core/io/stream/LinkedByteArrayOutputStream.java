@@ -5,27 +5,156 @@
 package net.sf.jstuff.core.io.stream;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 import org.eclipse.jdt.annotation.Nullable;
 
+import net.sf.jstuff.core.collection.ArrayUtils;
+import net.sf.jstuff.core.io.ByteArrayPool;
 import net.sf.jstuff.core.validation.Args;
 
 /**
- * An unsynchronized implementation of {@link java.io.ByteArrayOutputStream} that uses an internal linked list of byte blocks instead of
+ * An unsynchronized implementation of {@link java.io.ByteArrayOutputStream} that uses an internal list of byte blocks instead of
  * resizing/copying a single internal byte array.
+ * <p>
+ * The written bytes can be consumed without creating a contiguous copy via {@link #asByteBuffers()}, {@link #asInputStream()},
+ * {@link #writeTo(OutputStream)} or {@link #writeTo(WritableByteChannel)}.
+ * <p>
+ * If a {@link ByteArrayPool} is specified, blocks are borrowed from the pool and returned to it on {@link #reset()} and {@link #close()}.
  *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public class LinkedByteArrayOutputStream extends OutputStream {
 
+   private final class BlocksInputStream extends InputStream {
+      private final int blockCount;
+      private final int lastBlockLength;
+      private int blockIndex;
+      private int blockReadPos;
+      private int markBlockIndex;
+      private int markBlockReadPos;
+
+      BlocksInputStream() {
+         final var blocks = LinkedByteArrayOutputStream.this.blocks;
+         blockCount = (blocks == null ? 0 : blocks.size()) + (blockEnd > 0 ? 1 : 0);
+         lastBlockLength = blockWritePos;
+      }
+
+      @Override
+      public int available() {
+         if (blockIndex >= blockCount)
+            return 0;
+
+         long available = blockLength(blockIndex) - blockReadPos;
+         if (blockIndex < blockCount - 1) {
+            available += (long) (blockCount - blockIndex - 2) * blockSize + lastBlockLength;
+         }
+         return (int) Math.min(Integer.MAX_VALUE, available);
+      }
+
+      private int blockLength(final int index) {
+         return index == blockCount - 1 ? lastBlockLength : blockSize;
+      }
+
+      @Override
+      public void close() {
+         // nothing to do
+      }
+
+      @Override
+      @SuppressWarnings("sync-override")
+      public void mark(final int readLimit) {
+         markBlockIndex = blockIndex;
+         markBlockReadPos = blockReadPos;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return true;
+      }
+
+      /**
+       * @return false if the end of the stream is reached
+       */
+      private boolean nextReadableBlock() {
+         while (blockIndex < blockCount && blockReadPos == blockLength(blockIndex)) {
+            blockIndex++;
+            blockReadPos = 0;
+         }
+         return blockIndex < blockCount;
+      }
+
+      @Override
+      public int read() {
+         if (!nextReadableBlock())
+            return -1;
+         return blockAt(blockIndex)[blockReadPos++] & 0xFF;
+      }
+
+      @Override
+      public int read(final byte[] buf, int offset, int length) {
+         if (offset < 0 || length < 0 || offset + length > buf.length)
+            throw new IndexOutOfBoundsException();
+         if (length == 0)
+            return 0;
+
+         int read = 0;
+         while (length > 0 && nextReadableBlock()) {
+            final int copyLength = Math.min(length, blockLength(blockIndex) - blockReadPos);
+            System.arraycopy(blockAt(blockIndex), blockReadPos, buf, offset, copyLength);
+            blockReadPos += copyLength;
+            offset += copyLength;
+            length -= copyLength;
+            read += copyLength;
+         }
+         return read == 0 ? -1 : read;
+      }
+
+      @Override
+      @SuppressWarnings("sync-override")
+      public void reset() {
+         blockIndex = markBlockIndex;
+         blockReadPos = markBlockReadPos;
+      }
+
+      @Override
+      public long skip(long n) {
+         long skipped = 0;
+         while (n > 0 && nextReadableBlock()) {
+            final int skipLength = (int) Math.min(n, blockLength(blockIndex) - blockReadPos);
+            blockReadPos += skipLength;
+            n -= skipLength;
+            skipped += skipLength;
+         }
+         return skipped;
+      }
+   }
+
    private static final int DEFAULT_BLOCK_SIZE = 4096;
 
-   private @Nullable LinkedList<byte[]> blocks;
+   private final @Nullable ByteArrayPool pool;
+
+   /**
+    * full blocks
+    */
+   private @Nullable ArrayList<byte[]> blocks;
+
+   /**
+    * the current block
+    */
    private byte[] block;
+
+   /**
+    * number of usable bytes of the current block, <code>0</code> if no block is allocated
+    */
+   private int blockEnd;
    private final int blockSize;
    private int blockWritePos;
 
@@ -34,17 +163,72 @@ public LinkedByteArrayOutputStream() {
    }
 
    public LinkedByteArrayOutputStream(final int blockSize) {
-      Args.notNegative("blockSize", blockSize);
+      Args.greaterThan("blockSize", blockSize, 0);
+
       this.blockSize = blockSize;
+      pool = null;
       block = new byte[blockSize];
+      blockEnd = blockSize;
    }
 
    /**
-    * Closing a {@link LinkedByteArrayOutputStream} has no effect.
+    * @param pool pool to borrow the blocks from, e.g. {@link ByteArrayPool#SHARED}
+    */
+   public LinkedByteArrayOutputStream(final int blockSize, final ByteArrayPool pool) {
+      Args.greaterThan("blockSize", blockSize, 0);
+      Args.notNull("pool", pool);
+
+      this.blockSize = blockSize;
+      this.pool = pool;
+      block = ArrayUtils.EMPTY_BYTE_ARRAY;
+   }
+
+   /**
+    * Returns read-only views of the blocks holding the written bytes without copying them. The views are only valid until the stream is
+    * reset or closed.
+    */
+   public ByteBuffer[] asByteBuffers() {
+      final var blocks = this.blocks;
+      final int fullBlockCount = blocks == null ? 0 : blocks.size();
+      final var buffers = new ByteBuffer[fullBlockCount + (blockWritePos > 0 ? 1 : 0)];
+      for (int i = 0; i < fullBlockCount; i++) {
+         buffers[i] = ByteBuffer.wrap(blockAt(i), 0, blockSize).asReadOnlyBuffer();
+      }
+      if (blockWritePos > 0) {
+         buffers[fullBlockCount] = ByteBuffer.wrap(block, 0, blockWritePos).asReadOnlyBuffer();
+      }
+      return buffers;
+   }
+
+   /**
+    * Returns an {@link InputStream} that reads the written bytes directly from the blocks without copying them first. The stream only
+    * covers the bytes written before this method was called and is only valid until the stream is reset or closed.
+    */
+   public InputStream asInputStream() {
+      return new BlocksInputStream();
+   }
+
+   private byte[] blockAt(final int index) {
+      final var blocks = this.blocks;
+      return blocks == null || index == blocks.size() ? block : blocks.get(index);
+   }
+
+   /**
+    * Returns all blocks to the pool if one was specified, otherwise closing a {@link LinkedByteArrayOutputStream} has no effect. The stream
+    * is empty afterwards and can be reused.
     */
    @Override
    public void close() {
-      // nothing to do
+      final var pool = this.pool;
+      if (pool == null)
+         return;
+
+      reset();
+      if (blockEnd > 0) {
+         pool.release(block);
+         block = ArrayUtils.EMPTY_BYTE_ARRAY;
+         blockEnd = 0;
+      }
    }
 
    /**
@@ -55,35 +239,62 @@ public void flush() {
       // nothing to do
    }
 
+   public int getBlockSize() {
+      return blockSize;
+   }
+
+   public @Nullable ByteArrayPool getPool() {
+      return pool;
+   }
+
    protected void nextBlock() {
-      var blocks = this.blocks;
-      if (blocks == null) {
-         blocks = this.blocks = new LinkedList<>();
+      if (blockEnd > 0) {
+         if (size() + blockSize < 0)
+            throw new OutOfMemoryError("Cannot hold more than " + Integer.MAX_VALUE + " bytes");
+
+         var blocks = this.blocks;
+         if (blocks == null) {
+            blocks = this.blocks = new ArrayList<>();
+         }
+         blocks.add(block);
       }
 
-      blocks.addLast(block);
-      block = new byte[blockSize];
+      final var pool = this.pool;
+      block = pool == null ? new byte[blockSize] : pool.borrow(blockSize);
+      blockEnd = blockSize;
       blockWritePos = 0;
    }
 
+   /**
+    * Discards the written bytes but keeps the current block for reuse. If a pool was specified, all other blocks are returned to it.
+    */
    public void reset() {
+      final var blocks = this.blocks;
       if (blocks != null) {
+         final var pool = this.pool;
+         if (pool != null) {
+            for (final byte[] fullBlock : blocks) {
+               pool.release(fullBlock);
+            }
+         }
          blocks.clear();
       }
       blockWritePos = 0;
    }
 
    public int size() {
-      return (blocks != null ? blocks.size() : 0) * blockSize + blockWritePos;
+      final var blocks = this.blocks;
+      return (blocks == null ? 0 : blocks.size()) * blockSize + blockWritePos;
    }
 
    public byte[] toByteArray() {
       final var result = new byte[size()];
       int resultWritePos = 0;
 
+      final var blocks = this.blocks;
       if (blocks != null) {
-         for (final byte[] block : blocks) {
-            System.arraycopy(block, 0, result, resultWritePos, blockSize);
+         for (final byte[] fullBlock : blocks) {
+            System.arraycopy(fullBlock, 0, result, resultWritePos, blockSize);
             resultWritePos += blockSize;
          }
       }
@@ -115,18 +326,18 @@ public void write(final byte[] buf, int offset, int length) {
       if (offset < 0 || length < 0 || offset + length > buf.length)
          throw new IndexOutOfBoundsException();
 
-      if (blockWritePos + length <= blockSize) {
+      if (blockWritePos + length <= blockEnd) {
          System.arraycopy(buf, offset, block, blockWritePos, length);
          blockWritePos += length;
          return;
       }
 
       do {
-         if (blockWritePos == blockSize) {
+         if (blockWritePos == blockEnd) {
             nextBlock();
          }
 
-         int copyLength = blockSize - blockWritePos;
+         int copyLength = blockEnd - blockWritePos;
          if (length < copyLength) {
             copyLength = length;
          }
@@ -141,7 +352,7 @@ public void write(final byte[] buf, int offset, int length) {
 
    @Override
    public void write(final int b) throws IOException {
-      if (blockWritePos == blockSize) {
+      if (blockWritePos == blockEnd) {
          nextBlock();
       }
 
@@ -149,11 +360,39 @@ public void write(final int b) throws IOException {
    }
 
    public void writeTo(final OutputStream out) throws IOException {
+      final var blocks = this.blocks;
       if (blocks != null) {
-         for (final byte[] block : blocks) {
-            out.write(block);
+         for (final byte[] fullBlock : blocks) {
+            out.write(fullBlock, 0, blockSize);
          }
       }
       out.write(block, 0, blockWritePos);
    }
+
+   /**
+    * Writes the written bytes to the given channel without copying them, using a single gathering write over all blocks if supported by
+    * the channel.
+    */
+   @SuppressWarnings("resource")
+   public void writeTo(final WritableByteChannel channel) throws IOException {
+      Args.notNull("channel", channel);
+
+      final ByteBuffer[] buffers = asByteBuffers();
+      if (channel instanceof final GatheringByteChannel gatheringChannel) {
+         long remaining = size();
+         int offset = 0;
+         while (remaining > 0) {
+            remaining -= gatheringChannel.write(buffers, offset, buffers.length - offset);
+            while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+               offset++;
+            }
+         }
+      } else {
+         for (final ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+               channel.write(buffer);
+            }
+         }
+      }
+   }
 }
@@ -0,0 +1,234 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import net.sf.jstuff.core.collection.ArrayUtils;
+import net.sf.jstuff.core.io.ByteArrayPool;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * An unsynchronized implementation of {@link java.io.ByteArrayOutputStream} that stores the written bytes in segments borrowed from a
+ * {@link ByteArrayPool}. Segments double in size up to the pool's largest size class, i.e. growing the stream never copies already written
+ * bytes.
+ * <p>
+ * {@link #close()} returns all segments to the pool. The stream is empty afterwards and can be reused.
+ *
+ * <pre>
+ * try (var out = new PooledByteArrayOutputStream()) {
+ *    ...
+ *    out.writeTo(channel);
+ * }
+ * </pre>
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+   private final ByteArrayPool pool;
+   private final int initialSize;
+
+   private byte[][] segments = new byte[8][];
+   private int segmentCount;
+   private byte[] segment = ArrayUtils.EMPTY_BYTE_ARRAY;
+   private int segmentWritePos;
+
+   /**
+    * number of bytes in all segments but the current one
+    */
+   private int fullSegmentsSize;
+
+   public PooledByteArrayOutputStream() {
+      this(1024);
+   }
+
+   public PooledByteArrayOutputStream(final int initialSize) {
+      this(initialSize, ByteArrayPool.SHARED);
+   }
+
+   public PooledByteArrayOutputStream(final int initialSize, final ByteArrayPool pool) {
+      Args.notNegative("initialSize", initialSize);
+      Args.notNull("pool", pool);
+
+      this.initialSize = initialSize;
+      this.pool = pool;
+   }
+
+   /**
+    * Returns all segments to the pool. Byte buffers obtained via {@link #toByteBuffers()} must not be used afterwards.
+    */
+   @Override
+   public void close() {
+      for (int i = 0; i < segmentCount; i++) {
+         pool.release(segments[i]);
+         segments[i] = ArrayUtils.EMPTY_BYTE_ARRAY;
+      }
+      segmentCount = 0;
+      segment = ArrayUtils.EMPTY_BYTE_ARRAY;
+      segmentWritePos = 0;
+      fullSegmentsSize = 0;
+   }
+
+   /**
+    * Flushing a {@link PooledByteArrayOutputStream} has no effect.
+    */
+   @Override
+   public void flush() {
+      // nothing to do
+   }
+
+   public ByteArrayPool getPool() {
+      return pool;
+   }
+
+   private void nextSegment(final int minSize) {
+      if (fullSegmentsSize + segmentWritePos + minSize < 0)
+         throw new OutOfMemoryError("Cannot hold more than " + Integer.MAX_VALUE + " bytes");
+
+      final int size = segmentCount == 0 //
+            ? Math.max(initialSize, minSize)
+            : Math.max(Math.min(segment.length * 2, pool.getMaxArraySize()), minSize);
+      if (segmentCount == segments.length) {
+         segments = Arrays.copyOf(segments, segmentCount * 2);
+      }
+      fullSegmentsSize += segmentWritePos;
+      segment = pool.borrow(size);
+      segments[segmentCount++] = segment;
+      segmentWritePos = 0;
+   }
+
+   /**
+    * Discards the written bytes but keeps the first segment for reuse. All other segments are returned to the pool.
+    */
+   public void reset() {
+      for (int i = 1; i < segmentCount; i++) {
+         pool.release(segments[i]);
+         segments[i] = ArrayUtils.EMPTY_BYTE_ARRAY;
+      }
+      if (segmentCount > 0) {
+         segmentCount = 1;
+         segment = segments[0];
+      }
+      segmentWritePos = 0;
+      fullSegmentsSize = 0;
+   }
+
+   public int size() {
+      return fullSegmentsSize + segmentWritePos;
+   }
+
+   /**
+    * @return a copy of the written bytes
+    */
+   public byte[] toByteArray() {
+      final int size = size();
+      if (size == 0)
+         return ArrayUtils.EMPTY_BYTE_ARRAY;
+
+      final var result = new byte[size];
+      int resultWritePos = 0;
+      for (int i = 0; i < segmentCount; i++) {
+         final int len = segmentLength(i);
+         System.arraycopy(segments[i], 0, result, resultWritePos, len);
+         resultWritePos += len;
+      }
+      return result;
+   }
+
+   /**
+    * Returns read-only views of the segments holding the written bytes without copying them. The views are only valid until the stream is
+    * written to, reset or closed.
+    */
+   public ByteBuffer[] toByteBuffers() {
+      final var buffers = new ByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+         buffers[i] = ByteBuffer.wrap(segments[i], 0, segmentLength(i)).asReadOnlyBuffer();
+      }
+      return buffers;
+   }
+
+   private int segmentLength(final int index) {
+      return index == segmentCount - 1 ? segmentWritePos : segments[index].length;
+   }
+
+   @Override
+   public String toString() {
+      return toString(Charset.defaultCharset());
+   }
+
+   public String toString(final Charset charset) {
+      if (segmentCount == 1)
+         return new String(segment, 0, segmentWritePos, charset);
+      return new String(toByteArray(), charset);
+   }
+
+   @Override
+   public void write(final byte[] b) {
+      write(b, 0, b.length);
+   }
+
+   @Override
+   public void write(final byte[] buf, int offset, int length) {
+      if (offset < 0 || length < 0 || offset + length > buf.length)
+         throw new IndexOutOfBoundsException();
+
+      while (length > 0) {
+         if (segmentWritePos == segment.length) {
+            nextSegment(segmentCount == 0 ? length : 1);
+         }
+         final int copyLength = Math.min(length, segment.length - segmentWritePos);
+         System.arraycopy(buf, offset, segment, segmentWritePos, copyLength);
+         segmentWritePos += copyLength;
+         offset += copyLength;
+         length -= copyLength;
+      }
+   }
+
+   @Override
+   public void write(final int b) {
+      if (segmentWritePos == segment.length) {
+         nextSegment(1);
+      }
+      segment[segmentWritePos++] = (byte) b;
+   }
+
+   @SuppressWarnings("resource")
+   public void writeTo(final OutputStream out) throws IOException {
+      Args.notNull("out", out);
+
+      for (int i = 0; i < segmentCount; i++) {
+         out.write(segments[i], 0, segmentLength(i));
+      }
+   }
+
+   /**
+    * Writes the written bytes to the given channel without copying them, using a single gathering write if supported by the channel.
+    */
+   @SuppressWarnings("resource")
+   public void writeTo(final WritableByteChannel channel) throws IOException {
+      Args.notNull("channel", channel);
+
+      final ByteBuffer[] buffers = toByteBuffers();
+      if (channel instanceof final GatheringByteChannel gatheringChannel) {
+         long remaining = size();
+         while (remaining > 0) {
+            remaining -= gatheringChannel.write(buffers);
+         }
+      } else {
+         for (final ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+               channel.write(buffer);
+            }
+         }
+      }
+   }
+}
@@ -5,13 +5,12 @@
 package net.sf.jstuff.core.ogn;
 
 import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import net.sf.jstuff.core.Strings;
-import net.sf.jstuff.core.reflection.Fields;
+import net.sf.jstuff.core.reflection.FieldAccessor;
 import net.sf.jstuff.core.reflection.Methods;
 import net.sf.jstuff.core.reflection.exception.ReflectionException;
 import net.sf.jstuff.core.validation.Args;
@@ -49,14 +48,14 @@ public ObjectGraphNavigatorDefaultImpl(final boolean strict) {
 
          final Method getter = Methods.findAnyGetter(parent.getClass(), chunk);
          if (getter == null) {
-            final Field field = Fields.findRecursive(parent.getClass(), chunk);
+            final FieldAccessor<Object, Object> field = FieldAccessor.find(parent.getClass(), chunk);
             if (field == null) {
                if (strict)
                   throw new IllegalArgumentException("Invalid object navigation path from root object class [" + root.getClass().getName()
                         + "] path: " + path);
                return null;
             }
-            target = Fields.read(parent, field);
+            target = field.get(parent);
          } else {
             target = Methods.invoke(parent, getter);
          }
@@ -84,15 +83,15 @@ public boolean isStrict() {
 
          final Method getter = Methods.findAnyGetter(parent.getClass(), chunk);
          if (getter == null) {
-            final Field field = Fields.findRecursive(parent.getClass(), chunk);
+            final FieldAccessor<Object, Object> field = FieldAccessor.find(parent.getClass(), chunk);
             if (field == null) {
                if (strict)
                   throw new IllegalArgumentException("Invalid object navigation path from root object class [" + root.getClass().getName()
                         + "] path: " + path);
                return null;
             }
-            target = Fields.read(parent, field);
-            targetAccessor = field;
+            target = field.get(parent);
+            targetAccessor = field.getField();
          } else {
             target = Methods.invoke(parent, getter);
             targetAccessor = getter;
@@ -0,0 +1,664 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.reflection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.logging.Logger;
+import net.sf.jstuff.core.reflection.exception.ReflectionException;
+
+/**
+ * Generates hidden classes (see {@link MethodHandles.Lookup#defineHiddenClass(byte[], boolean, MethodHandles.Lookup.ClassOption...)})
+ * implementing an interface by delegating each method via a constant {@link MethodHandle} to the actual implementation. Compared to
+ * {@link java.lang.reflect.Proxy} based delegates this avoids the {@link java.lang.reflect.InvocationHandler} indirection, the boxing of
+ * arguments into an <code>Object[]</code> and {@link Method#invoke(Object, Object...)}, and lets the JIT inline the target method.
+ * <p>
+ * The generated classes are cached per interface/implementation class combination. All methods return <code>null</code> if no class can
+ * be generated, e.g. because the interface is not accessible, in which case the caller is expected to fall back to a dynamic proxy.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+abstract class DelegateClasses {
+
+   /**
+    * Resolves the method handle the given interface method is delegated to.
+    */
+   @FunctionalInterface
+   private interface HandleResolver {
+      MethodHandle resolve(Method method) throws ReflectiveOperationException;
+   }
+
+   private enum Kind {
+      DUCK_TYPE,
+      MIXIN,
+      SYNCHRONIZED,
+      THREAD_LOCALIZED
+   }
+
+   /**
+    * Minimal writer for the class files of the generated delegates.
+    * <p>
+    * Class file version 49 (Java 5) is used so that the type-inferencing verifier applies and no stack map frames have to be computed
+    * for the exception handlers of synchronized delegates.
+    */
+   private static final class ClassFileWriter {
+      private static final int ACC_PUBLIC = 0x0001;
+      private static final int ACC_PRIVATE = 0x0002;
+      private static final int ACC_STATIC = 0x0008;
+      private static final int ACC_FINAL = 0x0010;
+      private static final int ACC_SUPER = 0x0020;
+
+      private static final int CLASS_FILE_VERSION = 49;
+
+      private static final String FIELD_STATE = "state";
+      private static final String FIELD_LOCK = "lock";
+      private static final String OBJECT = "java/lang/Object";
+      private static final String OBJECT_DESC = "Ljava/lang/Object;";
+      private static final String METHOD_HANDLE = "java/lang/invoke/MethodHandle";
+      private static final String METHOD_HANDLE_DESC = "Ljava/lang/invoke/MethodHandle;";
+
+      private static final int ALOAD = 0x19;
+      private static final int ALOAD_0 = 0x2a;
+      private static final int ALOAD_1 = 0x2b;
+      private static final int ALOAD_2 = 0x2c;
+      private static final int ASTORE = 0x3a;
+      private static final int ATHROW = 0xbf;
+      private static final int CHECKCAST = 0xc0;
+      private static final int DUP = 0x59;
+      private static final int GETFIELD = 0xb4;
+      private static final int GETSTATIC = 0xb2;
+      private static final int INVOKESPECIAL = 0xb7;
+      private static final int INVOKESTATIC = 0xb8;
+      private static final int INVOKEVIRTUAL = 0xb6;
+      private static final int LDC_W = 0x13;
+      private static final int MONITORENTER = 0xc2;
+      private static final int MONITOREXIT = 0xc3;
+      private static final int PUTFIELD = 0xb5;
+      private static final int PUTSTATIC = 0xb3;
+      private static final int RETURN = 0xb1;
+      private static final int SIPUSH = 0x11;
+
+      private static int loadOpcode(final Class<?> type) {
+         if (!type.isPrimitive())
+            return 0x19; // aload
+         if (type == long.class)
+            return 0x16; // lload
+         if (type == float.class)
+            return 0x17; // fload
+         if (type == double.class)
+            return 0x18; // dload
+         return 0x15; // iload
+      }
+
+      private static int returnOpcode(final Class<?> type) {
+         if (type == void.class)
+            return RETURN;
+         if (!type.isPrimitive())
+            return 0xb0; // areturn
+         if (type == long.class)
+            return 0xad; // lreturn
+         if (type == float.class)
+            return 0xae; // freturn
+         if (type == double.class)
+            return 0xaf; // dreturn
+         return 0xac; // ireturn
+      }
+
+      private static int slots(final Class<?> type) {
+         return type == long.class || type == double.class ? 2 : 1;
+      }
+
+      private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream(1024);
+      private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+      private final Map<String, Integer> constantPoolIndex = new HashMap<>();
+      private int constantPoolCount = 1;
+
+      private final ByteArrayOutputStream methodsBytes = new ByteArrayOutputStream(1024);
+      private final DataOutputStream methods = new DataOutputStream(methodsBytes);
+      private int methodsCount;
+
+      private final String className;
+      private final int codeAttributeName;
+
+      ClassFileWriter(final String className) {
+         this.className = className;
+         codeAttributeName = utf8("Code");
+      }
+
+      private int classRef(final String internalName) throws IOException {
+         final String key = "Class:" + internalName;
+         final Integer index = constantPoolIndex.get(key);
+         if (index != null)
+            return index;
+         final int nameIndex = utf8(internalName);
+         constantPool.writeByte(7);
+         constantPool.writeShort(nameIndex);
+         return register(key);
+      }
+
+      private int memberRef(final int tag, final String owner, final String name, final String descriptor) throws IOException {
+         final String key = tag + ":" + owner + "." + name + descriptor;
+         final Integer index = constantPoolIndex.get(key);
+         if (index != null)
+            return index;
+         final int classIndex = classRef(owner);
+         final int nameAndTypeIndex = nameAndType(name, descriptor);
+         constantPool.writeByte(tag);
+         constantPool.writeShort(classIndex);
+         constantPool.writeShort(nameAndTypeIndex);
+         return register(key);
+      }
+
+      private int nameAndType(final String name, final String descriptor) throws IOException {
+         final String key = "NameAndType:" + name + descriptor;
+         final Integer index = constantPoolIndex.get(key);
+         if (index != null)
+            return index;
+         final int nameIndex = utf8(name);
+         final int descriptorIndex = utf8(descriptor);
+         constantPool.writeByte(12);
+         constantPool.writeShort(nameIndex);
+         constantPool.writeShort(descriptorIndex);
+         return register(key);
+      }
+
+      private int register(final String key) {
+         final int index = constantPoolCount++;
+         constantPoolIndex.put(key, index);
+         return index;
+      }
+
+      private int string(final String value) throws IOException {
+         final String key = "String:" + value;
+         final Integer index = constantPoolIndex.get(key);
+         if (index != null)
+            return index;
+         final int valueIndex = utf8(value);
+         constantPool.writeByte(8);
+         constantPool.writeShort(valueIndex);
+         return register(key);
+      }
+
+      private int utf8(final String value) {
+         final String key = "Utf8:" + value;
+         final Integer index = constantPoolIndex.get(key);
+         if (index != null)
+            return index;
+         try {
+            constantPool.writeByte(1);
+            constantPool.writeUTF(value);
+         } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+         }
+         return register(key);
+      }
+
+      private void writeCode(final DataOutputStream out, final int maxStack, final int maxLocals, final byte[] code,
+            final int @Nullable [] exceptionTable) throws IOException {
+         final int exceptionTableLength = exceptionTable == null ? 0 : exceptionTable.length / 4;
+         out.writeShort(1); // attributes_count
+         out.writeShort(codeAttributeName);
+         out.writeInt(2 + 2 + 4 + code.length + 2 + exceptionTableLength * 8 + 2);
+         out.writeShort(maxStack);
+         out.writeShort(maxLocals);
+         out.writeInt(code.length);
+         out.write(code);
+         out.writeShort(exceptionTableLength);
+         if (exceptionTable != null) {
+            for (final int entry : exceptionTable) {
+               out.writeShort(entry);
+            }
+         }
+         out.writeShort(0); // code attributes_count
+      }
+
+      /**
+       * Writes a delegating method of the form:
+       *
+       * <pre>
+       * public R method(P1 p1, P2 p2) {
+       *    [synchronized (this.lock) {]
+       *    return (R) HANDLE_n.invokeExact(this.state, p1, p2);
+       *    [}]
+       * }
+       * </pre>
+       */
+      void writeDelegatingMethod(final Method method, final String handleField, final boolean isSynchronized) throws IOException {
+         final Class<?> returnType = method.getReturnType();
+         final Class<?>[] paramTypes = method.getParameterTypes();
+         final String descriptor = MethodType.methodType(returnType, paramTypes).toMethodDescriptorString();
+         final String invokerDescriptor = MethodType.methodType(returnType, paramTypes).insertParameterTypes(0, Object.class)
+            .toMethodDescriptorString();
+
+         final var codeBytes = new ByteArrayOutputStream(64);
+         final var code = new DataOutputStream(codeBytes);
+
+         int paramSlots = 0;
+         for (final Class<?> paramType : paramTypes) {
+            paramSlots += slots(paramType);
+         }
+         final int lockSlot = 1 + paramSlots;
+
+         if (isSynchronized) {
+            code.writeByte(ALOAD_0);
+            code.writeByte(GETFIELD);
+            code.writeShort(memberRef(9, className, FIELD_LOCK, OBJECT_DESC));
+            code.writeByte(DUP);
+            code.writeByte(ASTORE);
+            code.writeByte(lockSlot);
+            code.writeByte(MONITORENTER);
+         }
+         final int tryStart = code.size();
+
+         code.writeByte(GETSTATIC);
+         code.writeShort(memberRef(9, className, handleField, METHOD_HANDLE_DESC));
+         code.writeByte(ALOAD_0);
+         code.writeByte(GETFIELD);
+         code.writeShort(memberRef(9, className, FIELD_STATE, OBJECT_DESC));
+         int slot = 1;
+         for (final Class<?> paramType : paramTypes) {
+            code.writeByte(loadOpcode(paramType));
+            code.writeByte(slot);
+            slot += slots(paramType);
+         }
+         code.writeByte(INVOKEVIRTUAL);
+         code.writeShort(memberRef(10, METHOD_HANDLE, "invokeExact", invokerDescriptor));
+
+         int[] exceptionTable = null;
+         if (isSynchronized) {
+            code.writeByte(ALOAD);
+            code.writeByte(lockSlot);
+            code.writeByte(MONITOREXIT);
+            final int tryEnd = code.size();
+            code.writeByte(returnOpcode(returnType));
+
+            // catch (Throwable) { monitorexit; throw }
+            final int handler = code.size();
+            code.writeByte(ASTORE);
+            code.writeByte(lockSlot + 1);
+            code.writeByte(ALOAD);
+            code.writeByte(lockSlot);
+            code.writeByte(MONITOREXIT);
+            final int handlerEnd = code.size();
+            code.writeByte(ALOAD);
+            code.writeByte(lockSlot + 1);
+            code.writeByte(ATHROW);
+            exceptionTable = new int[] {tryStart, tryEnd, handler, 0, handler, handlerEnd, handler, 0};
+         } else {
+            code.writeByte(returnOpcode(returnType));
+         }
+
+         methods.writeShort(ACC_PUBLIC | ACC_FINAL);
+         methods.writeShort(utf8(method.getName()));
+         methods.writeShort(utf8(descriptor));
+         writeCode(methods, 2 + paramSlots, lockSlot + (isSynchronized ? 2 : 0), codeBytes.toByteArray(), exceptionTable);
+         methodsCount++;
+      }
+
+      byte[] toByteArray(final Class<?> iface, final int handleCount) throws IOException {
+         final int thisClass = classRef(className);
+         final int superClass = classRef(OBJECT);
+         final int ifaceClass = classRef(iface.getName().replace('.', '/'));
+
+         /*
+          * private DelegateClass(Object state, Object lock) {
+          *    this.state = state;
+          *    this.lock = lock;
+          * }
+          */
+         final var ctorBytes = new ByteArrayOutputStream(32);
+         final var ctor = new DataOutputStream(ctorBytes);
+         ctor.writeByte(ALOAD_0);
+         ctor.writeByte(INVOKESPECIAL);
+         ctor.writeShort(memberRef(10, OBJECT, "<init>", "()V"));
+         ctor.writeByte(ALOAD_0);
+         ctor.writeByte(ALOAD_1);
+         ctor.writeByte(PUTFIELD);
+         ctor.writeShort(memberRef(9, className, FIELD_STATE, OBJECT_DESC));
+         ctor.writeByte(ALOAD_0);
+         ctor.writeByte(ALOAD_2);
+         ctor.writeByte(PUTFIELD);
+         ctor.writeShort(memberRef(9, className, FIELD_LOCK, OBJECT_DESC));
+         ctor.writeByte(RETURN);
+         methods.writeShort(ACC_PRIVATE);
+         methods.writeShort(utf8("<init>"));
+         methods.writeShort(utf8("(Ljava/lang/Object;Ljava/lang/Object;)V"));
+         writeCode(methods, 2, 3, ctorBytes.toByteArray(), null);
+         methodsCount++;
+
+         /*
+          * static {
+          *    HANDLE_n = MethodHandles.classDataAt(MethodHandles.lookup(), "_", MethodHandle.class, n);
+          * }
+          */
+         final var clinitBytes = new ByteArrayOutputStream(32 * handleCount + 1);
+         final var clinit = new DataOutputStream(clinitBytes);
+         for (int i = 0; i < handleCount; i++) {
+            clinit.writeByte(INVOKESTATIC);
+            clinit.writeShort(memberRef(10, "java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;"));
+            clinit.writeByte(LDC_W);
+            clinit.writeShort(string("_"));
+            clinit.writeByte(LDC_W);
+            clinit.writeShort(classRef(METHOD_HANDLE));
+            clinit.writeByte(SIPUSH);
+            clinit.writeShort(i);
+            clinit.writeByte(INVOKESTATIC);
+            clinit.writeShort(memberRef(10, "java/lang/invoke/MethodHandles", "classDataAt",
+               "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;"));
+            clinit.writeByte(CHECKCAST);
+            clinit.writeShort(classRef(METHOD_HANDLE));
+            clinit.writeByte(PUTSTATIC);
+            clinit.writeShort(memberRef(9, className, handleFieldName(i), METHOD_HANDLE_DESC));
+         }
+         clinit.writeByte(RETURN);
+         methods.writeShort(ACC_STATIC);
+         methods.writeShort(utf8("<clinit>"));
+         methods.writeShort(utf8("()V"));
+         writeCode(methods, 4, 0, clinitBytes.toByteArray(), null);
+         methodsCount++;
+
+         final int stateFieldName = utf8(FIELD_STATE);
+         final int lockFieldName = utf8(FIELD_LOCK);
+         final int objectDesc = utf8(OBJECT_DESC);
+         final int methodHandleDesc = utf8(METHOD_HANDLE_DESC);
+         final var handleFieldNames = new int[handleCount];
+         for (int i = 0; i < handleCount; i++) {
+            handleFieldNames[i] = utf8(handleFieldName(i));
+         }
+
+         final var bytes = new ByteArrayOutputStream(constantPoolBytes.size() + methodsBytes.size() + 32 + handleCount * 8);
+         final var out = new DataOutputStream(bytes);
+         out.writeInt(0xCAFEBABE);
+         out.writeShort(0); // minor version
+         out.writeShort(CLASS_FILE_VERSION);
+         out.writeShort(constantPoolCount);
+         constantPoolBytes.writeTo(out);
+         out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+         out.writeShort(thisClass);
+         out.writeShort(superClass);
+         out.writeShort(1); // interfaces_count
+         out.writeShort(ifaceClass);
+
+         out.writeShort(2 + handleCount); // fields_count
+         for (final int fieldName : new int[] {stateFieldName, lockFieldName}) {
+            out.writeShort(ACC_PRIVATE | ACC_FINAL);
+            out.writeShort(fieldName);
+            out.writeShort(objectDesc);
+            out.writeShort(0); // attributes_count
+         }
+         for (final int fieldName : handleFieldNames) {
+            out.writeShort(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+            out.writeShort(fieldName);
+            out.writeShort(methodHandleDesc);
+            out.writeShort(0); // attributes_count
+         }
+
+         out.writeShort(methodsCount);
+         methodsBytes.writeTo(out);
+         out.writeShort(0); // attributes_count
+         return bytes.toByteArray();
+      }
+   }
+
+   private static final Logger LOG = Logger.create();
+
+   private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+   private static final MethodHandle ARRAY_ELEMENT_GETTER = MethodHandles.arrayElementGetter(Object[].class);
+   private static final MethodHandle THREAD_LOCAL_GET;
+
+   static {
+      try {
+         THREAD_LOCAL_GET = LOOKUP.findVirtual(ThreadLocal.class, "get", MethodType.methodType(Object.class));
+      } catch (final ReflectiveOperationException ex) {
+         throw new ExceptionInInitializerError(ex);
+      }
+   }
+
+   /**
+    * Max number of parameter slots of a delegated method. The synchronized delegates require two additional local variable slots, which
+    * must be addressable by the single byte operand of the load/store instructions.
+    */
+   private static final int MAX_PARAM_SLOTS = 250;
+
+   /**
+    * constructors of type <code>(Object state, Object lock)Object</code> of the generated classes by cache key by owner class, i.e. the
+    * implementation class for duck types and mixins and the interface otherwise
+    */
+   private static final ClassValue<ConcurrentMap<List<Object>, Optional<MethodHandle>>> FACTORIES = new ClassValue<>() {
+      @Override
+      protected ConcurrentMap<List<Object>, Optional<MethodHandle>> computeValue(final Class<?> ownerClass) {
+         return new ConcurrentHashMap<>(2);
+      }
+   };
+
+   /**
+    * @see DuckTypes#duckType(Object, Class)
+    */
+   static <T> @Nullable T createDuckType(final Object duckLikeObject, final Class<T> duckInterface) {
+      final Class<?> duckLikeClass = duckLikeObject.getClass();
+      final var factory = getFactory(duckLikeClass, List.of(Kind.DUCK_TYPE, duckInterface), duckInterface, method -> {
+         final Method duckLikeMethod = Methods.findPublicCompatible(duckLikeClass, method.getName(), method.getParameterTypes());
+         if (duckLikeMethod == null || Methods.isAbstract(duckLikeMethod) || !Methods.isPublic(duckLikeMethod))
+            return throwing(method, ReflectionException.class, "Duck typed object of type " + duckLikeClass.getName()
+                  + " does not implement duck method " + method + ".");
+
+         // the public method might be inaccessible if it was declared on a non-public class
+         duckLikeMethod.trySetAccessible();
+         return LOOKUP.unreflect(duckLikeMethod);
+      });
+      return newInstance(factory, duckLikeObject, null);
+   }
+
+   /**
+    * @see Types#createMixin(Class, Object...)
+    */
+   static <T> @Nullable T createMixin(final Class<T> objectInterface, final Object[] mixins) {
+      final var key = new ArrayList<Object>(mixins.length + 2);
+      key.add(Kind.MIXIN);
+      key.add(objectInterface);
+      for (final Object mixin : mixins) {
+         key.add(mixin.getClass());
+      }
+
+      final var factory = getFactory(mixins[0].getClass(), key, objectInterface, method -> {
+         for (int i = 0; i < mixins.length; i++) {
+            final Method methodImpl = Methods.findAny(mixins[i].getClass(), method.getName(), method.getParameterTypes());
+            if (methodImpl != null) {
+               methodImpl.trySetAccessible();
+               final MethodHandle mixinGetter = MethodHandles.insertArguments(ARRAY_ELEMENT_GETTER, 1, i);
+               return MethodHandles.filterArguments(LOOKUP.unreflect(methodImpl).asType(toInvokerType(method)), 0, mixinGetter);
+            }
+         }
+         return throwing(method, UnsupportedOperationException.class, "Method is not implemented.");
+      });
+      return newInstance(factory, mixins.clone(), null);
+   }
+
+   /**
+    * @see Types#createSynchronized(Class, Object, Object)
+    */
+   static <T> @Nullable T createSynchronized(final Class<T> objectInterface, final T object, final Object lock) {
+      final var factory = getFactory(objectInterface, List.of(Kind.SYNCHRONIZED), objectInterface, method -> LOOKUP.unreflect(method));
+      return newInstance(factory, object, lock);
+   }
+
+   /**
+    * @see Types#createThreadLocalized(Class, ThreadLocal)
+    */
+   static <T> @Nullable T createThreadLocalized(final Class<T> objectInterface, final ThreadLocal<T> threadLocal) {
+      final var factory = getFactory(objectInterface, List.of(Kind.THREAD_LOCALIZED), objectInterface, //
+         method -> MethodHandles.filterArguments(LOOKUP.unreflect(method).asType(toInvokerType(method)), 0, THREAD_LOCAL_GET));
+      return newInstance(factory, threadLocal, null);
+   }
+
+   private static @Nullable MethodHandle defineDelegateClass(final Class<?> iface, final boolean isSynchronized,
+         final HandleResolver resolver) throws ReflectiveOperationException, IOException {
+      final MethodHandles.Lookup lookup = getDefiningLookup(iface);
+      if (lookup == null)
+         return null;
+
+      final var methods = getDelegatedMethods(iface);
+      if (methods == null)
+         return null;
+
+      final var handles = new ArrayList<MethodHandle>(methods.size());
+      for (final Method method : methods) {
+         for (final Class<?> type : method.getParameterTypes()) {
+            if (!isAccessible(lookup, type))
+               return null;
+         }
+         if (!isAccessible(lookup, method.getReturnType()))
+            return null;
+         method.trySetAccessible();
+         handles.add(resolver.resolve(method).asType(toInvokerType(method)));
+      }
+
+      final String className = lookup.lookupClass().getPackageName().replace('.', '/') //
+            + (lookup.lookupClass().getPackageName().isEmpty() ? "" : "/") //
+            + iface.getSimpleName() + "$$Delegate";
+      final var writer = new ClassFileWriter(className);
+      for (int i = 0; i < methods.size(); i++) {
+         writer.writeDelegatingMethod(methods.get(i), handleFieldName(i), isSynchronized);
+      }
+      final byte[] classBytes = writer.toByteArray(iface, methods.size());
+
+      final var delegateLookup = lookup.defineHiddenClassWithClassData(classBytes, List.copyOf(handles), true);
+      return delegateLookup.findConstructor(delegateLookup.lookupClass(), MethodType.methodType(void.class, Object.class, Object.class)) //
+         .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+   }
+
+   /**
+    * @return a lookup with full privilege access to define the delegate class with or <code>null</code>
+    */
+   private static MethodHandles.@Nullable Lookup getDefiningLookup(final Class<?> iface) {
+      try {
+         final var lookup = MethodHandles.privateLookupIn(iface, LOOKUP);
+         if (lookup.hasFullPrivilegeAccess())
+            return lookup;
+      } catch (final IllegalAccessException ex) {
+         // ignore, e.g. JDK interfaces
+      }
+
+      final ClassLoader cl = LOOKUP.lookupClass().getClassLoader();
+      if (Modifier.isPublic(iface.getModifiers()) && cl != null && Types.isVisible(cl, iface))
+         return LOOKUP;
+      return null;
+   }
+
+   /**
+    * @return the methods of the interface plus {@link Object#equals(Object)}, {@link Object#hashCode()} and {@link Object#toString()}
+    *         which are delegated as well, or <code>null</code> if the methods cannot be implemented by a single class
+    */
+   private static @Nullable List<Method> getDelegatedMethods(final Class<?> iface) throws NoSuchMethodException {
+      final var methodsBySignature = new LinkedHashMap<String, Method>();
+      for (final Method method : List.of(Object.class.getMethod("equals", Object.class), Object.class.getMethod("hashCode"), Object.class
+         .getMethod("toString"))) {
+         methodsBySignature.put(method.getName() + Arrays.toString(method.getParameterTypes()), method);
+      }
+      for (final Method method : iface.getMethods()) {
+         if (Methods.isStatic(method)) {
+            continue;
+         }
+         final String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+         final Method existing = methodsBySignature.put(signature, method);
+         if (existing != null && existing.getReturnType() != method.getReturnType())
+            // e.g. covariant return types of methods inherited from different super interfaces
+            return null;
+
+         int paramSlots = 0;
+         for (final Class<?> paramType : method.getParameterTypes()) {
+            paramSlots += ClassFileWriter.slots(paramType);
+         }
+         if (paramSlots > MAX_PARAM_SLOTS)
+            return null;
+      }
+      return new ArrayList<>(methodsBySignature.values());
+   }
+
+   private static @Nullable MethodHandle getFactory(final Class<?> ownerClass, final List<Object> key, final Class<?> iface,
+         final HandleResolver resolver) {
+      return FACTORIES.get(ownerClass).computeIfAbsent(key, k -> {
+         try {
+            return Optional.ofNullable(defineDelegateClass(iface, k.get(0) == Kind.SYNCHRONIZED, resolver));
+         } catch (final ReflectiveOperationException | IOException | RuntimeException ex) {
+            LOG.debug(ex, "Cannot generate delegate class for %s", k);
+            return Optional.empty();
+         }
+      }).orElse(null);
+   }
+
+   private static String handleFieldName(final int index) {
+      return "HANDLE_" + index;
+   }
+
+   private static boolean isAccessible(final MethodHandles.Lookup lookup, Class<?> type) {
+      while (type.isArray()) {
+         type = type.getComponentType();
+      }
+      if (type.isPrimitive())
+         return true;
+      final ClassLoader cl = lookup.lookupClass().getClassLoader();
+      if (cl != null && !Types.isVisible(cl, type))
+         return false;
+      try {
+         lookup.accessClass(type);
+         return true;
+      } catch (final IllegalAccessException ex) {
+         return false;
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <T> @Nullable T newInstance(final @Nullable MethodHandle factory, final Object state, final @Nullable Object lock) {
+      if (factory == null)
+         return null;
+      try {
+         return (T) factory.invokeExact(state, lock);
+      } catch (final RuntimeException | Error ex) {
+         throw ex;
+      } catch (final Throwable ex) {
+         throw new ReflectionException(ex);
+      }
+   }
+
+   /**
+    * @return a method handle that throws a new exception of the given type on each invocation
+    */
+   private static MethodHandle throwing(final Method method, final Class<? extends Throwable> exceptionType, final String message)
+         throws ReflectiveOperationException {
+      final MethodHandle exceptionFactory = MethodHandles.insertArguments(LOOKUP.findConstructor(exceptionType, MethodType.methodType(
+         void.class, String.class)), 0, message);
+      final MethodHandle thrower = MethodHandles.foldArguments(MethodHandles.throwException(method.getReturnType(), exceptionType),
+         exceptionFactory);
+      return MethodHandles.dropArguments(thrower, 0, toInvokerType(method).parameterList());
+   }
+
+   /**
+    * @return <code>(Object, P1, P2, ...)R</code>
+    */
+   private static MethodType toInvokerType(final Method method) {
+      return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).insertParameterTypes(0, Object.class);
+   }
+}
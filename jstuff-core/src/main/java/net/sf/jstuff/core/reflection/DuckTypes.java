@@ -18,10 +18,10 @@ public abstract class DuckTypes {
    private static final Logger LOG = Logger.create();
 
    /**
-    * Creates a dynamic proxy object of type <code>duckInterface</code> forwarding all method invocations
+    * Creates an object of type <code>duckInterface</code> forwarding all method invocations
     * to methods with the same signature on <code>duckLikeObject</code>.
     *
-    * @return <code>duckLikeObject</code> if instance of <code>duckInterface</code> or a dynamic proxy object.
+    * @return <code>duckLikeObject</code> if instance of <code>duckInterface</code> or a generated delegate/dynamic proxy object.
     */
    @SuppressWarnings("unchecked")
    public static <T> T duckType(final Object duckLikeObject, final Class<T> duckInterface) {
@@ -31,6 +31,12 @@ public static <T> T duckType(final Object duckLikeObject, final Class<T> duckInt
 
       LOG.debug("Duck-typing %s to type %s", duckLikeObject, duckInterface);
 
+      final T duckTyped = DelegateClasses.createDuckType(duckLikeObject, duckInterface);
+      return duckTyped == null ? duckTypeProxy(duckLikeObject, duckInterface) : duckTyped;
+   }
+
+   static <T> T duckTypeProxy(final Object duckLikeObject, final Class<T> duckInterface) {
+      final Class<?> duckLikeClass = duckLikeObject.getClass();
       return Proxies.create((final Object duckProxy, final Method duckMethod, final @Nullable Object[] args) -> {
          final Method duckLikeMethod = Methods.findPublicCompatible(duckLikeClass, duckMethod.getName(), duckMethod.getParameterTypes());
          if (duckLikeMethod == null || Methods.isAbstract(duckLikeMethod) || !Methods.isPublic(duckLikeMethod))
@@ -0,0 +1,476 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.reflection;
+
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.invoke.VarHandle.AccessMode;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.concurrent.ThreadSafe;
+import net.sf.jstuff.core.reflection.exception.AccessingFieldValueFailedException;
+import net.sf.jstuff.core.reflection.exception.ReflectionException;
+import net.sf.jstuff.core.reflection.exception.SettingFieldValueFailedException;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Reads and writes a field via a {@link VarHandle} that is resolved once, i.e. without the lookup and access check overhead of
+ * {@link Field#get(Object)} and {@link Field#set(Object, Object)}.
+ * <p>
+ * Besides plain access, the memory ordering access modes of {@link VarHandle} are supported. Primitive fields can be accessed without
+ * boxing via the primitive specialized methods like {@link #getInt(Object)} and {@link #setLong(Object, long)}.
+ * <p>
+ * Accessors obtained via {@link #find(Class, String)} and {@link #get(Class, String)} are cached per class and field name.
+ *
+ * <pre>
+ * private static final FieldAccessor&lt;Entity, String&gt; NAME = FieldAccessor.get(Entity.class, "name");
+ * ...
+ * NAME.set(entity, NAME.get(entity) + "!");
+ * </pre>
+ *
+ * @param <O> the type of the object declaring the field
+ * @param <T> the type of the field
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@ThreadSafe
+public final class FieldAccessor<O, T> {
+
+   private static final ClassValue<ConcurrentMap<String, Optional<FieldAccessor<?, ?>>>> ACCESSORS = new ClassValue<>() {
+      @Override
+      protected ConcurrentMap<String, Optional<FieldAccessor<?, ?>>> computeValue(final Class<?> type) {
+         return new ConcurrentHashMap<>(4);
+      }
+   };
+
+   /**
+    * Searches the given class and its super classes for a field with the given name.
+    *
+    * @return a cached accessor or null if the field does not exist
+    */
+   @SuppressWarnings("unchecked")
+   public static <O, T> @Nullable FieldAccessor<O, T> find(final Class<? extends O> clazz, final String fieldName) {
+      Args.notNull("clazz", clazz);
+      Args.notNull("fieldName", fieldName);
+
+      return (FieldAccessor<O, T>) ACCESSORS.get(clazz).computeIfAbsent(fieldName, name -> {
+         final Field field = Fields.findRecursive(clazz, name);
+         return field == null ? Optional.empty() : Optional.of(new FieldAccessor<>(field));
+      }).orElse(null);
+   }
+
+   /**
+    * Searches the given class and its super classes for a field with the given name.
+    *
+    * @return a cached accessor
+    * @throws ReflectionException if the field does not exist
+    */
+   public static <O, T> FieldAccessor<O, T> get(final Class<? extends O> clazz, final String fieldName) throws ReflectionException {
+      final FieldAccessor<O, T> accessor = find(clazz, fieldName);
+      if (accessor == null)
+         throw new ReflectionException("Field [" + fieldName + "] not found in class [" + clazz.getName()
+               + "] or any of it's super classes.");
+      return accessor;
+   }
+
+   /**
+    * @return a new, uncached accessor for the given field
+    */
+   public static <O, T> FieldAccessor<O, T> of(final Field field) throws ReflectionException {
+      Args.notNull("field", field);
+
+      return new FieldAccessor<>(field);
+   }
+
+   private final Field field;
+   private final VarHandle handle;
+   private final boolean isFinal;
+   private final boolean isStatic;
+
+   /*
+    * method handles with exact types for plain access. A method handle invoked via invokeExact is faster than a VarHandle that is not a
+    * constant, e.g. when held in an instance field. Null if the field cannot be accessed with the respective type.
+    */
+   private final MethodHandle getter;
+   private final @Nullable MethodHandle setter;
+   private final @Nullable MethodHandle booleanGetter;
+   private final @Nullable MethodHandle booleanSetter;
+   private final @Nullable MethodHandle doubleGetter;
+   private final @Nullable MethodHandle doubleSetter;
+   private final @Nullable MethodHandle intGetter;
+   private final @Nullable MethodHandle intSetter;
+   private final @Nullable MethodHandle longGetter;
+   private final @Nullable MethodHandle longSetter;
+
+   private FieldAccessor(final Field field) {
+      this.field = field;
+      handle = Fields.toVarHandle(field);
+      isFinal = Members.isFinal(field);
+      isStatic = Members.isStatic(field);
+
+      getter = asNonNull(toMethodHandle(AccessMode.GET, Object.class));
+      booleanGetter = toMethodHandle(AccessMode.GET, boolean.class);
+      doubleGetter = toMethodHandle(AccessMode.GET, double.class);
+      intGetter = toMethodHandle(AccessMode.GET, int.class);
+      longGetter = toMethodHandle(AccessMode.GET, long.class);
+      if (isFinal) {
+         setter = null;
+         booleanSetter = null;
+         doubleSetter = null;
+         intSetter = null;
+         longSetter = null;
+      } else {
+         setter = toMethodHandle(AccessMode.SET, Object.class);
+         booleanSetter = toMethodHandle(AccessMode.SET, boolean.class);
+         doubleSetter = toMethodHandle(AccessMode.SET, double.class);
+         intSetter = toMethodHandle(AccessMode.SET, int.class);
+         longSetter = toMethodHandle(AccessMode.SET, long.class);
+      }
+   }
+
+   private AccessingFieldValueFailedException cannotRead(final @Nullable O obj, final Class<?> type) {
+      return new AccessingFieldValueFailedException(field, obj, new WrongMethodTypeException("Cannot read field of type " + field
+         .getType().getName() + " as " + type.getName()));
+   }
+
+   private SettingFieldValueFailedException cannotWrite(final @Nullable O obj, final Class<?> type) {
+      if (isFinal)
+         return cannotWriteFinal(obj);
+      return new SettingFieldValueFailedException(field, obj, "Cannot write " + type.getName() + " to field of type " + field.getType()
+         .getName());
+   }
+
+   private SettingFieldValueFailedException cannotWriteFinal(final @Nullable O obj) {
+      return new SettingFieldValueFailedException(field, obj, "Cannot write to final field " + field.getDeclaringClass().getName() + "#"
+            + field.getName());
+   }
+
+   /**
+    * Atomically sets the field to the given value if it currently holds the expected value, see
+    * {@link VarHandle#compareAndSet(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    * @return true if successful
+    */
+   public boolean compareAndSet(final @Nullable O obj, final @Nullable T expectedValue, final @Nullable T newValue)
+         throws SettingFieldValueFailedException {
+      if (isFinal)
+         throw cannotWriteFinal(obj);
+      try {
+         return isStatic //
+               ? handle.compareAndSet(expectedValue, newValue)
+               : handle.compareAndSet(obj, expectedValue, newValue);
+      } catch (final RuntimeException ex) {
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Reads the field with plain memory semantics.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   @SuppressWarnings("unchecked")
+   public @Nullable T get(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      try {
+         return (T) (Object) getter.invokeExact(obj);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Reads the field with acquire memory semantics, see {@link VarHandle#getAcquire(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   @SuppressWarnings("unchecked")
+   public @Nullable T getAcquire(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      try {
+         return isStatic ? (T) handle.getAcquire() : (T) handle.getAcquire(obj);
+      } catch (final RuntimeException ex) {
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Reads a <code>boolean</code> field without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public boolean getBoolean(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      final var getter = this.booleanGetter;
+      if (getter == null)
+         throw cannotRead(obj, boolean.class);
+      try {
+         return (boolean) getter.invokeExact(obj);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Reads a <code>double</code> field or a field of a primitive type that can be widened to <code>double</code> without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public double getDouble(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      final var getter = this.doubleGetter;
+      if (getter == null)
+         throw cannotRead(obj, double.class);
+      try {
+         return (double) getter.invokeExact(obj);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   public Field getField() {
+      return field;
+   }
+
+   /**
+    * Reads an <code>int</code> field or a field of a primitive type that can be widened to <code>int</code> without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public int getInt(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      final var getter = this.intGetter;
+      if (getter == null)
+         throw cannotRead(obj, int.class);
+      try {
+         return (int) getter.invokeExact(obj);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Reads a <code>long</code> field or a field of a primitive type that can be widened to <code>long</code> without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public long getLong(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      final var getter = this.longGetter;
+      if (getter == null)
+         throw cannotRead(obj, long.class);
+      try {
+         return (long) getter.invokeExact(obj);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Reads the field with opaque memory semantics, see {@link VarHandle#getOpaque(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   @SuppressWarnings("unchecked")
+   public @Nullable T getOpaque(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      try {
+         return isStatic ? (T) handle.getOpaque() : (T) handle.getOpaque(obj);
+      } catch (final RuntimeException ex) {
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   public Class<T> getType() {
+      return (Class<T>) field.getType();
+   }
+
+   /**
+    * Reads the field with volatile memory semantics, see {@link VarHandle#getVolatile(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   @SuppressWarnings("unchecked")
+   public @Nullable T getVolatile(final @Nullable O obj) throws AccessingFieldValueFailedException {
+      try {
+         return isStatic ? (T) handle.getVolatile() : (T) handle.getVolatile(obj);
+      } catch (final RuntimeException ex) {
+         throw new AccessingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   public boolean isFinal() {
+      return isFinal;
+   }
+
+   public boolean isStatic() {
+      return isStatic;
+   }
+
+   /**
+    * Writes the field with plain memory semantics.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void set(final @Nullable O obj, final @Nullable T value) throws SettingFieldValueFailedException {
+      final var setter = this.setter;
+      if (setter == null)
+         throw cannotWrite(obj, Object.class);
+      try {
+         setter.invokeExact(obj, value);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes a <code>boolean</code> field without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setBoolean(final @Nullable O obj, final boolean value) throws SettingFieldValueFailedException {
+      final var setter = this.booleanSetter;
+      if (setter == null)
+         throw cannotWrite(obj, boolean.class);
+      try {
+         setter.invokeExact(obj, value);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes a <code>double</code> field without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setDouble(final @Nullable O obj, final double value) throws SettingFieldValueFailedException {
+      final var setter = this.doubleSetter;
+      if (setter == null)
+         throw cannotWrite(obj, double.class);
+      try {
+         setter.invokeExact(obj, value);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes an <code>int</code> field or a field of a primitive type <code>int</code> can be widened to without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setInt(final @Nullable O obj, final int value) throws SettingFieldValueFailedException {
+      final var setter = this.intSetter;
+      if (setter == null)
+         throw cannotWrite(obj, int.class);
+      try {
+         setter.invokeExact(obj, value);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes a <code>long</code> field or a field of a primitive type <code>long</code> can be widened to without boxing.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setLong(final @Nullable O obj, final long value) throws SettingFieldValueFailedException {
+      final var setter = this.longSetter;
+      if (setter == null)
+         throw cannotWrite(obj, long.class);
+      try {
+         setter.invokeExact(obj, value);
+      } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes the field with opaque memory semantics, see {@link VarHandle#setOpaque(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setOpaque(final @Nullable O obj, final @Nullable T value) throws SettingFieldValueFailedException {
+      if (isFinal)
+         throw cannotWriteFinal(obj);
+      try {
+         if (isStatic) {
+            handle.setOpaque(value);
+         } else {
+            handle.setOpaque(obj, value);
+         }
+      } catch (final RuntimeException ex) {
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes the field with release memory semantics, see {@link VarHandle#setRelease(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setRelease(final @Nullable O obj, final @Nullable T value) throws SettingFieldValueFailedException {
+      if (isFinal)
+         throw cannotWriteFinal(obj);
+      try {
+         if (isStatic) {
+            handle.setRelease(value);
+         } else {
+            handle.setRelease(obj, value);
+         }
+      } catch (final RuntimeException ex) {
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * Writes the field with volatile memory semantics, see {@link VarHandle#setVolatile(Object...)}.
+    *
+    * @param obj the object holding the field, ignored for static fields
+    */
+   public void setVolatile(final @Nullable O obj, final @Nullable T value) throws SettingFieldValueFailedException {
+      if (isFinal)
+         throw cannotWriteFinal(obj);
+      try {
+         if (isStatic) {
+            handle.setVolatile(value);
+         } else {
+            handle.setVolatile(obj, value);
+         }
+      } catch (final RuntimeException ex) {
+         throw new SettingFieldValueFailedException(field, obj, ex);
+      }
+   }
+
+   /**
+    * @return a method handle of type <code>(Object)type</code> for get access modes or <code>(Object,type)void</code> for set access
+    *         modes, or null if the field type is not convertible
+    */
+   private @Nullable MethodHandle toMethodHandle(final AccessMode mode, final Class<?> type) {
+      MethodHandle mh = handle.toMethodHandle(mode);
+      if (isStatic) {
+         mh = MethodHandles.dropArguments(mh, 0, Object.class);
+      }
+      try {
+         return mode == AccessMode.GET //
+               ? mh.asType(MethodType.methodType(type, Object.class))
+               : mh.asType(MethodType.methodType(void.class, Object.class, type));
+      } catch (final WrongMethodTypeException ex) {
+         return null;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return getClass().getSimpleName() + "[" + field.getDeclaringClass().getName() + "#" + field.getName() + "]";
+   }
+}
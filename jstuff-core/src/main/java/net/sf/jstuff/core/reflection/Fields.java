@@ -110,23 +110,25 @@ public static boolean exists(final Class<?> clazz, final String fieldName, final
       return findRecursive(superclazz, fieldName, compatibleWith);
    }
 
+   /**
+    * @return a {@link VarHandle} for the field declared by the given class or null if the field does not exist
+    */
    public static @Nullable VarHandle findVarHandle(final Class<?> clazz, final String fieldName) {
-      Args.notNull("clazz", clazz);
-      Args.notNull("fieldName", fieldName);
-
       return findVarHandle(clazz, fieldName, null);
    }
 
+   /**
+    * @param fieldType the exact type of the field or null to accept any type
+    * @return a {@link VarHandle} for the field declared by the given class or null if the field does not exist
+    */
    public static @Nullable VarHandle findVarHandle(final Class<?> clazz, final String fieldName, final @Nullable Class<?> fieldType) {
-      try {
-         UnsafeUtils.openModule(clazz.getModule());
-         final Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
-         return lookup.findVarHandle(Field.class, fieldName, fieldType);
-      } catch (final IllegalAccessException ex) {
-         throw new ReflectionException(ex);
-      } catch (final NoSuchFieldException e) {
+      Args.notNull("clazz", clazz);
+      Args.notNull("fieldName", fieldName);
+
+      final Field field = find(clazz, fieldName);
+      if (field == null || fieldType != null && field.getType() != fieldType)
          return null;
-      }
+      return toVarHandle(field);
    }
 
    /**
@@ -215,23 +217,28 @@ public static <T> T read(final @Nullable Object obj, final Field field) throws A
    }
 
    /**
-    * @param obj specify <code>null</code> for static fields
+    * Reads the field via a cached {@link FieldAccessor}.
+    *
     * @return null if field not found
     */
-   @SuppressWarnings("unchecked")
    public static <T> @Nullable T read(final Object obj, final String fieldName) throws AccessingFieldValueFailedException {
       Args.notNull("obj", obj);
       Args.notNull("field", fieldName);
 
-      final Field field = findRecursive(obj.getClass(), fieldName);
-      if (field == null)
+      final FieldAccessor<Object, T> accessor = FieldAccessor.find(obj.getClass(), fieldName);
+      if (accessor == null)
          return null;
+      return accessor.get(obj);
+   }
 
+   static VarHandle toVarHandle(final Field field) throws ReflectionException {
+      final Class<?> clazz = field.getDeclaringClass();
       try {
-         field.trySetAccessible();
-         return (T) field.get(obj);
-      } catch (final Exception ex) {
-         throw new AccessingFieldValueFailedException(field, obj, ex);
+         UnsafeUtils.openModule(clazz.getModule());
+         final Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+         return lookup.unreflectVarHandle(field);
+      } catch (final IllegalAccessException ex) {
+         throw new ReflectionException(ex);
       }
    }
 
@@ -268,24 +275,18 @@ public static void write(final @Nullable Object obj, final Field field, final @N
       }
    }
 
+   /**
+    * Writes the field via a cached {@link FieldAccessor}.
+    */
    public static void write(final Object obj, final String fieldName, final @Nullable Object value) throws ReflectionException {
       Args.notNull("obj", obj);
       Args.notNull("fieldName", fieldName);
 
-      final Field field = findRecursive(obj.getClass(), fieldName);
-      if (field == null)
+      final FieldAccessor<Object, @Nullable Object> accessor = FieldAccessor.find(obj.getClass(), fieldName);
+      if (accessor == null)
          throw new ReflectionException("No field with name [" + fieldName + "] found in object [" + obj + "]");
 
-      if (isFinal(field))
-         throw new SettingFieldValueFailedException(field, obj, "Cannot write to final field " + field.getDeclaringClass().getName() + "#"
-               + field.getName());
-
-      try {
-         field.trySetAccessible();
-         field.set(obj, value);
-      } catch (final Exception ex) {
-         throw new SettingFieldValueFailedException(field, obj, ex);
-      }
+      accessor.set(obj, value);
    }
 
    /**
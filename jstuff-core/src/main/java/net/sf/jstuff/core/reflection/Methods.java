@@ -9,6 +9,7 @@
 
 import java.lang.invoke.CallSite;
 import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
@@ -18,7 +19,10 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -45,8 +49,89 @@ public abstract class Methods extends Members {
       void invoke(BEAN_TYPE bean, PROPERTY_TYPE propertyValue);
    }
 
+   /**
+    * Cache key of {@link Methods#invoke(Object, String, Object...)} consisting of the method name and the runtime types of the arguments.
+    */
+   private static final class InvocationSignature {
+      final String methodName;
+      final @Nullable Class<?>[] argTypes;
+      final int hashCode;
+
+      InvocationSignature(final String methodName, final @Nullable Class<?>[] argTypes) {
+         this.methodName = methodName;
+         this.argTypes = argTypes;
+         hashCode = 31 * methodName.hashCode() + Arrays.hashCode(argTypes);
+      }
+
+      @Override
+      public boolean equals(final @Nullable Object obj) {
+         return obj instanceof final InvocationSignature other //
+               && hashCode == other.hashCode //
+               && methodName.equals(other.methodName) //
+               && Arrays.equals(argTypes, other.argTypes);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+   }
+
+   private static final class MethodInvoker {
+      final Method method;
+
+      /**
+       * method handle of type <code>(Object, Object[])Object</code> or null if the method is not accessible via method handles
+       */
+      final @Nullable MethodHandle handle;
+
+      MethodInvoker(final Method method) {
+         this.method = method;
+
+         MethodHandle handle = null;
+         if (method.trySetAccessible()) {
+            try {
+               handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+               if (isStatic(method)) {
+                  handle = MethodHandles.dropArguments(handle, 0, Object.class);
+               }
+               final int paramCount = method.getParameterCount();
+               handle = handle //
+                  .asType(MethodType.genericMethodType(1 + paramCount)) //
+                  .asSpreader(Object[].class, paramCount);
+            } catch (final IllegalAccessException ex) {
+               LOG.debug(ex, "Cannot create method handle for %s", method);
+               handle = null;
+            }
+         }
+         this.handle = handle;
+      }
+
+      @SuppressWarnings("unchecked")
+      <T> T invoke(final Object obj, final Object[] args) throws InvokingMethodFailedException {
+         final var handle = this.handle;
+         try {
+            if (handle == null)
+               return (T) method.invoke(obj, args);
+            return (T) (Object) handle.invokeExact(obj, args);
+         } catch (final Throwable ex) { // CHECKSTYLE:IGNORE .*
+            throw new InvokingMethodFailedException(method, obj, ex);
+         }
+      }
+   }
+
    private static final Logger LOG = Logger.create();
 
+   /**
+    * Resolved methods of {@link #invoke(Object, String, Object...)} per class including negative results.
+    */
+   private static final ClassValue<ConcurrentMap<InvocationSignature, Optional<MethodInvoker>>> INVOKERS = new ClassValue<>() {
+      @Override
+      protected ConcurrentMap<InvocationSignature, Optional<MethodInvoker>> computeValue(final Class<?> type) {
+         return new ConcurrentHashMap<>(4);
+      }
+   };
+
    @SuppressWarnings("unchecked")
    public static <O, P> GetterAccessor<O, P> createPublicGetterAccessor(final Class<O> beanClass, final String propertyName,
          final Class<P> propertyType) throws ReflectionException {
@@ -658,21 +743,37 @@ public static <T> T invoke(final @Nullable Object obj, final Method method, fina
       }
    }
 
-   @SuppressWarnings("unchecked")
+   /**
+    * Invokes the public or non-public method with a signature compatible to the runtime types of the given arguments.
+    * <p>
+    * The resolved method is cached per class, method name and argument types as a pre-adapted {@link MethodHandle}, i.e. repeated
+    * invocations neither search the class hierarchy nor use core reflection. Failed lookups are cached too.
+    *
+    * @throws IllegalArgumentException if no compatible method exists
+    */
    public static <T> T invoke(final Object obj, final String methodName, final Object @Nullable... args)
          throws InvokingMethodFailedException {
+      Args.notNull("obj", obj);
       Args.notNull("methodName", methodName);
 
-      final Method method = Methods.findAnyCompatible(obj.getClass(), methodName, args);
-      if (method == null)
+      final Object[] nonNullArgs = args == null ? ArrayUtils.EMPTY_OBJECT_ARRAY : args;
+      final var argTypes = new @Nullable Class<?>[nonNullArgs.length];
+      for (int i = 0; i < nonNullArgs.length; i++) {
+         final Object arg = nonNullArgs[i];
+         argTypes[i] = arg == null ? null : arg.getClass();
+      }
+
+      final Class<?> clazz = obj.getClass();
+      final Optional<MethodInvoker> invoker = INVOKERS.get(clazz).computeIfAbsent(new InvocationSignature(methodName, argTypes), sig -> {
+         final Method method = nonNullArgs.length == 0 //
+               ? findAny(clazz, methodName)
+               : findAnyCompatible(clazz, methodName, argTypes);
+         return method == null ? Optional.empty() : Optional.of(new MethodInvoker(method));
+      });
+      if (invoker.isEmpty())
          throw new IllegalArgumentException("No method [" + methodName + "] with compatible signature found.");
 
-      try {
-         method.trySetAccessible();
-         return (T) method.invoke(obj, args);
-      } catch (final Exception ex) {
-         throw new InvokingMethodFailedException(method, obj, ex);
-      }
+      return invoker.get().invoke(obj, nonNullArgs);
    }
 
    /**
@@ -64,6 +64,11 @@ public static <T> T createMixin(final Class<T> objectInterface, final @NonNull O
       Args.notEmpty("mixins", mixins);
       Args.noNulls("mixins", mixins);
 
+      final T mixin = DelegateClasses.createMixin(objectInterface, mixins);
+      return mixin == null ? createMixinProxy(objectInterface, mixins) : mixin;
+   }
+
+   static <T> T createMixinProxy(final Class<T> objectInterface, final @NonNull Object... mixins) {
       final var mappedMethodsCache = new ConcurrentHashMap<Method, Tuple2<Object, Method>>();
       return Proxies.create((proxy, method, args) -> {
          Tuple2<Object, Method> mixedInMethod = mappedMethodsCache.get(method);
@@ -93,7 +98,13 @@ public static <T> T createMixin(final Class<T> objectInterface, final @NonNull O
    public static <@NonNull T> T createSynchronized(final Class<T> objectInterface, final T object, final Object lock) {
       Args.notNull("objectInterface", objectInterface);
       Args.notNull("object", object);
+      Args.notNull("lock", lock);
+
+      final T synchronizedObject = DelegateClasses.createSynchronized(objectInterface, object, lock);
+      return synchronizedObject == null ? createSynchronizedProxy(objectInterface, object, lock) : synchronizedObject;
+   }
 
+   static <@NonNull T> T createSynchronizedProxy(final Class<T> objectInterface, final T object, final Object lock) {
       return Proxies.create((proxy, method, args) -> {
          synchronized (lock) {
             return method.invoke(object, args);
@@ -105,6 +116,11 @@ public static <T> T createMixin(final Class<T> objectInterface, final @NonNull O
       Args.notNull("objectInterface", objectInterface);
       Args.notNull("threadLocal", threadLocal);
 
+      final T threadLocalized = DelegateClasses.createThreadLocalized(objectInterface, threadLocal);
+      return threadLocalized == null ? createThreadLocalizedProxy(objectInterface, threadLocal) : threadLocalized;
+   }
+
+   static <@NonNull T> T createThreadLocalizedProxy(final Class<T> objectInterface, final ThreadLocal<T> threadLocal) {
       return Proxies.create((proxy, method, args) -> method.invoke(threadLocal.get(), args), objectInterface);
    }
 
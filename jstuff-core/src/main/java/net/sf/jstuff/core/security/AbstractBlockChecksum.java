@@ -0,0 +1,134 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.security;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.zip.Checksum;
+
+import net.sf.jstuff.core.concurrent.NotThreadSafe;
+
+/**
+ * Base class for checksums that process the input in fixed-size blocks. Incomplete blocks are buffered until further input arrives or
+ * {@link #getValue()} is called. {@link ByteBuffer}s, including direct buffers, are processed in place without copying.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@NotThreadSafe
+abstract class AbstractBlockChecksum implements Checksum {
+
+   static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+   static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+   static final VarHandle BUFFER_INT_LE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+   static final VarHandle BUFFER_LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+   protected final int blockSize;
+   protected final byte[] pending;
+   protected int pendingLength;
+   protected long totalLength;
+
+   protected AbstractBlockChecksum(final int blockSize) {
+      this.blockSize = blockSize;
+      pending = new byte[blockSize];
+   }
+
+   /**
+    * Processes <code>blockCount</code> consecutive blocks starting at the given offset.
+    */
+   protected abstract void processBlocks(byte[] bytes, int offset, int blockCount);
+
+   /**
+    * Processes <code>blockCount</code> consecutive blocks starting at the given absolute buffer index.
+    */
+   protected abstract void processBlocks(ByteBuffer bytes, int index, int blockCount);
+
+   @Override
+   public void reset() {
+      pendingLength = 0;
+      totalLength = 0;
+   }
+
+   @Override
+   public void update(final byte[] bytes, int offset, int len) {
+      Objects.checkFromIndexSize(offset, len, bytes.length);
+
+      totalLength += len;
+      if (pendingLength > 0) {
+         final int fill = Math.min(blockSize - pendingLength, len);
+         System.arraycopy(bytes, offset, pending, pendingLength, fill);
+         pendingLength += fill;
+         offset += fill;
+         len -= fill;
+         if (pendingLength < blockSize)
+            return;
+         processBlocks(pending, 0, 1);
+         pendingLength = 0;
+      }
+
+      final int blockCount = len / blockSize;
+      if (blockCount > 0) {
+         processBlocks(bytes, offset, blockCount);
+         offset += blockCount * blockSize;
+         len -= blockCount * blockSize;
+      }
+
+      if (len > 0) {
+         System.arraycopy(bytes, offset, pending, 0, len);
+         pendingLength = len;
+      }
+   }
+
+   @Override
+   public void update(final ByteBuffer bytes) {
+      if (bytes.hasArray()) {
+         update(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+         bytes.position(bytes.limit());
+         return;
+      }
+
+      int index = bytes.position();
+      int len = bytes.remaining();
+      totalLength += len;
+      if (pendingLength > 0) {
+         final int fill = Math.min(blockSize - pendingLength, len);
+         bytes.get(index, pending, pendingLength, fill);
+         pendingLength += fill;
+         index += fill;
+         len -= fill;
+         if (pendingLength < blockSize) {
+            bytes.position(bytes.limit());
+            return;
+         }
+         processBlocks(pending, 0, 1);
+         pendingLength = 0;
+      }
+
+      final int blockCount = len / blockSize;
+      if (blockCount > 0) {
+         processBlocks(bytes, index, blockCount);
+         index += blockCount * blockSize;
+         len -= blockCount * blockSize;
+      }
+
+      if (len > 0) {
+         bytes.get(index, pending, 0, len);
+         pendingLength = len;
+      }
+      bytes.position(bytes.limit());
+   }
+
+   @Override
+   public void update(final int b) {
+      pending[pendingLength++] = (byte) b;
+      totalLength++;
+      if (pendingLength == blockSize) {
+         processBlocks(pending, 0, 1);
+         pendingLength = 0;
+      }
+   }
+}
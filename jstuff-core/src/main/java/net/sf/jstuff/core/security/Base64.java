@@ -4,17 +4,217 @@
  */
 package net.sf.jstuff.core.security;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import net.sf.jstuff.core.collection.ArrayUtils;
 
 /**
+ * Lenient Base64 decoding and padded Base64 encoding.
+ * <p>
+ * The <code>encode</code>/<code>urlencode</code> methods accepting a target array or buffer are table-driven and do not allocate. Large
+ * payloads can be processed without buffering them entirely using {@link #encodingOutputStream(OutputStream)} and
+ * {@link #decodingInputStream(InputStream)}.
+ *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public abstract class Base64 {
 
+   /**
+    * Decodes Base64 and Base64Url data read from the wrapped stream, ignoring line breaks and tolerating missing padding.
+    */
+   private static final class DecodingInputStream extends InputStream {
+      private final InputStream in;
+      private final byte[] buffer = new byte[4096];
+      private int bufferPos;
+      private int bufferLimit;
+      private int bits;
+      private int bitCount;
+      private boolean isEOF;
+
+      DecodingInputStream(final InputStream in) {
+         this.in = in;
+      }
+
+      @Override
+      public void close() throws IOException {
+         in.close();
+      }
+
+      @Override
+      public int read() throws IOException {
+         final var b = new byte[1];
+         return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) throws IOException {
+         Objects.checkFromIndexSize(off, len, b.length);
+         if (len == 0)
+            return 0;
+
+         int n = 0;
+         while (n < len && !isEOF) {
+            if (bufferPos == bufferLimit) {
+               bufferLimit = in.read(buffer);
+               bufferPos = 0;
+               if (bufferLimit == -1) {
+                  bufferLimit = 0;
+                  onEOF();
+                  break;
+               }
+               continue;
+            }
+
+            final byte ch = buffer[bufferPos++];
+            if (ch == '\r' || ch == '\n') {
+               continue;
+            }
+            if (ch == '=') {
+               onEOF();
+               break;
+            }
+            final int value = ch < 0 ? -1 : DECODE_TABLE[ch];
+            if (value < 0)
+               throw new IOException("Illegal base64 character " + Integer.toHexString(ch & 0xFF));
+
+            bits = bits << 6 | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+               bitCount -= 8;
+               b[off + n++] = (byte) (bits >>> bitCount);
+            }
+         }
+         return n == 0 && isEOF ? -1 : n;
+      }
+
+      private void onEOF() throws IOException {
+         isEOF = true;
+         if (bitCount == 6)
+            throw new IOException("Base64 stream has one un-decoded dangling character");
+      }
+   }
+
+   /**
+    * Encodes the written bytes in 3 byte groups. The final, padded group is written when the stream is closed.
+    */
+   private static final class EncodingOutputStream extends OutputStream {
+      private final OutputStream out;
+      private final byte[] alphabet;
+      private final byte[] pending = new byte[3];
+      private int pendingLength;
+      private final byte[] buffer = new byte[4096];
+      private boolean isClosed;
+
+      EncodingOutputStream(final OutputStream out, final byte[] alphabet) {
+         this.out = out;
+         this.alphabet = alphabet;
+      }
+
+      @Override
+      public void close() throws IOException {
+         if (isClosed)
+            return;
+         isClosed = true;
+         try {
+            if (pendingLength > 0) {
+               out.write(buffer, 0, encode(pending, 0, pendingLength, buffer, 0, alphabet));
+               pendingLength = 0;
+            }
+         } finally {
+            out.close();
+         }
+      }
+
+      private void ensureOpen() throws IOException {
+         if (isClosed)
+            throw new IOException("Stream closed");
+      }
+
+      /**
+       * Flushes the wrapped stream. An incomplete trailing group is only written on {@link #close()}.
+       */
+      @Override
+      public void flush() throws IOException {
+         ensureOpen();
+         out.flush();
+      }
+
+      @Override
+      public void write(final byte[] b, int off, int len) throws IOException {
+         Objects.checkFromIndexSize(off, len, b.length);
+         ensureOpen();
+
+         if (pendingLength > 0) {
+            final int fill = Math.min(3 - pendingLength, len);
+            System.arraycopy(b, off, pending, pendingLength, fill);
+            pendingLength += fill;
+            off += fill;
+            len -= fill;
+            if (pendingLength < 3)
+               return;
+            out.write(buffer, 0, encode(pending, 0, 3, buffer, 0, alphabet));
+            pendingLength = 0;
+         }
+
+         final int maxChunk = buffer.length / 4 * 3;
+         while (len >= 3) {
+            final int chunk = Math.min(len - len % 3, maxChunk);
+            out.write(buffer, 0, encode(b, off, chunk, buffer, 0, alphabet));
+            off += chunk;
+            len -= chunk;
+         }
+
+         if (len > 0) {
+            System.arraycopy(b, off, pending, 0, len);
+            pendingLength = len;
+         }
+      }
+
+      @Override
+      public void write(final int b) throws IOException {
+         ensureOpen();
+         pending[pendingLength++] = (byte) b;
+         if (pendingLength == 3) {
+            out.write(buffer, 0, encode(pending, 0, 3, buffer, 0, alphabet));
+            pendingLength = 0;
+         }
+      }
+   }
+
+   private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(
+      StandardCharsets.US_ASCII);
+   private static final byte[] URL_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(
+      StandardCharsets.US_ASCII);
+
+   /**
+    * maps the chars of both alphabets to their 6-bit values, all other ASCII chars to -1
+    */
+   private static final byte[] DECODE_TABLE = new byte[128];
+
+   static {
+      Arrays.fill(DECODE_TABLE, (byte) -1);
+      for (int i = 0; i < 64; i++) {
+         DECODE_TABLE[ALPHABET[i]] = (byte) i;
+         DECODE_TABLE[URL_ALPHABET[i]] = (byte) i;
+      }
+   }
+
+   private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+   private static final long SWAR_ONES = 0x0101010101010101L;
+   private static final long SWAR_HIGH_BITS = 0x8080808080808080L;
+
    public static final byte[] decode(final byte[] encoded) {
       if (encoded.length == 0)
          return ArrayUtils.EMPTY_BYTE_ARRAY;
@@ -34,6 +234,16 @@ public static final byte[] decode(final String encoded) {
       return decode(encoded.getBytes(StandardCharsets.UTF_8));
    }
 
+   /**
+    * Returns a stream that decodes the Base64 or Base64Url encoded data read from the given stream.
+    * <p>
+    * Line breaks are ignored and missing padding is tolerated. Decoding ends at the first padding char. Closing the returned stream closes
+    * the given stream.
+    */
+   public static InputStream decodingInputStream(final InputStream encoded) {
+      return new DecodingInputStream(encoded);
+   }
+
    public static String encode(final byte[] plain) {
       if (plain.length == 0)
          return "";
@@ -41,6 +251,151 @@ public static String encode(final byte[] plain) {
       return java.util.Base64.getEncoder().encodeToString(plain);
    }
 
+   /**
+    * Encodes <code>len</code> bytes of <code>plain</code> starting at <code>offset</code> as padded Base64 into <code>target</code>.
+    *
+    * @return the number of bytes written to <code>target</code>
+    */
+   public static int encode(final byte[] plain, final int offset, final int len, final byte[] target, final int targetOffset) {
+      return encode(plain, offset, len, target, targetOffset, ALPHABET);
+   }
+
+   private static int encode(final byte[] plain, final int offset, final int len, final byte[] target, final int targetOffset,
+      final byte[] alphabet) {
+      Objects.checkFromIndexSize(offset, len, plain.length);
+      final int encodedLength = encodedLength(len);
+      Objects.checkFromIndexSize(targetOffset, encodedLength, target.length);
+
+      int i = offset;
+      int j = targetOffset;
+      for (final int end = offset + len - len % 3; i < end; i += 3, j += 4) {
+         final int bits = (plain[i] & 0xFF) << 16 | (plain[i + 1] & 0xFF) << 8 | plain[i + 2] & 0xFF;
+         target[j] = alphabet[bits >>> 18];
+         target[j + 1] = alphabet[bits >>> 12 & 0x3F];
+         target[j + 2] = alphabet[bits >>> 6 & 0x3F];
+         target[j + 3] = alphabet[bits & 0x3F];
+      }
+      switch (len % 3) {
+         case 1: {
+            final int bits = (plain[i] & 0xFF) << 16;
+            target[j] = alphabet[bits >>> 18];
+            target[j + 1] = alphabet[bits >>> 12 & 0x3F];
+            target[j + 2] = '=';
+            target[j + 3] = '=';
+            break;
+         }
+         case 2: {
+            final int bits = (plain[i] & 0xFF) << 16 | (plain[i + 1] & 0xFF) << 8;
+            target[j] = alphabet[bits >>> 18];
+            target[j + 1] = alphabet[bits >>> 12 & 0x3F];
+            target[j + 2] = alphabet[bits >>> 6 & 0x3F];
+            target[j + 3] = '=';
+            break;
+         }
+         default:
+      }
+      return encodedLength;
+   }
+
+   /**
+    * Encodes <code>len</code> bytes of <code>plain</code> starting at <code>offset</code> as padded Base64 into <code>target</code>.
+    *
+    * @return the number of chars written to <code>target</code>
+    */
+   public static int encode(final byte[] plain, final int offset, final int len, final char[] target, final int targetOffset) {
+      return encode(plain, offset, len, target, targetOffset, ALPHABET);
+   }
+
+   private static int encode(final byte[] plain, final int offset, final int len, final char[] target, final int targetOffset,
+      final byte[] alphabet) {
+      Objects.checkFromIndexSize(offset, len, plain.length);
+      final int encodedLength = encodedLength(len);
+      Objects.checkFromIndexSize(targetOffset, encodedLength, target.length);
+
+      int i = offset;
+      int j = targetOffset;
+      for (final int end = offset + len - len % 3; i < end; i += 3, j += 4) {
+         final int bits = (plain[i] & 0xFF) << 16 | (plain[i + 1] & 0xFF) << 8 | plain[i + 2] & 0xFF;
+         target[j] = (char) alphabet[bits >>> 18];
+         target[j + 1] = (char) alphabet[bits >>> 12 & 0x3F];
+         target[j + 2] = (char) alphabet[bits >>> 6 & 0x3F];
+         target[j + 3] = (char) alphabet[bits & 0x3F];
+      }
+      switch (len % 3) {
+         case 1: {
+            final int bits = (plain[i] & 0xFF) << 16;
+            target[j] = (char) alphabet[bits >>> 18];
+            target[j + 1] = (char) alphabet[bits >>> 12 & 0x3F];
+            target[j + 2] = '=';
+            target[j + 3] = '=';
+            break;
+         }
+         case 2: {
+            final int bits = (plain[i] & 0xFF) << 16 | (plain[i + 1] & 0xFF) << 8;
+            target[j] = (char) alphabet[bits >>> 18];
+            target[j + 1] = (char) alphabet[bits >>> 12 & 0x3F];
+            target[j + 2] = (char) alphabet[bits >>> 6 & 0x3F];
+            target[j + 3] = '=';
+            break;
+         }
+         default:
+      }
+      return encodedLength;
+   }
+
+   /**
+    * Encodes the remaining bytes of <code>plain</code> as padded Base64 into <code>target</code>, advancing the positions of both buffers.
+    *
+    * @return the number of bytes written to <code>target</code>
+    * @throws BufferOverflowException if <code>target</code> has not enough space remaining, in which case no buffer is modified
+    */
+   public static int encode(final ByteBuffer plain, final ByteBuffer target) {
+      return encode(plain, target, ALPHABET);
+   }
+
+   private static int encode(final ByteBuffer plain, final ByteBuffer target, final byte[] alphabet) {
+      final int len = plain.remaining();
+      final int encodedLength = encodedLength(len);
+      if (target.remaining() < encodedLength)
+         throw new BufferOverflowException();
+
+      if (plain.hasArray() && target.hasArray() && !target.isReadOnly()) {
+         encode(plain.array(), plain.arrayOffset() + plain.position(), len, target.array(), target.arrayOffset() + target.position(),
+            alphabet);
+         plain.position(plain.limit());
+         target.position(target.position() + encodedLength);
+         return encodedLength;
+      }
+
+      while (plain.remaining() > 2) {
+         final int bits = (plain.get() & 0xFF) << 16 | (plain.get() & 0xFF) << 8 | plain.get() & 0xFF;
+         target.put(alphabet[bits >>> 18]);
+         target.put(alphabet[bits >>> 12 & 0x3F]);
+         target.put(alphabet[bits >>> 6 & 0x3F]);
+         target.put(alphabet[bits & 0x3F]);
+      }
+      switch (plain.remaining()) {
+         case 1: {
+            final int bits = (plain.get() & 0xFF) << 16;
+            target.put(alphabet[bits >>> 18]);
+            target.put(alphabet[bits >>> 12 & 0x3F]);
+            target.put((byte) '=');
+            target.put((byte) '=');
+            break;
+         }
+         case 2: {
+            final int bits = (plain.get() & 0xFF) << 16 | (plain.get() & 0xFF) << 8;
+            target.put(alphabet[bits >>> 18]);
+            target.put(alphabet[bits >>> 12 & 0x3F]);
+            target.put(alphabet[bits >>> 6 & 0x3F]);
+            target.put((byte) '=');
+            break;
+         }
+         default:
+      }
+      return encodedLength;
+   }
+
    public static String encode(final String plain) {
       if (plain.isEmpty())
          return "";
@@ -48,37 +403,71 @@ public static String encode(final String plain) {
       return java.util.Base64.getEncoder().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
    }
 
-   public static boolean isBase64(final byte @Nullable [] bytes) {
-      if (bytes == null)
-         return false;
-      for (final byte ch : bytes) {
-         // test a-z, A-Z, +, /, \n, \r, =
-         if (ch > 47 && ch < 58 || ch > 64 && ch < 91 || ch > 96 && ch < 123 || ch == '+' || ch == '/' || ch == '\r' || ch == '\n'
-               || ch == '=') {
-            continue;
-         }
-         return false;
+   /**
+    * @return the number of chars of the padded Base64 representation of <code>byteCount</code> bytes
+    */
+   public static int encodedLength(final int byteCount) {
+      return Math.toIntExact((byteCount + 2L) / 3 * 4);
+   }
 
-      }
-      return true;
+   /**
+    * Returns a stream that writes the Base64 representation of the bytes written to it to the given stream.
+    * <p>
+    * The final, padded group is written when the returned stream is closed, which also closes the given stream.
+    */
+   public static OutputStream encodingOutputStream(final OutputStream target) {
+      return new EncodingOutputStream(target, ALPHABET);
    }
 
-   public static boolean isBase64Url(final byte @Nullable [] bytes) {
-      if (bytes == null)
-         return false;
+   /**
+    * @return an 0x80 byte in every lane of <code>word</code> whose ASCII char is within <code>[from, to]</code>, requires all lanes to
+    *         be ASCII
+    */
+   private static long inRange(final long word, final int from, final int to) {
+      return word + (0x80 - from) * SWAR_ONES & ~(word + (0x7F - to) * SWAR_ONES) & SWAR_HIGH_BITS;
+   }
 
-      for (final byte ch : bytes) {
-         // test a-z, A-Z, -, _, \n, \r, =
-         if (ch > 47 && ch < 58 || ch > 64 && ch < 91 || ch > 96 && ch < 123 || ch == '-' || ch == '_' || ch == '\r' || ch == '\n'
-               || ch == '=') {
+   public static boolean isBase64(final byte @Nullable [] bytes) {
+      return bytes != null && isBase64(bytes, '+', '/');
+   }
+
+   /**
+    * Validates eight bytes per step using SWAR (SIMD within a register) range checks.
+    */
+   private static boolean isBase64(final byte[] bytes, final char char62, final char char63) {
+      int i = 0;
+      for (final int end = bytes.length - 7; i < end; i += 8) {
+         final long word = (long) LONG_LE.get(bytes, i);
+         if ((word & SWAR_HIGH_BITS) != 0)
+            return false;
+         final long valid = inRange(word, '0', '9') //
+               | inRange(word, 'A', 'Z') //
+               | inRange(word, 'a', 'z') //
+               | inRange(word, char62, char62) //
+               | inRange(word, char63, char63) //
+               | inRange(word, '\r', '\r') //
+               | inRange(word, '\n', '\n') //
+               | inRange(word, '=', '=');
+         if (valid != SWAR_HIGH_BITS)
+            return false;
+      }
+      for (; i < bytes.length; i++) {
+         final byte ch = bytes[i];
+         if (ch < 0)
+            return false;
+         final int value = DECODE_TABLE[ch];
+         if (value >= 0 && value < 62 || ch == char62 || ch == char63 || ch == '\r' || ch == '\n' || ch == '=') {
             continue;
          }
          return false;
-
       }
       return true;
    }
 
+   public static boolean isBase64Url(final byte @Nullable [] bytes) {
+      return bytes != null && isBase64(bytes, '-', '_');
+   }
+
    private static byte[] sanitizeBytes(final byte[] bytes) {
       /*
        * count new line chars
@@ -157,4 +546,32 @@ public static String urlencode(final String plain) {
 
       return java.util.Base64.getUrlEncoder().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
    }
+
+   /**
+    * Same as {@link #encode(byte[], int, int, byte[], int)} but using the URL and filename safe alphabet.
+    */
+   public static int urlencode(final byte[] plain, final int offset, final int len, final byte[] target, final int targetOffset) {
+      return encode(plain, offset, len, target, targetOffset, URL_ALPHABET);
+   }
+
+   /**
+    * Same as {@link #encode(byte[], int, int, char[], int)} but using the URL and filename safe alphabet.
+    */
+   public static int urlencode(final byte[] plain, final int offset, final int len, final char[] target, final int targetOffset) {
+      return encode(plain, offset, len, target, targetOffset, URL_ALPHABET);
+   }
+
+   /**
+    * Same as {@link #encode(ByteBuffer, ByteBuffer)} but using the URL and filename safe alphabet.
+    */
+   public static int urlencode(final ByteBuffer plain, final ByteBuffer target) {
+      return encode(plain, target, URL_ALPHABET);
+   }
+
+   /**
+    * Same as {@link #encodingOutputStream(OutputStream)} but using the URL and filename safe alphabet.
+    */
+   public static OutputStream urlencodingOutputStream(final OutputStream target) {
+      return new EncodingOutputStream(target, URL_ALPHABET);
+   }
 }
@@ -6,15 +6,28 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.zip.Adler32;
 import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
 import java.util.zip.Checksum;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -22,6 +35,7 @@
 
 import net.sf.jstuff.core.concurrent.NotThreadSafe;
 import net.sf.jstuff.core.concurrent.ThreadSafe;
+import net.sf.jstuff.core.io.ByteArrayPool;
 import net.sf.jstuff.core.validation.Args;
 
 /**
@@ -31,6 +45,9 @@
 public interface Hash<T> {
 
    abstract class AbstractHash<T> implements Hash<T> {
+
+      protected static final int READ_BUFFER_SIZE = 64 * 1024;
+
       protected final String name;
       protected final byte[] salt;
       protected final Category category;
@@ -55,6 +72,69 @@ public String getName() {
       public byte @Nullable [] getSalt() {
          return salt.length == 0 ? null : salt;
       }
+
+      /**
+       * Passes the remaining bytes of the given channel to the consumer. File channels are read via
+       * {@link #readTo(FileChannel, long, long, Consumer)} and positioned at their end afterwards.
+       */
+      protected static void readTo(final ReadableByteChannel ch, final Consumer<ByteBuffer> consumer) throws IOException {
+         if (ch instanceof final FileChannel fileCh) {
+            final long size = fileCh.size();
+            readTo(fileCh, fileCh.position(), size, consumer);
+            fileCh.position(size);
+            return;
+         }
+
+         final byte[] array = ByteArrayPool.SHARED.borrow(READ_BUFFER_SIZE);
+         try {
+            final var buf = ByteBuffer.wrap(array);
+            while (ch.read(buf) > -1) {
+               consumer.accept(buf.flip());
+               buf.clear();
+            }
+         } finally {
+            ByteArrayPool.SHARED.release(array);
+         }
+      }
+
+      /**
+       * Passes the given byte range of the file channel to the consumer using positional reads into a pooled buffer. The channel's
+       * position is not changed, so multiple ranges of the same channel can be read concurrently.
+       */
+      protected static void readTo(final FileChannel ch, long position, final long end, final Consumer<ByteBuffer> consumer)
+            throws IOException {
+         final byte[] array = ByteArrayPool.SHARED.borrow(READ_BUFFER_SIZE);
+         try {
+            final var buf = ByteBuffer.wrap(array);
+            while (position < end) {
+               buf.clear().limit((int) Math.min(buf.capacity(), end - position));
+               final int read = ch.read(buf, position);
+               if (read < 0) {
+                  break; // file was truncated concurrently
+               }
+               position += read;
+               consumer.accept(buf.flip());
+            }
+         } finally {
+            ByteArrayPool.SHARED.release(array);
+         }
+      }
+
+      /**
+       * Reads the given input stream into a pooled buffer and passes the read bytes to the consumer.
+       */
+      protected static void readTo(final InputStream is, final Consumer<ByteBuffer> consumer) throws IOException {
+         final byte[] array = ByteArrayPool.SHARED.borrow(READ_BUFFER_SIZE);
+         try {
+            final var buf = ByteBuffer.wrap(array);
+            int read;
+            while ((read = is.read(array)) > -1) {
+               consumer.accept(buf.clear().limit(read));
+            }
+         } finally {
+            ByteArrayPool.SHARED.release(array);
+         }
+      }
    }
 
    /**
@@ -66,6 +146,8 @@ enum Category {
       CHECKSUM,
       /** Keyed cryptographic hash function **/
       KEYED_CRYPTOGRAPHIC,
+      /** Non-cryptographic hash function, e.g. for hash tables, sharding or deduplication **/
+      NON_CRYPTOGRAPHIC,
       /** Unkeyed cryptographic hash function **/
       UNKEYED_CRYPTOGRAPHIC
    }
@@ -80,32 +162,25 @@ protected long compute(final InputStream is, final Checksum cs) throws IOExcepti
          if (salt.length > 0) {
             cs.update(salt);
          }
-
-         final var buf = new byte[4096];
-         int read;
-         while ((read = is.read(buf)) > -1) {
-            cs.update(buf, 0, read);
-         }
+         readTo(is, cs::update);
          return cs.getValue();
       }
 
       protected long compute(final Path file, final Checksum cs) throws IOException {
-         try (var fis = Files.newInputStream(file)) {
-            return compute(fis, cs);
+         if (salt.length > 0) {
+            cs.update(salt);
+         }
+         try (var ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            readTo(ch, 0, ch.size(), cs::update);
          }
+         return cs.getValue();
       }
 
       protected long compute(final ReadableByteChannel ch, final Checksum cs) throws IOException {
          if (salt.length > 0) {
             cs.update(salt);
          }
-
-         final var buf = ByteBuffer.allocate(4096);
-         while (ch.read(buf) > -1) {
-            buf.flip();
-            cs.update(buf);
-            buf.clear();
-         }
+         readTo(ch, cs::update);
          return cs.getValue();
       }
 
@@ -113,11 +188,18 @@ protected long compute(final ReadableByteChannel ch, final Checksum cs) throws I
       public Long hash(final byte[] bytes) {
          Args.notNull("bytes", bytes);
 
+         return hash(bytes, 0, bytes.length);
+      }
+
+      /**
+       * Computes the checksum of the given byte range without boxing the result.
+       */
+      public long hash(final byte[] bytes, final int offset, final int len) {
          final var cs = newInstance();
          if (salt.length > 0) {
             cs.update(salt);
          }
-         cs.update(bytes);
+         cs.update(bytes, offset, len);
          return cs.getValue();
       }
 
@@ -254,17 +336,7 @@ protected static MessageDigest lookup(final String name) throws SecurityExceptio
       }
 
       protected static String toHexString(final byte[] bytes) {
-         //same as:
-         // return Strings.leftPad(new BigInteger(1, bytes).toString(16), hashCharLength, '0');
-         final var sb = new StringBuilder();
-         for (final byte b : bytes) {
-            final int x = b & 0xff;
-            if (x < 0x10) {
-               sb.append('0');
-            }
-            sb.append(Integer.toHexString(x));
-         }
-         return sb.toString();
+         return Hex.encode(bytes);
       }
 
       protected MessageDigestHash(final Category category, final String name, final byte @Nullable [] salt) {
@@ -275,32 +347,25 @@ protected byte[] compute(final InputStream is, final MessageDigest md) throws IO
          if (salt.length > 0) {
             md.update(salt);
          }
-
-         final var buf = new byte[4096];
-         int read;
-         while ((read = is.read(buf)) > -1) {
-            md.update(buf, 0, read);
-         }
+         readTo(is, md::update);
          return md.digest();
       }
 
       protected byte[] compute(final Path file, final MessageDigest md) throws IOException {
-         try (var fis = Files.newInputStream(file)) {
-            return compute(fis, md);
+         if (salt.length > 0) {
+            md.update(salt);
+         }
+         try (var ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            readTo(ch, 0, ch.size(), md::update);
          }
+         return md.digest();
       }
 
       protected byte[] compute(final ReadableByteChannel ch, final MessageDigest md) throws IOException {
          if (salt.length > 0) {
             md.update(salt);
          }
-
-         final var buf = ByteBuffer.allocate(4096);
-         while (ch.read(buf) > -1) {
-            buf.flip();
-            md.update(buf);
-            buf.clear();
-         }
+         readTo(ch, md::update);
          return md.digest();
       }
 
@@ -431,6 +496,61 @@ protected Checksum newInstance() {
       }
    };
 
+   /**
+    * Hardware accelerated CRC-32C (Castagnoli)
+    */
+   ChecksumHash CRC32C = new ChecksumHash(Category.CRC, "CRC-32C", null) {
+      @Override
+      protected Checksum newInstance() {
+         return new CRC32C();
+      }
+   };
+
+   /**
+    * MurmurHash3 x86 32-bit with seed 0, returned as unsigned value
+    */
+   ChecksumHash MURMUR3_32 = new ChecksumHash(Category.NON_CRYPTOGRAPHIC, "Murmur3-32", null) {
+      @Override
+      public long hash(final byte[] bytes, final int offset, final int len) {
+         return Murmur3Hash32.hash(bytes, offset, len);
+      }
+
+      @Override
+      protected Checksum newInstance() {
+         return new Murmur3Hash32();
+      }
+   };
+
+   /**
+    * MurmurHash3 x64 128-bit with seed 0, returning the first 64 bits of the hash (<code>h1</code>)
+    */
+   ChecksumHash MURMUR3_128 = new ChecksumHash(Category.NON_CRYPTOGRAPHIC, "Murmur3-128", null) {
+      @Override
+      public long hash(final byte[] bytes, final int offset, final int len) {
+         return Murmur3Hash128.hash(bytes, offset, len);
+      }
+
+      @Override
+      protected Checksum newInstance() {
+         return new Murmur3Hash128();
+      }
+   };
+
+   /**
+    * xxHash64 with seed 0
+    */
+   ChecksumHash XXHASH64 = new ChecksumHash(Category.NON_CRYPTOGRAPHIC, "xxHash64", null) {
+      @Override
+      public long hash(final byte[] bytes, final int offset, final int len) {
+         return XXHash64.hash(bytes, offset, len);
+      }
+
+      @Override
+      protected Checksum newInstance() {
+         return new XXHash64();
+      }
+   };
+
    Hash<String> MD5 = new MessageDigestHash(Category.UNKEYED_CRYPTOGRAPHIC, "MD5", null);
    Hash<String> SHA1 = new MessageDigestHash(Category.UNKEYED_CRYPTOGRAPHIC, "SHA-1", null);
    Hash<String> SHA256 = new MessageDigestHash(Category.UNKEYED_CRYPTOGRAPHIC, "SHA-256", null);
@@ -443,6 +563,50 @@ protected Checksum newInstance() {
 
    byte @Nullable [] getSalt();
 
+   /**
+    * Invokes the given tasks using the given number of threads.
+    *
+    * @return the results in the order of the tasks
+    */
+   private static <R> List<R> invokeAll(final List<Callable<R>> tasks, final int parallelism) throws IOException {
+      try {
+         if (parallelism == 1 || tasks.size() < 2) {
+            final var results = new ArrayList<R>(tasks.size());
+            for (final Callable<R> task : tasks) {
+               results.add(task.call());
+            }
+            return results;
+         }
+
+         final var pool = new ForkJoinPool(Math.min(parallelism, tasks.size()));
+         try {
+            final var results = new ArrayList<R>(tasks.size());
+            for (final Future<R> future : pool.invokeAll(tasks)) {
+               results.add(future.get());
+            }
+            return results;
+         } finally {
+            pool.shutdownNow();
+         }
+      } catch (final ExecutionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof final IOException ioEx)
+            throw ioEx;
+         if (cause instanceof final RuntimeException rtEx)
+            throw rtEx;
+         if (cause instanceof final Error error)
+            throw error;
+         throw new IOException(cause);
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw (InterruptedIOException) new InterruptedIOException().initCause(ex);
+      } catch (final IOException | RuntimeException ex) {
+         throw ex;
+      } catch (final Exception ex) {
+         throw new IOException(ex);
+      }
+   }
+
    T hash(byte[] bytes);
 
    T hash(InputStream is) throws IOException;
@@ -453,11 +617,86 @@ protected Checksum newInstance() {
 
    T hash(String text);
 
+   /**
+    * Hashes the given files concurrently.
+    *
+    * @param parallelism the maximum number of files hashed concurrently
+    * @return the hashes of the files in the iteration order of the given collection
+    */
+   default Map<Path, T> hashAll(final Collection<Path> files, final int parallelism) throws IOException {
+      Args.notNull("files", files);
+      Args.greaterThan("parallelism", parallelism, 0);
+
+      final var paths = List.copyOf(files);
+      final var tasks = new ArrayList<Callable<T>>(paths.size());
+      for (final Path file : paths) {
+         tasks.add(() -> hash(file));
+      }
+      final List<T> hashes = invokeAll(tasks, parallelism);
+      final var result = new LinkedHashMap<Path, T>(paths.size() * 4 / 3 + 1);
+      for (int i = 0; i < paths.size(); i++) {
+         result.put(paths.get(i), hashes.get(i));
+      }
+      return result;
+   }
+
+   /**
+    * Computes a tree hash of the given file by hashing fixed-size chunks of the file concurrently and then hashing the chunk hashes.
+    * <p>
+    * Format: The file is split into chunks of <code>chunkSize</code> bytes, the last chunk may be shorter. Each chunk is hashed
+    * individually (leaf hash). The result is the hash of the concatenated binary leaf hashes in chunk order. The binary form of a
+    * message digest is the raw digest, of a checksum the 8 byte big-endian value. A configured salt is applied to all leaf hashes and to
+    * the root hash. The result thus depends on the chunk size and differs from {@link #hash(Path)}, e.g. an empty file has no leaf
+    * hashes and a file not larger than <code>chunkSize</code> has a single leaf hash.
+    *
+    * @param parallelism the maximum number of chunks hashed concurrently
+    * @throws UnsupportedOperationException if the hash values are neither {@link Long}, hex {@link String} nor <code>byte[]</code>
+    */
+   default T hashTree(final Path file, final int chunkSize, final int parallelism) throws IOException {
+      Args.isFileReadable("file", file);
+      Args.greaterThan("chunkSize", chunkSize, 0);
+      Args.greaterThan("parallelism", parallelism, 0);
+
+      try (var ch = FileChannel.open(file, StandardOpenOption.READ)) {
+         final long size = ch.size();
+         final int chunkCount = Math.toIntExact((size + chunkSize - 1) / chunkSize);
+         final var leafTasks = new ArrayList<Callable<byte[]>>(chunkCount);
+         for (int i = 0; i < chunkCount; i++) {
+            final long start = (long) i * chunkSize;
+            final long end = Math.min(size, start + chunkSize);
+            leafTasks.add(() -> {
+               final Hasher<T> leafHasher = newHasher();
+               AbstractHash.readTo(ch, start, end, leafHasher::update);
+               return toBytes(leafHasher.hash());
+            });
+         }
+
+         final Hasher<T> rootHasher = newHasher();
+         for (final byte[] leafHash : invokeAll(leafTasks, parallelism)) {
+            rootHasher.update(leafHash);
+         }
+         return rootHasher.hash();
+      }
+   }
+
    /**
     * @return a new not-thread safe hasher instance for incremental hashing
     */
    Hasher<T> newHasher();
 
+   /**
+    * @return the binary form of the given hash value as used for the leaf hashes of {@link #hashTree(Path, int, int)}
+    */
+   private static byte[] toBytes(final Object hash) {
+      if (hash instanceof final Long checksum)
+         return ByteBuffer.allocate(Long.BYTES).putLong(checksum).array();
+      if (hash instanceof final String hex)
+         return Hex.decode(hex);
+      if (hash instanceof final byte[] bytes)
+         return bytes;
+      throw new UnsupportedOperationException("Unsupported hash value type: " + hash.getClass().getName());
+   }
+
    /**
     * @return a new instance configured with the given salt
     */
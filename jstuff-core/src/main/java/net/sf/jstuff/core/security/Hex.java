@@ -0,0 +1,161 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.security;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import net.sf.jstuff.core.collection.ArrayUtils;
+
+/**
+ * Table-driven lower-case hex encoding and case-insensitive decoding.
+ * <p>
+ * The methods accepting a target array or buffer do not allocate.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public abstract class Hex {
+
+   private static final byte[] DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] VALUES = new byte[128];
+
+   static {
+      Arrays.fill(VALUES, (byte) -1);
+      for (int i = 0; i < 10; i++) {
+         VALUES['0' + i] = (byte) i;
+      }
+      for (int i = 0; i < 6; i++) {
+         VALUES['a' + i] = (byte) (10 + i);
+         VALUES['A' + i] = (byte) (10 + i);
+      }
+   }
+
+   public static byte[] decode(final CharSequence hex) {
+      if (hex.length() == 0)
+         return ArrayUtils.EMPTY_BYTE_ARRAY;
+
+      final var bytes = new byte[decodedLength(hex.length())];
+      decode(hex, 0, hex.length(), bytes, 0);
+      return bytes;
+   }
+
+   /**
+    * Decodes <code>len</code> hex chars of <code>hex</code> starting at <code>offset</code> into <code>target</code>.
+    *
+    * @return the number of bytes written to <code>target</code>
+    * @throws IllegalArgumentException if <code>len</code> is odd or a non-hex char is encountered
+    */
+   public static int decode(final CharSequence hex, final int offset, final int len, final byte[] target, final int targetOffset) {
+      Objects.checkFromIndexSize(offset, len, hex.length());
+      final int byteCount = decodedLength(len);
+      Objects.checkFromIndexSize(targetOffset, byteCount, target.length);
+
+      for (int i = 0; i < byteCount; i++) {
+         final int pos = offset + 2 * i;
+         target[targetOffset + i] = (byte) (digit(hex.charAt(pos), pos) << 4 | digit(hex.charAt(pos + 1), pos + 1));
+      }
+      return byteCount;
+   }
+
+   private static int decodedLength(final int hexLength) {
+      if ((hexLength & 1) != 0)
+         throw new IllegalArgumentException("Hex string must have an even number of characters but has " + hexLength);
+      return hexLength / 2;
+   }
+
+   private static int digit(final char ch, final int index) {
+      final int value = ch < 128 ? VALUES[ch] : -1;
+      if (value < 0)
+         throw new IllegalArgumentException("Illegal hex character [" + ch + "] at index " + index);
+      return value;
+   }
+
+   /**
+    * @return the lower-case hex representation of the given bytes
+    */
+   public static String encode(final byte[] bytes) {
+      if (bytes.length == 0)
+         return "";
+
+      final var chars = new byte[encodedLength(bytes.length)];
+      encode(bytes, 0, bytes.length, chars, 0);
+      return new String(chars, StandardCharsets.ISO_8859_1);
+   }
+
+   /**
+    * Encodes <code>len</code> bytes of <code>bytes</code> starting at <code>offset</code> as ASCII hex chars into <code>target</code>.
+    *
+    * @return the number of bytes written to <code>target</code>
+    */
+   public static int encode(final byte[] bytes, final int offset, final int len, final byte[] target, final int targetOffset) {
+      Objects.checkFromIndexSize(offset, len, bytes.length);
+      final int charCount = encodedLength(len);
+      Objects.checkFromIndexSize(targetOffset, charCount, target.length);
+
+      for (int i = 0, j = targetOffset; i < len; i++, j += 2) {
+         final int b = bytes[offset + i];
+         target[j] = DIGITS[b >>> 4 & 0xF];
+         target[j + 1] = DIGITS[b & 0xF];
+      }
+      return charCount;
+   }
+
+   /**
+    * Encodes <code>len</code> bytes of <code>bytes</code> starting at <code>offset</code> as hex chars into <code>target</code>.
+    *
+    * @return the number of chars written to <code>target</code>
+    */
+   public static int encode(final byte[] bytes, final int offset, final int len, final char[] target, final int targetOffset) {
+      Objects.checkFromIndexSize(offset, len, bytes.length);
+      final int charCount = encodedLength(len);
+      Objects.checkFromIndexSize(targetOffset, charCount, target.length);
+
+      for (int i = 0, j = targetOffset; i < len; i++, j += 2) {
+         final int b = bytes[offset + i];
+         target[j] = (char) DIGITS[b >>> 4 & 0xF];
+         target[j + 1] = (char) DIGITS[b & 0xF];
+      }
+      return charCount;
+   }
+
+   /**
+    * Encodes the remaining bytes of <code>bytes</code> as ASCII hex chars into <code>target</code>, advancing the positions of both
+    * buffers.
+    *
+    * @return the number of bytes written to <code>target</code>
+    * @throws BufferOverflowException if <code>target</code> has not enough space remaining, in which case no buffer is modified
+    */
+   public static int encode(final ByteBuffer bytes, final ByteBuffer target) {
+      final int len = bytes.remaining();
+      final int charCount = encodedLength(len);
+      if (target.remaining() < charCount)
+         throw new BufferOverflowException();
+
+      if (bytes.hasArray() && target.hasArray() && !target.isReadOnly()) {
+         encode(bytes.array(), bytes.arrayOffset() + bytes.position(), len, target.array(), target.arrayOffset() + target.position());
+      } else {
+         final int srcPos = bytes.position();
+         final int targetPos = target.position();
+         for (int i = 0, j = targetPos; i < len; i++, j += 2) {
+            final int b = bytes.get(srcPos + i);
+            target.put(j, DIGITS[b >>> 4 & 0xF]);
+            target.put(j + 1, DIGITS[b & 0xF]);
+         }
+      }
+      bytes.position(bytes.limit());
+      target.position(target.position() + charCount);
+      return charCount;
+   }
+
+   /**
+    * @return the number of hex chars required to encode <code>byteCount</code> bytes
+    */
+   public static int encodedLength(final int byteCount) {
+      return Math.multiplyExact(byteCount, 2);
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.security;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import net.sf.jstuff.core.concurrent.NotThreadSafe;
+
+/**
+ * MurmurHash3 x64 128-bit with seed 0, see https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp
+ * <p>
+ * {@link #getValue()} returns the first 64 bits (<code>h1</code>) of the 128-bit hash, which equals the first 8 bytes of the hash in
+ * little-endian byte order, i.e. the value returned by Guava's <code>Hashing.murmur3_128().hashBytes(...).asLong()</code>.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@NotThreadSafe
+final class Murmur3Hash128 extends AbstractBlockChecksum {
+
+   private static final long C1 = 0x87c37b91114253d5L;
+   private static final long C2 = 0x4cf5ad432745937fL;
+
+   private static long finish(long h1, long h2, final byte[] bytes, final int offset, final int len, final long totalLength) {
+      if (len > 0) {
+         long k1 = 0;
+         long k2 = 0;
+         for (int i = len - 1; i >= 8; i--) {
+            k2 = k2 << 8 | bytes[offset + i] & 0xFFL;
+         }
+         for (int i = Math.min(len, 8) - 1; i >= 0; i--) {
+            k1 = k1 << 8 | bytes[offset + i] & 0xFFL;
+         }
+         if (len > 8) {
+            h2 ^= mixK2(k2);
+         }
+         h1 ^= mixK1(k1);
+      }
+
+      h1 ^= totalLength;
+      h2 ^= totalLength;
+      h1 += h2;
+      h2 += h1;
+      h1 = fmix64(h1);
+      h2 = fmix64(h2);
+      return h1 + h2;
+   }
+
+   private static long fmix64(long k) {
+      k ^= k >>> 33;
+      k *= 0xff51afd7ed558ccdL;
+      k ^= k >>> 33;
+      k *= 0xc4ceb9fe1a85ec53L;
+      k ^= k >>> 33;
+      return k;
+   }
+
+   /**
+    * Allocation-free one-shot computation.
+    *
+    * @return the first 64 bits of the 128-bit hash
+    */
+   static long hash(final byte[] bytes, int offset, final int len) {
+      Objects.checkFromIndexSize(offset, len, bytes.length);
+
+      long h1 = 0;
+      long h2 = 0;
+      final int blocksEnd = offset + (len & ~15);
+      for (; offset < blocksEnd; offset += 16) {
+         h1 ^= mixK1((long) LONG_LE.get(bytes, offset));
+         h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+         h2 ^= mixK2((long) LONG_LE.get(bytes, offset + 8));
+         h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+      }
+      return finish(h1, h2, bytes, offset, len & 15, len);
+   }
+
+   private static long mixK1(final long k1) {
+      return Long.rotateLeft(k1 * C1, 31) * C2;
+   }
+
+   private static long mixK2(final long k2) {
+      return Long.rotateLeft(k2 * C2, 33) * C1;
+   }
+
+   private long h1;
+   private long h2;
+
+   Murmur3Hash128() {
+      super(16);
+   }
+
+   @Override
+   public long getValue() {
+      return finish(h1, h2, pending, 0, pendingLength, totalLength);
+   }
+
+   @Override
+   protected void processBlocks(final byte[] bytes, int offset, final int blockCount) {
+      long h1 = this.h1;
+      long h2 = this.h2;
+      for (int i = 0; i < blockCount; i++, offset += 16) {
+         h1 ^= mixK1((long) LONG_LE.get(bytes, offset));
+         h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+         h2 ^= mixK2((long) LONG_LE.get(bytes, offset + 8));
+         h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+      }
+      this.h1 = h1;
+      this.h2 = h2;
+   }
+
+   @Override
+   protected void processBlocks(final ByteBuffer bytes, int index, final int blockCount) {
+      long h1 = this.h1;
+      long h2 = this.h2;
+      for (int i = 0; i < blockCount; i++, index += 16) {
+         h1 ^= mixK1((long) BUFFER_LONG_LE.get(bytes, index));
+         h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+         h2 ^= mixK2((long) BUFFER_LONG_LE.get(bytes, index + 8));
+         h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+      }
+      this.h1 = h1;
+      this.h2 = h2;
+   }
+
+   @Override
+   public void reset() {
+      super.reset();
+      h1 = 0;
+      h2 = 0;
+   }
+}
@@ -0,0 +1,101 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.security;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import net.sf.jstuff.core.concurrent.NotThreadSafe;
+
+/**
+ * MurmurHash3 x86 32-bit with seed 0, see https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp
+ * <p>
+ * {@link #getValue()} returns the hash as unsigned 32-bit value.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@NotThreadSafe
+final class Murmur3Hash32 extends AbstractBlockChecksum {
+
+   private static final int C1 = 0xcc9e2d51;
+   private static final int C2 = 0x1b873593;
+
+   private static int finish(int h, final byte[] bytes, final int offset, final int len, final long totalLength) {
+      if (len > 0) {
+         int k = 0;
+         for (int i = len - 1; i >= 0; i--) {
+            k = k << 8 | bytes[offset + i] & 0xFF;
+         }
+         h ^= mixK(k);
+      }
+
+      h ^= (int) totalLength;
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return h;
+   }
+
+   /**
+    * Allocation-free one-shot computation.
+    *
+    * @return the hash as unsigned 32-bit value
+    */
+   static long hash(final byte[] bytes, int offset, final int len) {
+      Objects.checkFromIndexSize(offset, len, bytes.length);
+
+      int h = 0;
+      final int blocksEnd = offset + (len & ~3);
+      for (; offset < blocksEnd; offset += 4) {
+         h = mixH(h, mixK((int) INT_LE.get(bytes, offset)));
+      }
+      return Integer.toUnsignedLong(finish(h, bytes, offset, len & 3, len));
+   }
+
+   private static int mixH(final int h, final int k) {
+      return Integer.rotateLeft(h ^ k, 13) * 5 + 0xe6546b64;
+   }
+
+   private static int mixK(final int k) {
+      return Integer.rotateLeft(k * C1, 15) * C2;
+   }
+
+   private int h;
+
+   Murmur3Hash32() {
+      super(4);
+   }
+
+   @Override
+   public long getValue() {
+      return Integer.toUnsignedLong(finish(h, pending, 0, pendingLength, totalLength));
+   }
+
+   @Override
+   protected void processBlocks(final byte[] bytes, int offset, final int blockCount) {
+      int h = this.h;
+      for (int i = 0; i < blockCount; i++, offset += 4) {
+         h = mixH(h, mixK((int) INT_LE.get(bytes, offset)));
+      }
+      this.h = h;
+   }
+
+   @Override
+   protected void processBlocks(final ByteBuffer bytes, int index, final int blockCount) {
+      int h = this.h;
+      for (int i = 0; i < blockCount; i++, index += 4) {
+         h = mixH(h, mixK((int) BUFFER_INT_LE.get(bytes, index)));
+      }
+      this.h = h;
+   }
+
+   @Override
+   public void reset() {
+      super.reset();
+      h = 0;
+   }
+}
@@ -0,0 +1,158 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.security;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import net.sf.jstuff.core.concurrent.NotThreadSafe;
+
+/**
+ * xxHash64 with seed 0, see https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@NotThreadSafe
+final class XXHash64 extends AbstractBlockChecksum {
+
+   private static final long PRIME1 = 0x9E3779B185EBCA87L;
+   private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+   private static final long PRIME3 = 0x165667B19E3779F9L;
+   private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+   private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+   private static long converge(final long v1, final long v2, final long v3, final long v4) {
+      long h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      h = mergeRound(h, v1);
+      h = mergeRound(h, v2);
+      h = mergeRound(h, v3);
+      return mergeRound(h, v4);
+   }
+
+   /**
+    * Processes the remaining bytes (less than 32) and applies the final avalanche.
+    */
+   private static long finish(long h, final byte[] bytes, int offset, final int len) {
+      final int end = offset + len;
+      for (; offset + 8 <= end; offset += 8) {
+         h ^= round(0, (long) LONG_LE.get(bytes, offset));
+         h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+      }
+      if (offset + 4 <= end) {
+         h ^= ((int) INT_LE.get(bytes, offset) & 0xFFFFFFFFL) * PRIME1;
+         h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+         offset += 4;
+      }
+      for (; offset < end; offset++) {
+         h ^= (bytes[offset] & 0xFFL) * PRIME5;
+         h = Long.rotateLeft(h, 11) * PRIME1;
+      }
+
+      h ^= h >>> 33;
+      h *= PRIME2;
+      h ^= h >>> 29;
+      h *= PRIME3;
+      h ^= h >>> 32;
+      return h;
+   }
+
+   /**
+    * Allocation-free one-shot computation.
+    */
+   static long hash(final byte[] bytes, int offset, final int len) {
+      Objects.checkFromIndexSize(offset, len, bytes.length);
+
+      final int end = offset + len;
+      long h;
+      if (len >= 32) {
+         long v1 = PRIME1 + PRIME2;
+         long v2 = PRIME2;
+         long v3 = 0;
+         long v4 = -PRIME1;
+         final int limit = end - 32;
+         do {
+            v1 = round(v1, (long) LONG_LE.get(bytes, offset));
+            v2 = round(v2, (long) LONG_LE.get(bytes, offset + 8));
+            v3 = round(v3, (long) LONG_LE.get(bytes, offset + 16));
+            v4 = round(v4, (long) LONG_LE.get(bytes, offset + 24));
+            offset += 32;
+         }
+         while (offset <= limit);
+         h = converge(v1, v2, v3, v4);
+      } else {
+         h = PRIME5;
+      }
+      return finish(h + len, bytes, offset, end - offset);
+   }
+
+   private static long mergeRound(final long acc, final long value) {
+      return (acc ^ round(0, value)) * PRIME1 + PRIME4;
+   }
+
+   private static long round(final long acc, final long input) {
+      return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+   }
+
+   private long v1;
+   private long v2;
+   private long v3;
+   private long v4;
+
+   XXHash64() {
+      super(32);
+      reset();
+   }
+
+   @Override
+   public long getValue() {
+      final long h = totalLength >= 32 ? converge(v1, v2, v3, v4) : PRIME5;
+      return finish(h + totalLength, pending, 0, pendingLength);
+   }
+
+   @Override
+   protected void processBlocks(final byte[] bytes, int offset, final int blockCount) {
+      long v1 = this.v1;
+      long v2 = this.v2;
+      long v3 = this.v3;
+      long v4 = this.v4;
+      for (int i = 0; i < blockCount; i++, offset += 32) {
+         v1 = round(v1, (long) LONG_LE.get(bytes, offset));
+         v2 = round(v2, (long) LONG_LE.get(bytes, offset + 8));
+         v3 = round(v3, (long) LONG_LE.get(bytes, offset + 16));
+         v4 = round(v4, (long) LONG_LE.get(bytes, offset + 24));
+      }
+      this.v1 = v1;
+      this.v2 = v2;
+      this.v3 = v3;
+      this.v4 = v4;
+   }
+
+   @Override
+   protected void processBlocks(final ByteBuffer bytes, int index, final int blockCount) {
+      long v1 = this.v1;
+      long v2 = this.v2;
+      long v3 = this.v3;
+      long v4 = this.v4;
+      for (int i = 0; i < blockCount; i++, index += 32) {
+         v1 = round(v1, (long) BUFFER_LONG_LE.get(bytes, index));
+         v2 = round(v2, (long) BUFFER_LONG_LE.get(bytes, index + 8));
+         v3 = round(v3, (long) BUFFER_LONG_LE.get(bytes, index + 16));
+         v4 = round(v4, (long) BUFFER_LONG_LE.get(bytes, index + 24));
+      }
+      this.v1 = v1;
+      this.v2 = v2;
+      this.v3 = v3;
+      this.v4 = v4;
+   }
+
+   @Override
+   public void reset() {
+      super.reset();
+      v1 = PRIME1 + PRIME2;
+      v2 = PRIME2;
+      v3 = 0;
+      v4 = -PRIME1;
+   }
+}
@@ -85,6 +85,38 @@ void setPropertyD(final String value) {
       }
    }
 
+   static class EntityC {
+
+      interface EntityCBuilder extends Builder<EntityC> {
+
+         EntityCBuilder value(Object value);
+      }
+
+      @Nullable String type;
+
+      void setValue(final Integer value) {
+         type = "Integer";
+      }
+
+      void setValue(final String value) {
+         type = "String";
+      }
+   }
+
+   static class EntityD {
+
+      interface EntityDBuilder extends Builder<EntityD> {
+
+         EntityDBuilder tags(String... tags);
+      }
+
+      String @Nullable [] tags;
+
+      void setTags(final String... tags) {
+         this.tags = tags;
+      }
+   }
+
    @Test
    void testEntityABuilder() {
       EntityA.builder() //
@@ -201,4 +233,18 @@ void testEntityBBuilder() {
          .withPropertyE(null) //
          .build();
    }
+
+   @Test
+   void testVarargsSetter() {
+      final var factory = BuilderFactory.of(EntityD.EntityDBuilder.class);
+      assertThat(factory.create().tags("a", "b").build().tags).containsExactly("a", "b");
+      assertThat(factory.create().tags().build().tags).isEmpty();
+   }
+
+   @Test
+   void testOverloadedSetters() {
+      final var factory = BuilderFactory.of(EntityC.EntityCBuilder.class);
+      assertThat(factory.create().value("foo").build().type).isEqualTo("String");
+      assertThat(factory.create().value(1).build().type).isEqualTo("Integer");
+   }
 }
@@ -0,0 +1,117 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.collection;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class LoopsTest {
+
+   @Test
+   void testForEachWithIndexConcurrentBounded() throws InterruptedException, ExecutionException {
+      final var items = new ArrayList<Integer>();
+      for (int i = 0; i < 10_000; i++) {
+         items.add(i);
+      }
+
+      final var executor = Executors.newFixedThreadPool(8);
+      try {
+         final var seen = new ConcurrentHashMap<Integer, Integer>();
+         final var active = new AtomicInteger();
+         final var maxActive = new AtomicInteger();
+         Loops.forEachWithIndexConcurrent(items, executor, 3, 16, (item, index) -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            seen.put(index, item);
+            active.decrementAndGet();
+         }).get();
+
+         assertThat(seen).hasSize(items.size());
+         assertThat(seen.entrySet()).allMatch(e -> e.getKey().equals(e.getValue()));
+         assertThat(maxActive.get()).isBetween(1, 3);
+      } finally {
+         executor.shutdownNow();
+         executor.awaitTermination(5, TimeUnit.SECONDS);
+      }
+   }
+
+   @Test
+   void testForEachConcurrentStopsOnFirstFailure() {
+      final var processed = new AtomicInteger();
+      final var future = Loops.forEachConcurrent(new RangeIterator(1_000_000), null, 4, 10, item -> {
+         if (processed.incrementAndGet() == 100)
+            throw new IllegalStateException("failed");
+      });
+
+      assertThatThrownBy(future::get) //
+         .isInstanceOf(ExecutionException.class) //
+         .hasCauseInstanceOf(IllegalStateException.class);
+      assertThat(processed.get()).isLessThan(1_000);
+   }
+
+   @Test
+   void testForEachConcurrentCancel() throws InterruptedException {
+      final var started = new CountDownLatch(1);
+      final var processed = new AtomicInteger();
+      final var future = Loops.forEachConcurrent(new RangeIterator(1_000_000), null, 2, 1, item -> {
+         started.countDown();
+         processed.incrementAndGet();
+         try {
+            Thread.sleep(1);
+         } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      future.cancel(false);
+      Thread.sleep(100);
+      final int processedAfterCancel = processed.get();
+      Thread.sleep(100);
+      assertThat(processed.get()).isEqualTo(processedAfterCancel).isLessThan(1_000_000);
+   }
+
+   @Test
+   void testForEachConcurrentMap() throws InterruptedException, ExecutionException {
+      final var map = Map.of("a", 1, "b", 2, "c", 3);
+      final var sum = new AtomicInteger();
+      Loops.forEachConcurrent(map, null, 2, 1, (k, v) -> sum.addAndGet(v)).get();
+      assertThat(sum.get()).isEqualTo(6);
+
+      assertThat(Loops.forEachConcurrent((Map<String, Integer>) null, null, 2, 1, (k, v) -> sum.addAndGet(v))).isDone();
+      assertThatIllegalArgumentException().isThrownBy(() -> Loops.forEachConcurrent(map, null, 0, 1, (k, v) -> sum.addAndGet(v)));
+   }
+
+   private static final class RangeIterator implements Iterator<Integer> {
+      private final int end;
+      private int next;
+
+      RangeIterator(final int end) {
+         this.end = end;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return next < end;
+      }
+
+      @Override
+      public Integer next() {
+         return next++;
+      }
+   }
+}
@@ -0,0 +1,84 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.concurrent;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class HashedWheelTimerTest {
+
+   @Test
+   void testSchedule() throws InterruptedException {
+      try (var timer = new HashedWheelTimer(Duration.ofMillis(5), 8, null, null)) {
+         assertThat(timer.getTicksPerWheel()).isEqualTo(8);
+         assertThat(timer.getTickDuration()).isEqualTo(Duration.ofMillis(5));
+
+         final var latch = new CountDownLatch(1);
+         final long startedAt = System.nanoTime();
+         final var timeout = timer.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+         assertThat(timeout.isExpired()).isFalse();
+         assertThat(timer.getPendingTimeouts()).isEqualTo(1);
+
+         assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+         assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(100);
+         assertThat(timeout.isExpired()).isTrue();
+         assertThat(timeout.isCancelled()).isFalse();
+         assertThat(timeout.cancel()).isFalse();
+         assertThat(timer.getPendingTimeouts()).isZero();
+      }
+   }
+
+   @Test
+   void testScheduleBeyondOneRound() throws InterruptedException {
+      // 4 ticks * 5ms = 20ms per round
+      try (var timer = new HashedWheelTimer(Duration.ofMillis(5), 4, null, null)) {
+         final var latch = new CountDownLatch(1);
+         final long startedAt = System.nanoTime();
+         timer.schedule(latch::countDown, Duration.ofMillis(110));
+         assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+         assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(110);
+      }
+   }
+
+   @Test
+   void testCancel() throws InterruptedException {
+      try (var timer = new HashedWheelTimer(Duration.ofMillis(5), 16, null, null)) {
+         final var executed = new AtomicInteger();
+         final var timeouts = new ArrayList<HashedWheelTimer.Timeout>();
+         for (int i = 0; i < 1_000; i++) {
+            timeouts.add(timer.schedule(executed::incrementAndGet, i % 50, TimeUnit.MILLISECONDS));
+         }
+         int cancelled = 0;
+         for (int i = 0; i < timeouts.size(); i += 2) {
+            if (timeouts.get(i).cancel()) {
+               assertThat(timeouts.get(i).isCancelled()).isTrue();
+               cancelled++;
+            }
+         }
+
+         Thread.sleep(200);
+         assertThat(executed.get() + cancelled).isEqualTo(1_000);
+         assertThat(timer.getPendingTimeouts()).isZero();
+      }
+   }
+
+   @Test
+   void testClose() {
+      final var timer = new HashedWheelTimer();
+      timer.schedule(() -> { /* nothing to do */ }, 1, TimeUnit.SECONDS);
+      timer.close();
+      assertThatIllegalStateException().isThrownBy(() -> timer.schedule(() -> { /* nothing to do */ }, 1, TimeUnit.SECONDS));
+   }
+}
@@ -0,0 +1,188 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.concurrent.queue;
+
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.sf.jstuff.core.collection.primitive.IntArrayList;
+import net.sf.jstuff.core.reflection.Fields;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class ConcurrentSortedUniqueIntQueueTest {
+
+   @Test
+   void testOffer() {
+      final var q = new ConcurrentSortedUniqueIntQueue();
+      assertThat(q.isEmpty()).isTrue();
+      assertThat(q.isNotEmpty()).isFalse();
+      assertThat(q).hasToString("[]");
+      assertThat(q.size()).isZero();
+      assertThat(q.peek()).isNull();
+      assertThat(q.peek(-1)).isEqualTo(-1);
+      assertThat(q.isFirstElement(5)).isFalse();
+      assertThat(q.contains(5)).isFalse();
+
+      assertThat(q.offer(5)).isTrue();
+      assertThat(q.offer(5)).isFalse();
+      assertThat(q.isEmpty()).isFalse();
+      assertThat(q.isNotEmpty()).isTrue();
+      assertThat(q).hasToString("[5]");
+      assertThat(q.size()).isEqualTo(1);
+      assertThat(q.peek(-1)).isEqualTo(5);
+      assertThat(q.isFirstElement(5)).isTrue();
+      assertThat(q.contains(5)).isTrue();
+
+      assertThat(q.offer(7)).isTrue();
+      assertThat(q.offer(3)).isTrue();
+      assertThat(q.offer(6)).isTrue();
+      assertThat(q.offer(4)).isTrue();
+      assertThat(q).hasToString("[3,4,5,6,7]");
+      assertThat(q.size()).isEqualTo(5);
+      assertThat(q.isFirstElement(3)).isTrue();
+
+      // sparse and negative values
+      assertThat(q.offer(Integer.MAX_VALUE)).isTrue();
+      assertThat(q.offer(Integer.MIN_VALUE)).isTrue();
+      assertThat(q.offer(-1)).isTrue();
+      assertThat(q.offer(-1025)).isTrue();
+      assertThat(q.offer(1_000_000)).isTrue();
+      assertThat(q.offer(-1)).isFalse();
+      assertThat(q.toArray()).containsExactly(Integer.MIN_VALUE, -1025, -1, 3, 4, 5, 6, 7, 1_000_000, Integer.MAX_VALUE);
+      assertThat(q.contains(-1025)).isTrue();
+      assertThat(q.contains(-1024)).isFalse();
+
+      q.clear();
+      assertThat(q.isEmpty()).isTrue();
+      assertThat(q).hasToString("[]");
+      assertThat(q.offer(5)).isTrue();
+      assertThat(q).hasToString("[5]");
+   }
+
+   @Test
+   void testPoll() throws InterruptedException {
+      final var q = new ConcurrentSortedUniqueIntQueue();
+      assertThat(q.poll()).isNull();
+      assertThat(q.poll(-1)).isEqualTo(-1);
+      assertThat(q.poll(10, TimeUnit.MILLISECONDS)).isNull();
+
+      q.offer(3000);
+      q.offer(-20);
+      q.offer(2);
+      assertThat(q.poll()).isEqualTo(-20);
+      assertThat(q.poll(-1)).isEqualTo(2);
+      assertThat(q.poll(10, TimeUnit.MILLISECONDS)).isEqualTo(3000);
+      assertThat(q.isEmpty()).isTrue();
+
+      // values can be re-added after being removed
+      assertThat(q.offer(2)).isTrue();
+      assertThat(q.take()).isEqualTo(2);
+
+      // simulate a stalled poll that already cleared the page bit but did not yet decrement the count
+      final AtomicInteger count = asNonNull(Fields.<AtomicInteger> read(q, "count"));
+      count.incrementAndGet();
+      final long start = System.nanoTime();
+      assertThat(q.poll(50, TimeUnit.MILLISECONDS)).isNull();
+      assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+      count.decrementAndGet();
+   }
+
+   @Test
+   void testDrainTo() {
+      final var q = new ConcurrentSortedUniqueIntQueue();
+      for (int i = 200; i > 0; i--) {
+         q.offer(i * 3);
+      }
+      q.offer(-5);
+
+      final var target = new IntArrayList();
+      assertThat(q.drainTo(target, 0)).isZero();
+      assertThat(target).isEmpty();
+
+      assertThat(q.drainTo(target, 4)).isEqualTo(4);
+      assertThat(target.toValueArray()).containsExactly(-5, 3, 6, 9);
+      assertThat(q.size()).isEqualTo(197);
+      assertThat(q.peek()).isEqualTo(12);
+
+      target.clear();
+      assertThat(q.drainTo(target, Integer.MAX_VALUE)).isEqualTo(197);
+      assertThat(target.getAt(0)).isEqualTo(12);
+      assertThat(target.getLast()).isEqualTo(600);
+      assertThat(q.isEmpty()).isTrue();
+   }
+
+   @Test
+   void testTakeFromEmptyQueue() throws InterruptedException {
+      final var q = new ConcurrentSortedUniqueIntQueue();
+
+      new Timer().schedule(new TimerTask() {
+         @Override
+         public void run() {
+            q.offer(5);
+         }
+      }, 500);
+
+      assertThat(q.take()).isEqualTo(5);
+   }
+
+   @Test
+   void testConcurrentOfferAndTake() throws InterruptedException {
+      final var q = new ConcurrentSortedUniqueIntQueue();
+      final int producers = 8;
+      final int valuesPerProducer = 10_000;
+
+      final var taken = ConcurrentHashMap.<Integer> newKeySet();
+      final var duplicates = new AtomicInteger();
+      final var producersDone = new CountDownLatch(producers);
+      final ExecutorService executor = Executors.newFixedThreadPool(producers * 2);
+      try {
+         for (int p = 0; p < producers; p++) {
+            final int offset = p * valuesPerProducer;
+            executor.execute(() -> {
+               for (int i = 0; i < valuesPerProducer; i++) {
+                  q.offer(offset + i);
+               }
+               producersDone.countDown();
+            });
+            executor.execute(() -> {
+               try {
+                  while (true) {
+                     if (!taken.add(q.take())) {
+                        duplicates.incrementAndGet();
+                     }
+                  }
+               } catch (final InterruptedException ex) {
+                  Thread.currentThread().interrupt();
+               }
+            });
+         }
+         assertThat(producersDone.await(10, TimeUnit.SECONDS)).isTrue();
+
+         final long deadline = System.currentTimeMillis() + 10_000;
+         while (taken.size() < producers * valuesPerProducer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertThat(duplicates.get()).isZero();
+      assertThat(taken).hasSize(producers * valuesPerProducer);
+      assertThat(q.isEmpty()).isTrue();
+   }
+}
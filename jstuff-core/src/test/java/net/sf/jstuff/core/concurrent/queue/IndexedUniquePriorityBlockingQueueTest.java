@@ -0,0 +1,154 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.concurrent.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class IndexedUniquePriorityBlockingQueueTest {
+
+   @Test
+   void testOfferAndPoll() throws InterruptedException {
+      final var q = new IndexedUniquePriorityBlockingQueue<Integer>();
+      assertThat(q.isEmpty()).isTrue();
+      assertThat(q.peek()).isNull();
+      assertThat(q.poll()).isNull();
+      assertThat(q.poll(10, TimeUnit.MILLISECONDS)).isNull();
+
+      assertThat(q.offer(5)).isTrue();
+      assertThat(q.offer(5)).isFalse();
+      assertThat(q.add(5)).isFalse();
+      assertThat(q.offer(3)).isTrue();
+      assertThat(q.offer(9)).isTrue();
+      assertThat(q.offer(1)).isTrue();
+      assertThat(q).hasSize(4);
+      assertThat(q).containsExactlyInAnyOrder(1, 3, 5, 9);
+      assertThat(q.contains(9)).isTrue();
+      assertThat(q.contains(2)).isFalse();
+      assertThat(q.peek()).isEqualTo(1);
+
+      assertThat(q.remove(3)).isTrue();
+      assertThat(q.remove(3)).isFalse();
+      assertThat(q.contains(3)).isFalse();
+
+      assertThat(q.poll()).isEqualTo(1);
+      assertThat(q.take()).isEqualTo(5);
+      assertThat(q.poll(10, TimeUnit.MILLISECONDS)).isEqualTo(9);
+      assertThat(q.isEmpty()).isTrue();
+
+      // elements can be re-added after being removed
+      assertThat(q.offer(5)).isTrue();
+      q.clear();
+      assertThat(q.isEmpty()).isTrue();
+      assertThat(q.contains(5)).isFalse();
+   }
+
+   @Test
+   void testDrainTo() {
+      final var q = new IndexedUniquePriorityBlockingQueue<Integer>(Comparator.reverseOrder());
+      for (int i = 0; i < 10; i++) {
+         q.offer(i);
+      }
+
+      final var target = new ArrayList<Integer>();
+      assertThat(q.drainTo(target, 0)).isZero();
+      assertThat(q.drainTo(target, 3)).isEqualTo(3);
+      assertThat(target).containsExactly(9, 8, 7);
+      assertThat(q.contains(9)).isFalse();
+
+      target.clear();
+      assertThat(q.drainTo(target)).isEqualTo(7);
+      assertThat(target).containsExactly(6, 5, 4, 3, 2, 1, 0);
+      assertThat(q.isEmpty()).isTrue();
+   }
+
+   @Test
+   void testUpdatePriority() {
+      final var priorities = new HashMap<String, Integer>();
+      final var q = new IndexedUniquePriorityBlockingQueue<String>(Comparator.comparing(priorities::get));
+      for (final String task : new String[] {"a", "b", "c", "d", "e"}) {
+         priorities.put(task, priorities.size());
+         q.offer(task);
+      }
+      assertThat(q.peek()).isEqualTo("a");
+
+      // decrease-key
+      priorities.put("d", -1);
+      assertThat(q.updatePriority("d")).isTrue();
+      assertThat(q.peek()).isEqualTo("d");
+
+      // increase-key
+      priorities.put("d", 10);
+      assertThat(q.updatePriority("d")).isTrue();
+      assertThat(q.updatePriority("x")).isFalse();
+
+      final var target = new ArrayList<String>();
+      q.drainTo(target);
+      assertThat(target).containsExactly("a", "b", "c", "e", "d");
+   }
+
+   @Test
+   void testOfferOrUpdate() {
+      final var q = new IndexedUniquePriorityBlockingQueue<Task>(Comparator.comparingInt(t -> t.priority));
+      assertThat(q.offerOrUpdate(new Task("a", 1))).isTrue();
+      assertThat(q.offerOrUpdate(new Task("b", 2))).isTrue();
+      assertThat(q.offerOrUpdate(new Task("c", 3))).isTrue();
+      assertThat(q).hasSize(3);
+
+      assertThat(q.offerOrUpdate(new Task("c", 0))).isFalse();
+      assertThat(q).hasSize(3);
+
+      final var head = q.poll();
+      assertThat(head).isNotNull();
+      assertThat(head.name).isEqualTo("c");
+      assertThat(head.priority).isZero();
+   }
+
+   @Test
+   void testTakeFromEmptyQueue() throws InterruptedException {
+      final var q = new IndexedUniquePriorityBlockingQueue<Integer>();
+
+      new Timer().schedule(new TimerTask() {
+         @Override
+         public void run() {
+            q.offer(5);
+         }
+      }, 500);
+
+      assertThat(q.take()).isEqualTo(5);
+   }
+
+   private static final class Task {
+      final String name;
+      final int priority;
+
+      Task(final String name, final int priority) {
+         this.name = name;
+         this.priority = priority;
+      }
+
+      @Override
+      public boolean equals(final @Nullable Object obj) {
+         return obj instanceof final Task other && name.equals(other.name);
+      }
+
+      @Override
+      public int hashCode() {
+         return name.hashCode();
+      }
+   }
+}
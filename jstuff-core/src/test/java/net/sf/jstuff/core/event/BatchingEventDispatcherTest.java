@@ -0,0 +1,137 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class BatchingEventDispatcherTest {
+
+   private static void awaitDelivered(final BatchingEventDispatcher<?> em, final long expected) throws InterruptedException {
+      final long deadline = System.currentTimeMillis() + 5_000;
+      while (System.currentTimeMillis() < deadline) {
+         if (em.getListenerStats().values().stream().mapToLong(s -> s.deliveredEvents() + s.droppedEvents()).sum() >= expected)
+            return;
+         Thread.sleep(10);
+      }
+   }
+
+   @Test
+   void testBatchingEventDispatcher() throws InterruptedException, ExecutionException {
+      try (var em = new BatchingEventDispatcher<@Nullable String>()) {
+
+         final var listener1Count = new AtomicLong();
+         final EventListener<@Nullable String> listener1 = event -> listener1Count.incrementAndGet();
+
+         assertThat(em.subscribe(listener1)).isTrue();
+         assertThat(em.subscribe(listener1)).isFalse();
+
+         final var listener2Count = new AtomicLong();
+         final FilteringEventListener<@Nullable String> listener2 = FilteringEventListener.create( //
+            e -> listener2Count.incrementAndGet(), //
+            e -> e != null && e.length() < 5);
+
+         assertThat(em.subscribe(listener2)).isTrue();
+         assertThat(em.subscribe(listener2)).isFalse();
+
+         assertThat(em.fire("123").get()).isEqualTo(2);
+         assertThat(em.fire("1234567890").get()).isEqualTo(1);
+         assertThat(em.fire(null).get()).isEqualTo(1);
+
+         awaitDelivered(em, 4);
+         assertThat(listener1Count.get()).isEqualTo(3);
+         assertThat(listener2Count.get()).isEqualTo(1);
+
+         final var stats = em.getListenerStats(listener1);
+         assertThat(stats).isNotNull();
+         assertThat(stats.deliveredEvents()).isEqualTo(3);
+         assertThat(stats.queuedEvents()).isZero();
+         assertThat(stats.droppedEvents()).isZero();
+
+         assertThat(em.unsubscribe(listener1)).isTrue();
+         assertThat(em.unsubscribe(listener1)).isFalse();
+         assertThat(em.getListenerStats(listener1)).isNull();
+      }
+   }
+
+   @Test
+   void testBatchDeliveryAndSlowListenerIsolation() throws InterruptedException {
+      final var executor = Executors.newFixedThreadPool(2);
+      try (var em = BatchingEventDispatcher.builder(Integer.class) //
+         .executor(executor) //
+         .queueCapacity(10) //
+         .maxBatchSize(100) //
+         .build()) {
+
+         final var releaseSlowListener = new CountDownLatch(1);
+         final var slowListenerCount = new AtomicLong();
+         final EventListener<Integer> slowListener = event -> {
+            try {
+               releaseSlowListener.await();
+            } catch (final InterruptedException ex) {
+               Thread.currentThread().interrupt();
+            }
+            slowListenerCount.incrementAndGet();
+         };
+
+         final var batches = new ArrayList<List<Integer>>();
+         final BatchEventListener<Integer> batchListener = events -> {
+            synchronized (batches) {
+               batches.add(new ArrayList<>(events));
+            }
+         };
+
+         em.subscribe(slowListener);
+         em.subscribe(batchListener);
+
+         for (int i = 0; i < 5; i++) {
+            em.fire(i);
+         }
+
+         // the batch listener is not blocked by the slow listener
+         final long deadline = System.currentTimeMillis() + 5_000;
+         while (System.currentTimeMillis() < deadline) {
+            synchronized (batches) {
+               if (batches.stream().mapToInt(List::size).sum() == 5) {
+                  break;
+               }
+            }
+            Thread.sleep(10);
+         }
+         synchronized (batches) {
+            assertThat(batches.stream().flatMap(List::stream)).containsExactly(0, 1, 2, 3, 4);
+         }
+
+         // the slow listener's queue fills up and further events are dropped
+         for (int i = 5; i < 30; i++) {
+            em.fire(i);
+         }
+         final var slowStats = em.getListenerStats(slowListener);
+         assertThat(slowStats).isNotNull();
+         assertThat(slowStats.queuedEvents()).isEqualTo(10);
+         assertThat(slowStats.droppedEvents()).isPositive();
+
+         releaseSlowListener.countDown();
+         awaitDelivered(em, 60);
+         assertThat(slowListenerCount.get() + slowStats.droppedEvents()).isEqualTo(30);
+      } finally {
+         executor.shutdownNow();
+         executor.awaitTermination(5, TimeUnit.SECONDS);
+      }
+   }
+}
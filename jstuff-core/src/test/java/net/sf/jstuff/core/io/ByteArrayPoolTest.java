@@ -0,0 +1,62 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class ByteArrayPoolTest {
+
+   @Test
+   void testBorrowAndRelease() {
+      final var pool = new ByteArrayPool(100, 1000, 2048);
+      assertThat(pool.getMinArraySize()).isEqualTo(128);
+      assertThat(pool.getMaxArraySize()).isEqualTo(1024);
+
+      assertThat(pool.borrow(0)).hasSize(128);
+      assertThat(pool.borrow(128)).hasSize(128);
+      assertThat(pool.borrow(129)).hasSize(256);
+      assertThat(pool.borrow(2000)).hasSize(2000);
+      assertThat(pool.getStats().outstandingBytes()).isEqualTo(128 + 128 + 256 + 2000);
+
+      final byte[] array = pool.borrow(500);
+      assertThat(array).hasSize(512);
+      pool.release(array);
+      assertThat(pool.borrow(300)).isSameAs(array);
+
+      final var stats = pool.getStats();
+      assertThat(stats.borrowed()).isEqualTo(6);
+      assertThat(stats.reused()).isEqualTo(1);
+      assertThat(stats.released()).isEqualTo(1);
+      assertThat(stats.reuseRate()).isEqualTo(1 / 6.0);
+   }
+
+   @Test
+   void testRetentionLimit() {
+      final var pool = new ByteArrayPool(256, 1024, 1024);
+
+      // max 4 arrays of 256 bytes are retained
+      for (int i = 0; i < 6; i++) {
+         pool.release(new byte[256]);
+      }
+      // arrays not matching a size class are discarded
+      pool.release(new byte[300]);
+      pool.release(new byte[2048]);
+
+      var stats = pool.getStats();
+      assertThat(stats.retainedBytes()).isEqualTo(4 * 256);
+      assertThat(stats.discarded()).isEqualTo(4);
+
+      pool.clear();
+      stats = pool.getStats();
+      assertThat(stats.retainedBytes()).isZero();
+      pool.resetStats();
+      assertThat(pool.getStats().released()).isZero();
+   }
+}
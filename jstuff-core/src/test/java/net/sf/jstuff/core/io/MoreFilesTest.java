@@ -11,11 +11,14 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 
+import net.sf.jstuff.core.SystemUtils;
 import net.sf.jstuff.core.security.Hash;
 
 /**
@@ -27,7 +30,54 @@ private void _testFind(final String rootPath, final String globPattern, final in
          throws IOException {
       assertThat(MoreFiles.findFiles(Paths.get(rootPath), globPattern)).hasSize(exceptedFiles);
       assertThat(MoreFiles.findDirectories(Paths.get(rootPath), globPattern)).hasSize(exceptedFolders);
-      assertThat(MoreFiles.find(Paths.get(rootPath), globPattern, true, true)).hasSize(exceptedFiles + exceptedFolders);
+      assertThat(MoreFiles.find(Paths.get(rootPath), globPattern, true, true)).hasSize(exceptedFiles + exceptedFolders).isSorted();
+   }
+
+   @Test
+   void testContentEquals() throws IOException {
+      final Path dir1 = MoreFiles.createTempDirectory("jstuff-compare", ".tmp");
+      final Path dir2 = MoreFiles.createTempDirectory("jstuff-compare", ".tmp");
+
+      final var data = new byte[3 * 1024 * 1024 + 17];
+      new Random().nextBytes(data);
+      Files.write(dir1.resolve("large.bin"), data);
+      Files.write(dir2.resolve("large.bin"), data);
+      Files.createDirectories(dir1.resolve("sub"));
+      Files.createDirectories(dir2.resolve("sub"));
+      Files.writeString(dir1.resolve("sub/small.txt"), "Hello");
+      Files.writeString(dir2.resolve("sub/small.txt"), "Hello");
+
+      assertThat(MoreFiles.contentEquals(dir1.resolve("large.bin"), dir2.resolve("large.bin"))).isTrue();
+      assertThat(MoreFiles.contentEquals(dir1.resolve("large.bin"), dir2.resolve("large.bin"), 1024 * 1024)).isTrue();
+      assertThat(MoreFiles.directoryContentEquals(dir1, dir2)).isTrue();
+      assertThat(MoreFiles.directoryContentEquals(dir1, dir2, ForkJoinPool.commonPool())).isTrue();
+
+      // differences in the middle, at the end and in the directory structure
+      for (final int pos : new int[] {data.length / 2, data.length - 1}) {
+         data[pos]++;
+         Files.write(dir2.resolve("large.bin"), data);
+         assertThat(MoreFiles.contentEquals(dir1.resolve("large.bin"), dir2.resolve("large.bin"))).isFalse();
+         assertThat(MoreFiles.contentEquals(dir1.resolve("large.bin"), dir2.resolve("large.bin"), 1024 * 1024)).isFalse();
+         assertThat(MoreFiles.directoryContentEquals(dir1, dir2, ForkJoinPool.commonPool())).isFalse();
+         data[pos]--;
+      }
+      Files.write(dir2.resolve("large.bin"), data);
+
+      // symbolic links are compared by target and not followed
+      if (!SystemUtils.IS_OS_WINDOWS) {
+         Files.createSymbolicLink(dir1.resolve("link"), Path.of("sub"));
+         Files.createSymbolicLink(dir2.resolve("link"), Path.of("sub"));
+         assertThat(MoreFiles.directoryContentEquals(dir1, dir2)).isTrue();
+         assertThat(MoreFiles.directoryContentEquals(dir1, dir2, ForkJoinPool.commonPool())).isTrue();
+         Files.delete(dir2.resolve("link"));
+         Files.createSymbolicLink(dir2.resolve("link"), Path.of("sub/small.txt"));
+         assertThat(MoreFiles.directoryContentEquals(dir1, dir2)).isFalse();
+         Files.delete(dir2.resolve("link"));
+         Files.createSymbolicLink(dir2.resolve("link"), Path.of("sub"));
+      }
+
+      Files.createDirectories(dir2.resolve("sub2"));
+      assertThat(MoreFiles.directoryContentEquals(dir1, dir2)).isFalse();
    }
 
    @Test
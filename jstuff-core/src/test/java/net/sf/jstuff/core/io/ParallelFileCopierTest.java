@@ -0,0 +1,89 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.sf.jstuff.core.security.Hash;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class ParallelFileCopierTest {
+
+   @Test
+   void testCopy() throws IOException {
+      final Path dir = MoreFiles.createTempDirectory("jstuff-copy", ".tmp");
+      final Path source = dir.resolve("source.bin");
+      final Path target = dir.resolve("target.bin");
+      final var data = new byte[5 * 1024 * 1024 + 123];
+      new Random().nextBytes(data);
+      Files.write(source, data);
+      Files.write(target, new byte[data.length + 1000]); // larger target must be truncated
+
+      final var result = new ParallelFileCopier() //
+         .withChunkSize(64 * 1024) //
+         .withParallelism(4) //
+         .copy(source, target, Hash.MD5);
+      assertThat(result.size()).isEqualTo((long) data.length);
+      assertThat(result.bytesCopied()).isEqualTo((long) data.length);
+      assertThat(result.resumedAt()).isZero();
+      assertThat(result.hash()).isEqualTo(Hash.MD5.hash(source));
+      assertThat(MoreFiles.contentEquals(source, target)).isTrue();
+
+      Files.delete(target);
+      MoreFiles.copyContentParallel(source, target);
+      assertThat(MoreFiles.contentEquals(source, target)).isTrue();
+
+      Files.write(source, new byte[0]);
+      assertThat(new ParallelFileCopier().copy(source, target).bytesCopied()).isZero();
+      assertThat(Files.size(target)).isZero();
+
+      assertThatThrownBy(() -> new ParallelFileCopier().copy(source, source)).isInstanceOf(IOException.class);
+
+      MoreFiles.forceDelete(dir);
+   }
+
+   @Test
+   void testResume() throws IOException {
+      final Path dir = MoreFiles.createTempDirectory("jstuff-copy", ".tmp");
+      final Path source = dir.resolve("source.bin");
+      final Path target = dir.resolve("target.bin");
+      final Path checkpoint = dir.resolve("target.bin.checkpoint");
+      final var data = new byte[4 * 1024 * 1024];
+      new Random().nextBytes(data);
+      Files.write(source, data);
+
+      final var copier = new ParallelFileCopier() //
+         .withChunkSize(64 * 1024) //
+         .withCheckpoint(checkpoint) //
+         .withCheckpointInterval(256 * 1024);
+
+      // simulate an interrupted copy
+      assertThatThrownBy(() -> copier //
+         .withOnBytesWritten((bytesWritten, totalBytesWritten) -> {
+            if (totalBytesWritten > 2 * 1024 * 1024)
+               throw new IllegalStateException("interrupted");
+         }) //
+         .copy(source, target, Hash.SHA256)).isInstanceOf(IllegalStateException.class);
+      assertThat(Files.exists(checkpoint)).isTrue();
+
+      final var result = copier.withOnBytesWritten(null).copy(source, target, Hash.SHA256);
+      assertThat(result.resumedAt()).isGreaterThanOrEqualTo(256 * 1024L);
+      assertThat(result.bytesCopied()).isEqualTo(data.length - result.resumedAt());
+      assertThat(result.hash()).isEqualTo(Hash.SHA256.hash(source));
+      assertThat(MoreFiles.contentEquals(source, target)).isTrue();
+      assertThat(Files.exists(checkpoint)).isFalse();
+
+      MoreFiles.forceDelete(dir);
+   }
+}
@@ -0,0 +1,140 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class ParallelFileWalkerTest {
+
+   /**
+    * Creates 5 directories with 10 sub-directories each containing 20 files of 10 bytes.
+    */
+   private static Path createTree() throws IOException {
+      final Path root = MoreFiles.createTempDirectory("jstuff-walker", ".tmp");
+      for (int i = 0; i < 5; i++) {
+         for (int j = 0; j < 10; j++) {
+            final Path dir = Files.createDirectories(root.resolve("dir" + i).resolve("sub" + j));
+            for (int k = 0; k < 20; k++) {
+               Files.write(dir.resolve("file" + k + (k % 2 == 0 ? ".tmp" : ".txt")), new byte[10]);
+            }
+         }
+      }
+      return root;
+   }
+
+   @Test
+   void testDeleteFiles() throws IOException {
+      final Path root = createTree();
+      final var deleted = new AtomicInteger();
+
+      final var progress = new ParallelFileWalker() //
+         .withDeleteBatchSize(3) //
+         .deleteFiles(root, (file, attrs) -> file.toString().endsWith(".tmp"), (file, attrs) -> deleted.incrementAndGet());
+      assertThat(progress.isDone()).isTrue();
+      assertThat(progress.getFiles()).isEqualTo(1000L);
+      assertThat(progress.getFilesDeleted()).isEqualTo(500L);
+      assertThat(progress.getBytesFreed()).isEqualTo(5000L);
+      assertThat(progress.getDirectoriesDeleted()).isZero();
+      assertThat(deleted.get()).isEqualTo(500);
+      try (var files = Files.walk(root)) {
+         assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(500L);
+      }
+
+      // non-recursive cleanup via DirectoryCleaner
+      Files.write(root.resolve("top.tmp"), new byte[10]);
+      final var cleaner = DirectoryCleaner.builder() //
+         .directory(root) //
+         .minimumFileAge(Duration.ZERO) //
+         .build();
+      assertThat(cleaner.cleanDirectory().getFilesDeleted()).isEqualTo(1L);
+
+      final var treeProgress = new ParallelFileWalker().deleteTree(root);
+      assertThat(treeProgress.getFilesDeleted()).isEqualTo(500L);
+      assertThat(treeProgress.getDirectoriesDeleted()).isEqualTo(56L);
+      assertThat(Files.exists(root)).isFalse();
+      assertThat(new ParallelFileWalker().deleteTree(root).getFilesDeleted()).isZero();
+   }
+
+   @Test
+   void testStream() throws IOException {
+      final Path root = createTree();
+
+      try (var files = new ParallelFileWalker().withStreamBufferSize(8).stream(root, (path, attrs) -> attrs.isRegularFile())) {
+         assertThat(files.count()).isEqualTo(1000L);
+      }
+
+      // stream closed before being fully consumed
+      try (var files = new ParallelFileWalker().withStreamBufferSize(8).stream(root, (path, attrs) -> true)) {
+         assertThat(files.limit(10).count()).isEqualTo(10L);
+      }
+
+      try (var dirs = MoreFiles.findStream(root, "dir1/*", false, true)) {
+         assertThat(dirs.map(dir -> dir.getFileName().toString()).collect(Collectors.toSet())).hasSize(10);
+      }
+
+      MoreFiles.forceDelete(root);
+      assertThat(Files.exists(root)).isFalse();
+   }
+
+   @Test
+   void testWalk() throws IOException {
+      final Path root = createTree();
+      final Set<Path> files = ConcurrentHashMap.newKeySet();
+      final Set<Path> postVisited = ConcurrentHashMap.newKeySet();
+      final var isOnCommonPool = new AtomicBoolean();
+
+      final var progress = new ParallelFileWalker().walk(root, new ParallelFileWalker.Visitor() {
+         @Override
+         public void postVisitDirectory(final Path dir) {
+            postVisited.add(dir);
+         }
+
+         @Override
+         public boolean preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+            return !dir.getFileName().toString().equals("dir0");
+         }
+
+         @Override
+         public void visitFile(final Path file, final BasicFileAttributes attrs) {
+            files.add(file);
+            if (ForkJoinTask.getPool() == ForkJoinPool.commonPool()) {
+               isOnCommonPool.set(true);
+            }
+         }
+      });
+      assertThat(files).hasSize(800);
+      assertThat(postVisited).hasSize(45).contains(root);
+      assertThat(progress.getDirectories()).isEqualTo(46L);
+      assertThat(progress.getBytes()).isEqualTo(8000L);
+      // blocking file system calls must not stall the common pool
+      assertThat(isOnCommonPool.get()).isFalse();
+
+      assertThat(new ParallelFileWalker().withMaxDepth(2).walk(root, (file, attrs) -> { /* ignore */ }).getFiles()).isZero();
+
+      assertThatThrownBy(() -> new ParallelFileWalker().walk(root, (file, attrs) -> {
+         throw new IOException("fail");
+      })).isInstanceOf(IOException.class).hasMessage("fail");
+
+      MoreFiles.forceDelete(root);
+   }
+}
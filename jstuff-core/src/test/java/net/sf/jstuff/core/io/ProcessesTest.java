@@ -9,8 +9,12 @@
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -45,6 +49,89 @@ void testWithStdInput() throws IOException, InterruptedException {
 
    }
 
+   @Test
+   void testBufferedLineConsumer() throws Exception {
+      final String exe;
+      final List<String> args;
+      if (SystemUtils.IS_OS_WINDOWS) {
+         exe = "cmd";
+         args = List.of("/c", "for /L %i in (1,1,200) do @echo LINE-%i");
+      } else {
+         exe = "sh";
+         args = List.of("-c", "i=1; while [ $i -le 200 ]; do echo LINE-$i; i=$((i+1)); done");
+      }
+
+      final var lines = new ArrayList<String>();
+      final ProcessWrapper prc = Processes.builder(exe) //
+         .withArgs(args) //
+         .withRedirectOutput(line -> {
+            lines.add(line);
+            if (lines.size() % 50 == 0) {
+               Threads.sleep(20);
+            }
+         }, 16) //
+         .start();
+
+      prc.onExit().get(5, TimeUnit.SECONDS);
+
+      assertThat(prc.getState()).isEqualTo(Processes.ProcessState.SUCCEEDED);
+      assertThat(lines).hasSize(200);
+      assertThat(lines.get(0)).isEqualTo("LINE-1");
+      assertThat(lines.get(199)).isEqualTo("LINE-200");
+
+      // the reading task occupies the only thread of the executor and must not wait for a consumer task queued behind it
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         lines.clear();
+         final ProcessWrapper prc2 = Processes.builder(exe) //
+            .withArgs(args) //
+            .withExecutor(executor) //
+            .withRedirectOutput(lines::add, 16) //
+            .start();
+
+         prc2.onExit().get(5, TimeUnit.SECONDS);
+         assertThat(lines).hasSize(200);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   void testBufferedLineConsumerInterrupted() throws Exception {
+      final String exe;
+      final List<String> args;
+      if (SystemUtils.IS_OS_WINDOWS) {
+         exe = "cmd";
+         args = List.of("/c", "for /L %i in (1,1,200) do @echo LINE-%i");
+      } else {
+         exe = "sh";
+         args = List.of("-c", "i=1; while [ $i -le 200 ]; do echo LINE-$i; i=$((i+1)); done");
+      }
+
+      // the reading task is interrupted while blocked on the full buffer and must still signal the end of the stream to the consumer
+      final var lineCount = new AtomicInteger();
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         final ProcessWrapper prc = Processes.builder(exe) //
+            .withArgs(args) //
+            .withExecutor(executor) //
+            .withRedirectOutput(line -> {
+               if (lineCount.incrementAndGet() == 1) {
+                  Threads.sleep(1_000);
+               }
+            }, 4) //
+            .start();
+
+         Threads.sleep(300);
+         executor.shutdownNow();
+
+         prc.onExit().get(5, TimeUnit.SECONDS);
+         assertThat(lineCount.get()).isBetween(1, 200);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
    @Test
    void testCaptureOutput() throws IOException, InterruptedException {
       final var out = new StringBuilder();
@@ -139,6 +226,31 @@ void testProgrammaticTermination() throws IOException, InterruptedException {
       assertThat(signal.await(5, TimeUnit.SECONDS)).isTrue();
    }
 
+   @Test
+   void testRunAll() throws InterruptedException {
+      final var builders = new ArrayList<Processes.Builder>();
+      for (int i = 0; i < 8; i++) {
+         builders.add(SystemUtils.IS_OS_WINDOWS //
+               ? Processes.builder("cmd").withArgs("/c", "exit " + i % 2)
+               : Processes.builder("sh").withArgs("-c", "exit " + i % 2));
+      }
+      builders.add(SystemUtils.IS_OS_WINDOWS //
+            ? Processes.builder("ping").withArgs("-n", 9999, "127.0.0.1")
+            : Processes.builder("sleep").withArgs(60));
+      builders.add(Processes.builder("non-existing-executable-" + System.nanoTime()));
+
+      final var result = Processes.runAll(builders, 3, Duration.ofSeconds(2));
+      assertThat(result.processes()).hasSize(10);
+      assertThat(result.succeeded()).isEqualTo(4);
+      assertThat(result.failed()).isEqualTo(4);
+      assertThat(result.killed()).isEqualTo(1);
+      assertThat(result.notStarted()).isEqualTo(1);
+      assertThat(result.processes().get(9)).isNull();
+      assertThat(result.maxDuration()).isGreaterThanOrEqualTo(Duration.ofSeconds(2));
+      assertThat(result.elapsed()).isLessThan(Duration.ofSeconds(30));
+      assertThat(result.averageDuration()).isLessThan(result.maxDuration());
+   }
+
    @Test
    void testRedirectOutputToFile() throws IOException, InterruptedException {
       final Path outFile = Files.createTempFile("jstuff-processes-out", ".txt");
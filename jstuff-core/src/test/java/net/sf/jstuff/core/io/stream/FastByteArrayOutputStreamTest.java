@@ -34,6 +34,8 @@ void testFastByteArrayOutputStream() throws IOException {
       os.write(6);
       assertThat(os.size()).isEqualTo(6);
       assertThat(os.toByteArray()).isEqualTo(new byte[] {1, 2, 3, 4, 5, 6});
+      assertThat(os.toByteBuffer().isReadOnly()).isTrue();
+      assertThat(os.toByteBuffer().remaining()).isEqualTo(6);
 
       final var os2 = new FastByteArrayOutputStream();
       os.writeTo(os2);
@@ -0,0 +1,113 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io.stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.sf.jstuff.core.io.ByteArrayPool;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class LinkedByteArrayOutputStreamTest {
+
+   private static byte[] randomBytes(final int size) {
+      final var data = new byte[size];
+      new Random().nextBytes(data);
+      return data;
+   }
+
+   @Test
+   void testAsInputStream() throws IOException {
+      final var data = randomBytes(1000);
+      try (var out = new LinkedByteArrayOutputStream(64)) {
+         assertThat(out.asInputStream().read()).isEqualTo(-1);
+
+         out.write(data);
+
+         try (var in = out.asInputStream()) {
+            assertThat(in.available()).isEqualTo(data.length);
+            assertThat(in.read()).isEqualTo(data[0] & 0xFF);
+            assertThat(in.skip(99)).isEqualTo(99);
+            assertThat(in.available()).isEqualTo(900);
+            in.mark(0);
+            final var buf = new byte[200];
+            assertThat(in.read(buf)).isEqualTo(200);
+            assertThat(buf).isEqualTo(Arrays.copyOfRange(data, 100, 300));
+            in.reset();
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(data, 100, 1000));
+            assertThat(in.read()).isEqualTo(-1);
+            assertThat(in.available()).isZero();
+         }
+      }
+   }
+
+   @Test
+   void testPooling() {
+      final var pool = new ByteArrayPool(16, 64, 1024);
+      try (var out = new LinkedByteArrayOutputStream(64, pool)) {
+         assertThat(pool.getStats().outstandingBytes()).isZero();
+         out.write(new byte[100]);
+         assertThat(pool.getStats().outstandingBytes()).isEqualTo(128);
+
+         out.reset();
+         assertThat(out.size()).isZero();
+         assertThat(pool.getStats().outstandingBytes()).isEqualTo(64);
+      }
+      assertThat(pool.getStats().outstandingBytes()).isZero();
+      assertThat(pool.getStats().retainedBytes()).isEqualTo(128);
+
+      try (var out = new LinkedByteArrayOutputStream(64, pool)) {
+         out.write(new byte[100]);
+         assertThat(out.size()).isEqualTo(100);
+         assertThat(pool.getStats().reused()).isEqualTo(2);
+      }
+   }
+
+   @Test
+   @SuppressWarnings("resource")
+   void testWriteTo() throws IOException {
+      final var data = randomBytes(10_000);
+
+      try (var out = new LinkedByteArrayOutputStream(1024, ByteArrayPool.SHARED)) {
+         for (int i = 0; i < data.length; i += 7) {
+            out.write(data, i, Math.min(7, data.length - i));
+         }
+         assertThat(out.size()).isEqualTo(data.length);
+         assertThat(out.toByteArray()).isEqualTo(data);
+
+         final ByteBuffer[] buffers = out.asByteBuffers();
+         assertThat(buffers).hasSize(10).allMatch(ByteBuffer::isReadOnly);
+         assertThat(buffers[9].remaining()).isEqualTo(784);
+
+         final var target = new ByteArrayOutputStream();
+         out.writeTo(target);
+         assertThat(target.toByteArray()).isEqualTo(data);
+
+         target.reset();
+         out.writeTo(Channels.newChannel(target));
+         assertThat(target.toByteArray()).isEqualTo(data);
+
+         final var file = Files.createTempFile("jstuff-linked", ".bin");
+         try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            out.writeTo(channel);
+         }
+         assertThat(Files.readAllBytes(file)).isEqualTo(data);
+         Files.delete(file);
+      }
+   }
+}
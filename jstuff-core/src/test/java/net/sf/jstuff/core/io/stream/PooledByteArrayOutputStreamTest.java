@@ -0,0 +1,83 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.io.stream;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.sf.jstuff.core.io.ByteArrayPool;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class PooledByteArrayOutputStreamTest {
+
+   @Test
+   void testPooling() {
+      final var pool = new ByteArrayPool(16, 64, 1024);
+      try (var out = new PooledByteArrayOutputStream(0, pool)) {
+         out.write(new byte[100]);
+         assertThat(pool.getStats().outstandingBytes()).isEqualTo(100);
+         out.write(1);
+         assertThat(out.toByteBuffers()).hasSize(2);
+         assertThat(pool.getStats().outstandingBytes()).isEqualTo(164);
+
+         out.reset();
+         assertThat(out.size()).isZero();
+         assertThat(pool.getStats().outstandingBytes()).isEqualTo(100);
+      }
+      assertThat(pool.getStats().outstandingBytes()).isZero();
+      assertThat(pool.getStats().retainedBytes()).isEqualTo(64);
+
+      try (var out = new PooledByteArrayOutputStream(64, pool)) {
+         out.write("Hello".getBytes(UTF_8));
+         assertThat(out.toString(UTF_8)).isEqualTo("Hello");
+         assertThat(pool.getStats().reused()).isEqualTo(1);
+      }
+   }
+
+   @Test
+   @SuppressWarnings("resource")
+   void testWriteTo() throws IOException {
+      final var data = new byte[10_000];
+      new Random().nextBytes(data);
+
+      final var pool = new ByteArrayPool(16, 1024, 1024);
+      try (var out = new PooledByteArrayOutputStream(16, pool)) {
+         for (int i = 0; i < data.length; i += 7) {
+            out.write(data, i, Math.min(7, data.length - i));
+         }
+         assertThat(out.size()).isEqualTo(data.length);
+         assertThat(out.toByteArray()).isEqualTo(data);
+
+         final ByteBuffer[] buffers = out.toByteBuffers();
+         assertThat(buffers).allMatch(ByteBuffer::isReadOnly);
+         assertThat(buffers).extracting(ByteBuffer::remaining).containsExactly(16, 32, 64, 128, 256, 512, 1024, 1024, 1024, 1024, 1024,
+            1024, 1024, 1024, 800);
+
+         final var target = new ByteArrayOutputStream();
+         out.writeTo(Channels.newChannel(target));
+         assertThat(target.toByteArray()).isEqualTo(data);
+
+         final var file = Files.createTempFile("jstuff-pooled", ".bin");
+         try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            out.writeTo(channel);
+         }
+         assertThat(Files.readAllBytes(file)).isEqualTo(data);
+         Files.delete(file);
+      }
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.reflection;
+
+import java.util.function.IntUnaryOperator;
+
+import net.sf.jstuff.core.benchmark.BenchmarkRunner;
+
+/**
+ * Compares the generated delegate classes of {@link DuckTypes} and {@link Types} with the {@link java.lang.reflect.Proxy} based
+ * implementations.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public final class DelegateClassesBenchmark {
+
+   private static final int INVOCATIONS = 1_000_000;
+
+   public static class Incrementer implements IntUnaryOperator {
+      @Override
+      public int applyAsInt(final int operand) {
+         return operand + 1;
+      }
+   }
+
+   public static void main(final String[] args) throws InterruptedException {
+      final var impl = new Incrementer();
+      final ThreadLocal<IntUnaryOperator> threadLocal = ThreadLocal.withInitial(Incrementer::new);
+
+      System.out.println("Proxy: createSynchronized");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(Types.createSynchronizedProxy(IntUnaryOperator.class, impl, impl)));
+      System.out.println("Generated: createSynchronized");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(Types.createSynchronized(IntUnaryOperator.class, impl)));
+
+      System.out.println("Proxy: createThreadLocalized");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(Types.createThreadLocalizedProxy(IntUnaryOperator.class, threadLocal)));
+      System.out.println("Generated: createThreadLocalized");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(Types.createThreadLocalized(IntUnaryOperator.class, threadLocal)));
+
+      System.out.println("Proxy: createMixin");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(Types.createMixinProxy(IntUnaryOperator.class, impl)));
+      System.out.println("Generated: createMixin");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(Types.createMixin(IntUnaryOperator.class, impl)));
+
+      final Object duckLike = new Object() {
+         @SuppressWarnings("unused")
+         public int applyAsInt(final int operand) {
+            return operand + 1;
+         }
+      };
+      System.out.println("Proxy: duckType");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(DuckTypes.duckTypeProxy(duckLike, IntUnaryOperator.class)));
+      System.out.println("Generated: duckType");
+      BenchmarkRunner.run(3, 5, 5, () -> invoke(DuckTypes.duckType(duckLike, IntUnaryOperator.class)));
+   }
+
+   private static void invoke(final IntUnaryOperator op) {
+      int value = 0;
+      for (int i = 0; i < INVOCATIONS; i++) {
+         value = op.applyAsInt(value);
+      }
+      if (value != INVOCATIONS)
+         throw new IllegalStateException();
+   }
+
+   private DelegateClassesBenchmark() {
+   }
+}
@@ -0,0 +1,111 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.reflection;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sf.jstuff.core.reflection.exception.ReflectionException;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class DelegateClassesTest {
+
+   interface Calculator {
+      long add(long a, int b);
+
+      void fail();
+
+      double multiply(double a, float b);
+
+      String name();
+   }
+
+   static class CalculatorImpl implements Calculator {
+      @Override
+      public long add(final long a, final int b) {
+         return a + b;
+      }
+
+      @Override
+      public void fail() {
+         throw new IllegalStateException("boom");
+      }
+
+      @Override
+      public double multiply(final double a, final float b) {
+         if (!Thread.holdsLock(this))
+            throw new IllegalStateException("Not synchronized");
+         return a * b;
+      }
+
+      @Override
+      public String name() {
+         return "calculator";
+      }
+
+      @Override
+      public String toString() {
+         return "CalculatorImpl";
+      }
+   }
+
+   @Test
+   void testDuckType() {
+      final Calculator calculator = DuckTypes.duckType(new Object() {
+         @SuppressWarnings("unused")
+         public long add(final long a, final int b) {
+            return a * b;
+         }
+      }, Calculator.class);
+
+      assertThat(Proxy.isProxyClass(calculator.getClass())).isFalse();
+      assertThat(calculator.add(3, 4)).isEqualTo(12L);
+      assertThatThrownBy(calculator::name).isInstanceOf(ReflectionException.class);
+   }
+
+   @Test
+   void testSynchronized() {
+      final var impl = new CalculatorImpl();
+      final Calculator calculator = Types.createSynchronized(Calculator.class, impl);
+
+      assertThat(Proxy.isProxyClass(calculator.getClass())).isFalse();
+      assertThat(calculator.getClass()).isSameAs(Types.createSynchronized(Calculator.class, new CalculatorImpl()).getClass());
+      assertThat(calculator.add(1L << 40, 2)).isEqualTo((1L << 40) + 2);
+      assertThat(calculator.multiply(1.5, 2f)).isEqualTo(3.0);
+      assertThat(calculator.name()).isEqualTo("calculator");
+      assertThat(calculator).hasToString("CalculatorImpl");
+      assertThat(calculator.equals(impl)).isTrue();
+      assertThat(calculator.hashCode()).isEqualTo(impl.hashCode());
+
+      // exceptions are not wrapped and the lock is released
+      assertThatThrownBy(calculator::fail).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+      assertThat(Thread.holdsLock(impl)).isFalse();
+
+      // custom lock object
+      final Calculator calculator2 = Types.createSynchronized(Calculator.class, new CalculatorImpl(), new Object());
+      assertThatThrownBy(() -> calculator2.multiply(1, 1)).hasMessage("Not synchronized");
+   }
+
+   @Test
+   void testThreadLocalized() throws InterruptedException {
+      @SuppressWarnings("unchecked")
+      final List<String> list = Types.createThreadLocalized(List.class, ThreadLocal.withInitial(ArrayList::new));
+      list.add("foo");
+
+      final var thread = new Thread(() -> list.add("bar"));
+      thread.start();
+      thread.join();
+
+      assertThat(Proxy.isProxyClass(list.getClass())).isFalse();
+      assertThat(list).containsExactly("foo");
+   }
+}
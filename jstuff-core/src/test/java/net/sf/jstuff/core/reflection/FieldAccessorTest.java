@@ -0,0 +1,101 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.reflection;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import net.sf.jstuff.core.reflection.exception.AccessingFieldValueFailedException;
+import net.sf.jstuff.core.reflection.exception.SettingFieldValueFailedException;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class FieldAccessorTest {
+
+   static class Entity {
+      static @Nullable String staticName;
+
+      private final String id = "1";
+      private @Nullable String name;
+      private int count;
+      private long total;
+      private boolean enabled;
+   }
+
+   static class SubEntity extends Entity {
+      @SuppressWarnings("unused")
+      private double ratio;
+   }
+
+   @Test
+   void testAccessModes() {
+      final FieldAccessor<Entity, String> name = FieldAccessor.get(Entity.class, "name");
+      final var entity = new Entity();
+
+      name.set(entity, "a");
+      assertThat(name.get(entity)).isEqualTo("a");
+      name.setVolatile(entity, "b");
+      assertThat(name.getVolatile(entity)).isEqualTo("b");
+      name.setOpaque(entity, "c");
+      assertThat(name.getOpaque(entity)).isEqualTo("c");
+      name.setRelease(entity, "d");
+      assertThat(name.getAcquire(entity)).isEqualTo("d");
+
+      assertThat(name.compareAndSet(entity, "x", "e")).isFalse();
+      assertThat(name.compareAndSet(entity, "d", "e")).isTrue();
+      assertThat(entity.name).isEqualTo("e");
+   }
+
+   @Test
+   void testFind() {
+      assertThat(FieldAccessor.find(SubEntity.class, "name")).isNotNull();
+      assertThat(FieldAccessor.find(SubEntity.class, "name")).isSameAs(FieldAccessor.find(SubEntity.class, "name"));
+      assertThat(FieldAccessor.find(SubEntity.class, "ratio")).isNotNull();
+      assertThat(FieldAccessor.find(Entity.class, "ratio")).isNull();
+      assertThat(FieldAccessor.find(Entity.class, "ratio")).isNull();
+      assertThatThrownBy(() -> FieldAccessor.get(Entity.class, "ratio")).hasMessageContaining("ratio");
+   }
+
+   @Test
+   void testFinalAndStaticFields() {
+      final var entity = new Entity();
+      final FieldAccessor<Entity, String> id = FieldAccessor.get(Entity.class, "id");
+      assertThat(id.isFinal()).isTrue();
+      assertThat(id.get(entity)).isEqualTo("1");
+      assertThatThrownBy(() -> id.set(entity, "2")).isInstanceOf(SettingFieldValueFailedException.class);
+
+      final FieldAccessor<Entity, String> staticName = FieldAccessor.get(Entity.class, "staticName");
+      assertThat(staticName.isStatic()).isTrue();
+      staticName.set(null, "foo");
+      assertThat(Entity.staticName).isEqualTo("foo");
+      assertThat(staticName.get(null)).isEqualTo("foo");
+   }
+
+   @Test
+   void testPrimitiveFields() {
+      final var entity = new Entity();
+
+      final FieldAccessor<Entity, Integer> count = FieldAccessor.get(Entity.class, "count");
+      count.setInt(entity, 5);
+      assertThat(entity.count).isEqualTo(5);
+      assertThat(count.getInt(entity)).isEqualTo(5);
+      assertThat(count.getLong(entity)).isEqualTo(5L);
+      assertThat(count.get(entity)).isEqualTo(5);
+
+      final FieldAccessor<Entity, Long> total = FieldAccessor.get(Entity.class, "total");
+      total.setLong(entity, 1L << 40);
+      total.setInt(entity, 7); // widening
+      assertThat(total.getLong(entity)).isEqualTo(7L);
+      assertThatThrownBy(() -> total.getInt(entity)).isInstanceOf(AccessingFieldValueFailedException.class);
+
+      final FieldAccessor<Entity, Boolean> enabled = FieldAccessor.get(Entity.class, "enabled");
+      enabled.setBoolean(entity, true);
+      assertThat(enabled.getBoolean(entity)).isTrue();
+      assertThatThrownBy(() -> enabled.set(entity, null)).isInstanceOf(SettingFieldValueFailedException.class);
+   }
+}
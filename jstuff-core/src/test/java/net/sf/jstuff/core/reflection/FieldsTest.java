@@ -4,13 +4,17 @@
  */
 package net.sf.jstuff.core.reflection;
 
-import static org.assertj.core.api.Assertions.assertThat;
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
+import static org.assertj.core.api.Assertions.*;
 
 import java.lang.reflect.Field;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 
+import net.sf.jstuff.core.reflection.exception.ReflectionException;
+import net.sf.jstuff.core.reflection.exception.SettingFieldValueFailedException;
+
 /**
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
@@ -33,6 +37,27 @@ void testAccessFieldModifiers() {
       assertThat(Fields.findVarHandle(Field.class, "modifiers")).isNotNull();
    }
 
+   @Test
+   void testFindVarHandle() {
+      final var e = new Entity("foo");
+      final var handle = Fields.findVarHandle(Entity.class, "name");
+      assertThat(handle).isNotNull();
+      assertThat(asNonNull(handle).get(e)).isEqualTo("foo");
+      assertThat(Fields.findVarHandle(Entity.class, "name", String.class)).isNotNull();
+      assertThat(Fields.findVarHandle(Entity.class, "name", Integer.class)).isNull();
+      assertThat(Fields.findVarHandle(Entity.class, "foo")).isNull();
+   }
+
+   @Test
+   void testReadWrite() {
+      final var e = new Entity("foo");
+      assertThat((String) Fields.read(e, "name")).isEqualTo("foo");
+      assertThat((Object) Fields.read(e, "foo")).isNull();
+
+      assertThatThrownBy(() -> Fields.write(e, "name", "bar")).isInstanceOf(SettingFieldValueFailedException.class);
+      assertThatThrownBy(() -> Fields.write(e, "foo", "bar")).isInstanceOf(ReflectionException.class);
+   }
+
    @Test
    void testWriteIgnoringFinal() throws SecurityException {
       // instance field test
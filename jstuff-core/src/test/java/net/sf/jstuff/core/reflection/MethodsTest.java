@@ -15,6 +15,7 @@
 
 import net.sf.jstuff.core.reflection.MethodsTestEntities.EntityA;
 import net.sf.jstuff.core.reflection.MethodsTestEntities.EntityB;
+import net.sf.jstuff.core.reflection.exception.InvokingMethodFailedException;
 import net.sf.jstuff.core.reflection.exception.ReflectionException;
 
 /**
@@ -270,6 +271,41 @@ void test_findPublicOverloadedSetter() {
       }
    }
 
+   @Test
+   void test_invoke() {
+      final var entity = new EntityB();
+
+      // non-public method with primitive parameter
+      for (int i = 0; i < 3; i++) {
+         Methods.invoke(entity, "setProperty2", i);
+         assertThat((Integer) Methods.invoke(entity, "getProperty2")).isEqualTo(i);
+      }
+
+      // compatible and null arguments
+      final var other = new EntityB();
+      Methods.invoke(entity, "setProperty1", other);
+      assertThat((Object) Methods.invoke(entity, "getProperty1")).isSameAs(other);
+      Methods.invoke(entity, "setProperty1", (Object) null);
+      assertThat((Object) Methods.invoke(entity, "getProperty1")).isNull();
+
+      // static method
+      assertThat((Integer) Methods.invoke(1, "valueOf", "12")).isEqualTo(12);
+
+      // varargs method, the array argument is passed through as is
+      assertThat((String) Methods.invoke(entity, "join", new Object[] {new String[] {"a", "b"}})).isEqualTo("a,b");
+
+      // exception thrown by the method
+      assertThatThrownBy(() -> Methods.invoke("abc", "charAt", 10)) //
+         .isInstanceOf(InvokingMethodFailedException.class) //
+         .hasCauseInstanceOf(StringIndexOutOfBoundsException.class);
+
+      // cached negative result
+      for (int i = 0; i < 2; i++) {
+         assertThatThrownBy(() -> Methods.invoke(entity, "setProperty3", "foo")) //
+            .isInstanceOf(IllegalArgumentException.class);
+      }
+   }
+
    @Test
    void test_getAllGetters() {
       assertThat(Methods.getAllGetters(EntityA.class)).hasSize(2 + 1 /*Object#getClass()*/);
@@ -51,6 +51,10 @@ public boolean isProperty3() {
          return property3;
       }
 
+      public String join(final String... values) {
+         return String.join(",", values);
+      }
+
       @Override
       public void setProperty1(final EntityA property1) {
          super.setProperty1(property1);
@@ -7,7 +7,15 @@
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -42,4 +50,107 @@ void testDecode() {
          // expected
       }
    }
+
+   @Test
+   void testDecodingInputStream() throws IOException {
+      final var random = new Random(42);
+      for (final int len : new int[] {0, 1, 2, 3, 4, 5, 1000, 10_000}) {
+         final var plain = new byte[len];
+         random.nextBytes(plain);
+         final String encoded = java.util.Base64.getMimeEncoder().encodeToString(plain);
+         try (InputStream in = Base64.decodingInputStream(new ByteArrayInputStream(encoded.getBytes(StandardCharsets.US_ASCII)))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+         }
+      }
+
+      try (InputStream in = Base64.decodingInputStream(new ByteArrayInputStream("SGVs\r\nbA".getBytes(StandardCharsets.US_ASCII)))) {
+         assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("Hell");
+      }
+      try (InputStream in = Base64.decodingInputStream(new ByteArrayInputStream("A-8_".getBytes(StandardCharsets.US_ASCII)))) {
+         assertThat(in.readAllBytes()).isEqualTo(Base64.decode("A+8/"));
+      }
+      try (InputStream in = Base64.decodingInputStream(new ByteArrayInputStream("SGVsb".getBytes(StandardCharsets.US_ASCII)))) {
+         assertThatIOException().isThrownBy(in::readAllBytes);
+      }
+      try (InputStream in = Base64.decodingInputStream(new ByteArrayInputStream("SG*s".getBytes(StandardCharsets.US_ASCII)))) {
+         assertThatIOException().isThrownBy(in::readAllBytes);
+      }
+   }
+
+   @Test
+   void testEncode() {
+      final var random = new Random(42);
+      for (int len = 0; len < 100; len++) {
+         final var plain = new byte[len];
+         random.nextBytes(plain);
+         final String expected = java.util.Base64.getEncoder().encodeToString(plain);
+         final String expectedUrl = java.util.Base64.getUrlEncoder().encodeToString(plain);
+         assertThat(Base64.encodedLength(len)).isEqualTo(expected.length());
+
+         final var bytes = new byte[expected.length() + 2];
+         assertThat(Base64.encode(plain, 0, len, bytes, 1)).isEqualTo(expected.length());
+         assertThat(new String(bytes, 1, expected.length(), StandardCharsets.US_ASCII)).isEqualTo(expected);
+
+         final var chars = new char[expected.length()];
+         assertThat(Base64.urlencode(plain, 0, len, chars, 0)).isEqualTo(expected.length());
+         assertThat(new String(chars)).isEqualTo(expectedUrl);
+
+         final var direct = ByteBuffer.allocateDirect(expected.length());
+         assertThat(Base64.encode(ByteBuffer.wrap(plain), direct)).isEqualTo(expected.length());
+         direct.flip();
+         assertThat(StandardCharsets.US_ASCII.decode(direct).toString()).isEqualTo(expected);
+
+         final var heap = ByteBuffer.allocate(expected.length());
+         Base64.urlencode(ByteBuffer.wrap(plain), heap);
+         assertThat(new String(heap.array(), StandardCharsets.US_ASCII)).isEqualTo(expectedUrl);
+      }
+
+      assertThatExceptionOfType(BufferOverflowException.class).isThrownBy(() -> Base64.encode(ByteBuffer.allocate(4), ByteBuffer.allocate(
+         7)));
+   }
+
+   @Test
+   void testEncodingOutputStream() throws IOException {
+      final var plain = new byte[10_000];
+      new Random(42).nextBytes(plain);
+
+      final var encoded = new ByteArrayOutputStream();
+      try (OutputStream out = Base64.encodingOutputStream(encoded)) {
+         out.write(plain[0]);
+         out.write(plain, 1, 4);
+         out.write(plain, 5, plain.length - 6);
+         out.write(plain[plain.length - 1]);
+      }
+      assertThat(encoded.toString(StandardCharsets.US_ASCII)).isEqualTo(java.util.Base64.getEncoder().encodeToString(plain));
+
+      final var urlEncoded = new ByteArrayOutputStream();
+      try (OutputStream out = Base64.urlencodingOutputStream(urlEncoded)) {
+         out.write(plain);
+      }
+      assertThat(urlEncoded.toString(StandardCharsets.US_ASCII)).isEqualTo(java.util.Base64.getUrlEncoder().encodeToString(plain));
+   }
+
+   @Test
+   void testIsBase64() {
+      assertThat(Base64.isBase64(null)).isFalse();
+      assertThat(Base64.isBase64(new byte[0])).isTrue();
+      assertThat(Base64.isBase64("SGVsbG8g\r\nV29ybGQh+/==".getBytes(StandardCharsets.US_ASCII))).isTrue();
+      assertThat(Base64.isBase64Url("SGVsbG8g\r\nV29ybGQh-_==".getBytes(StandardCharsets.US_ASCII))).isTrue();
+      assertThat(Base64.isBase64("SGVsbG8gV29ybGQh-".getBytes(StandardCharsets.US_ASCII))).isFalse();
+      assertThat(Base64.isBase64Url("SGVsbG8gV29ybGQh+".getBytes(StandardCharsets.US_ASCII))).isFalse();
+
+      // compare each possible byte value at every position of a SWAR word and in the tail against the per-char definition
+      for (int b = 0; b < 256; b++) {
+         final boolean expected = b >= '0' && b <= '9' || b >= 'A' && b <= 'Z' || b >= 'a' && b <= 'z' || b == '+' || b == '/'
+               || b == '\r' || b == '\n' || b == '=';
+         final boolean expectedUrl = b >= '0' && b <= '9' || b >= 'A' && b <= 'Z' || b >= 'a' && b <= 'z' || b == '-' || b == '_'
+               || b == '\r' || b == '\n' || b == '=';
+         for (int pos = 0; pos < 11; pos++) {
+            final var bytes = "AAAAAAAAAAA".getBytes(StandardCharsets.US_ASCII);
+            bytes[pos] = (byte) b;
+            assertThat(Base64.isBase64(bytes)).isEqualTo(expected);
+            assertThat(Base64.isBase64Url(bytes)).isEqualTo(expectedUrl);
+         }
+      }
+   }
 }
@@ -6,6 +6,16 @@
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -13,10 +23,22 @@
  */
 class HashTest {
 
+   private static byte[] hexToBytes(final String hex) {
+      final var bytes = new byte[hex.length() / 2];
+      for (int i = 0; i < bytes.length; i++) {
+         bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+      }
+      return bytes;
+   }
+
    @Test
    void testHashCategories() {
       assertThat(Hash.ADLER32.getCategory()).isEqualTo(Hash.Category.CHECKSUM);
       assertThat(Hash.CRC32.getCategory()).isEqualTo(Hash.Category.CRC);
+      assertThat(Hash.CRC32C.getCategory()).isEqualTo(Hash.Category.CRC);
+      assertThat(Hash.MURMUR3_32.getCategory()).isEqualTo(Hash.Category.NON_CRYPTOGRAPHIC);
+      assertThat(Hash.MURMUR3_128.getCategory()).isEqualTo(Hash.Category.NON_CRYPTOGRAPHIC);
+      assertThat(Hash.XXHASH64.getCategory()).isEqualTo(Hash.Category.NON_CRYPTOGRAPHIC);
       assertThat(Hash.MD5.getCategory()).isEqualTo(Hash.Category.UNKEYED_CRYPTOGRAPHIC);
       assertThat(Hash.SHA1.getCategory()).isEqualTo(Hash.Category.UNKEYED_CRYPTOGRAPHIC);
       assertThat(Hash.SHA256.getCategory()).isEqualTo(Hash.Category.UNKEYED_CRYPTOGRAPHIC);
@@ -54,6 +76,67 @@ void testHash() {
          "e4f870274af66ccb3a2e1e8f3c770e89265a4fffba594de2f9c0160036a0430a037dada3f2b045bef1f10b0c66a468ab409b41679490c98a5529ab5700a33245");
    }
 
+   @Test
+   void testHashFiles() throws IOException {
+      final var data = new byte[3 * 1024 * 1024 + 17];
+      new Random().nextBytes(data);
+      final Path file = Files.createTempFile("jstuff-hash", ".bin");
+      final Path smallFile = Files.createTempFile("jstuff-hash", ".bin");
+      try {
+         Files.write(file, data);
+         Files.write(smallFile, Arrays.copyOf(data, 1000));
+
+         for (final Hash<?> hash : List.of(Hash.CRC32, Hash.ADLER32.withSalt("foo".getBytes()), Hash.SHA256, Hash.MD5.withSalt("foo"
+            .getBytes()))) {
+            final Object expected = hash.hash(data);
+            assertThat(hash.hash(file)).isEqualTo(expected);
+            try (var in = Files.newInputStream(file)) {
+               assertThat(hash.hash(in)).isEqualTo(expected);
+            }
+            try (var ch = FileChannel.open(file)) {
+               assertThat(hash.hash(ch)).isEqualTo(expected);
+               assertThat(ch.position()).isEqualTo(ch.size());
+            }
+            assertThat(hash.hash(smallFile)).isEqualTo(hash.hash(Arrays.copyOf(data, 1000)));
+
+            final var hashes = hash.hashAll(List.of(file, smallFile), 2);
+            assertThat(hashes.keySet()).containsExactly(file, smallFile);
+            assertThat(hashes.get(file)).isEqualTo(expected);
+            assertThat(hashes.get(smallFile)).isEqualTo(hash.hash(smallFile));
+         }
+      } finally {
+         Files.delete(file);
+         Files.delete(smallFile);
+      }
+   }
+
+   @Test
+   void testHashTree() throws IOException {
+      final int chunkSize = 1024 * 1024;
+      final var data = new byte[3 * chunkSize + 17];
+      new Random().nextBytes(data);
+      final Path file = Files.createTempFile("jstuff-hash", ".bin");
+      try {
+         Files.write(file, data);
+
+         final var leafHashes = new ByteArrayOutputStream();
+         final var checksumLeafs = new ByteArrayOutputStream();
+         for (int offset = 0; offset < data.length; offset += chunkSize) {
+            final byte[] chunk = Arrays.copyOfRange(data, offset, Math.min(data.length, offset + chunkSize));
+            leafHashes.write(hexToBytes(Hash.SHA256.hash(chunk)));
+            checksumLeafs.write(ByteBuffer.allocate(8).putLong(Hash.CRC32.hash(chunk)).array());
+         }
+         assertThat(Hash.SHA256.hashTree(file, chunkSize, 4)).isEqualTo(Hash.SHA256.hash(leafHashes.toByteArray()));
+         assertThat(Hash.SHA256.hashTree(file, chunkSize, 1)).isEqualTo(Hash.SHA256.hash(leafHashes.toByteArray()));
+         assertThat(Hash.CRC32.hashTree(file, chunkSize, 4)).isEqualTo(Hash.CRC32.hash(checksumLeafs.toByteArray()));
+
+         Files.write(file, new byte[0]);
+         assertThat(Hash.SHA256.hashTree(file, chunkSize, 4)).isEqualTo(Hash.SHA256.hash(new byte[0]));
+      } finally {
+         Files.delete(file);
+      }
+   }
+
    @Test
    void testHasher() {
       assertThat(Hash.ADLER32.newHasher().update("HelloWorld!".getBytes()).hash()).isEqualTo(427_033_630L);
@@ -72,4 +155,36 @@ void testHasher() {
       assertThat(Hash.SHA1.newHasher().update("HelloWorld!".getBytes()).hash()).isEqualTo("d735871a64133ee062400659cf91b8234d1c1930");
 
    }
+
+   @Test
+   void testNonCryptographicHashes() {
+      assertThat(Hash.XXHASH64.hash(new byte[0])).isEqualTo(0xef46db3751d8e999L);
+      assertThat(Hash.XXHASH64.hash("abc")).isEqualTo(0x44bc2cf5ad770999L);
+      assertThat(Hash.XXHASH64.hash("Nobody inspects the spammish repetition")).isEqualTo(0xfbcea83c8a378bf1L);
+      assertThat(Hash.MURMUR3_32.hash("The quick brown fox jumps over the lazy dog")).isEqualTo(0x2e4ff723L);
+      assertThat(Hash.MURMUR3_128.hash("The quick brown fox jumps over the lazy dog")).isEqualTo(0xe34bbc7bbc071b6cL);
+      assertThat(Hash.CRC32C.hash("123456789")).isEqualTo(0xe3069283L);
+
+      final var data = new byte[1000];
+      new Random().nextBytes(data);
+      for (final Hash.ChecksumHash hash : List.of(Hash.CRC32C, Hash.MURMUR3_32, Hash.MURMUR3_128, Hash.XXHASH64)) {
+         for (final int len : new int[] {0, 1, 3, 4, 7, 15, 16, 17, 31, 32, 33, 100, 1000}) {
+            final long expected = hash.hash(Arrays.copyOf(data, len));
+            assertThat(hash.hash(data, 0, len)).isEqualTo(expected);
+
+            // incremental updates with arrays, single bytes and direct buffers
+            final var hasher = hash.newHasher();
+            final int third = len / 3;
+            hasher.update(data, 0, third);
+            if (third < len) {
+               hasher.update(data[third]);
+            }
+            final var direct = ByteBuffer.allocateDirect(len);
+            direct.put(data, 0, len).position(Math.min(len, third + 1));
+            hasher.update(direct);
+            assertThat(direct.hasRemaining()).isFalse();
+            assertThat(hasher.hash()).isEqualTo(expected);
+         }
+      }
+   }
 }
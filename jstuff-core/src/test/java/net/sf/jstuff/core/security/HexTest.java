@@ -0,0 +1,64 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.core.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class HexTest {
+
+   @Test
+   void testDecode() {
+      assertThat(Hex.decode("")).isEmpty();
+      assertThat(Hex.decode("00017f80ff")).isEqualTo(new byte[] {0, 1, 127, -128, -1});
+      assertThat(Hex.decode("ABCDEF")).isEqualTo(Hex.decode("abcdef"));
+
+      final var target = new byte[4];
+      assertThat(Hex.decode("xx0a0bxx", 2, 4, target, 1)).isEqualTo(2);
+      assertThat(target).isEqualTo(new byte[] {0, 10, 11, 0});
+
+      assertThatIllegalArgumentException().isThrownBy(() -> Hex.decode("abc"));
+      assertThatIllegalArgumentException().isThrownBy(() -> Hex.decode("0g"));
+   }
+
+   @Test
+   void testEncode() {
+      final var bytes = new byte[256];
+      final var expected = new StringBuilder();
+      for (int i = 0; i < bytes.length; i++) {
+         bytes[i] = (byte) i;
+         expected.append(String.format("%02x", i));
+      }
+      assertThat(Hex.encode(bytes)).isEqualTo(expected.toString());
+      assertThat(Hex.encode(new byte[0])).isEmpty();
+      assertThat(Hex.decode(Hex.encode(bytes))).isEqualTo(bytes);
+
+      final var chars = new char[6];
+      assertThat(Hex.encode(new byte[] {1, -2, 3}, 1, 2, chars, 1)).isEqualTo(4);
+      assertThat(new String(chars, 1, 4)).isEqualTo("fe03");
+
+      final var ascii = new byte[4];
+      assertThat(Hex.encode(new byte[] {-1, 16}, 0, 2, ascii, 0)).isEqualTo(4);
+      assertThat(new String(ascii, StandardCharsets.US_ASCII)).isEqualTo("ff10");
+
+      final var direct = ByteBuffer.allocateDirect(8);
+      final var src = ByteBuffer.wrap(new byte[] {0x12, 0x34});
+      assertThat(Hex.encode(src, direct)).isEqualTo(4);
+      assertThat(src.hasRemaining()).isFalse();
+      assertThat(direct.position()).isEqualTo(4);
+      direct.flip();
+      assertThat(StandardCharsets.US_ASCII.decode(direct).toString()).isEqualTo("1234");
+
+      assertThatExceptionOfType(BufferOverflowException.class).isThrownBy(() -> Hex.encode(ByteBuffer.allocate(2), ByteBuffer.allocate(3)));
+   }
+}
@@ -15,27 +15,42 @@
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
@@ -53,13 +68,18 @@
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
 
 import net.sf.jstuff.core.Strings;
 import net.sf.jstuff.core.collection.CollectionUtils;
+import net.sf.jstuff.core.collection.LRUMap;
 import net.sf.jstuff.core.collection.MapWithLists;
 import net.sf.jstuff.core.comparator.StringComparator;
 import net.sf.jstuff.core.io.CharSequenceReader;
@@ -74,6 +94,127 @@
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public abstract class DOMUtils {
+
+   private record CachedSchema(List<File> files, Schema schema, long[] lastModified) {
+   }
+
+   /**
+    * A document builder validating against the schema of the given {@link #XML_SCHEMAS} entry.
+    */
+   private record CachedDocumentBuilder(CachedSchema schema, DocumentBuilder builder) {
+   }
+
+   /**
+    * Forwards comments, DTD and entity events to the DOM builder but drops CDATA section boundaries, so that CDATA content is merged with
+    * the surrounding text the same way as by {@link DocumentBuilderFactory#setCoalescing(boolean) coalescing} document builders.
+    */
+   private static final class CoalescingLexicalHandler implements LexicalHandler {
+      private final LexicalHandler wrapped;
+
+      CoalescingLexicalHandler(final LexicalHandler wrapped) {
+         this.wrapped = wrapped;
+      }
+
+      @Override
+      public void comment(final char[] ch, final int start, final int length) throws SAXException {
+         wrapped.comment(ch, start, length);
+      }
+
+      @Override
+      public void endCDATA() {
+         // ignore
+      }
+
+      @Override
+      public void endDTD() throws SAXException {
+         wrapped.endDTD();
+      }
+
+      @Override
+      public void endEntity(final String name) throws SAXException {
+         wrapped.endEntity(name);
+      }
+
+      @Override
+      public void startCDATA() {
+         // ignore
+      }
+
+      @Override
+      public void startDTD(final String name, final @Nullable String publicId, final @Nullable String systemId) throws SAXException {
+         wrapped.startDTD(name, publicId, systemId);
+      }
+
+      @Override
+      public void startEntity(final String name) throws SAXException {
+         wrapped.startEntity(name);
+      }
+   }
+
+   /**
+    * Moves all unprefixed elements of the root element's default namespace into the given namespace while the document is parsed.
+    */
+   private static final class DefaultNamespaceFixingFilter extends XMLFilterImpl {
+      private final String defaultNamespace;
+      private String rootDefaultNamespace = XMLConstants.NULL_NS_URI;
+      private boolean isFixRequired;
+      private boolean isRootDefaultNamespaceDeclared;
+      private int depth;
+
+      DefaultNamespaceFixingFilter(final XMLReader parent, final String defaultNamespace) {
+         super(parent);
+         this.defaultNamespace = defaultNamespace;
+      }
+
+      @Override
+      public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+         super.endElement(fixNamespace(uri, qName), localName, qName);
+         depth--;
+         if (depth == 0 && isFixRequired && !isRootDefaultNamespaceDeclared) {
+            super.endPrefixMapping(XMLConstants.DEFAULT_NS_PREFIX);
+         }
+      }
+
+      private String fixNamespace(final String uri, final String qName) {
+         if (isFixRequired && qName.indexOf(':') == -1 && uri.equals(rootDefaultNamespace))
+            return defaultNamespace;
+         return uri;
+      }
+
+      @Override
+      public void startElement(final String uri, final String localName, final String qName, final Attributes atts) throws SAXException {
+         if (depth == 0) {
+            // the root element's namespace decides if the namespaces must be fixed
+            isFixRequired = !defaultNamespace.equals(uri);
+            if (isFixRequired) {
+               LOG.debug("Fixing root namespace...");
+            }
+            if (isRootDefaultNamespaceDeclared || isFixRequired) {
+               super.startPrefixMapping(XMLConstants.DEFAULT_NS_PREFIX, isFixRequired ? defaultNamespace : rootDefaultNamespace);
+            }
+         }
+         depth++;
+         super.startElement(fixNamespace(uri, qName), localName, qName, atts);
+      }
+
+      @Override
+      public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+         if (XMLConstants.DEFAULT_NS_PREFIX.equals(prefix)) {
+            if (depth == 0) {
+               // deferred until the root element is reached
+               rootDefaultNamespace = uri;
+               isRootDefaultNamespaceDeclared = true;
+               return;
+            }
+            if (isFixRequired && uri.equals(rootDefaultNamespace)) {
+               super.startPrefixMapping(prefix, defaultNamespace);
+               return;
+            }
+         }
+         super.startPrefixMapping(prefix, uri);
+      }
+   }
+
    private static final class SAXParseExceptionHandler extends org.xml.sax.helpers.DefaultHandler {
       private final List<SAXParseException> violations = new ArrayList<>();
 
@@ -88,6 +229,43 @@ public void warning(final SAXParseException ex) throws SAXException {
       }
    }
 
+   /**
+    * Iterates over nodes sorted by XPath skipping all but the last of consecutive nodes with the same XPath.
+    */
+   private static final class XPathNodeCursor {
+      private final Iterator<XPathNode> it;
+      private @Nullable XPathNode lookahead;
+      @Nullable
+      XPathNode current;
+
+      XPathNodeCursor(final Iterator<XPathNode> it) {
+         this.it = it;
+      }
+
+      @Nullable
+      XPathNode advance() {
+         XPathNode node = lookahead;
+         lookahead = null;
+         if (node == null) {
+            if (!it.hasNext())
+               return current = null;
+            node = it.next();
+         }
+         while (it.hasNext()) {
+            final XPathNode next = it.next();
+            final int cmp = next.xPath.compareTo(node.xPath);
+            if (cmp < 0)
+               throw new IllegalArgumentException("XPath nodes are not sorted: [" + next.xPath + "] follows [" + node.xPath + "]");
+            if (cmp > 0) {
+               lookahead = next;
+               break;
+            }
+            node = next;
+         }
+         return current = node;
+      }
+   }
+
    public static class XPathNode implements Serializable {
       private static final long serialVersionUID = 1L;
 
@@ -148,8 +326,24 @@ public List<String> getIdAttributesForXMLTagName(final String xmlTagName) {
       }
    }
 
+   /**
+    * Receives the differences found by {@link DOMUtils#diffXPathNodes(Iterator, Iterator, XPathNodeDiffListener)}.
+    */
+   public interface XPathNodeDiffListener {
+      void onLeftOnly(XPathNode left);
+
+      void onRightOnly(XPathNode right);
+
+      /**
+       * @param left node with the same XPath as <code>right</code> but a different value
+       */
+      void onValueDiff(XPathNode left, XPathNode right);
+   }
+
    private static final Logger LOG = Logger.create();
 
+   private static final Comparator<XPathNode> XPATH_NODE_COMPARATOR = (node1, node2) -> node1.xPath.compareTo(node2.xPath);
+
    protected static final MapBasedNamespaceContext NAMESPACE_CONTEXT = new MapBasedNamespaceContext();
 
    private static final EntityResolver NOREMOTE_DTD_RESOLVER = new EntityResolver() {
@@ -179,6 +373,44 @@ public List<String> getIdAttributesForXMLTagName(final String xmlTagName) {
       return xpath;
    });
 
+   /**
+    * Cache of compiled XPath expressions used by all evaluate/find methods.
+    */
+   protected static final XPathExpressionCache XPATH_CACHE = new XPathExpressionCache(256);
+
+   private static final int MAX_CACHED_XML_SCHEMAS = 32;
+
+   /**
+    * Compiled XML schemas by schema files. An entry is recompiled when the last modification time of one of its schema files changes.
+    */
+   private static final Map<List<File>, CachedSchema> XML_SCHEMAS = Collections.synchronizedMap(LRUMap.create(MAX_CACHED_XML_SCHEMAS));
+
+   private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> {
+      try {
+         return newDocumentBuilderFactory().newDocumentBuilder();
+      } catch (final ParserConfigurationException ex) {
+         throw new XMLException(ex);
+      }
+   });
+
+   /**
+    * Per-thread validating document builders by schema files. An entry is replaced when the corresponding {@link #XML_SCHEMAS} entry
+    * changed.
+    */
+   private static final ThreadLocal<Map<List<File>, CachedDocumentBuilder>> VALIDATING_DOCUMENT_BUILDERS = ThreadLocal.withInitial(
+      () -> LRUMap.create(MAX_CACHED_XML_SCHEMAS));
+
+   private static final ThreadLocal<SAXParser> SAX_PARSER = ThreadLocal.withInitial(() -> {
+      try {
+         final var factory = SAXParserFactory.newInstance();
+         factory.setNamespaceAware(true);
+         factory.setXIncludeAware(true);
+         return factory.newSAXParser();
+      } catch (final ParserConfigurationException | SAXException ex) {
+         throw new XMLException(ex);
+      }
+   });
+
    private static List<Attr> _getIdAttributes(final Element elem, final XPathNodeConfiguration cfg) {
       final NamedNodeMap nodeMap = elem.getAttributes();
       final List<Attr> result = CollectionUtils.newArrayList(nodeMap.getLength());
@@ -220,19 +452,17 @@ static Document _getOwnerDocument(final Node node) {
       return doc;
    }
 
-   private static void _getXPathNodes(final Element elem, final XPathNodeConfiguration cfg, final CharSequence parentXPath,
-         final Map<String, XPathNode> valuesByXPath) {
-      /*
-       * build the xPath of the current element
-       */
-      final var xPath = new StringBuilder(parentXPath);
+   /**
+    * Appends the XPath of the given element to the builder.
+    */
+   private static void _appendXPath(final Element elem, final XPathNodeConfiguration cfg, final StringBuilder xPath) {
       xPath.append('/');
       xPath.append(elem.getTagName());
-      final List<Attr> attrs = _getIdAttributes(elem, cfg);
-      if (!attrs.isEmpty()) {
+      final List<Attr> idAttrs = _getIdAttributes(elem, cfg);
+      if (!idAttrs.isEmpty()) {
          xPath.append('[');
          boolean isFirst = true;
-         for (final Attr idAttribute : _getIdAttributes(elem, cfg)) {
+         for (final Attr idAttribute : idAttrs) {
             if (isFirst) {
                isFirst = false;
             } else {
@@ -246,32 +476,160 @@ private static void _getXPathNodes(final Element elem, final XPathNodeConfigurat
          }
          xPath.append(']');
       }
+   }
+
+   /**
+    * Forces the DOM implementation to fully initialize the given subtree, e.g. nodes of documents created with Xerces' deferred node
+    * expansion are lazily created on first access, which is not thread-safe.
+    */
+   private static void _expandTree(final Node node) {
+      final NamedNodeMap attrs = node.getAttributes();
+      if (attrs != null) {
+         for (int i = 0, l = attrs.getLength(); i < l; i++) {
+            final var attr = (Attr) attrs.item(i);
+            attr.getValue();
+            attr.isId();
+         }
+      }
+      node.getNodeName();
+      node.getNodeValue();
+      for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+         _expandTree(child);
+      }
+   }
+
+   /**
+    * Emits the attributes, the text nodes and, if configured, the child elements of the given element in document order.
+    *
+    * @param xPath the XPath of the given element, is reset to its original length before the method returns
+    */
+   private static void _forEachXPathNode(final Element elem, final XPathNodeConfiguration cfg, final StringBuilder xPath,
+         final Consumer<? super XPathNode> consumer) {
+      final int xPathLen = xPath.length();
 
       /*
        * iterate attributes
        */
-      for (final Attr attr : getAttributes(elem)) {
-         final String attrXPath = xPath + "/@" + attr.getName();
-         valuesByXPath.put(attrXPath, new XPathNode(attr.getName(), attr.getValue(), attrXPath));
+      final NamedNodeMap attrs = elem.getAttributes();
+      for (int i = 0, l = attrs.getLength(); i < l; i++) {
+         final var attr = (Attr) attrs.item(i);
+         xPath.append("/@").append(attr.getName());
+         consumer.accept(new XPathNode(attr.getName(), attr.getValue(), xPath.toString()));
+         xPath.setLength(xPathLen);
       }
+
       /*
-       * iterate child elements
+       * iterate child nodes
        */
       boolean foundTextNode = false;
-      for (final Node child : DOMUtils.nodeListToList(elem.getChildNodes()))
+      for (Node child = elem.getFirstChild(); child != null; child = child.getNextSibling()) {
          if (cfg.recursive && child instanceof final Element childElem) {
-            _getXPathNodes(childElem, cfg, xPath, valuesByXPath);
+            _appendXPath(childElem, cfg, xPath);
+            _forEachXPathNode(childElem, cfg, xPath, consumer);
+            xPath.setLength(xPathLen);
          } else if ("#text".equals(child.getNodeName())) {
             foundTextNode = true;
             final String nodeValue = child.getNodeValue().trim();
             if (nodeValue.length() > 0) {
-               final String attrXPath = xPath + "/text()";
-               valuesByXPath.put(attrXPath, new XPathNode("#text", nodeValue, attrXPath));
+               consumer.accept(new XPathNode("#text", nodeValue, xPath.append("/text()").toString()));
+               xPath.setLength(xPathLen);
             }
          }
+      }
       if (!foundTextNode) {
-         final String attrXPath = xPath + "/text()";
-         valuesByXPath.put(attrXPath, new XPathNode("#text", null, attrXPath));
+         consumer.accept(new XPathNode("#text", null, xPath.append("/text()").toString()));
+         xPath.setLength(xPathLen);
+      }
+   }
+
+   private static DocumentBuilder getValidatingDocumentBuilder(final CachedSchema schema) {
+      final Map<List<File>, CachedDocumentBuilder> builders = VALIDATING_DOCUMENT_BUILDERS.get();
+      final var cached = builders.get(schema.files);
+      if (cached != null && cached.schema == schema)
+         return cached.builder;
+
+      // enabling JAXP validation
+      final DocumentBuilderFactory domFactory = newDocumentBuilderFactory();
+      domFactory.setNamespaceAware(true); // domFactory.setFeature("http://xml.org/sax/features/namespaces", true);
+      domFactory.setSchema(schema.schema);
+      try {
+         final DocumentBuilder builder = domFactory.newDocumentBuilder();
+         builders.put(schema.files, new CachedDocumentBuilder(schema, builder));
+         return builder;
+      } catch (final ParserConfigurationException ex) {
+         throw new XMLException(ex);
+      }
+   }
+
+   private static CachedSchema getXMLSchema(final File[] xmlSchemaFiles) throws SAXException {
+      final var key = new ArrayList<File>(xmlSchemaFiles.length);
+      final var lastModified = new long[xmlSchemaFiles.length];
+      for (int i = 0; i < xmlSchemaFiles.length; i++) {
+         final File xmlSchemaFile = xmlSchemaFiles[i];
+         key.add(xmlSchemaFile.getAbsoluteFile());
+         lastModified[i] = xmlSchemaFile.lastModified();
+      }
+
+      final var cached = XML_SCHEMAS.get(key);
+      if (cached != null && Arrays.equals(cached.lastModified, lastModified))
+         return cached;
+
+      LOG.debug("Compiling XML schema %s...", key);
+      final var factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+      factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+      factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file");
+      factory.setFeature("http://apache.org/xml/features/honour-all-schemaLocations", true);
+      final var sources = new StreamSource[xmlSchemaFiles.length];
+      for (int i = 0; i < xmlSchemaFiles.length; i++) {
+         sources[i] = new StreamSource(xmlSchemaFiles[i]);
+      }
+      final var schema = new CachedSchema(key, factory.newSchema(sources), lastModified);
+      XML_SCHEMAS.put(key, schema);
+      return schema;
+   }
+
+   private static DocumentBuilderFactory newDocumentBuilderFactory() {
+      // IBM JDK: org.apache.xerces.jaxp.DocumentBuilderFactoryImpl
+      // Sun JDK: com.sun.org.apache.xerces.jaxp.DocumentBuilderFactoryImpl
+      final DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+      domFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+      domFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+      domFactory.setCoalescing(true);
+      domFactory.setIgnoringComments(false);
+      domFactory.setXIncludeAware(true); // domFactory.setFeature("http://apache.org/xml/features/xinclude", true);
+      return domFactory;
+   }
+
+   /**
+    * Parses the input in a single pass through a SAX pipeline that fixes the namespace, validates and builds the DOM document.
+    */
+   private static Document parseWithDefaultNamespace(final InputSource input, final String defaultNamespace, final Schema schema,
+         final SAXParseExceptionHandler errorHandler) throws SAXException, IOException {
+      final SAXParser saxParser = SAX_PARSER.get();
+      try {
+         final XMLReader reader = saxParser.getXMLReader();
+         // disabling external DTD resolution to avoid errors like "java.net.UnknownHostException: java.sun.com"
+         reader.setEntityResolver(NOREMOTE_DTD_RESOLVER);
+
+         final TransformerHandler domBuilder = ((SAXTransformerFactory) TRANSFORMER_FACTORY.get()).newTransformerHandler();
+         final var domResult = new DOMResult();
+         domBuilder.setResult(domResult);
+         reader.setProperty("http://xml.org/sax/properties/lexical-handler", new CoalescingLexicalHandler(domBuilder));
+
+         final ValidatorHandler validator = schema.newValidatorHandler();
+         validator.setErrorHandler(errorHandler);
+         validator.setContentHandler(domBuilder);
+
+         final var namespaceFixer = new DefaultNamespaceFixingFilter(reader, defaultNamespace);
+         namespaceFixer.setContentHandler(validator);
+         namespaceFixer.setErrorHandler(errorHandler);
+         namespaceFixer.setEntityResolver(NOREMOTE_DTD_RESOLVER);
+         namespaceFixer.parse(input);
+         return (Document) asNonNullUnsafe(domResult.getNode());
+      } catch (final TransformerException ex) {
+         throw new SAXException(ex);
+      } finally {
+         saxParser.reset();
       }
    }
 
@@ -378,6 +736,92 @@ public static Text createTextNodeBefore(final Node sibling, final Object text) {
       return (Text) parent.insertBefore(_getOwnerDocument(parent).createTextNode(text.toString()), sibling);
    }
 
+   /**
+    * Compares the XPath nodes of the given elements.
+    * <p>
+    * In contrast to {@link net.sf.jstuff.core.collection.Maps#diff(Map, Map) diffing} the results of
+    * {@link #getXPathNodes(Element, XPathNodeConfiguration)}, no sorted maps are built. The nodes of both elements are collected in
+    * document order, sorted by XPath and compared in a single merge pass.
+    *
+    * @return true if differences were found
+    */
+   public static boolean diffXPathNodes(final Element left, final Element right, final XPathNodeConfiguration config,
+         final XPathNodeDiffListener listener) {
+      Args.notNull("left", left);
+      Args.notNull("right", right);
+      Args.notNull("config", config);
+      Args.notNull("listener", listener);
+
+      final var leftNodes = new ArrayList<XPathNode>();
+      forEachXPathNode(left, config, leftNodes::add);
+      leftNodes.sort(XPATH_NODE_COMPARATOR);
+
+      final var rightNodes = new ArrayList<XPathNode>();
+      forEachXPathNode(right, config, rightNodes::add);
+      rightNodes.sort(XPATH_NODE_COMPARATOR);
+
+      return diffXPathNodes(leftNodes.iterator(), rightNodes.iterator(), listener);
+   }
+
+   /**
+    * Compares two streams of XPath nodes in a single merge pass.
+    * <p>
+    * Both streams must be sorted by {@link XPathNode#xPath}. Of consecutive nodes with the same XPath only the last one is compared, which
+    * matches the semantics of {@link #getXPathNodes(Element, XPathNodeConfiguration)}.
+    *
+    * @return true if differences were found
+    * @throws IllegalArgumentException if one of the streams is not sorted
+    */
+   public static boolean diffXPathNodes(final Iterator<XPathNode> left, final Iterator<XPathNode> right,
+         final XPathNodeDiffListener listener) {
+      Args.notNull("left", left);
+      Args.notNull("right", right);
+      Args.notNull("listener", listener);
+
+      final var leftCursor = new XPathNodeCursor(left);
+      final var rightCursor = new XPathNodeCursor(right);
+      leftCursor.advance();
+      rightCursor.advance();
+
+      boolean isDifferent = false;
+      while (true) {
+         final XPathNode leftNode = leftCursor.current;
+         final XPathNode rightNode = rightCursor.current;
+         if (leftNode == null) {
+            if (rightNode == null)
+               return isDifferent;
+            listener.onRightOnly(rightNode);
+            rightCursor.advance();
+            isDifferent = true;
+            continue;
+         }
+         if (rightNode == null) {
+            listener.onLeftOnly(leftNode);
+            leftCursor.advance();
+            isDifferent = true;
+            continue;
+         }
+
+         final int cmp = leftNode.xPath.compareTo(rightNode.xPath);
+         if (cmp < 0) {
+            listener.onLeftOnly(leftNode);
+            leftCursor.advance();
+            isDifferent = true;
+         } else if (cmp > 0) {
+            listener.onRightOnly(rightNode);
+            rightCursor.advance();
+            isDifferent = true;
+         } else {
+            if (!leftNode.equals(rightNode)) {
+               listener.onValueDiff(leftNode, rightNode);
+               isDifferent = true;
+            }
+            leftCursor.advance();
+            rightCursor.advance();
+         }
+      }
+   }
+
    /**
     * @param returnType one of {@link XPathConstants#NUMBER NUMBER}, {@link XPathConstants#STRING STRING}, {@link XPathConstants#BOOLEAN
     *           BOOLEAN}, {@link XPathConstants#NODE NODE}, {@link XPathConstants#NODESET NODESET}
@@ -388,11 +832,7 @@ private static <T> T evaluate(final Node searchScope, final String xPathExpressi
       Args.notNull("xPathExpression", xPathExpression);
       Args.notNull("returnType", returnType);
 
-      try {
-         return (T) XPATH.get().evaluate(xPathExpression, searchScope, returnType);
-      } catch (final XPathExpressionException ex) {
-         throw new XMLException(ex);
-      }
+      return (T) XPATH_CACHE.evaluate(xPathExpression, NAMESPACE_CONTEXT, searchScope, returnType);
    }
 
    public static Boolean evaluateAsBoolean(final Node searchScope, final String xPathExpression) throws XMLException {
@@ -420,23 +860,15 @@ public static String evaluateAsString(final Node searchScope, final String xPath
       Args.notNull("searchScope", searchScope);
       Args.notNull("xPathExpression", xPathExpression);
 
-      try {
-         return (T) XPATH.get().evaluate(xPathExpression, searchScope, XPathConstants.NODE);
-      } catch (final XPathExpressionException ex) {
-         throw new XMLException(ex);
-      }
+      return (T) XPATH_CACHE.evaluate(xPathExpression, NAMESPACE_CONTEXT, searchScope, XPathConstants.NODE);
    }
 
    public static <T extends Node> List<T> findNodes(final Node searchScope, final String xPathExpression) throws XMLException {
       Args.notNull("searchScope", searchScope);
       Args.notNull("xPathExpression", xPathExpression);
 
-      try {
-         final var nodes = (NodeList) XPATH.get().evaluate(xPathExpression, searchScope, XPathConstants.NODESET);
-         return DOMUtils.nodeListToList(asNonNullUnsafe(nodes));
-      } catch (final XPathExpressionException ex) {
-         throw new XMLException(ex);
-      }
+      final var nodes = (NodeList) XPATH_CACHE.evaluate(xPathExpression, NAMESPACE_CONTEXT, searchScope, XPathConstants.NODESET);
+      return DOMUtils.nodeListToList(asNonNullUnsafe(nodes));
    }
 
    /**
@@ -447,15 +879,104 @@ public static <T extends Node> List<T> findNodes(final Node searchScope, final S
       Args.notNull("searchScope", searchScope);
       Args.notNull("xPathExpression", xPathExpression);
 
+      if (recursive)
+         return (String) XPATH_CACHE.evaluate(xPathExpression, NAMESPACE_CONTEXT, searchScope, XPathConstants.STRING);
+      final Node node = findNode(searchScope, xPathExpression + "/text()");
+      if (node == null)
+         return null;
+      return node.getNodeValue();
+   }
+
+   /**
+    * Passes the XPath nodes of the given element in document order to the consumer, i.e. the streaming counterpart of
+    * {@link #getXPathNodes(Element, XPathNodeConfiguration)}.
+    */
+   public static void forEachXPathNode(final Element element, final XPathNodeConfiguration config,
+         final Consumer<? super XPathNode> consumer) {
+      Args.notNull("element", element);
+      Args.notNull("config", config);
+      Args.notNull("consumer", consumer);
+
+      final var xPath = new StringBuilder(128);
+      _appendXPath(element, config, xPath);
+      _forEachXPathNode(element, config, xPath, consumer);
+   }
+
+   /**
+    * Passes the XPath nodes of the given element in document order to the consumer. If an executor is specified and
+    * {@link XPathNodeConfiguration#recursive} is set, the subtrees of the element's child elements are processed concurrently. The
+    * consumer is always invoked on the calling thread.
+    * <p>
+    * Since the DOM API does not guarantee thread-safe read access, the element's subtree is fully expanded on the calling thread first.
+    * The DOM must not be modified during the call.
+    */
+   public static void forEachXPathNode(final Element element, final XPathNodeConfiguration config, final @Nullable Executor executor,
+         final Consumer<? super XPathNode> consumer) {
+      Args.notNull("element", element);
+      Args.notNull("config", config);
+      Args.notNull("consumer", consumer);
+
+      if (executor == null || !config.recursive) {
+         forEachXPathNode(element, config, consumer);
+         return;
+      }
+
+      _expandTree(element);
+
+      final var xPath = new StringBuilder(128);
+      _appendXPath(element, config, xPath);
+      final String elementXPath = xPath.toString();
+      final String textXPath = elementXPath + "/text()";
+
+      final var parts = new ArrayList<CompletableFuture<List<XPathNode>>>();
+      var nodes = new ArrayList<XPathNode>();
+      final NamedNodeMap attrs = element.getAttributes();
+      for (int i = 0, l = attrs.getLength(); i < l; i++) {
+         final var attr = (Attr) attrs.item(i);
+         nodes.add(new XPathNode(attr.getName(), attr.getValue(), elementXPath + "/@" + attr.getName()));
+      }
+      boolean foundTextNode = false;
+      for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+         if (child instanceof final Element childElem) {
+            if (!nodes.isEmpty()) {
+               parts.add(CompletableFuture.completedFuture(nodes));
+               nodes = new ArrayList<>();
+            }
+            parts.add(CompletableFuture.supplyAsync(() -> {
+               final var childXPath = new StringBuilder(elementXPath);
+               _appendXPath(childElem, config, childXPath);
+               final var childNodes = new ArrayList<XPathNode>();
+               _forEachXPathNode(childElem, config, childXPath, childNodes::add);
+               return childNodes;
+            }, executor));
+         } else if ("#text".equals(child.getNodeName())) {
+            foundTextNode = true;
+            final String nodeValue = child.getNodeValue().trim();
+            if (nodeValue.length() > 0) {
+               nodes.add(new XPathNode("#text", nodeValue, textXPath));
+            }
+         }
+      }
+      if (!foundTextNode) {
+         nodes.add(new XPathNode("#text", null, textXPath));
+      }
+      parts.add(CompletableFuture.completedFuture(nodes));
+
       try {
-         if (recursive)
-            return (String) XPATH.get().evaluate(xPathExpression, searchScope, XPathConstants.STRING);
-         final Node node = findNode(searchScope, xPathExpression + "/text()");
-         if (node == null)
-            return null;
-         return node.getNodeValue();
-      } catch (final XPathExpressionException ex) {
-         throw new XMLException(ex);
+         for (final var part : parts) {
+            part.join().forEach(consumer);
+         }
+      } catch (final CompletionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof final RuntimeException rex)
+            throw rex;
+         if (cause instanceof final Error err)
+            throw err;
+         throw ex;
+      } finally {
+         for (final var part : parts) {
+            part.cancel(false);
+         }
       }
    }
 
@@ -504,26 +1025,34 @@ public static List<Attr> getIdAttributes(final Node node) {
       return result;
    }
 
+   /**
+    * @return the cache of compiled XPath expressions used by the evaluate/find methods of this class, e.g. to inspect its hit rate
+    */
+   public static XPathExpressionCache getXPathExpressionCache() {
+      return XPATH_CACHE;
+   }
+
    /**
     * Returns a sorted map containing the XPath expression of all attributes as entry key and their value as entry value.
     */
    public static SortedMap<String, XPathNode> getXPathNodes(final Element element) {
       Args.notNull("element", element);
 
-      final var valuesByXPath = new TreeMap<String, XPathNode>();
-      _getXPathNodes(element, XPathNodeConfiguration.INTERNAL_SHARED_INSTANCE, "", valuesByXPath);
-      return valuesByXPath;
+      return getXPathNodes(element, XPathNodeConfiguration.INTERNAL_SHARED_INSTANCE);
    }
 
    /**
     * Returns a sorted map containing the XPath expression of all attributes as entry key and their value as entry value.
+    *
+    * @see #forEachXPathNode(Element, XPathNodeConfiguration, Consumer)
+    * @see #diffXPathNodes(Element, Element, XPathNodeConfiguration, XPathNodeDiffListener)
     */
    public static SortedMap<String, XPathNode> getXPathNodes(final Element element, final XPathNodeConfiguration config) {
       Args.notNull("element", element);
       Args.notNull("config", config);
 
       final var valuesByXPath = new TreeMap<String, XPathNode>();
-      _getXPathNodes(element, config, "", valuesByXPath);
+      forEachXPathNode(element, config, node -> valuesByXPath.put(node.xPath, node));
       return valuesByXPath;
    }
 
@@ -652,6 +1181,10 @@ public static Document parseInputSource(final InputSource input, final String in
     *
     * @param input the input to parse
     * @param inputId an identifier / label for the input source, e.g. a file name
+    * <p>
+    * The compiled XML schemas are cached and recompiled when the last modification time of one of the given schema files changes.
+    * Changes to schema files only referenced via include/import are not detected.
+    *
     * @param defaultNamespace optional, may be null
     * @param xmlSchemaFiles the XML schema files to validate against, the schema files are also required to apply default values
     */
@@ -662,87 +1195,43 @@ public static Document parseInputSource(final InputSource input, final @Nullable
       try {
          LOG.debug("Parsing [%s]...", inputId);
 
-         // IBM JDK: org.apache.xerces.jaxp.DocumentBuilderFactoryImpl
-         // Sun JDK: com.sun.org.apache.xerces.jaxp.DocumentBuilderFactoryImpl
-         final DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-         domFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-         domFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-         domFactory.setCoalescing(true);
-         domFactory.setIgnoringComments(false);
-         domFactory.setXIncludeAware(true); // domFactory.setFeature("http://apache.org/xml/features/xinclude", true);
-
          // if no XML schema is provided simply parse without validation
          if (xmlSchemaFiles == null || xmlSchemaFiles.length == 0) {
-            final DocumentBuilder domBuilder = domFactory.newDocumentBuilder();
-
-            // disabling external DTD resolution to avoid errors like "java.net.UnknownHostException: java.sun.com"
-            domBuilder.setEntityResolver(NOREMOTE_DTD_RESOLVER);
-
-            return domBuilder.parse(input);
+            final DocumentBuilder domBuilder = DOCUMENT_BUILDER.get();
+            try {
+               // disabling external DTD resolution to avoid errors like "java.net.UnknownHostException: java.sun.com"
+               domBuilder.setEntityResolver(NOREMOTE_DTD_RESOLVER);
+               return domBuilder.parse(input);
+            } finally {
+               domBuilder.reset();
+            }
          }
 
-         // enabling JAXP validation
-         domFactory.setNamespaceAware(true); // domFactory.setFeature("http://xml.org/sax/features/namespaces", true);
-         domFactory.setValidating(true);
-
-         domFactory.setAttribute("http://java.sun.com/xml/jaxp/properties/schemaLanguage", XMLConstants.W3C_XML_SCHEMA_NS_URI);
-         domFactory.setAttribute("http://java.sun.com/xml/jaxp/properties/schemaSource", xmlSchemaFiles);
-         domFactory.setFeature("http://apache.org/xml/features/honour-all-schemaLocations", true);
-
-         final DocumentBuilder domBuilder = domFactory.newDocumentBuilder();
-
-         // disabling external DTD resolution to avoid errors like "java.net.UnknownHostException: java.sun.com"
-         domBuilder.setEntityResolver(NOREMOTE_DTD_RESOLVER);
-
+         final CachedSchema schema = getXMLSchema(xmlSchemaFiles);
          final var errorHandler = new SAXParseExceptionHandler();
-         domBuilder.setErrorHandler(errorHandler);
-         var domDoc = domBuilder.parse(input);
-         final Element domRoot = domDoc.getDocumentElement();
-
-         // remove any schema location declarations
-         domRoot.removeAttributeNS(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
-
-         // if a defaultNamespace is provided and no namespace is declared or does not match, then add/change the namespace and re-parse the file
-         final String ns = domRoot.getNamespaceURI();
-         if (defaultNamespace != null && !defaultNamespace.equals(ns)) {
-            LOG.debug("Fixing root namespace...");
-
-            domRoot.setAttribute("jstuffNS", defaultNamespace);
-            final String newXML = toXML(domDoc) //
-               .replaceFirst("xmlns\\s*=\\s*('[^']*'|\"[^\"]*\")", "") //
-               .replaceFirst("jstuffNS", "xmlns");
-
-            /* unfortunately the following does not seem to work reliable on all JVM implementations
-            // change the root namespace
-            final Stack<Node> nodes = new Stack<Node>();
-            nodes.push(domRoot);
-            while (!nodes.isEmpty())
-            {
-                Node node = nodes.pop();
-                if (node.getNodeType() == Node.ATTRIBUTE_NODE || node.getNodeType() == Node.ELEMENT_NODE)
-                {
-                    final String nns = node.getNamespaceURI();
-                    if (nns == null || nns.equals(ns))
-                        node = domDocument.renameNode(node, defaultNamespace, node.getNodeName());
-                }
-                final NamedNodeMap attributes = node.getAttributes();
-                if (attributes != null) for (int i = 0, l = attributes.getLength(); i < l; i++)
-                    nodes.push(attributes.item(i));
-                for (final Node childNode : nodeListToArray(node.getChildNodes()))
-                    nodes.push(childNode);
+         final Document domDoc;
+         if (defaultNamespace == null) {
+            final DocumentBuilder domBuilder = getValidatingDocumentBuilder(schema);
+            try {
+               // disabling external DTD resolution to avoid errors like "java.net.UnknownHostException: java.sun.com"
+               domBuilder.setEntityResolver(NOREMOTE_DTD_RESOLVER);
+               domBuilder.setErrorHandler(errorHandler);
+               domDoc = domBuilder.parse(input);
+            } finally {
+               domBuilder.reset();
             }
-            final String newXML = renderToString(domDocument);
-            */
-
-            // re-parse the file with the new namespace
-            errorHandler.violations.clear();
-            domDoc = domBuilder.parse(new InputSource(new StringReader(newXML)));
+         } else {
+            // if the root namespace is not declared or does not match the defaultNamespace it is changed while parsing
+            domDoc = parseWithDefaultNamespace(input, defaultNamespace, schema.schema, errorHandler);
          }
 
+         // remove any schema location declarations
+         domDoc.getDocumentElement().removeAttributeNS(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+
          Assert.isTrue(errorHandler.violations.isEmpty(), errorHandler.violations.size() + " XML schema violation(s) detected in ["
                + inputId + "]:\n\n => " + Strings.join(errorHandler.violations, "\n => "));
          return domDoc;
-      } catch (final ParserConfigurationException | SAXException | IOException ex) {
+      } catch (final SAXException | IOException ex) {
          throw new XMLException(ex);
       }
    }
@@ -776,6 +1265,16 @@ public static Document parseString(final CharSequence input, final @Nullable Str
       return parseInputSource(new InputSource(new CharSequenceReader(input)), inputId, defaultNamespace, xmlSchemaFiles);
    }
 
+   /**
+    * Compiles the given XPath expressions and adds them to the cache used by the evaluate/find methods of this class, e.g. to validate
+    * frequently used expressions at application startup.
+    *
+    * @throws XMLException if one of the expressions is invalid
+    */
+   public static void precompileXPath(final String... xPathExpressions) throws XMLException {
+      XPATH_CACHE.precompile(NAMESPACE_CONTEXT, xPathExpressions);
+   }
+
    /**
     * Registers a namespace for the XPath Expression Engine.
     */
@@ -784,6 +1283,7 @@ public static void registerNamespace(final String namespaceURI, final String pre
       Args.notNull("prefix", prefix);
 
       NAMESPACE_CONTEXT.bindNamespace(namespaceURI, prefix);
+      XPATH_CACHE.clear();
    }
 
    /**
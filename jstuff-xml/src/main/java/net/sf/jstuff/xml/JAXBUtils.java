@@ -6,68 +6,310 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.w3c.dom.Node;
 
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.JAXBIntrospector;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.SchemaOutputResolver;
+import jakarta.xml.bind.Unmarshaller;
 import net.sf.jstuff.core.Strings;
-import net.sf.jstuff.core.io.stream.FastByteArrayOutputStream;
+import net.sf.jstuff.core.io.CharSequenceReader;
+import net.sf.jstuff.core.io.stream.PooledByteArrayOutputStream;
 import net.sf.jstuff.core.validation.Args;
+import net.sf.jstuff.xml.stream.IndentingXMLStreamWriter;
+import net.sf.jstuff.xml.stream.StAXFactory;
 
 /**
  * Interesting reading: Unofficial JAXB Guide http://jaxb.java.net/guide/
+ * <p>
+ * {@link JAXBContext}s are cached per class. Since {@link Marshaller}s and {@link Unmarshaller}s are not thread-safe, a bounded pool of
+ * instances is kept per context.
  *
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 public abstract class JAXBUtils {
+
+   private static final class CachedContext {
+      final JAXBContext ctx;
+      final JAXBIntrospector introspector;
+      final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+      final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+      CachedContext(final JAXBContext ctx) {
+         this.ctx = ctx;
+         introspector = ctx.createJAXBIntrospector();
+      }
+
+      Marshaller borrowMarshaller() throws JAXBException {
+         var m = marshallers.poll();
+         if (m == null) {
+            m = ctx.createMarshaller();
+            m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            m.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+         }
+         return m;
+      }
+
+      Unmarshaller borrowUnmarshaller() throws JAXBException {
+         final var u = unmarshallers.poll();
+         return u == null ? ctx.createUnmarshaller() : u;
+      }
+
+      @SuppressWarnings({"rawtypes", "unchecked"})
+      void marshal(final Marshaller m, final Object obj, final Object target) throws JAXBException {
+         final Object toMarshal = introspector.getElementName(obj) == null //
+               ? new JAXBElement(new QName(Strings.lowerCaseFirstChar(obj.getClass().getSimpleName())), obj.getClass(), obj)
+               : obj;
+         if (target instanceof final XMLStreamWriter writer) {
+            m.marshal(toMarshal, writer);
+         } else {
+            m.marshal(toMarshal, (OutputStream) target);
+         }
+      }
+   }
+
+   private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+   private static final ClassValue<CachedContext> CONTEXTS = new ClassValue<>() {
+      @Override
+      protected CachedContext computeValue(final Class<?> type) {
+         try {
+            return new CachedContext(JAXBContext.newInstance(type));
+         } catch (final JAXBException ex) {
+            throw new XMLException(ex);
+         }
+      }
+   };
+
+   private static final StAXFactory STAX_FACTORY = new StAXFactory();
+
+   private static <T> T fromXML(final Class<T> type, final Source source) throws XMLException {
+      final var cached = CONTEXTS.get(type);
+      try {
+         final var u = cached.borrowUnmarshaller();
+         try {
+            return u.unmarshal(source, type).getValue();
+         } finally {
+            cached.unmarshallers.offer(u);
+         }
+      } catch (final JAXBException ex) {
+         throw new XMLException(ex);
+      }
+   }
+
+   public static <T> T fromXML(final Class<T> type, final CharSequence xml) throws XMLException {
+      Args.notNull("type", type);
+      Args.notNull("xml", xml);
+
+      return fromXML(type, new StreamSource(new CharSequenceReader(xml)));
+   }
+
+   public static <T> T fromXML(final Class<T> type, final InputStream in) throws XMLException {
+      Args.notNull("type", type);
+      Args.notNull("in", in);
+
+      return fromXML(type, new StreamSource(in));
+   }
+
+   /**
+    * @param node a {@link org.w3c.dom.Document} or {@link org.w3c.dom.Element}, e.g. a record provided by
+    *           {@link net.sf.jstuff.xml.stream.XMLSplitter}
+    */
+   public static <T> T fromXML(final Class<T> type, final Node node) throws XMLException {
+      Args.notNull("type", type);
+      Args.notNull("node", node);
+
+      return fromXML(type, new DOMSource(node));
+   }
+
+   /**
+    * Unmarshals the element the reader is positioned at.
+    *
+    * @param reader a reader positioned at {@link XMLStreamReader#START_DOCUMENT START_DOCUMENT} or
+    *           {@link XMLStreamReader#START_ELEMENT START_ELEMENT}. After the call, the reader is positioned at the event following the
+    *           element's end tag.
+    */
+   public static <T> T fromXML(final Class<T> type, final XMLStreamReader reader) throws XMLException {
+      Args.notNull("type", type);
+      Args.notNull("reader", reader);
+
+      final var cached = CONTEXTS.get(type);
+      try {
+         final var u = cached.borrowUnmarshaller();
+         try {
+            return u.unmarshal(reader, type).getValue();
+         } finally {
+            cached.unmarshallers.offer(u);
+         }
+      } catch (final JAXBException ex) {
+         throw new XMLException(ex);
+      }
+   }
+
+   /**
+    * Unmarshals the child elements of the element the reader is positioned at one by one, i.e. without loading the whole document into
+    * memory. This is the counterpart of {@link #toXML(Iterable, String, OutputStream)}.
+    *
+    * @param reader a reader positioned at {@link XMLStreamReader#START_DOCUMENT START_DOCUMENT} or at the
+    *           {@link XMLStreamReader#START_ELEMENT START_ELEMENT} of the wrapping element
+    * @return the number of unmarshalled elements
+    */
+   public static <T> int fromXMLFragments(final Class<T> type, final XMLStreamReader reader, final Consumer<? super T> consumer)
+         throws XMLException {
+      Args.notNull("type", type);
+      Args.notNull("reader", reader);
+      Args.notNull("consumer", consumer);
+
+      final var cached = CONTEXTS.get(type);
+      try {
+         while (reader.getEventType() != XMLStreamReader.START_ELEMENT) {
+            reader.next();
+         }
+         // move to the first child element
+         reader.next();
+
+         final var u = cached.borrowUnmarshaller();
+         try {
+            int count = 0;
+            while (true) {
+               final int eventType = reader.getEventType();
+               if (eventType == XMLStreamReader.START_ELEMENT) {
+                  consumer.accept(u.unmarshal(reader, type).getValue());
+                  count++;
+               } else if (eventType == XMLStreamReader.END_ELEMENT || eventType == XMLStreamReader.END_DOCUMENT) {
+                  return count;
+               } else {
+                  reader.next();
+               }
+            }
+         } finally {
+            cached.unmarshallers.offer(u);
+         }
+      } catch (final JAXBException | XMLStreamException ex) {
+         throw new XMLException(ex);
+      }
+   }
+
+   /**
+    * @return the cached {@link JAXBContext} for the given class
+    */
+   public static JAXBContext getJAXBContext(final Class<?> type) throws XMLException {
+      Args.notNull("type", type);
+
+      return CONTEXTS.get(type).ctx;
+   }
+
+   /**
+    * Marshals the given items element by element into a wrapping root element, i.e. without building the XML representation of the whole
+    * collection in memory. Items are marshalled with the cached context of their class.
+    *
+    * @param rootElementName local name of the wrapping root element
+    */
    @SuppressWarnings("resource")
+   public static void toXML(final Iterable<?> items, final String rootElementName, final OutputStream out) throws XMLException {
+      Args.notNull("items", items);
+      Args.notEmpty("rootElementName", rootElementName);
+      Args.notNull("out", out);
+
+      try {
+         final var writer = new IndentingXMLStreamWriter(STAX_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8, false));
+         writer.writeStartDocument("UTF-8", "1.0");
+         writer.writeStartElement(rootElementName);
+
+         @Nullable
+         CachedContext cached = null;
+         @Nullable
+         Marshaller m = null;
+         try {
+            for (final Object item : items) {
+               if (item == null) {
+                  continue;
+               }
+               final var itemContext = CONTEXTS.get(item.getClass());
+               if (itemContext != cached) {
+                  if (cached != null && m != null) {
+                     m.setProperty(Marshaller.JAXB_FRAGMENT, false);
+                     cached.marshallers.offer(m);
+                  }
+                  cached = itemContext;
+                  m = itemContext.borrowMarshaller();
+                  m.setProperty(Marshaller.JAXB_FRAGMENT, true);
+               }
+               itemContext.marshal(m, item, writer);
+            }
+         } finally {
+            if (cached != null && m != null) {
+               m.setProperty(Marshaller.JAXB_FRAGMENT, false);
+               cached.marshallers.offer(m);
+            }
+         }
+
+         writer.writeEndElement();
+         writer.writeEndDocument();
+         writer.flush();
+      } catch (final JAXBException | XMLStreamException ex) {
+         throw new XMLException(ex);
+      }
+   }
+
    public static String toXML(final Object obj) throws XMLException {
       Args.notNull("obj", obj);
 
-      final var baos = new FastByteArrayOutputStream();
-      toXML(obj, baos);
-      return baos.toString();
+      try (var out = new PooledByteArrayOutputStream()) {
+         toXML(obj, out);
+         return out.toString(StandardCharsets.UTF_8);
+      }
    }
 
-   @SuppressWarnings({"rawtypes", "resource", "unchecked"})
    public static void toXML(final Object obj, final OutputStream out) throws XMLException {
+      Args.notNull("obj", obj);
       Args.notNull("out", out);
 
+      final var cached = CONTEXTS.get(obj.getClass());
       try {
-         final JAXBContext ctx = JAXBContext.newInstance(obj.getClass());
-         final Marshaller m = ctx.createMarshaller();
-         m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-         m.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-         if (ctx.createJAXBIntrospector().getElementName(obj) == null) {
-            m.marshal(new JAXBElement(new QName(Strings.lowerCaseFirstChar(obj.getClass().getSimpleName())), obj.getClass(), obj), out);
-         } else {
-            m.marshal(obj, out);
+         final Marshaller m = cached.borrowMarshaller();
+         try {
+            cached.marshal(m, obj, out);
+         } finally {
+            cached.marshallers.offer(m);
          }
       } catch (final JAXBException ex) {
          throw new XMLException(ex);
       }
    }
 
-   @SuppressWarnings("resource")
    public static String toXSD(final Class<?>... xmlRootClasses) throws XMLException {
       Args.notNull("xmlRootClasses", xmlRootClasses);
 
-      final var out = new FastByteArrayOutputStream();
-      try {
-         toXSD(out, xmlRootClasses);
-      } catch (final IOException ex) {
-         // never happens
+      try (var out = new PooledByteArrayOutputStream()) {
+         try {
+            toXSD(out, xmlRootClasses);
+         } catch (final IOException ex) {
+            // never happens
+         }
+         return out.toString(StandardCharsets.UTF_8);
       }
-      return out.toString();
    }
 
    @SuppressWarnings("resource")
@@ -77,7 +319,10 @@ public static void toXSD(final OutputStream out, final Class<?>... xmlRootClasse
 
       try {
          final var result = new StreamResult(out);
-         JAXBContext.newInstance(xmlRootClasses).generateSchema(new SchemaOutputResolver() {
+         final JAXBContext ctx = xmlRootClasses.length == 1 //
+               ? CONTEXTS.get(xmlRootClasses[0]).ctx
+               : JAXBContext.newInstance(xmlRootClasses);
+         ctx.generateSchema(new SchemaOutputResolver() {
             @Override
             public @Nullable Result createOutput(final String namespaceURI, final String suggestedFileName) throws IOException {
                result.setSystemId(new File(suggestedFileName));
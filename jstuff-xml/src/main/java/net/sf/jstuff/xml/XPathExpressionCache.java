@@ -0,0 +1,200 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.w3c.dom.Node;
+
+import net.sf.jstuff.core.collection.LRUMap;
+import net.sf.jstuff.core.concurrent.ThreadSafe;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * A bounded cache of compiled {@link XPathExpression}s keyed by the expression text and the namespace context used to compile it.
+ * <p>
+ * {@link XPathExpression} objects are not thread-safe, therefore each cache entry holds a pool of compiled instances of the same
+ * expression. A thread evaluating an expression borrows an instance from the pool and returns it afterwards, i.e. an expression is
+ * compiled at most once per concurrently evaluating thread. When the cache exceeds its maximum size the least recently used expression
+ * is evicted.
+ * <p>
+ * Namespace contexts are compared by identity. If a namespace context is modified after expressions using it have been compiled,
+ * {@link #clear()} must be invoked.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@ThreadSafe
+public class XPathExpressionCache {
+
+   /**
+    * @param hits number of evaluations that reused an already compiled expression
+    * @param misses number of evaluations that required compiling the expression
+    * @param evictions number of expressions evicted from the cache because it exceeded its maximum size
+    * @param size number of distinct expressions currently cached
+    */
+   public record Stats(long hits, long misses, long evictions, int size) {
+
+      /**
+       * @return the ratio of hits to all lookups in the range of <code>0.0</code> to <code>1.0</code>
+       */
+      public double hitRate() {
+         final long lookups = hits + misses;
+         return lookups == 0 ? 1.0 : (double) hits / lookups;
+      }
+   }
+
+   private record Key(String expression, @Nullable NamespaceContext namespaceContext) {
+
+      @Override
+      public boolean equals(final @Nullable Object obj) {
+         return obj instanceof final Key other //
+               && namespaceContext == other.namespaceContext //
+               && expression.equals(other.expression);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * expression.hashCode() + System.identityHashCode(namespaceContext);
+      }
+   }
+
+   private static final ThreadLocal<XPath> XPATH = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+   private final LRUMap<Key, Queue<XPathExpression>> cache;
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+
+   /**
+    * @param maxSize the maximum number of distinct expressions to cache
+    */
+   public XPathExpressionCache(final int maxSize) {
+      Args.min("maxSize", maxSize, 1);
+      cache = new LRUMap<>(maxSize) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry(final Map.Entry<Key, Queue<XPathExpression>> eldest) {
+            if (super.removeEldestEntry(eldest)) {
+               evictions.increment();
+               return true;
+            }
+            return false;
+         }
+      };
+   }
+
+   /**
+    * Removes all cached expressions. The statistics are not reset.
+    */
+   public void clear() {
+      synchronized (cache) {
+         cache.clear();
+      }
+   }
+
+   private XPathExpression compile(final String expression, final @Nullable NamespaceContext namespaceContext) throws XMLException {
+      final XPath xpath = XPATH.get();
+      xpath.reset();
+      if (namespaceContext != null) {
+         xpath.setNamespaceContext(namespaceContext);
+      }
+      try {
+         return xpath.compile(expression);
+      } catch (final XPathExpressionException ex) {
+         throw new XMLException(ex);
+      }
+   }
+
+   /**
+    * @param returnType one of {@link XPathConstants#NUMBER NUMBER}, {@link XPathConstants#STRING STRING}, {@link XPathConstants#BOOLEAN
+    *           BOOLEAN}, {@link XPathConstants#NODE NODE}, {@link XPathConstants#NODESET NODESET}
+    */
+   public @Nullable Object evaluate(final String expression, final @Nullable NamespaceContext namespaceContext, final Node searchScope,
+         final QName returnType) throws XMLException {
+      Args.notNull("expression", expression);
+      Args.notNull("searchScope", searchScope);
+      Args.notNull("returnType", returnType);
+
+      final var key = new Key(expression, namespaceContext);
+      Queue<XPathExpression> pool;
+      synchronized (cache) {
+         pool = cache.get(key);
+         if (pool == null) {
+            pool = new ConcurrentLinkedQueue<>();
+            cache.put(key, pool);
+         }
+      }
+
+      XPathExpression compiled = pool.poll();
+      if (compiled == null) {
+         misses.increment();
+         compiled = compile(expression, namespaceContext);
+      } else {
+         hits.increment();
+      }
+
+      try {
+         return compiled.evaluate(searchScope, returnType);
+      } catch (final XPathExpressionException ex) {
+         throw new XMLException(ex);
+      } finally {
+         pool.offer(compiled);
+      }
+   }
+
+   public int getMaxSize() {
+      return cache.getMaxCapacity();
+   }
+
+   public Stats getStats() {
+      final int size;
+      synchronized (cache) {
+         size = cache.size();
+      }
+      return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+   }
+
+   /**
+    * Compiles the given expressions and adds them to the cache, e.g. to validate frequently used expressions at application startup and
+    * to avoid compilation during the first evaluations.
+    *
+    * @throws XMLException if one of the expressions is invalid
+    */
+   public void precompile(final @Nullable NamespaceContext namespaceContext, final String... expressions) throws XMLException {
+      Args.notNull("expressions", expressions);
+
+      for (final String expression : expressions) {
+         Args.notNull("expression", expression);
+         final var compiled = compile(expression, namespaceContext);
+         final var key = new Key(expression, namespaceContext);
+         final Queue<XPathExpression> pool;
+         synchronized (cache) {
+            pool = cache.computeIfAbsent(key, unused -> new ConcurrentLinkedQueue<>());
+         }
+         if (pool.isEmpty()) {
+            pool.offer(compiled);
+         }
+      }
+   }
+
+   public void resetStats() {
+      hits.reset();
+      misses.reset();
+      evictions.reset();
+   }
+}
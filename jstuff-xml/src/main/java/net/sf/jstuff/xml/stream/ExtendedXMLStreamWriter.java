@@ -19,22 +19,22 @@ public ExtendedXMLStreamWriter(final XMLStreamWriter wrapped) {
    }
 
    public void writeAttribute(final String localName, final boolean value) throws XMLStreamException {
-      wrapped.writeAttribute(localName, Boolean.toString(value));
+      writeAttribute(localName, Boolean.toString(value));
    }
 
    public void writeAttribute(final String localName, final byte value) throws XMLStreamException {
-      wrapped.writeAttribute(localName, Byte.toString(value));
+      writeAttribute(localName, Byte.toString(value));
    }
 
    public void writeAttribute(final String localName, final int value) throws XMLStreamException {
-      wrapped.writeAttribute(localName, Integer.toString(value));
+      writeAttribute(localName, Integer.toString(value));
    }
 
    public void writeAttribute(final String localName, final long value) throws XMLStreamException {
-      wrapped.writeAttribute(localName, Long.toString(value));
+      writeAttribute(localName, Long.toString(value));
    }
 
    public void writeAttribute(final String localName, final Object value) throws XMLStreamException {
-      wrapped.writeAttribute(localName, Objects.toString(value));
+      writeAttribute(localName, Objects.toString(value));
    }
 }
@@ -4,6 +4,8 @@
  */
 package net.sf.jstuff.xml.stream;
 
+import java.util.Arrays;
+
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
@@ -18,12 +20,18 @@ public class IndentingXMLStreamWriter extends ExtendedXMLStreamWriter {
    private int indentionLevel;
    private boolean indentEndTag = true;
 
+   /**
+    * line break followed by the indention repeated for the deepest level written so far
+    */
+   private char[] indentionChars = Strings.NEW_LINE.toCharArray();
+
    public IndentingXMLStreamWriter(final XMLStreamWriter wrapped) {
       super(wrapped);
    }
 
    public void setIndention(final String indention) {
       this.indention = indention;
+      indentionChars = Strings.NEW_LINE.toCharArray();
    }
 
    @Override
@@ -80,10 +88,16 @@ public void writeEndElement() throws XMLStreamException {
    }
 
    private void writeIndention() throws XMLStreamException {
-      wrapped.writeCharacters(Strings.NEW_LINE);
-      for (int i = 0; i < indentionLevel; i++) {
-         wrapped.writeCharacters(indention);
+      final int newLineLen = Strings.NEW_LINE.length();
+      final int len = newLineLen + indentionLevel * indention.length();
+      if (indentionChars.length < len) {
+         final char[] chars = Arrays.copyOf(indentionChars, newLineLen + 2 * indentionLevel * indention.length());
+         for (int i = newLineLen; i < chars.length; i += indention.length()) {
+            indention.getChars(0, indention.length(), chars, i);
+         }
+         indentionChars = chars;
       }
+      wrapped.writeCharacters(indentionChars, 0, len);
    }
 
    @Override
@@ -0,0 +1,425 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.logging.Logger;
+import net.sf.jstuff.core.validation.Args;
+import net.sf.jstuff.xml.stream.StAXUtils.ElementInfo;
+
+/**
+ * Matches the elements of an {@link XMLStreamReader} against one or more XPath-like expressions in a single pass.
+ * <p>
+ * Each expression is compiled once into a sequence of location steps. While reading, the matcher keeps per element depth a bitmask of
+ * the steps that can be matched next, i.e. matching an element only requires comparing names and attribute values, no paths or other
+ * strings are built.
+ * <p>
+ * Supported syntax:
+ * <ul>
+ * <li><code>/a/b</code> absolute path starting at the root element
+ * <li><code>a/b</code> relative path matching at any depth, same as <code>//a/b</code>
+ * <li><code>a//b</code> <code>b</code> elements at any depth below <code>a</code>
+ * <li><code>*</code> any element
+ * <li><code>ns:a</code> element with the given namespace prefix, without prefix elements are matched by local name only
+ * <li><code>a[@x='1' and @y="2"]</code>, <code>a[@x='1'][@y]</code> attribute value and attribute presence predicates
+ * </ul>
+ *
+ * <pre>
+ * new StAXPathMatcher() //
+ *    .addExpression("/root/group/item[@id='4']", elem -> { ...; return true; }) //
+ *    .addExpression("//group", elem -> { ...; return true; }) //
+ *    .match(reader);
+ * </pre>
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public class StAXPathMatcher {
+
+   @FunctionalInterface
+   public interface MatchHandler {
+
+      /**
+       * Invoked when the end of a matching element is reached.
+       *
+       * @return <code>true</code> to continue matching, <code>false</code> to stop reading from the stream
+       */
+      boolean onMatch(ElementInfo element) throws XMLStreamException;
+   }
+
+   @FunctionalInterface
+   public interface StartElementHandler {
+
+      /**
+       * Invoked when the start tag of a matching element was read. The handler must consume the element including its content, i.e. when
+       * the method returns the reader must be positioned at the element's {@link XMLStreamReader#END_ELEMENT END_ELEMENT}.
+       *
+       * @return <code>true</code> to continue matching, <code>false</code> to stop reading from the stream
+       */
+      boolean onStartElement(XMLStreamReader reader) throws XMLStreamException;
+   }
+
+   private static final class Capture {
+      final int depth;
+      final int expressionIndex;
+      final ElementInfo element;
+      final int textStart;
+
+      Capture(final int depth, final int expressionIndex, final ElementInfo element, final int textStart) {
+         this.depth = depth;
+         this.expressionIndex = expressionIndex;
+         this.element = element;
+         this.textStart = textStart;
+      }
+   }
+
+   private static final class Expression {
+      final String xpath;
+      final Step[] steps;
+      final @Nullable MatchHandler handler;
+      final @Nullable StartElementHandler startElementHandler;
+
+      Expression(final String xpath, final Step[] steps, final @Nullable MatchHandler handler,
+            final @Nullable StartElementHandler startElementHandler) {
+         this.xpath = xpath;
+         this.steps = steps;
+         this.handler = handler;
+         this.startElementHandler = startElementHandler;
+      }
+   }
+
+   private static final class Step {
+      final boolean isDescendant;
+      final @Nullable String prefix;
+      final @Nullable String localName;
+      final String[] attrNames;
+      final @Nullable String[] attrValues;
+
+      Step(final boolean isDescendant, final @Nullable String prefix, final @Nullable String localName, final String[] attrNames,
+            final @Nullable String[] attrValues) {
+         this.isDescendant = isDescendant;
+         this.prefix = prefix;
+         this.localName = localName;
+         this.attrNames = attrNames;
+         this.attrValues = attrValues;
+      }
+
+      boolean matches(final XMLStreamReader reader) {
+         final var localName = this.localName;
+         if (localName != null && !localName.equals(reader.getLocalName()))
+            return false;
+         final var prefix = this.prefix;
+         if (prefix != null && !prefix.equals(reader.getPrefix()))
+            return false;
+
+         attrs: for (int i = 0; i < attrNames.length; i++) {
+            final String attrName = attrNames[i];
+            final String attrValue = attrValues[i];
+            for (int j = 0, l = reader.getAttributeCount(); j < l; j++) {
+               if (attrName.equals(reader.getAttributeLocalName(j))) {
+                  if (attrValue == null || attrValue.equals(reader.getAttributeValue(j))) {
+                     continue attrs;
+                  }
+                  return false;
+               }
+            }
+            return false;
+         }
+         return true;
+      }
+   }
+
+   private static final Logger LOG = Logger.create();
+
+   /**
+    * Notifies the handlers of all elements matched at the given depth.
+    *
+    * @return <code>false</code> if a handler requested to stop
+    */
+   private static boolean onEndElement(final Expression[] exprs, final List<Capture> captures, final StringBuilder text, final int depth)
+         throws XMLStreamException {
+      int first = captures.size();
+      while (first > 0 && captures.get(first - 1).depth == depth) {
+         first--;
+      }
+      if (first == captures.size())
+         return true;
+
+      boolean isContinue = true;
+      for (int i = first, l = captures.size(); i < l; i++) {
+         final Capture capture = captures.get(i);
+         final ElementInfo element = capture.element;
+         if (element.text == null && text.length() > capture.textStart) {
+            element.text = text.substring(capture.textStart);
+         }
+         final Expression expr = exprs[capture.expressionIndex];
+         if (LOG.isDebugEnabled()) {
+            LOG.debug("Element [%s] at line [%s] matches [%s]", element, element.location == null ? null
+                  : element.location.getLineNumber(), expr.xpath);
+         }
+         if (isContinue && !asNonNull(expr.handler).onMatch(element)) {
+            isContinue = false;
+         }
+      }
+      captures.subList(first, captures.size()).clear();
+      if (captures.isEmpty()) {
+         text.setLength(0);
+      }
+      return isContinue;
+   }
+
+   private static Step parseStep(final String xpath, final String stepExpr, final boolean isDescendant) {
+      final int bracketPos = stepExpr.indexOf('[');
+      final String name = (bracketPos == -1 ? stepExpr : stepExpr.substring(0, bracketPos)).trim();
+      if (name.isEmpty())
+         throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: missing element name");
+
+      final String prefix;
+      final String localName;
+      final int colonPos = name.indexOf(':');
+      if (colonPos == -1) {
+         prefix = null;
+         localName = "*".equals(name) ? null : name;
+      } else {
+         prefix = name.substring(0, colonPos);
+         final var local = name.substring(colonPos + 1);
+         localName = "*".equals(local) ? null : local;
+      }
+
+      final var attrNames = new ArrayList<String>();
+      final var attrValues = new ArrayList<@Nullable String>();
+      int pos = bracketPos;
+      while (pos != -1 && pos < stepExpr.length()) {
+         if (stepExpr.charAt(pos) != '[')
+            throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: unexpected character at [" + stepExpr + "]");
+         final int endPos = stepExpr.indexOf(']', pos);
+         if (endPos == -1)
+            throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: missing ']' in [" + stepExpr + "]");
+         for (final String predicate : Strings.splitByWholeSeparator(stepExpr.substring(pos + 1, endPos), " and ")) {
+            final String pred = predicate.trim();
+            if (!pred.startsWith("@"))
+               throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: unsupported predicate [" + pred + "]");
+            final int eqPos = pred.indexOf('=');
+            if (eqPos == -1) {
+               attrNames.add(pred.substring(1).trim());
+               attrValues.add(null);
+            } else {
+               final String value = pred.substring(eqPos + 1).trim();
+               if (value.length() < 2 || value.charAt(0) != value.charAt(value.length() - 1) || value.charAt(0) != '\'' && value
+                  .charAt(0) != '"')
+                  throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: unsupported predicate [" + pred + "]");
+               attrNames.add(pred.substring(1, eqPos).trim());
+               attrValues.add(value.substring(1, value.length() - 1));
+            }
+         }
+         pos = endPos + 1;
+      }
+      return new Step(isDescendant, prefix, localName, attrNames.toArray(String[]::new), attrValues.toArray(String[]::new));
+   }
+
+   private static Step[] parseSteps(final String xpath) {
+      String expr = xpath.trim();
+      if (expr.isEmpty())
+         throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: expression is empty");
+
+      final var steps = new ArrayList<Step>();
+      // relative paths match at any depth
+      boolean isDescendant = true;
+      if (expr.startsWith("//")) {
+         expr = expr.substring(2);
+      } else if (expr.startsWith("/")) {
+         expr = expr.substring(1);
+         isDescendant = false;
+      }
+
+      int stepStart = 0;
+      int bracketDepth = 0;
+      for (int i = 0, l = expr.length(); i <= l; i++) {
+         final char ch = i == l ? '/' : expr.charAt(i);
+         switch (ch) {
+            case '[':
+               bracketDepth++;
+               break;
+            case ']':
+               bracketDepth--;
+               break;
+            case '/':
+               if (bracketDepth > 0) {
+                  break;
+               }
+               steps.add(parseStep(xpath, expr.substring(stepStart, i), isDescendant));
+               isDescendant = i + 1 < l && expr.charAt(i + 1) == '/';
+               if (isDescendant) {
+                  i++;
+               }
+               stepStart = i + 1;
+               break;
+            default:
+               break;
+         }
+      }
+      if (bracketDepth != 0)
+         throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: unbalanced brackets");
+      if (steps.size() > Long.SIZE)
+         throw new IllegalArgumentException("Unsupported expression [" + xpath + "]: more than " + Long.SIZE + " steps");
+      return steps.toArray(Step[]::new);
+   }
+
+   private static TreeMap<String, String> readAttributes(final XMLStreamReader reader) {
+      final var attrs = new TreeMap<String, String>();
+      for (int i = 0, l = reader.getAttributeCount(); i < l; i++) {
+         attrs.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+      }
+      return attrs;
+   }
+
+   private final List<Expression> expressions = new ArrayList<>(2);
+
+   /**
+    * @param xpath the expression to match, see class documentation for the supported syntax
+    * @param handler invoked for each matching element once the element's end tag was read
+    * @throws IllegalArgumentException if the expression uses unsupported syntax
+    */
+   public StAXPathMatcher addExpression(final String xpath, final MatchHandler handler) {
+      Args.notNull("xpath", xpath);
+      Args.notNull("handler", handler);
+
+      expressions.add(new Expression(xpath, parseSteps(xpath), handler, null));
+      return this;
+   }
+
+   /**
+    * Registers a handler that takes over reading when the start tag of a matching element was read, e.g. to materialize the element's
+    * subtree. Elements consumed by a start element handler are not evaluated against the other expressions, however matches of the
+    * consumed element itself are still reported to their {@link MatchHandler}s, without text.
+    *
+    * @param xpath the expression to match, see class documentation for the supported syntax
+    * @throws IllegalArgumentException if the expression uses unsupported syntax
+    */
+   public StAXPathMatcher addStartElementExpression(final String xpath, final StartElementHandler handler) {
+      Args.notNull("xpath", xpath);
+      Args.notNull("handler", handler);
+
+      expressions.add(new Expression(xpath, parseSteps(xpath), null, handler));
+      return this;
+   }
+
+   /**
+    * Reads from the given reader until the end of the stream or until a {@link MatchHandler} requests to stop.
+    * <p>
+    * The text of a matching element is the concatenated character data of the element and its descendants.
+    *
+    * @return <code>true</code> if the end of the stream was reached, <code>false</code> if a handler requested to stop
+    */
+   public boolean match(final XMLStreamReader reader) throws XMLStreamException {
+      Args.notNull("reader", reader);
+
+      final Expression[] exprs = expressions.toArray(Expression[]::new);
+      final int exprCount = exprs.length;
+      if (exprCount == 0)
+         return true;
+
+      /*
+       * bitmask of the steps that can be matched by the children of the element at the given depth, stored for each expression at
+       * states[depth * exprCount + exprIndex]
+       */
+      long[] states = new long[16 * exprCount];
+      Arrays.fill(states, 0, exprCount, 1L);
+      int depth = 0;
+
+      final var text = new StringBuilder();
+      final var captures = new ArrayList<Capture>();
+
+      while (reader.hasNext()) {
+         switch (reader.next()) {
+            case XMLStreamReader.START_ELEMENT: {
+               final int parentOffset = depth * exprCount;
+               depth++;
+               final int offset = depth * exprCount;
+               if (offset + exprCount > states.length) {
+                  states = Arrays.copyOf(states, states.length * 2);
+               }
+
+               @Nullable
+               ElementInfo element = null;
+               @Nullable
+               Expression consumingExpr = null;
+               for (int e = 0; e < exprCount; e++) {
+                  final Step[] steps = exprs[e].steps;
+                  long active = states[parentOffset + e];
+                  long next = 0;
+                  while (active != 0) {
+                     final int stepIndex = Long.numberOfTrailingZeros(active);
+                     active &= active - 1;
+                     final Step step = steps[stepIndex];
+                     if (step.isDescendant) {
+                        next |= 1L << stepIndex;
+                     }
+                     if (step.matches(reader)) {
+                        if (stepIndex == steps.length - 1) {
+                           if (exprs[e].startElementHandler != null) {
+                              if (consumingExpr == null) {
+                                 consumingExpr = exprs[e];
+                              }
+                              continue;
+                           }
+                           if (element == null) {
+                              element = new ElementInfo(reader.getLocalName(), reader.getPrefix(), reader.getNamespaceURI(), reader
+                                 .getLocation(), readAttributes(reader));
+                           }
+                           captures.add(new Capture(depth, e, element, text.length()));
+                        } else {
+                           next |= 1L << stepIndex + 1;
+                        }
+                     }
+                  }
+                  states[offset + e] = next;
+               }
+
+               if (consumingExpr != null) {
+                  if (LOG.isDebugEnabled()) {
+                     LOG.debug("Element [%s] at line [%s] matches [%s]", reader.getLocalName(), reader.getLocation().getLineNumber(),
+                        consumingExpr.xpath);
+                  }
+                  final boolean isContinue = asNonNull(consumingExpr.startElementHandler).onStartElement(reader);
+                  if (!onEndElement(exprs, captures, text, depth) || !isContinue)
+                     return false;
+                  depth--;
+               }
+               break;
+            }
+
+            case XMLStreamReader.CHARACTERS:
+            case XMLStreamReader.CDATA:
+            case XMLStreamReader.SPACE:
+               if (!captures.isEmpty()) {
+                  text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+               }
+               break;
+
+            case XMLStreamReader.END_ELEMENT:
+               if (!onEndElement(exprs, captures, text, depth))
+                  return false;
+               depth--;
+               break;
+
+            default:
+               break;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,760 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.concurrent.NotThreadSafe;
+import net.sf.jstuff.core.reflection.Proxies;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * A non-repairing {@link XMLStreamWriter} that encodes directly to a buffered UTF-8 byte stream instead of delegating to the JDK writer.
+ * <p>
+ * Characters are escaped via precomputed tables, namespace bindings are kept on flat array stacks and indentation, if enabled, is written
+ * from a precomputed byte sequence, i.e. writing events does not allocate objects. Elements without content are written as empty-element
+ * tags.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@NotThreadSafe
+public class UTF8XMLStreamWriter extends ExtendedXMLStreamWriter {
+
+   private final class NamespaceContextImpl implements NamespaceContext {
+      @Override
+      public @Nullable String getNamespaceURI(final String prefix) {
+         Args.notNull("prefix", prefix);
+         for (int i = nsCount - 1; i >= 0; i--) {
+            if (prefix.equals(nsPrefixes[i]))
+               return nsURIs[i];
+         }
+         final var rootContext = UTF8XMLStreamWriter.this.rootContext;
+         return rootContext == null ? null : rootContext.getNamespaceURI(prefix);
+      }
+
+      @Override
+      public @Nullable String getPrefix(final String namespaceURI) {
+         return UTF8XMLStreamWriter.this.getPrefix(namespaceURI);
+      }
+
+      @Override
+      public Iterator<String> getPrefixes(final String namespaceURI) {
+         final List<String> prefixes = new ArrayList<>(2);
+         for (int i = nsCount - 1; i >= 0; i--) {
+            if (namespaceURI.equals(nsURIs[i]) && !prefixes.contains(nsPrefixes[i]) && isPrefixInScope(nsPrefixes[i], i)) {
+               prefixes.add(nsPrefixes[i]);
+            }
+         }
+         return prefixes.iterator();
+      }
+   }
+
+   private static final int MIN_BUFFER_SIZE = 64;
+
+   /**
+    * space required in the buffer to write any single char or escape sequence
+    */
+   private static final int MAX_BYTES_PER_CHAR = 6;
+
+   private static final byte[] INVALID_CHAR = {};
+   private static final byte[][] TEXT_ESCAPES = new byte[128][];
+   private static final byte[][] ATTRIBUTE_ESCAPES = new byte[128][];
+   private static final byte[][] NO_ESCAPES = new byte[128][];
+
+   static {
+      for (int c = 0; c < 0x20; c++) {
+         if (c != '\t' && c != '\n' && c != '\r') {
+            TEXT_ESCAPES[c] = INVALID_CHAR;
+            ATTRIBUTE_ESCAPES[c] = INVALID_CHAR;
+            NO_ESCAPES[c] = INVALID_CHAR;
+         }
+      }
+      TEXT_ESCAPES['&'] = ascii("&amp;");
+      TEXT_ESCAPES['<'] = ascii("&lt;");
+      TEXT_ESCAPES['>'] = ascii("&gt;");
+      TEXT_ESCAPES['\r'] = ascii("&#13;");
+
+      ATTRIBUTE_ESCAPES['&'] = ascii("&amp;");
+      ATTRIBUTE_ESCAPES['<'] = ascii("&lt;");
+      ATTRIBUTE_ESCAPES['>'] = ascii("&gt;");
+      ATTRIBUTE_ESCAPES['"'] = ascii("&quot;");
+      ATTRIBUTE_ESCAPES['\t'] = ascii("&#9;");
+      ATTRIBUTE_ESCAPES['\n'] = ascii("&#10;");
+      ATTRIBUTE_ESCAPES['\r'] = ascii("&#13;");
+   }
+
+   private static final byte[] NEW_LINE = Strings.NEW_LINE.getBytes(StandardCharsets.US_ASCII);
+
+   /**
+    * 10^0 to 10^18
+    */
+   private static final long[] POWERS_OF_TEN = new long[19];
+
+   static {
+      long p = 1;
+      for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+         POWERS_OF_TEN[i] = p;
+         p *= 10;
+      }
+   }
+
+   private static final XMLStreamWriter NO_DELEGATE = Proxies.create((proxy, method, args) -> {
+      throw new UnsupportedOperationException();
+   }, XMLStreamWriter.class);
+
+   private static byte[] ascii(final String str) {
+      return str.getBytes(StandardCharsets.US_ASCII);
+   }
+
+   private final OutputStream out;
+   private final boolean autoClose;
+   private final byte[] buf;
+   private int pos;
+
+   private final char[] chars = new char[256];
+
+   /*
+    * element stack
+    */
+   private @Nullable String[] elementPrefixes = new @Nullable String[16];
+   private String[] elementLocalNames = new String[16];
+   private int[] elementNSCounts = new int[16];
+   private int depth;
+
+   /*
+    * namespace binding stack
+    */
+   private String[] nsPrefixes = new String[16];
+   private String[] nsURIs = new String[16];
+   private int nsCount;
+   private @Nullable NamespaceContext rootContext;
+   private @Nullable NamespaceContextImpl namespaceContext;
+
+   private boolean startTagOpen;
+   private boolean emptyElement;
+   private boolean hasWritten;
+   private boolean isClosed;
+
+   /*
+    * indentation
+    */
+   private byte @Nullable [] indention;
+   private byte[] indentionBytes = NEW_LINE;
+   private boolean indentEndTag = true;
+
+   public UTF8XMLStreamWriter(final OutputStream out) {
+      this(out, 8_192, false);
+   }
+
+   /**
+    * @param autoClose if true out.close() is invoked when {@link #close()} is called
+    */
+   public UTF8XMLStreamWriter(final OutputStream out, final int bufferSize, final boolean autoClose) {
+      super(NO_DELEGATE);
+      Args.notNull("out", out);
+      Args.min("bufferSize", bufferSize, MIN_BUFFER_SIZE);
+      hideWrapped();
+      freezeWrapped();
+
+      this.out = out;
+      this.autoClose = autoClose;
+      buf = new byte[bufferSize];
+   }
+
+   private void bindNamespace(final String prefix, final String namespaceURI) {
+      if (nsCount == nsPrefixes.length) {
+         nsPrefixes = Arrays.copyOf(nsPrefixes, nsCount * 2);
+         nsURIs = Arrays.copyOf(nsURIs, nsCount * 2);
+      }
+      nsPrefixes[nsCount] = prefix;
+      nsURIs[nsCount] = namespaceURI;
+      nsCount++;
+   }
+
+   /**
+    * Flushes the buffer but does not close the underlying output stream unless <code>autoClose</code> was specified.
+    */
+   @Override
+   public void close() throws XMLStreamException {
+      if (isClosed)
+         return;
+      isClosed = true;
+      try {
+         flushBuffer();
+         if (autoClose) {
+            out.close();
+         } else {
+            out.flush();
+         }
+      } catch (final IOException ex) {
+         throw new XMLStreamException(ex);
+      }
+   }
+
+   private void closeStartTag() throws XMLStreamException {
+      startTagOpen = false;
+      if (emptyElement) {
+         emptyElement = false;
+         writeASCII('/', '>');
+         popElement();
+      } else {
+         writeASCII('>');
+      }
+   }
+
+   private void ensureCapacity(final int len) throws XMLStreamException {
+      if (buf.length - pos < len) {
+         flushBuffer();
+      }
+   }
+
+   private void ensureOpen() throws XMLStreamException {
+      if (isClosed)
+         throw new XMLStreamException("Writer is closed");
+   }
+
+   @Override
+   public void flush() throws XMLStreamException {
+      try {
+         flushBuffer();
+         out.flush();
+      } catch (final IOException ex) {
+         throw new XMLStreamException(ex);
+      }
+   }
+
+   private void flushBuffer() throws XMLStreamException {
+      if (pos > 0) {
+         try {
+            out.write(buf, 0, pos);
+         } catch (final IOException ex) {
+            throw new XMLStreamException(ex);
+         }
+         pos = 0;
+      }
+   }
+
+   public @Nullable String getIndention() {
+      final var indention = this.indention;
+      return indention == null ? null : new String(indention, StandardCharsets.UTF_8);
+   }
+
+   @Override
+   public NamespaceContext getNamespaceContext() {
+      var namespaceContext = this.namespaceContext;
+      if (namespaceContext == null) {
+         namespaceContext = this.namespaceContext = new NamespaceContextImpl();
+      }
+      return namespaceContext;
+   }
+
+   @Override
+   public @Nullable String getPrefix(final @Nullable String uri) {
+      final String namespaceURI = uri == null ? XMLConstants.NULL_NS_URI : uri;
+      for (int i = nsCount - 1; i >= 0; i--) {
+         if (namespaceURI.equals(nsURIs[i]) && isPrefixInScope(nsPrefixes[i], i))
+            return nsPrefixes[i];
+      }
+      final var rootContext = this.rootContext;
+      return rootContext == null ? null : rootContext.getPrefix(namespaceURI);
+   }
+
+   @Override
+   public @Nullable Object getProperty(final String name) throws IllegalArgumentException {
+      if (XMLOutputFactory.IS_REPAIRING_NAMESPACES.equals(name))
+         return Boolean.FALSE;
+      throw new IllegalArgumentException("Unsupported property: " + name);
+   }
+
+   /**
+    * @return true if the binding at the given index is not shadowed by a later binding of the same prefix
+    */
+   private boolean isPrefixInScope(final String prefix, final int index) {
+      for (int i = nsCount - 1; i > index; i--) {
+         if (prefix.equals(nsPrefixes[i]))
+            return false;
+      }
+      return true;
+   }
+
+   private void popElement() {
+      depth--;
+      nsCount = elementNSCounts[depth];
+   }
+
+   private void pushElement(final @Nullable String prefix, final String localName) {
+      if (depth == elementLocalNames.length) {
+         elementPrefixes = Arrays.copyOf(elementPrefixes, depth * 2);
+         elementLocalNames = Arrays.copyOf(elementLocalNames, depth * 2);
+         elementNSCounts = Arrays.copyOf(elementNSCounts, depth * 2);
+      }
+      elementPrefixes[depth] = prefix;
+      elementLocalNames[depth] = localName;
+      elementNSCounts[depth] = nsCount;
+      depth++;
+   }
+
+   private String requirePrefix(final String namespaceURI) throws XMLStreamException {
+      final String prefix = getPrefix(namespaceURI);
+      if (prefix == null)
+         throw new XMLStreamException("Namespace URI [" + namespaceURI + "] is not bound to a prefix");
+      return prefix;
+   }
+
+   @Override
+   public void setDefaultNamespace(final @Nullable String uri) throws XMLStreamException {
+      bindNamespace(XMLConstants.DEFAULT_NS_PREFIX, uri == null ? XMLConstants.NULL_NS_URI : uri);
+   }
+
+   /**
+    * @param indention the string to indent nested elements with or <code>null</code> to disable indentation
+    */
+   public void setIndention(final @Nullable String indention) {
+      if (indention == null) {
+         this.indention = null;
+      } else {
+         this.indention = indention.getBytes(StandardCharsets.UTF_8);
+         indentionBytes = NEW_LINE;
+      }
+   }
+
+   @Override
+   public void setNamespaceContext(final NamespaceContext context) throws XMLStreamException {
+      if (hasWritten)
+         throw new XMLStreamException("The namespace context can only be set before the first event is written");
+      rootContext = context;
+   }
+
+   @Override
+   public void setPrefix(final String prefix, final @Nullable String uri) throws XMLStreamException {
+      Args.notNull("prefix", prefix);
+      bindNamespace(prefix, uri == null ? XMLConstants.NULL_NS_URI : uri);
+   }
+
+   private void startElement(final @Nullable String prefix, final String localName, final boolean isEmpty) throws XMLStreamException {
+      Args.notEmpty("localName", localName);
+      writeContentPrefix();
+      writeIndention(depth);
+      writeASCII('<');
+      if (prefix != null && !prefix.isEmpty()) {
+         writeString(prefix, NO_ESCAPES);
+         writeASCII(':');
+      }
+      writeString(localName, NO_ESCAPES);
+      pushElement(prefix, localName);
+      startTagOpen = true;
+      emptyElement = isEmpty;
+   }
+
+   private void writeASCII(final char c) throws XMLStreamException {
+      ensureCapacity(1);
+      buf[pos++] = (byte) c;
+   }
+
+   private void writeASCII(final char c1, final char c2) throws XMLStreamException {
+      ensureCapacity(2);
+      buf[pos++] = (byte) c1;
+      buf[pos++] = (byte) c2;
+   }
+
+   private void writeASCII(final String str) throws XMLStreamException {
+      final int len = str.length();
+      if (len > buf.length) {
+         writeString(str, NO_ESCAPES);
+         return;
+      }
+      ensureCapacity(len);
+      for (int i = 0; i < len; i++) {
+         buf[pos++] = (byte) str.charAt(i);
+      }
+   }
+
+   @Override
+   public void writeAttribute(final String localName, final boolean value) throws XMLStreamException {
+      writeAttributeName(null, localName);
+      writeASCII(value ? "true\"" : "false\"");
+   }
+
+   @Override
+   public void writeAttribute(final String localName, final byte value) throws XMLStreamException {
+      writeAttribute(localName, (long) value);
+   }
+
+   @Override
+   public void writeAttribute(final String localName, final int value) throws XMLStreamException {
+      writeAttribute(localName, (long) value);
+   }
+
+   @Override
+   public void writeAttribute(final String localName, final long value) throws XMLStreamException {
+      writeAttributeName(null, localName);
+      writeDecimal(value);
+      writeASCII('"');
+   }
+
+   @Override
+   public void writeAttribute(final String localName, final String value) throws XMLStreamException {
+      writeAttributeName(null, localName);
+      writeString(value, ATTRIBUTE_ESCAPES);
+      writeASCII('"');
+   }
+
+   @Override
+   public void writeAttribute(final String namespaceURI, final String localName, final String value) throws XMLStreamException {
+      writeAttribute(requirePrefix(namespaceURI), namespaceURI, localName, value);
+   }
+
+   @Override
+   public void writeAttribute(final String prefix, final String namespaceURI, final String localName, final String value)
+         throws XMLStreamException {
+      writeAttributeName(prefix, localName);
+      writeString(value, ATTRIBUTE_ESCAPES);
+      writeASCII('"');
+   }
+
+   private void writeAttributeName(final @Nullable String prefix, final String localName) throws XMLStreamException {
+      Args.notEmpty("localName", localName);
+      if (!startTagOpen)
+         throw new XMLStreamException("Attributes can only be written directly after a start element");
+      writeASCII(' ');
+      if (prefix != null && !prefix.isEmpty()) {
+         writeString(prefix, NO_ESCAPES);
+         writeASCII(':');
+      }
+      writeString(localName, NO_ESCAPES);
+      writeASCII('=', '"');
+   }
+
+   @Override
+   public void writeCData(final String data) throws XMLStreamException {
+      Args.notNull("data", data);
+      writeContentPrefix();
+      hasWritten = true;
+      indentEndTag = false;
+      writeASCII("<![CDATA[");
+      int start = 0;
+      int end;
+      while ((end = data.indexOf("]]>", start)) > -1) {
+         writeString(data, start, end + 2, NO_ESCAPES);
+         writeASCII("]]><![CDATA[");
+         start = end + 2;
+      }
+      writeString(data, start, data.length(), NO_ESCAPES);
+      writeASCII("]]>");
+   }
+
+   private void writeChars(final char[] text, final int start, final int end, final byte[][] escapes) throws XMLStreamException {
+      final byte[] buf = this.buf;
+      final int limit = buf.length - MAX_BYTES_PER_CHAR;
+      for (int i = start; i < end; i++) {
+         if (pos > limit) {
+            flushBuffer();
+         }
+         final char c = text[i];
+         if (c < 0x80) {
+            final byte[] escape = escapes[c];
+            if (escape == null) {
+               buf[pos++] = (byte) c;
+            } else if (escape == INVALID_CHAR)
+               throw new XMLStreamException("Invalid XML character: \\u" + Strings.leftPad(Integer.toHexString(c), 4, '0'));
+            else {
+               System.arraycopy(escape, 0, buf, pos, escape.length);
+               pos += escape.length;
+            }
+         } else if (c < 0x800) {
+            buf[pos++] = (byte) (0xC0 | c >> 6);
+            buf[pos++] = (byte) (0x80 | c & 0x3F);
+         } else if (Character.isSurrogate(c)) {
+            if (!Character.isHighSurrogate(c) || i + 1 == end || !Character.isLowSurrogate(text[i + 1]))
+               throw new XMLStreamException("Unpaired surrogate character: \\u" + Integer.toHexString(c));
+            final int cp = Character.toCodePoint(c, text[++i]);
+            buf[pos++] = (byte) (0xF0 | cp >> 18);
+            buf[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+            buf[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+            buf[pos++] = (byte) (0x80 | cp & 0x3F);
+         } else {
+            buf[pos++] = (byte) (0xE0 | c >> 12);
+            buf[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buf[pos++] = (byte) (0x80 | c & 0x3F);
+         }
+      }
+   }
+
+   @Override
+   public void writeCharacters(final char[] text, final int start, final int len) throws XMLStreamException {
+      Args.notNull("text", text);
+      if (start < 0 || len < 0 || start + len > text.length)
+         throw new IndexOutOfBoundsException("start: " + start + ", len: " + len + ", text.length: " + text.length);
+      writeContentPrefix();
+      hasWritten = true;
+      indentEndTag = false;
+      writeChars(text, start, start + len, TEXT_ESCAPES);
+   }
+
+   @Override
+   public void writeCharacters(final String text) throws XMLStreamException {
+      Args.notNull("text", text);
+      writeContentPrefix();
+      hasWritten = true;
+      indentEndTag = false;
+      writeString(text, TEXT_ESCAPES);
+   }
+
+   @Override
+   public void writeComment(final String data) throws XMLStreamException {
+      Args.notNull("data", data);
+      writeContentPrefix();
+      writeIndention(depth);
+      writeASCII("<!--");
+      writeString(data, NO_ESCAPES);
+      writeASCII("-->");
+   }
+
+   private void writeContentPrefix() throws XMLStreamException {
+      ensureOpen();
+      if (startTagOpen) {
+         closeStartTag();
+      }
+   }
+
+   private void writeDecimal(final long value) throws XMLStreamException {
+      if (value == Long.MIN_VALUE) {
+         writeASCII(Long.toString(value));
+         return;
+      }
+      ensureCapacity(20);
+      long remaining = value;
+      if (remaining < 0) {
+         buf[pos++] = '-';
+         remaining = -remaining;
+      }
+      int digits = 1;
+      while (digits < POWERS_OF_TEN.length && remaining >= POWERS_OF_TEN[digits]) {
+         digits++;
+      }
+      pos += digits;
+      int i = pos;
+      do {
+         buf[--i] = (byte) ('0' + remaining % 10);
+         remaining /= 10;
+      }
+      while (remaining > 0);
+   }
+
+   @Override
+   public void writeDefaultNamespace(final @Nullable String namespaceURI) throws XMLStreamException {
+      writeNamespace(XMLConstants.DEFAULT_NS_PREFIX, namespaceURI);
+   }
+
+   @Override
+   public void writeDTD(final String dtd) throws XMLStreamException {
+      Args.notNull("dtd", dtd);
+      writeContentPrefix();
+      hasWritten = true;
+      writeString(dtd, NO_ESCAPES);
+   }
+
+   @Override
+   public void writeEmptyElement(final String localName) throws XMLStreamException {
+      startElement(null, localName, true);
+   }
+
+   @Override
+   public void writeEmptyElement(final String namespaceURI, final String localName) throws XMLStreamException {
+      startElement(requirePrefix(namespaceURI), localName, true);
+   }
+
+   @Override
+   public void writeEmptyElement(final String prefix, final String localName, final String namespaceURI) throws XMLStreamException {
+      startElement(prefix, localName, true);
+   }
+
+   @Override
+   public void writeEndDocument() throws XMLStreamException {
+      writeContentPrefix();
+      while (depth > 0) {
+         writeEndElement();
+      }
+   }
+
+   @Override
+   public void writeEndElement() throws XMLStreamException {
+      ensureOpen();
+      if (startTagOpen) {
+         // element without content
+         emptyElement = true;
+         closeStartTag();
+         return;
+      }
+      if (depth == 0)
+         throw new XMLStreamException("No element to end");
+
+      if (indentEndTag) {
+         writeIndention(depth - 1);
+      }
+      indentEndTag = true;
+      writeASCII('<', '/');
+      final String prefix = elementPrefixes[depth - 1];
+      if (prefix != null && !prefix.isEmpty()) {
+         writeString(prefix, NO_ESCAPES);
+         writeASCII(':');
+      }
+      writeString(elementLocalNames[depth - 1], NO_ESCAPES);
+      writeASCII('>');
+      popElement();
+   }
+
+   @Override
+   public void writeEntityRef(final String name) throws XMLStreamException {
+      Args.notEmpty("name", name);
+      writeContentPrefix();
+      hasWritten = true;
+      indentEndTag = false;
+      writeASCII('&');
+      writeString(name, NO_ESCAPES);
+      writeASCII(';');
+   }
+
+   private void writeIndention(final int level) throws XMLStreamException {
+      final byte[] indention = this.indention;
+      if (indention == null || !hasWritten) {
+         hasWritten = true;
+         return;
+      }
+      final int len = NEW_LINE.length + level * indention.length;
+      if (indentionBytes.length < len) {
+         final byte[] bytes = Arrays.copyOf(NEW_LINE, NEW_LINE.length + 2 * level * indention.length);
+         for (int i = NEW_LINE.length; i < bytes.length; i += indention.length) {
+            System.arraycopy(indention, 0, bytes, i, indention.length);
+         }
+         indentionBytes = bytes;
+      }
+      writeBytes(indentionBytes, 0, len);
+   }
+
+   private void writeBytes(final byte[] bytes, final int off, final int len) throws XMLStreamException {
+      if (len > buf.length) {
+         flushBuffer();
+         try {
+            out.write(bytes, off, len);
+         } catch (final IOException ex) {
+            throw new XMLStreamException(ex);
+         }
+         return;
+      }
+      ensureCapacity(len);
+      System.arraycopy(bytes, off, buf, pos, len);
+      pos += len;
+   }
+
+   @Override
+   public void writeNamespace(final @Nullable String prefix, final @Nullable String namespaceURI) throws XMLStreamException {
+      if (!startTagOpen)
+         throw new XMLStreamException("Namespaces can only be written directly after a start element");
+      final String uri = namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI;
+      if (prefix == null || prefix.isEmpty() || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+         writeAttributeName(null, XMLConstants.XMLNS_ATTRIBUTE);
+         bindNamespace(XMLConstants.DEFAULT_NS_PREFIX, uri);
+      } else {
+         writeAttributeName(XMLConstants.XMLNS_ATTRIBUTE, prefix);
+         bindNamespace(prefix, uri);
+      }
+      writeString(uri, ATTRIBUTE_ESCAPES);
+      writeASCII('"');
+   }
+
+   @Override
+   public void writeProcessingInstruction(final String target) throws XMLStreamException {
+      writeProcessingInstruction(target, "");
+   }
+
+   @Override
+   public void writeProcessingInstruction(final String target, final String data) throws XMLStreamException {
+      Args.notEmpty("target", target);
+      Args.notNull("data", data);
+      writeContentPrefix();
+      writeIndention(depth);
+      writeASCII('<', '?');
+      writeString(target, NO_ESCAPES);
+      if (!data.isEmpty()) {
+         writeASCII(' ');
+         writeString(data, NO_ESCAPES);
+      }
+      writeASCII('?', '>');
+   }
+
+   @Override
+   public void writeStartDocument() throws XMLStreamException {
+      writeStartDocument("UTF-8", "1.0");
+   }
+
+   @Override
+   public void writeStartDocument(final @Nullable String version) throws XMLStreamException {
+      writeStartDocument("UTF-8", version);
+   }
+
+   /**
+    * @throws XMLStreamException if an encoding other than UTF-8 is specified
+    */
+   @Override
+   public void writeStartDocument(final @Nullable String encoding, final @Nullable String version) throws XMLStreamException {
+      ensureOpen();
+      if (hasWritten)
+         throw new XMLStreamException("The XML declaration must be the first event");
+      if (encoding != null && !StandardCharsets.UTF_8.name().equalsIgnoreCase(encoding) && !"UTF8".equalsIgnoreCase(encoding))
+         throw new XMLStreamException("Unsupported encoding: " + encoding);
+
+      writeASCII("<?xml version=\"");
+      writeString(version == null ? "1.0" : version, ATTRIBUTE_ESCAPES);
+      writeASCII("\" encoding=\"UTF-8\"?>");
+      hasWritten = true;
+   }
+
+   @Override
+   public void writeStartElement(final String localName) throws XMLStreamException {
+      startElement(null, localName, false);
+   }
+
+   @Override
+   public void writeStartElement(final String namespaceURI, final String localName) throws XMLStreamException {
+      startElement(requirePrefix(namespaceURI), localName, false);
+   }
+
+   @Override
+   public void writeStartElement(final String prefix, final String localName, final String namespaceURI) throws XMLStreamException {
+      startElement(prefix, localName, false);
+   }
+
+   private void writeString(final String str, final byte[][] escapes) throws XMLStreamException {
+      writeString(str, 0, str.length(), escapes);
+   }
+
+   private void writeString(final String str, final int start, final int end, final byte[][] escapes) throws XMLStreamException {
+      int off = start;
+      while (off < end) {
+         final int chunkEnd = Math.min(end, off + chars.length);
+         str.getChars(off, chunkEnd, chars, 0);
+         // don't split surrogate pairs across chunks
+         final int len = chunkEnd < end && Character.isHighSurrogate(chars[chunkEnd - off - 1]) ? chunkEnd - off - 1 : chunkEnd - off;
+         writeChars(chars, 0, len, escapes);
+         off += len;
+      }
+   }
+}
@@ -0,0 +1,359 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+import net.sf.jstuff.core.concurrent.ThreadSafe;
+import net.sf.jstuff.core.validation.Args;
+import net.sf.jstuff.xml.XMLException;
+
+/**
+ * Splits large XML documents into records that are processed one by one without loading the whole document into memory.
+ * <p>
+ * The document is read via StAX. Each element matching the record path is materialized as the document element of a small standalone
+ * DOM {@link Document}, handed to the consumer and then discarded. Records can be converted by a processor function before they are
+ * handed to the consumer, e.g. to JAXB objects via <code>JAXBUtils.fromXML(type, element)</code>.
+ * <p>
+ * If an executor is configured, processors run concurrently on the executor while the consumer still receives the results in document
+ * order on the thread calling <code>split</code>. At most <code>maxRecordsInFlight</code> records are materialized at any time, i.e.
+ * memory usage is bounded independent of the input size.
+ *
+ * <pre>
+ * new XMLSplitter("/export/records/record") //
+ *    .split(xmlFile, elem -> JAXBUtils.fromXML(Record.class, elem), record -> ...);
+ * </pre>
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+@ThreadSafe
+public class XMLSplitter {
+
+   /**
+    * Keeps track of the namespace declarations of the current element and its ancestors, which are not enumerable via
+    * {@link XMLStreamReader#getNamespaceContext()}.
+    */
+   static final class NamespaceTrackingXMLStreamReader extends DelegatingXMLStreamReader {
+
+      /**
+       * prefix/URI pairs of the namespace declarations of the open elements in document order
+       */
+      private final ArrayList<String> declarations = new ArrayList<>();
+      private int[] scopeStarts = new int[16];
+      private int depth;
+      private boolean isEndElementPending;
+
+      NamespaceTrackingXMLStreamReader(final XMLStreamReader wrapped) {
+         super(wrapped);
+         if (wrapped.getEventType() == START_ELEMENT) {
+            pushScope();
+         }
+      }
+
+      /**
+       * Declares all namespace bindings in scope of the current element on the given element.
+       */
+      void declareInScopeNamespaces(final Element elem) {
+         for (int i = 0, l = declarations.size(); i < l; i += 2) {
+            declareNamespace(elem, declarations.get(i), declarations.get(i + 1));
+         }
+      }
+
+      @Override
+      public String getElementText() throws XMLStreamException {
+         popScopeIfEndElementPending();
+         final String text = super.getElementText();
+         isEndElementPending = true;
+         return text;
+      }
+
+      @Override
+      public int next() throws XMLStreamException {
+         popScopeIfEndElementPending();
+         final int eventType = super.next();
+         if (eventType == START_ELEMENT) {
+            pushScope();
+         } else if (eventType == END_ELEMENT) {
+            isEndElementPending = true;
+         }
+         return eventType;
+      }
+
+      @Override
+      public int nextTag() throws XMLStreamException {
+         int eventType = next();
+         while (eventType == CHARACTERS && isWhiteSpace() || eventType == CDATA && isWhiteSpace() || eventType == SPACE
+               || eventType == PROCESSING_INSTRUCTION || eventType == COMMENT) {
+            eventType = next();
+         }
+         if (eventType != START_ELEMENT && eventType != END_ELEMENT)
+            throw new XMLStreamException("Expected start or end tag", getLocation());
+         return eventType;
+      }
+
+      private void popScopeIfEndElementPending() {
+         if (isEndElementPending) {
+            isEndElementPending = false;
+            if (depth > 0) {
+               declarations.subList(scopeStarts[--depth], declarations.size()).clear();
+            }
+         }
+      }
+
+      private void pushScope() {
+         if (depth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+         }
+         scopeStarts[depth++] = declarations.size();
+         for (int i = 0, l = wrapped.getNamespaceCount(); i < l; i++) {
+            final String prefix = wrapped.getNamespacePrefix(i);
+            final String uri = wrapped.getNamespaceURI(i);
+            declarations.add(prefix == null ? "" : prefix);
+            declarations.add(uri == null ? "" : uri);
+         }
+      }
+   }
+
+   private static final StAXFactory STAX_FACTORY = new StAXFactory();
+
+   private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> {
+      final var factory = DocumentBuilderFactory.newInstance();
+      factory.setNamespaceAware(true);
+      try {
+         return factory.newDocumentBuilder();
+      } catch (final ParserConfigurationException ex) {
+         throw new XMLException(ex);
+      }
+   });
+
+   private static void declareNamespace(final Element elem, final @Nullable String prefix, final @Nullable String uri) {
+      elem.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, prefix == null || prefix.isEmpty() //
+            ? XMLConstants.XMLNS_ATTRIBUTE
+            : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix, uri == null ? "" : uri);
+   }
+
+   private static @Nullable String emptyToNull(final @Nullable String str) {
+      return str == null || str.isEmpty() ? null : str;
+   }
+
+   private static String qualifiedName(final @Nullable String prefix, final String localName) {
+      return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+   }
+
+   /**
+    * Materializes the element the reader is positioned at as document element of a new document. All namespace bindings in scope, including
+    * the ones declared on ancestors, are declared on the document element so that prefixes used in attribute values or text content, e.g.
+    * <code>xsi:type="ns:Foo"</code>, can still be resolved. When the method returns the reader is positioned at the element's
+    * {@link XMLStreamReader#END_ELEMENT END_ELEMENT}.
+    */
+   static Element readElement(final NamespaceTrackingXMLStreamReader reader, final DocumentBuilder documentBuilder)
+         throws XMLStreamException {
+      final Document doc = documentBuilder.newDocument();
+      Node current = doc;
+      int depth = 0;
+      int eventType = reader.getEventType();
+      while (true) {
+         switch (eventType) {
+            case XMLStreamReader.START_ELEMENT: {
+               final Element elem = doc.createElementNS(emptyToNull(reader.getNamespaceURI()), qualifiedName(reader.getPrefix(), reader
+                  .getLocalName()));
+               if (depth == 0) {
+                  reader.declareInScopeNamespaces(elem);
+               } else {
+                  for (int i = 0, l = reader.getNamespaceCount(); i < l; i++) {
+                     declareNamespace(elem, reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+                  }
+               }
+               for (int i = 0, l = reader.getAttributeCount(); i < l; i++) {
+                  elem.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)), qualifiedName(reader.getAttributePrefix(i), reader
+                     .getAttributeLocalName(i)), reader.getAttributeValue(i));
+               }
+               current.appendChild(elem);
+               current = elem;
+               depth++;
+               break;
+            }
+            case XMLStreamReader.END_ELEMENT:
+               current = current.getParentNode();
+               depth--;
+               break;
+            case XMLStreamReader.CHARACTERS:
+            case XMLStreamReader.SPACE:
+            case XMLStreamReader.ENTITY_REFERENCE: {
+               final Node lastChild = current.getLastChild();
+               if (lastChild instanceof final Text text && lastChild.getNodeType() == Node.TEXT_NODE) {
+                  text.appendData(reader.getText());
+               } else {
+                  current.appendChild(doc.createTextNode(reader.getText()));
+               }
+               break;
+            }
+            case XMLStreamReader.CDATA:
+               current.appendChild(doc.createCDATASection(reader.getText()));
+               break;
+            case XMLStreamReader.COMMENT:
+               current.appendChild(doc.createComment(reader.getText()));
+               break;
+            case XMLStreamReader.PROCESSING_INSTRUCTION:
+               current.appendChild(doc.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+               break;
+            default:
+               break;
+         }
+         if (depth == 0)
+            return doc.getDocumentElement();
+         eventType = reader.next();
+      }
+   }
+
+   private final String recordPath;
+   private final @Nullable Executor executor;
+   private final int maxRecordsInFlight;
+
+   /**
+    * Creates a splitter that processes all records sequentially on the thread calling <code>split</code>.
+    *
+    * @param recordPath path of the record elements, see {@link StAXPathMatcher} for the supported syntax
+    * @throws IllegalArgumentException if the path uses unsupported syntax
+    */
+   public XMLSplitter(final String recordPath) {
+      this(recordPath, null, 1);
+   }
+
+   /**
+    * @param recordPath path of the record elements, see {@link StAXPathMatcher} for the supported syntax
+    * @param executor optional executor to run the record processors on
+    * @param maxRecordsInFlight the maximum number of materialized records not yet handed to the consumer
+    * @throws IllegalArgumentException if the path uses unsupported syntax
+    */
+   public XMLSplitter(final String recordPath, final @Nullable Executor executor, final int maxRecordsInFlight) {
+      Args.notNull("recordPath", recordPath);
+      Args.greaterThan("maxRecordsInFlight", maxRecordsInFlight, 0);
+
+      // validate the path
+      new StAXPathMatcher().addStartElementExpression(recordPath, reader -> true);
+
+      this.recordPath = recordPath;
+      this.executor = executor;
+      this.maxRecordsInFlight = maxRecordsInFlight;
+   }
+
+   public @Nullable Executor getExecutor() {
+      return executor;
+   }
+
+   public int getMaxRecordsInFlight() {
+      return maxRecordsInFlight;
+   }
+
+   public String getRecordPath() {
+      return recordPath;
+   }
+
+   /**
+    * @return the number of records
+    */
+   public long split(final File xmlFile, final Consumer<? super Element> consumer) throws XMLStreamException, FileNotFoundException {
+      return split(xmlFile, Function.identity(), consumer);
+   }
+
+   /**
+    * @param processor converts a record, e.g. to a JAXB object, runs on the executor if configured
+    * @param consumer receives the processed records in document order
+    * @return the number of records
+    */
+   public <T> long split(final File xmlFile, final Function<? super Element, ? extends T> processor, final Consumer<? super T> consumer)
+         throws XMLStreamException, FileNotFoundException {
+      Args.notNull("xmlFile", xmlFile);
+
+      try (var reader = STAX_FACTORY.createXMLStreamReader(xmlFile)) {
+         return split(reader, processor, consumer);
+      }
+   }
+
+   /**
+    * @return the number of records
+    */
+   public long split(final XMLStreamReader reader, final Consumer<? super Element> consumer) throws XMLStreamException {
+      return split(reader, Function.identity(), consumer);
+   }
+
+   /**
+    * @param processor converts a record, e.g. to a JAXB object, runs on the executor if configured
+    * @param consumer receives the processed records in document order
+    * @return the number of records
+    */
+   public <T> long split(final XMLStreamReader reader, final Function<? super Element, ? extends T> processor,
+         final Consumer<? super T> consumer) throws XMLStreamException {
+      Args.notNull("reader", reader);
+      Args.notNull("processor", processor);
+      Args.notNull("consumer", consumer);
+
+      final DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+      final var trackingReader = new NamespaceTrackingXMLStreamReader(reader);
+      final var executor = this.executor;
+      final long[] count = {0};
+
+      if (executor == null) {
+         new StAXPathMatcher().addStartElementExpression(recordPath, r -> {
+            consumer.accept(processor.apply(readElement(trackingReader, documentBuilder)));
+            count[0]++;
+            return true;
+         }).match(trackingReader);
+         return count[0];
+      }
+
+      final var pending = new ArrayDeque<CompletableFuture<? extends T>>(maxRecordsInFlight);
+      try {
+         new StAXPathMatcher().addStartElementExpression(recordPath, r -> {
+            if (pending.size() == maxRecordsInFlight) {
+               consumer.accept(pending.remove().join());
+            }
+            final Element record = readElement(trackingReader, documentBuilder);
+            pending.add(CompletableFuture.supplyAsync(() -> processor.apply(record), executor));
+            count[0]++;
+            return true;
+         }).match(trackingReader);
+
+         while (!pending.isEmpty()) {
+            consumer.accept(pending.remove().join());
+         }
+      } catch (final CompletionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof final RuntimeException rex)
+            throw rex;
+         if (cause instanceof final Error err)
+            throw err;
+         throw ex;
+      } finally {
+         for (final var future : pending) {
+            future.cancel(false);
+         }
+      }
+      return count[0];
+   }
+}
@@ -5,10 +5,15 @@
 package net.sf.jstuff.xml;
 
 import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
-import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Attr;
@@ -20,6 +25,7 @@
 import net.sf.jstuff.core.collection.Maps.MapDiff;
 import net.sf.jstuff.xml.DOMUtils.XPathNode;
 import net.sf.jstuff.xml.DOMUtils.XPathNodeConfiguration;
+import net.sf.jstuff.xml.DOMUtils.XPathNodeDiffListener;
 
 /**
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
@@ -33,6 +39,48 @@ void testCreateCommentBefore() {
       assertThat(DOMUtils.toXML(elem, false, false)).isEqualTo("<foo id=\"myid\"><!--MY_COMMENT--><bar/></foo>");
    }
 
+   @Test
+   void testDiffXPathNodes() throws XMLException {
+      final Element elem1 = DOMUtils.parseString("<top><child name='foo' weight='1'>1234</child><child name='baz'/></top>", null)
+         .getDocumentElement();
+      final Element elem2 = DOMUtils.parseString(
+         "<top><child name='foo' weight='2'>ABCD</child><child name='bar' weight='2'>ABCD</child></top>", null).getDocumentElement();
+
+      final var cfg = new XPathNodeConfiguration();
+      cfg.idAttributesByXMLTagName.put("*", "name");
+
+      final var leftOnly = new ArrayList<String>();
+      final var rightOnly = new ArrayList<String>();
+      final var valueDiffs = new ArrayList<String>();
+      final var listener = new XPathNodeDiffListener() {
+         @Override
+         public void onLeftOnly(final XPathNode left) {
+            leftOnly.add(left.xPath);
+         }
+
+         @Override
+         public void onRightOnly(final XPathNode right) {
+            rightOnly.add(right.xPath);
+         }
+
+         @Override
+         public void onValueDiff(final XPathNode left, final XPathNode right) {
+            valueDiffs.add(left.xPath + ": " + left.value + " -> " + right.value);
+         }
+      };
+      assertThat(DOMUtils.diffXPathNodes(elem1, elem2, cfg, listener)).isTrue();
+
+      assertThat(leftOnly).containsExactly("/top/child[@name='baz']/@name", "/top/child[@name='baz']/text()");
+      assertThat(rightOnly).containsExactly("/top/child[@name='bar']/@name", "/top/child[@name='bar']/@weight",
+         "/top/child[@name='bar']/text()");
+      assertThat(valueDiffs).containsExactly("/top/child[@name='foo']/@weight: 1 -> 2", "/top/child[@name='foo']/text(): 1234 -> ABCD");
+
+      assertThat(DOMUtils.diffXPathNodes(elem1, elem1, cfg, listener)).isFalse();
+
+      final var unsorted = List.of(new XPathNode("a", "1", "/b/@a"), new XPathNode("a", "1", "/a/@a"));
+      assertThatIllegalArgumentException().isThrownBy(() -> DOMUtils.diffXPathNodes(unsorted.iterator(), unsorted.iterator(), listener));
+   }
+
    @Test
    void testEvaluate() {
       final Element elem = DOMUtils.parseString("<foo id='myid'><bar name='a'/><bar name='b'/><bar /></foo>", null).getDocumentElement();
@@ -55,6 +103,35 @@ void testFindTextContent() {
       assertThat(DOMUtils.findTextContent(elem, "/foo/dummy", false)).isNull();
    }
 
+   @Test
+   void testForEachXPathNode() throws XMLException {
+      final Element elem = DOMUtils.parseString("<foo id='1'>a<bar name='name'>blabla</bar>b<bar name='other'/></foo>", null)
+         .getDocumentElement();
+
+      final var cfg = new XPathNodeConfiguration();
+      final var nodes = new ArrayList<String>();
+      DOMUtils.forEachXPathNode(elem, cfg, node -> nodes.add(node.xPath + "=" + node));
+      assertThat(nodes).containsExactly( //
+         "/foo/@id=1", //
+         "/foo/text()=a", //
+         "/foo/bar/@name=name", //
+         "/foo/bar/text()=blabla", //
+         "/foo/text()=b", //
+         "/foo/bar/@name=other", //
+         "/foo/bar/text()=null");
+
+      final var executor = Executors.newFixedThreadPool(2);
+      try {
+         final var nodesConcurrent = new ArrayList<String>();
+         DOMUtils.forEachXPathNode(elem, cfg, executor, node -> nodesConcurrent.add(node.xPath + "=" + node));
+         assertThat(nodesConcurrent).isEqualTo(nodes);
+
+         assertThatIllegalArgumentException().isThrownBy(() -> DOMUtils.forEachXPathNode(elem, null, executor, node -> { /* ignore */ }));
+      } finally {
+         executor.shutdown();
+      }
+   }
+
    @Test
    void testGetXPathNodes() throws XMLException {
       final Element elem = DOMUtils.parseString("<foo id='1'><bar name='name'>blabla</bar></foo>", null).getDocumentElement();
@@ -108,6 +185,49 @@ void testParseFile() throws XMLException {
       )).isNotNull();
    }
 
+   @Test
+   void testParseWithXMLSchema() throws IOException {
+      final var xsd = File.createTempFile("jstuff-domutils", ".xsd");
+      xsd.deleteOnExit();
+      final String schema = "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:test'" //
+            + " elementFormDefault='qualified'>" //
+            + "<xs:element name='root'><xs:complexType>" //
+            + "<xs:sequence><xs:element name='item' type='xs:int' maxOccurs='unbounded'/></xs:sequence>" //
+            + "<xs:attribute name='ver' type='xs:string' default='1'/>" //
+            + "</xs:complexType></xs:element>" //
+            + "</xs:schema>";
+      Files.writeString(xsd.toPath(), schema);
+
+      // validation and default values
+      Document doc = DOMUtils.parseString("<root xmlns='urn:test'><!--c--><item>1</item></root>", "test", null, xsd);
+      assertThat(DOMUtils.toXML(doc, false, false)).isEqualTo("<root xmlns=\"urn:test\" ver=\"1\"><!--c--><item>1</item></root>");
+      assertThatIllegalStateException() //
+         .isThrownBy(() -> DOMUtils.parseString("<root xmlns='urn:test'><item>x</item></root>", "test", null, xsd)) //
+         .withMessageContaining("XML schema violation");
+
+      // namespace fixing
+      doc = DOMUtils.parseString("<root><item>1</item><item>2</item></root>", "test", "urn:test", xsd);
+      assertThat(doc.getDocumentElement().getNamespaceURI()).isEqualTo("urn:test");
+      assertThat(DOMUtils.toXML(doc, false, false)).isEqualTo("<root xmlns=\"urn:test\" ver=\"1\"><item>1</item><item>2</item></root>");
+      doc = DOMUtils.parseString("<root xmlns='urn:other'><item>1</item></root>", "test", "urn:test", xsd);
+      assertThat(DOMUtils.toXML(doc, false, false)).isEqualTo("<root xmlns=\"urn:test\" ver=\"1\"><item>1</item></root>");
+
+      // CDATA sections are merged with the surrounding text regardless of namespace fixing
+      final String cdata = "<root xmlns='urn:test'><item>1<![CDATA[2]]>3</item></root>";
+      doc = DOMUtils.parseString(cdata, "test", null, xsd);
+      assertThat(doc.getDocumentElement().getFirstChild().getChildNodes().getLength()).isEqualTo(1);
+      assertThat(DOMUtils.toXML(doc, false, false)).isEqualTo("<root xmlns=\"urn:test\" ver=\"1\"><item>123</item></root>");
+      doc = DOMUtils.parseString(cdata.replace(" xmlns='urn:test'", ""), "test", "urn:test", xsd);
+      assertThat(doc.getDocumentElement().getFirstChild().getChildNodes().getLength()).isEqualTo(1);
+      assertThat(DOMUtils.toXML(doc, false, false)).isEqualTo("<root xmlns=\"urn:test\" ver=\"1\"><item>123</item></root>");
+
+      // the cached schema is recompiled when the schema file changes
+      Files.writeString(xsd.toPath(), schema.replace("default='1'", "default='2'"));
+      assertThat(xsd.setLastModified(xsd.lastModified() + 5_000)).isTrue();
+      doc = DOMUtils.parseString("<root xmlns='urn:test'><item>1</item></root>", "test", null, xsd);
+      assertThat(doc.getDocumentElement().getAttribute("ver")).isEqualTo("2");
+   }
+
    @Test
    void testSortNodes() throws XMLException {
       {
@@ -4,14 +4,43 @@
  */
 package net.sf.jstuff.xml;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
 import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import net.sf.jstuff.core.io.stream.FastByteArrayOutputStream;
+import net.sf.jstuff.xml.stream.StAXFactory;
+
 /**
  * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
  */
 class JAXBUtilsTest {
 
+   @XmlRootElement
+   @XmlAccessorType(XmlAccessType.FIELD)
+   static class Item {
+      @Nullable
+      String name;
+      int quantity;
+
+      Item() {
+      }
+
+      Item(final String name, final int quantity) {
+         this.name = name;
+         this.quantity = quantity;
+      }
+   }
+
    static class MyEntity {
       private @Nullable MyEntity child;
       private @Nullable String name;
@@ -35,6 +64,39 @@ void setName(final String name) {
       }
    }
 
+   @Test
+   void testFromXML() {
+      assertThat(JAXBUtils.getJAXBContext(Item.class)).isSameAs(JAXBUtils.getJAXBContext(Item.class));
+
+      final String xml = JAXBUtils.toXML(new Item("foo", 3));
+      assertThat(xml).contains("<name>foo</name>");
+
+      final Item item = JAXBUtils.fromXML(Item.class, xml);
+      assertThat(item.name).isEqualTo("foo");
+      assertThat(item.quantity).isEqualTo(3);
+   }
+
+   @Test
+   @SuppressWarnings("resource")
+   void testFragments() throws XMLStreamException {
+      final var items = new ArrayList<Item>();
+      for (int i = 0; i < 100; i++) {
+         items.add(new Item("item" + i, i));
+      }
+
+      final var out = new FastByteArrayOutputStream();
+      JAXBUtils.toXML(items, "items", out);
+      assertThat(out.toString()).startsWith("<?xml").contains("<items>", "<name>item99</name>", "</items>");
+
+      final List<Item> result = new ArrayList<>();
+      try (var reader = new StAXFactory().createXMLStreamReader(out.toInputStream(), true)) {
+         assertThat(JAXBUtils.fromXMLFragments(Item.class, reader, result::add)).isEqualTo(100);
+      }
+      assertThat(result).hasSize(100);
+      assertThat(result.get(42).name).isEqualTo("item42");
+      assertThat(result.get(42).quantity).isEqualTo(42);
+   }
+
    @Test
    void testToXML() {
       final var e = new MyEntity();
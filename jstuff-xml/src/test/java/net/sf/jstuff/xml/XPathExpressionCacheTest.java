@@ -0,0 +1,72 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml;
+
+import static org.assertj.core.api.Assertions.*;
+
+import javax.xml.xpath.XPathConstants;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class XPathExpressionCacheTest {
+
+   @Test
+   void testEvaluate() {
+      final Element elem = DOMUtils.parseString("<foo id='myid'><bar name='a'/><bar name='b'/></foo>", null).getDocumentElement();
+      final var cache = new XPathExpressionCache(2);
+
+      assertThat(cache.evaluate("/foo/@id", null, elem, XPathConstants.STRING)).isEqualTo("myid");
+      assertThat(cache.evaluate("/foo/@id", null, elem, XPathConstants.STRING)).isEqualTo("myid");
+      assertThat(cache.evaluate("count(/foo/bar)", null, elem, XPathConstants.NUMBER)).isEqualTo(2.0);
+
+      var stats = cache.getStats();
+      assertThat(stats.hits()).isEqualTo(1);
+      assertThat(stats.misses()).isEqualTo(2);
+      assertThat(stats.size()).isEqualTo(2);
+      assertThat(stats.evictions()).isZero();
+
+      // the same expression with a different namespace context is cached separately
+      final var nsContext = new MapBasedNamespaceContext();
+      assertThat(cache.evaluate("/foo/@id", nsContext, elem, XPathConstants.STRING)).isEqualTo("myid");
+      stats = cache.getStats();
+      assertThat(stats.misses()).isEqualTo(3);
+      assertThat(stats.size()).isEqualTo(2);
+      assertThat(stats.evictions()).isEqualTo(1);
+
+      cache.resetStats();
+      cache.clear();
+      assertThat(cache.getStats()).isEqualTo(new XPathExpressionCache.Stats(0, 0, 0, 0));
+      assertThat(cache.getStats().hitRate()).isEqualTo(1.0);
+   }
+
+   @Test
+   void testPrecompile() {
+      final Element elem = DOMUtils.parseString("<foo id='myid'/>", null).getDocumentElement();
+      final var cache = new XPathExpressionCache(10);
+
+      cache.precompile(null, "/foo/@id", "/foo");
+      assertThat(cache.getStats().size()).isEqualTo(2);
+      assertThat(cache.evaluate("/foo/@id", null, elem, XPathConstants.STRING)).isEqualTo("myid");
+      assertThat(cache.getStats().hits()).isEqualTo(1);
+      assertThat(cache.getStats().misses()).isZero();
+
+      assertThatThrownBy(() -> cache.precompile(null, "/foo[")).isInstanceOf(XMLException.class);
+   }
+
+   @Test
+   void testDOMUtilsUsesCache() {
+      final Element elem = DOMUtils.parseString("<foo><bar/></foo>", null).getDocumentElement();
+      final var cache = DOMUtils.getXPathExpressionCache();
+      DOMUtils.precompileXPath("/foo/bar");
+      final long hits = cache.getStats().hits();
+      assertThat(DOMUtils.findNodes(elem, "/foo/bar")).hasSize(1);
+      assertThat(DOMUtils.findNode(elem, "/foo/bar")).isNotNull();
+      assertThat(cache.getStats().hits()).isGreaterThanOrEqualTo(hits + 2);
+   }
+}
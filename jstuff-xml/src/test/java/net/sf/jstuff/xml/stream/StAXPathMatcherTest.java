@@ -0,0 +1,82 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class StAXPathMatcherTest {
+
+   private static final StAXFactory STAX_FACTORY = new StAXFactory();
+
+   @SuppressWarnings("resource")
+   private InputStream getXml() {
+      return asNonNull(StAXPathMatcherTest.class.getResourceAsStream("stax-utils-test.xml"));
+   }
+
+   @Test
+   void testInvalidExpressions() {
+      final var matcher = new StAXPathMatcher();
+      assertThatIllegalArgumentException().isThrownBy(() -> matcher.addExpression("", elem -> true));
+      assertThatIllegalArgumentException().isThrownBy(() -> matcher.addExpression("item[1]", elem -> true));
+      assertThatIllegalArgumentException().isThrownBy(() -> matcher.addExpression("item[@id='1'", elem -> true));
+      assertThatIllegalArgumentException().isThrownBy(() -> matcher.addExpression("/root//", elem -> true));
+   }
+
+   @Test
+   void testMultipleExpressions() throws XMLStreamException {
+      final List<String> groups = new ArrayList<>();
+      final List<String> items = new ArrayList<>();
+      final List<String> prefixedItems = new ArrayList<>();
+
+      try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(getXml(), true)) {
+         final boolean isEndReached = new StAXPathMatcher() //
+            .addExpression("/root/*", elem -> groups.add(elem.attrs.get("name"))) //
+            .addExpression("//group[@name='b']//item", elem -> items.add(elem.attrs.get("id"))) //
+            .addExpression("ns1:item[@anchor]", elem -> prefixedItems.add(elem.getText())) //
+            .match(reader);
+         assertThat(isEndReached).isTrue();
+      }
+
+      assertThat(groups).containsExactly("a", "b");
+      assertThat(items).containsExactly("3", "4", "5");
+      assertThat(prefixedItems).containsExactly("Car");
+   }
+
+   @Test
+   void testNestedText() throws XMLStreamException {
+      try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(getXml(), true)) {
+         final var group = asNonNull(StAXUtils.findElement(reader, "/root/group[@name='a']"));
+         assertThat(asNonNull(group.getText()).replaceAll("\\s+", "")).isEqualTo("Dog<Cat>");
+      }
+   }
+
+   @Test
+   void testStop() throws XMLStreamException {
+      final List<String> items = new ArrayList<>();
+      try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(getXml(), true)) {
+         final boolean isEndReached = new StAXPathMatcher() //
+            .addExpression("item", elem -> {
+               items.add(elem.attrs.get("id"));
+               return items.size() < 2;
+            }) //
+            .match(reader);
+         assertThat(isEndReached).isFalse();
+         assertThat(reader.getLocalName()).isEqualTo("item");
+      }
+      assertThat(items).containsExactly("1", "2");
+   }
+}
@@ -0,0 +1,73 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import net.sf.jstuff.core.benchmark.BenchmarkRunner;
+import net.sf.jstuff.core.io.stream.FastByteArrayOutputStream;
+
+/**
+ * Compares the {@link UTF8XMLStreamWriter} with the JDK writer wrapped by an {@link IndentingXMLStreamWriter}.
+ *
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+public final class UTF8XMLStreamWriterBenchmark {
+
+   private static final StAXFactory STAX_FACTORY = new StAXFactory();
+   private static final int RECORDS = 100_000;
+
+   @FunctionalInterface
+   private interface WriterFactory {
+      XMLStreamWriter create(FastByteArrayOutputStream out) throws XMLStreamException;
+   }
+
+   public static void main(final String[] args) throws InterruptedException {
+      final var out = new FastByteArrayOutputStream(16 * 1024 * 1024);
+
+      System.out.println("JDK XMLStreamWriter + IndentingXMLStreamWriter");
+      BenchmarkRunner.run(3, 5, 5, () -> writeRecords(out, o -> new IndentingXMLStreamWriter(STAX_FACTORY.createXMLStreamWriter(o,
+         StandardCharsets.UTF_8, false))));
+
+      System.out.println("UTF8XMLStreamWriter");
+      BenchmarkRunner.run(3, 5, 5, () -> writeRecords(out, o -> {
+         final var writer = new UTF8XMLStreamWriter(o);
+         writer.setIndention("  ");
+         return writer;
+      }));
+   }
+
+   private static void writeRecords(final FastByteArrayOutputStream out, final WriterFactory writerFactory) {
+      out.reset();
+      try {
+         final XMLStreamWriter writer = writerFactory.create(out);
+         writer.writeStartDocument("UTF-8", "1.0");
+         writer.writeStartElement("export");
+         for (int i = 0; i < RECORDS; i++) {
+            writer.writeStartElement("record");
+            writer.writeAttribute("id", Integer.toString(i));
+            writer.writeAttribute("type", i % 2 == 0 ? "even" : "odd");
+            writer.writeStartElement("name");
+            writer.writeCharacters("Record #" + i);
+            writer.writeEndElement();
+            writer.writeStartElement("description");
+            writer.writeCharacters("Some text with characters to escape: <&> and non-ASCII characters: \u00e4\u00f6\u00fc \u20ac");
+            writer.writeEndElement();
+            writer.writeEndElement();
+         }
+         writer.writeEndElement();
+         writer.writeEndDocument();
+         writer.close();
+      } catch (final XMLStreamException ex) {
+         throw new IllegalStateException(ex);
+      }
+   }
+
+   private UTF8XMLStreamWriterBenchmark() {
+   }
+}
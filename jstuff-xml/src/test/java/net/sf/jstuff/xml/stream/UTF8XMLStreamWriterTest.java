@@ -0,0 +1,125 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.io.stream.FastByteArrayOutputStream;
+import net.sf.jstuff.xml.DOMUtils;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class UTF8XMLStreamWriterTest {
+
+   @Test
+   void testEscaping() throws XMLStreamException {
+      final var out = new FastByteArrayOutputStream();
+      try (var writer = new UTF8XMLStreamWriter(out)) {
+         writer.writeStartElement("root");
+         writer.writeAttribute("attr", "\"<&>\t\n\r");
+         writer.writeCharacters("<&> \u00e4\u20ac\ud83d\ude00\r\n");
+         writer.writeStartElement("cdata");
+         writer.writeCData("a]]>b");
+         writer.writeEndElement();
+         writer.writeEndElement();
+      }
+
+      final String xml = out.toString(StandardCharsets.UTF_8);
+      assertThat(xml).isEqualTo("<root attr=\"&quot;&lt;&amp;&gt;&#9;&#10;&#13;\">&lt;&amp;&gt; \u00e4\u20ac\ud83d\ude00&#13;\n" //
+            + "<cdata><![CDATA[a]]]]><![CDATA[>b]]></cdata></root>");
+
+      final Element root = DOMUtils.parseString(xml, null).getDocumentElement();
+      assertThat(root.getAttribute("attr")).isEqualTo("\"<&>\t\n\r");
+      assertThat(root.getFirstChild().getNodeValue()).isEqualTo("<&> \u00e4\u20ac\ud83d\ude00\r\n");
+      assertThat(root.getTextContent()).endsWith("a]]>b");
+
+      try (var writer = new UTF8XMLStreamWriter(new FastByteArrayOutputStream())) {
+         writer.writeStartElement("root");
+         assertThatExceptionOfType(XMLStreamException.class).isThrownBy(() -> writer.writeCharacters("\u0001"));
+         assertThatExceptionOfType(XMLStreamException.class).isThrownBy(() -> writer.writeCharacters("\ud83d"));
+      }
+   }
+
+   @Test
+   void testIndention() throws XMLStreamException {
+      final var out = new FastByteArrayOutputStream();
+      try (var writer = new UTF8XMLStreamWriter(out)) {
+         writer.setIndention("  ");
+         writer.writeStartDocument();
+         writer.writeStartElement("root");
+         writer.writeStartElement("a");
+         writer.writeCharacters("text");
+         writer.writeEndElement();
+         writer.writeEmptyElement("b");
+         writer.writeAttribute("id", 1);
+         writer.writeStartElement("c");
+         writer.writeStartElement("d");
+         writer.writeEndElement();
+         writer.writeEndDocument();
+      }
+
+      assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(String.join(Strings.NEW_LINE, //
+         "<?xml version=\"1.0\" encoding=\"UTF-8\"?>", //
+         "<root>", //
+         "  <a>text</a>", //
+         "  <b id=\"1\"/>", //
+         "  <c>", //
+         "    <d/>", //
+         "  </c>", //
+         "</root>"));
+   }
+
+   @Test
+   void testNamespaces() throws XMLStreamException {
+      final var out = new FastByteArrayOutputStream();
+      try (var writer = new UTF8XMLStreamWriter(out, 64, false)) {
+         writer.writeStartElement("root");
+         writer.writeDefaultNamespace("urn:default");
+         writer.writeNamespace("x", "urn:x");
+         assertThat(writer.getPrefix("urn:x")).isEqualTo("x");
+         assertThat(writer.getNamespaceContext().getNamespaceURI("")).isEqualTo("urn:default");
+
+         writer.writeStartElement("urn:x", "a");
+         writer.writeNamespace("x", "urn:other");
+         assertThat(writer.getPrefix("urn:x")).isNull();
+         writer.writeAttribute("urn:other", "attr", "value");
+         writer.writeEndElement();
+
+         assertThat(writer.getPrefix("urn:x")).isEqualTo("x");
+         assertThatExceptionOfType(XMLStreamException.class).isThrownBy(() -> writer.writeStartElement("urn:unbound", "b"));
+         writer.writeEndElement();
+         assertThat(writer.getPrefix("urn:x")).isNull();
+      }
+
+      assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+         "<root xmlns=\"urn:default\" xmlns:x=\"urn:x\"><x:a xmlns:x=\"urn:other\" x:attr=\"value\"/></root>");
+   }
+
+   @Test
+   void testTypedAttributes() throws XMLStreamException {
+      final var out = new FastByteArrayOutputStream();
+      try (var writer = new UTF8XMLStreamWriter(out)) {
+         writer.writeEmptyElement("e");
+         writer.writeAttribute("a", 0);
+         writer.writeAttribute("b", -42);
+         writer.writeAttribute("c", Long.MAX_VALUE);
+         writer.writeAttribute("d", Long.MIN_VALUE);
+         writer.writeAttribute("e", 1_000_000_000_000L);
+         writer.writeAttribute("f", true);
+         writer.writeEndDocument();
+      }
+      assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+         "<e a=\"0\" b=\"-42\" c=\"9223372036854775807\" d=\"-9223372036854775808\" e=\"1000000000000\" f=\"true\"/>");
+   }
+}
@@ -0,0 +1,117 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package net.sf.jstuff.xml.stream;
+
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.asNonNull;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import net.sf.jstuff.xml.DOMUtils;
+
+/**
+ * @author <a href="https://sebthom.de/">Sebastian Thomschke</a>
+ */
+class XMLSplitterTest {
+
+   private static final StAXFactory STAX_FACTORY = new StAXFactory();
+
+   @SuppressWarnings("resource")
+   private InputStream getXml() {
+      return asNonNull(XMLSplitterTest.class.getResourceAsStream("stax-utils-test.xml"));
+   }
+
+   @Test
+   void testInvalidArguments() {
+      assertThatIllegalArgumentException().isThrownBy(() -> new XMLSplitter(""));
+      assertThatIllegalArgumentException().isThrownBy(() -> new XMLSplitter("item", null, 0));
+   }
+
+   @Test
+   void testSplit() throws XMLStreamException {
+      final var records = new ArrayList<Element>();
+      try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(getXml(), true)) {
+         assertThat(new XMLSplitter("/root/group/item").split(reader, records::add)).isEqualTo(5);
+      }
+
+      assertThat(records).extracting(elem -> elem.getAttribute("id")).containsExactly("1", "2", "3", "4", "5");
+      assertThat(records).allSatisfy(elem -> assertThat(elem.getOwnerDocument().getDocumentElement()).isSameAs(elem));
+
+      final Element dog = records.get(0);
+      assertThat(dog.getNamespaceURI()).isEqualTo("http://default_ns");
+      assertThat(dog.getTextContent()).isEqualTo("Dog");
+
+      final Element cat = records.get(1);
+      assertThat(cat.getTextContent()).isEqualTo("<Cat>");
+
+      final Element car = records.get(3);
+      assertThat(car.getNamespaceURI()).isEqualTo("http://ns1");
+      assertThat(car.getPrefix()).isEqualTo("ns1");
+      assertThat(car.getAttribute("anchor")).isEqualTo("#car");
+   }
+
+   @Test
+   void testSplitDeclaresInheritedNamespaces() throws Exception {
+      final String xml = "<root xmlns='urn:default' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xmlns:ns='urn:ns'>" //
+            + "<group xmlns:other='urn:other'><item xsi:type='ns:Foo'><other:value/></item></group>" //
+            + "<item xmlns:ns='urn:ns2' xsi:type='ns:Bar'/>" //
+            + "</root>";
+      final var records = new ArrayList<Element>();
+      try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(new StringReader(xml), true)) {
+         assertThat(new XMLSplitter("item").split(reader, records::add)).isEqualTo(2);
+      }
+
+      final Element foo = records.get(0);
+      assertThat(foo.lookupNamespaceURI("ns")).isEqualTo("urn:ns");
+      assertThat(foo.lookupNamespaceURI("other")).isEqualTo("urn:other");
+      assertThat(foo.lookupNamespaceURI(null)).isEqualTo("urn:default");
+
+      // the extracted record can be parsed on its own
+      final var factory = DocumentBuilderFactory.newInstance();
+      factory.setNamespaceAware(true);
+      final Element reparsed = factory.newDocumentBuilder().parse(new InputSource(new StringReader(DOMUtils.toXML(foo, false, false))))
+         .getDocumentElement();
+      assertThat(reparsed.lookupNamespaceURI("ns")).isEqualTo("urn:ns");
+      assertThat(reparsed.getFirstChild().getNamespaceURI()).isEqualTo("urn:other");
+
+      // declarations of siblings are out of scope, redeclared prefixes win
+      final Element bar = records.get(1);
+      assertThat(bar.lookupNamespaceURI("ns")).isEqualTo("urn:ns2");
+      assertThat(bar.lookupNamespaceURI("other")).isNull();
+   }
+
+   @Test
+   void testSplitConcurrently() throws XMLStreamException {
+      final var executor = Executors.newFixedThreadPool(4);
+      try {
+         final var splitter = new XMLSplitter("group[@name='b']/item", executor, 2);
+         final var ids = new ArrayList<String>();
+         try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(getXml(), true)) {
+            assertThat(splitter.split(reader, elem -> elem.getAttribute("id"), ids::add)).isEqualTo(3);
+         }
+         assertThat(ids).containsExactly("3", "4", "5");
+
+         try (AutoCloseableXMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(getXml(), true)) {
+            assertThatIllegalStateException().isThrownBy(() -> splitter.split(reader, elem -> {
+               if ("4".equals(elem.getAttribute("id")))
+                  throw new IllegalStateException("failed");
+               return elem.getAttribute("id");
+            }, ids::add)).withMessage("failed");
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+}